@@ -1134,6 +1134,12 @@ public class PhaseOptionsDialog extends AbstractOptionsDialog implements Selecti
 		if (boolRes != defBoolRes) {
 			getConfig().put(getInput_Optionsoaat_widget().getAlias(), new Boolean(boolRes));
 		}
+		boolRes = getInput_Optionsstreaming_widget().getButton().getSelection();
+		defBoolRes = false;
+
+		if (boolRes != defBoolRes) {
+			getConfig().put(getInput_Optionsstreaming_widget().getAlias(), new Boolean(boolRes));
+		}
 		boolRes = getInput_Optionsast_metrics_widget().getButton().getSelection();
 		defBoolRes = false;
 
@@ -1206,12 +1212,66 @@ public class PhaseOptionsDialog extends AbstractOptionsDialog implements Selecti
 		if (boolRes != defBoolRes) {
 			getConfig().put(getInput_Optionsdrop_bodies_after_load_widget().getAlias(), new Boolean(boolRes));
 		}
+		boolRes = getInput_Optionsevict_bodies_widget().getButton().getSelection();
+		defBoolRes = false;
+
+		if (boolRes != defBoolRes) {
+			getConfig().put(getInput_Optionsevict_bodies_widget().getAlias(), new Boolean(boolRes));
+		}
+		boolRes = getInput_Optionsincremental_widget().getButton().getSelection();
+		defBoolRes = false;
+
+		if (boolRes != defBoolRes) {
+			getConfig().put(getInput_Optionsincremental_widget().getAlias(), new Boolean(boolRes));
+		}
 		boolRes = getInput_Optionsnative_code_widget().getButton().getSelection();
 		defBoolRes = false;
 
 		if (boolRes != defBoolRes) {
 			getConfig().put(getInput_Optionsnative_code_widget().getAlias(), new Boolean(boolRes));
 		}
+		boolRes = getInput_Optionsparallel_resolution_widget().getButton().getSelection();
+		defBoolRes = false;
+
+		if (boolRes != defBoolRes) {
+			getConfig().put(getInput_Optionsparallel_resolution_widget().getAlias(), new Boolean(boolRes));
+		}
+		boolRes = getInput_Optionsmmap_archives_widget().getButton().getSelection();
+		defBoolRes = false;
+
+		if (boolRes != defBoolRes) {
+			getConfig().put(getInput_Optionsmmap_archives_widget().getAlias(), new Boolean(boolRes));
+		}
+		boolRes = getInput_Optionssnapshot_bodies_widget().getButton().getSelection();
+		defBoolRes = false;
+
+		if (boolRes != defBoolRes) {
+			getConfig().put(getInput_Optionssnapshot_bodies_widget().getAlias(), new Boolean(boolRes));
+		}
+		boolRes = getInput_Optionsshared_library_widget().getButton().getSelection();
+		defBoolRes = false;
+
+		if (boolRes != defBoolRes) {
+			getConfig().put(getInput_Optionsshared_library_widget().getAlias(), new Boolean(boolRes));
+		}
+		boolRes = getInput_Optionslazy_method_bodies_widget().getButton().getSelection();
+		defBoolRes = false;
+
+		if (boolRes != defBoolRes) {
+			getConfig().put(getInput_Optionslazy_method_bodies_widget().getAlias(), new Boolean(boolRes));
+		}
+		boolRes = getInput_Optionsarray_unit_chains_widget().getButton().getSelection();
+		defBoolRes = false;
+
+		if (boolRes != defBoolRes) {
+			getConfig().put(getInput_Optionsarray_unit_chains_widget().getAlias(), new Boolean(boolRes));
+		}
+		boolRes = getInput_Optionsfreeze_bodies_widget().getButton().getSelection();
+		defBoolRes = false;
+
+		if (boolRes != defBoolRes) {
+			getConfig().put(getInput_Optionsfreeze_bodies_widget().getAlias(), new Boolean(boolRes));
+		}
 		stringRes = getInput_Optionssoot_classpath_widget().getText().getText();
 		defStringRes = "";
 
@@ -1230,6 +1290,12 @@ public class PhaseOptionsDialog extends AbstractOptionsDialog implements Selecti
 		if ((!(stringRes.equals(defStringRes))) && (stringRes != null) && (stringRes.length() != 0)) {
 			getConfig().put(getInput_Optionsdotnet_nativehost_path_widget().getAlias(), stringRes);
 		}
+		stringRes = getInput_Optionsdex_body_cache_dir_widget().getText().getText();
+		defStringRes = "";
+
+		if ((!(stringRes.equals(defStringRes))) && (stringRes != null) && (stringRes.length() != 0)) {
+			getConfig().put(getInput_Optionsdex_body_cache_dir_widget().getAlias(), stringRes);
+		}
 		stringRes = getInput_Optionsprocess_dir_widget().getText().getText();
 		defStringRes = "";
 
@@ -1248,6 +1314,12 @@ public class PhaseOptionsDialog extends AbstractOptionsDialog implements Selecti
 		if ((!(stringRes.equals(defStringRes))) && (stringRes != null) && (stringRes.length() != 0)) {
 			getConfig().put(getInput_Optionsvirtualedges_path_widget().getAlias(), stringRes);
 		}
+		stringRes = getInput_Optionsstreaming_window_widget().getText().getText();
+		defStringRes = "";
+
+		if ((!(stringRes.equals(defStringRes))) && (stringRes != null) && (stringRes.length() != 0)) {
+			getConfig().put(getInput_Optionsstreaming_window_widget().getAlias(), stringRes);
+		}
 		stringRes = getInput_Optionsandroid_jars_widget().getText().getText();
 		defStringRes = "";
 
@@ -1272,18 +1344,48 @@ public class PhaseOptionsDialog extends AbstractOptionsDialog implements Selecti
 		if ((!(stringRes.equals(defStringRes))) && (stringRes != null) && (stringRes.length() != 0)) {
 			getConfig().put(getInput_Optionsmain_class_widget().getAlias(), stringRes);
 		}
+		stringRes = getInput_Optionsbody_eviction_threshold_widget().getText().getText();
+		defStringRes = "";
+
+		if ((!(stringRes.equals(defStringRes))) && (stringRes != null) && (stringRes.length() != 0)) {
+			getConfig().put(getInput_Optionsbody_eviction_threshold_widget().getAlias(), stringRes);
+		}
+		stringRes = getInput_Optionsclass_cache_dir_widget().getText().getText();
+		defStringRes = "";
+
+		if ((!(stringRes.equals(defStringRes))) && (stringRes != null) && (stringRes.length() != 0)) {
+			getConfig().put(getInput_Optionsclass_cache_dir_widget().getAlias(), stringRes);
+		}
+		stringRes = getInput_Optionsscene_snapshot_widget().getText().getText();
+		defStringRes = "";
+
+		if ((!(stringRes.equals(defStringRes))) && (stringRes != null) && (stringRes.length() != 0)) {
+			getConfig().put(getInput_Optionsscene_snapshot_widget().getAlias(), stringRes);
+		}
 		stringRes = getInput_Optionssrc_prec_widget().getSelectedAlias();
 		defStringRes = "c class";
 
 		if (!stringRes.equals(defStringRes)) {
 			getConfig().put(getInput_Optionssrc_prec_widget().getAlias(), stringRes);
 		}
+		boolRes = getOutput_Optionstype_based_frames_widget().getButton().getSelection();
+		defBoolRes = false;
+
+		if (boolRes != defBoolRes) {
+			getConfig().put(getOutput_Optionstype_based_frames_widget().getAlias(), new Boolean(boolRes));
+		}
 		boolRes = getOutput_Optionsoutput_jar_widget().getButton().getSelection();
 		defBoolRes = false;
 
 		if (boolRes != defBoolRes) {
 			getConfig().put(getOutput_Optionsoutput_jar_widget().getAlias(), new Boolean(boolRes));
 		}
+		boolRes = getOutput_Optionsdex_share_registers_widget().getButton().getSelection();
+		defBoolRes = false;
+
+		if (boolRes != defBoolRes) {
+			getConfig().put(getOutput_Optionsdex_share_registers_widget().getAlias(), new Boolean(boolRes));
+		}
 		boolRes = getOutput_Optionshierarchy_dirs_widget().getButton().getSelection();
 		defBoolRes = false;
 
@@ -1391,6 +1493,12 @@ public class PhaseOptionsDialog extends AbstractOptionsDialog implements Selecti
 		if (boolRes != defBoolRes) {
 			getConfig().put(getProcessing_Optionsomit_excepting_unit_edges_widget().getAlias(), new Boolean(boolRes));
 		}
+		boolRes = getProcessing_Optionscache_body_analyses_widget().getButton().getSelection();
+		defBoolRes = false;
+
+		if (boolRes != defBoolRes) {
+			getConfig().put(getProcessing_Optionscache_body_analyses_widget().getAlias(), new Boolean(boolRes));
+		}
 		boolRes = getProcessing_Optionstrim_cfgs_widget().getButton().getSelection();
 		defBoolRes = false;
 
@@ -4785,6 +4893,16 @@ public class PhaseOptionsDialog extends AbstractOptionsDialog implements Selecti
 		return Input_Optionsoaat_widget;
 	}	
 	
+	private BooleanOptionWidget Input_Optionsstreaming_widget;
+	
+	private void setInput_Optionsstreaming_widget(BooleanOptionWidget widget) {
+		Input_Optionsstreaming_widget = widget;
+	}
+	
+	public BooleanOptionWidget getInput_Optionsstreaming_widget() {
+		return Input_Optionsstreaming_widget;
+	}	
+	
 	private BooleanOptionWidget Input_Optionsast_metrics_widget;
 	
 	private void setInput_Optionsast_metrics_widget(BooleanOptionWidget widget) {
@@ -4905,6 +5023,26 @@ public class PhaseOptionsDialog extends AbstractOptionsDialog implements Selecti
 		return Input_Optionsdrop_bodies_after_load_widget;
 	}	
 	
+	private BooleanOptionWidget Input_Optionsevict_bodies_widget;
+	
+	private void setInput_Optionsevict_bodies_widget(BooleanOptionWidget widget) {
+		Input_Optionsevict_bodies_widget = widget;
+	}
+	
+	public BooleanOptionWidget getInput_Optionsevict_bodies_widget() {
+		return Input_Optionsevict_bodies_widget;
+	}	
+	
+	private BooleanOptionWidget Input_Optionsincremental_widget;
+	
+	private void setInput_Optionsincremental_widget(BooleanOptionWidget widget) {
+		Input_Optionsincremental_widget = widget;
+	}
+	
+	public BooleanOptionWidget getInput_Optionsincremental_widget() {
+		return Input_Optionsincremental_widget;
+	}	
+	
 	private BooleanOptionWidget Input_Optionsnative_code_widget;
 	
 	private void setInput_Optionsnative_code_widget(BooleanOptionWidget widget) {
@@ -4915,6 +5053,76 @@ public class PhaseOptionsDialog extends AbstractOptionsDialog implements Selecti
 		return Input_Optionsnative_code_widget;
 	}	
 	
+	private BooleanOptionWidget Input_Optionsparallel_resolution_widget;
+	
+	private void setInput_Optionsparallel_resolution_widget(BooleanOptionWidget widget) {
+		Input_Optionsparallel_resolution_widget = widget;
+	}
+	
+	public BooleanOptionWidget getInput_Optionsparallel_resolution_widget() {
+		return Input_Optionsparallel_resolution_widget;
+	}	
+	
+	private BooleanOptionWidget Input_Optionsmmap_archives_widget;
+	
+	private void setInput_Optionsmmap_archives_widget(BooleanOptionWidget widget) {
+		Input_Optionsmmap_archives_widget = widget;
+	}
+	
+	public BooleanOptionWidget getInput_Optionsmmap_archives_widget() {
+		return Input_Optionsmmap_archives_widget;
+	}	
+	
+	private BooleanOptionWidget Input_Optionssnapshot_bodies_widget;
+	
+	private void setInput_Optionssnapshot_bodies_widget(BooleanOptionWidget widget) {
+		Input_Optionssnapshot_bodies_widget = widget;
+	}
+	
+	public BooleanOptionWidget getInput_Optionssnapshot_bodies_widget() {
+		return Input_Optionssnapshot_bodies_widget;
+	}	
+	
+	private BooleanOptionWidget Input_Optionsshared_library_widget;
+	
+	private void setInput_Optionsshared_library_widget(BooleanOptionWidget widget) {
+		Input_Optionsshared_library_widget = widget;
+	}
+	
+	public BooleanOptionWidget getInput_Optionsshared_library_widget() {
+		return Input_Optionsshared_library_widget;
+	}	
+	
+	private BooleanOptionWidget Input_Optionslazy_method_bodies_widget;
+	
+	private void setInput_Optionslazy_method_bodies_widget(BooleanOptionWidget widget) {
+		Input_Optionslazy_method_bodies_widget = widget;
+	}
+	
+	public BooleanOptionWidget getInput_Optionslazy_method_bodies_widget() {
+		return Input_Optionslazy_method_bodies_widget;
+	}	
+	
+	private BooleanOptionWidget Input_Optionsarray_unit_chains_widget;
+	
+	private void setInput_Optionsarray_unit_chains_widget(BooleanOptionWidget widget) {
+		Input_Optionsarray_unit_chains_widget = widget;
+	}
+	
+	public BooleanOptionWidget getInput_Optionsarray_unit_chains_widget() {
+		return Input_Optionsarray_unit_chains_widget;
+	}	
+	
+	private BooleanOptionWidget Input_Optionsfreeze_bodies_widget;
+	
+	private void setInput_Optionsfreeze_bodies_widget(BooleanOptionWidget widget) {
+		Input_Optionsfreeze_bodies_widget = widget;
+	}
+	
+	public BooleanOptionWidget getInput_Optionsfreeze_bodies_widget() {
+		return Input_Optionsfreeze_bodies_widget;
+	}	
+	
 
 	private ListOptionWidget Input_Optionsprocess_dir_widget;
 	
@@ -4976,6 +5184,18 @@ public class PhaseOptionsDialog extends AbstractOptionsDialog implements Selecti
 	
 	
 	
+	private StringOptionWidget Input_Optionsdex_body_cache_dir_widget;
+	
+	private void setInput_Optionsdex_body_cache_dir_widget(StringOptionWidget widget) {
+		Input_Optionsdex_body_cache_dir_widget = widget;
+	}
+	
+	public StringOptionWidget getInput_Optionsdex_body_cache_dir_widget() {
+		return Input_Optionsdex_body_cache_dir_widget;
+	}
+	
+	
+	
 	private StringOptionWidget Input_Optionsvirtualedges_path_widget;
 	
 	private void setInput_Optionsvirtualedges_path_widget(StringOptionWidget widget) {
@@ -4988,6 +5208,18 @@ public class PhaseOptionsDialog extends AbstractOptionsDialog implements Selecti
 	
 	
 	
+	private StringOptionWidget Input_Optionsstreaming_window_widget;
+	
+	private void setInput_Optionsstreaming_window_widget(StringOptionWidget widget) {
+		Input_Optionsstreaming_window_widget = widget;
+	}
+	
+	public StringOptionWidget getInput_Optionsstreaming_window_widget() {
+		return Input_Optionsstreaming_window_widget;
+	}
+	
+	
+	
 	private StringOptionWidget Input_Optionsandroid_jars_widget;
 	
 	private void setInput_Optionsandroid_jars_widget(StringOptionWidget widget) {
@@ -5036,6 +5268,42 @@ public class PhaseOptionsDialog extends AbstractOptionsDialog implements Selecti
 	
 	
 	
+	private StringOptionWidget Input_Optionsbody_eviction_threshold_widget;
+	
+	private void setInput_Optionsbody_eviction_threshold_widget(StringOptionWidget widget) {
+		Input_Optionsbody_eviction_threshold_widget = widget;
+	}
+	
+	public StringOptionWidget getInput_Optionsbody_eviction_threshold_widget() {
+		return Input_Optionsbody_eviction_threshold_widget;
+	}
+	
+	
+	
+	private StringOptionWidget Input_Optionsclass_cache_dir_widget;
+	
+	private void setInput_Optionsclass_cache_dir_widget(StringOptionWidget widget) {
+		Input_Optionsclass_cache_dir_widget = widget;
+	}
+	
+	public StringOptionWidget getInput_Optionsclass_cache_dir_widget() {
+		return Input_Optionsclass_cache_dir_widget;
+	}
+	
+	
+	
+	private StringOptionWidget Input_Optionsscene_snapshot_widget;
+	
+	private void setInput_Optionsscene_snapshot_widget(StringOptionWidget widget) {
+		Input_Optionsscene_snapshot_widget = widget;
+	}
+	
+	public StringOptionWidget getInput_Optionsscene_snapshot_widget() {
+		return Input_Optionsscene_snapshot_widget;
+	}
+	
+	
+	
 	private MultiOptionWidget Input_Optionssrc_prec_widget;
 	
 	private void setInput_Optionssrc_prec_widget(MultiOptionWidget widget) {
@@ -5047,6 +5315,16 @@ public class PhaseOptionsDialog extends AbstractOptionsDialog implements Selecti
 	}	
 	
 	
+	private BooleanOptionWidget Output_Optionstype_based_frames_widget;
+	
+	private void setOutput_Optionstype_based_frames_widget(BooleanOptionWidget widget) {
+		Output_Optionstype_based_frames_widget = widget;
+	}
+	
+	public BooleanOptionWidget getOutput_Optionstype_based_frames_widget() {
+		return Output_Optionstype_based_frames_widget;
+	}	
+	
 	private BooleanOptionWidget Output_Optionsoutput_jar_widget;
 	
 	private void setOutput_Optionsoutput_jar_widget(BooleanOptionWidget widget) {
@@ -5057,6 +5335,16 @@ public class PhaseOptionsDialog extends AbstractOptionsDialog implements Selecti
 		return Output_Optionsoutput_jar_widget;
 	}	
 	
+	private BooleanOptionWidget Output_Optionsdex_share_registers_widget;
+	
+	private void setOutput_Optionsdex_share_registers_widget(BooleanOptionWidget widget) {
+		Output_Optionsdex_share_registers_widget = widget;
+	}
+	
+	public BooleanOptionWidget getOutput_Optionsdex_share_registers_widget() {
+		return Output_Optionsdex_share_registers_widget;
+	}	
+	
 	private BooleanOptionWidget Output_Optionshierarchy_dirs_widget;
 	
 	private void setOutput_Optionshierarchy_dirs_widget(BooleanOptionWidget widget) {
@@ -5247,6 +5535,16 @@ public class PhaseOptionsDialog extends AbstractOptionsDialog implements Selecti
 		return Processing_Optionsomit_excepting_unit_edges_widget;
 	}	
 	
+	private BooleanOptionWidget Processing_Optionscache_body_analyses_widget;
+	
+	private void setProcessing_Optionscache_body_analyses_widget(BooleanOptionWidget widget) {
+		Processing_Optionscache_body_analyses_widget = widget;
+	}
+	
+	public BooleanOptionWidget getProcessing_Optionscache_body_analyses_widget() {
+		return Processing_Optionscache_body_analyses_widget;
+	}	
+	
 	private BooleanOptionWidget Processing_Optionstrim_cfgs_widget;
 	
 	private void setProcessing_Optionstrim_cfgs_widget(BooleanOptionWidget widget) {
@@ -8904,6 +9202,17 @@ public class PhaseOptionsDialog extends AbstractOptionsDialog implements Selecti
 
 		setInput_Optionsoaat_widget(new BooleanOptionWidget(editGroupInput_Options, SWT.NONE, new OptionData("One at a time", "", "","oaat", "\nThis option is meant to keep memory consumption low. If enabled, \nthe -process-dir option must be used as well. From the \nprocess-dir, Soot will process one class at a time. Only body \npacks are run, no whole-program packs.", defaultBool)));
 
+		defKey = ""+" "+""+" "+"streaming";
+		defKey = defKey.trim();
+
+		if (isInDefList(defKey)) {
+			defaultBool = getBoolDef(defKey);	
+		} else {
+			defaultBool = false;
+		}
+
+		setInput_Optionsstreaming_widget(new BooleanOptionWidget(editGroupInput_Options, SWT.NONE, new OptionData("Streaming", "", "","streaming", "\nThis option is meant to keep memory consumption low without \ngiving up parallelism or whole-program packs. Whole-program \npacks are run first, as usual. Then the application classes are \nstreamed through body creation, the body packs, output writing \nand body releasing, with a bounded number of classes in flight \nat a time (see -streaming-window). Unlike -oaat, -process-dir is \nnot required. Bodies are released as soon as their class has \nbeen written, so body packs must not depend on the bodies of \nother application classes. Dava output and interactive mode are \nnot supported; Soot falls back to the regular pipeline for them.", defaultBool)));
+
 		defKey = ""+" "+""+" "+"ast-metrics";
 		defKey = defKey.trim();
 
@@ -9036,6 +9345,28 @@ public class PhaseOptionsDialog extends AbstractOptionsDialog implements Selecti
 
 		setInput_Optionsdrop_bodies_after_load_widget(new BooleanOptionWidget(editGroupInput_Options, SWT.NONE, new OptionData("Drop method source after loading bodies", "", "","drop-bodies-after-load", "\nEach method is associated with a method source for loading its \nbody. When this option is disabled, a reference to this source \nis kept around even after the body has already been loaded. This \nis a waste of memory for most use cases. When this option is \nenabled, the reference is dropped, allowing for garbage \ncollection of the method source. On the other hand, if the body \nis ever released, it cannot easily be recovered (i.e., loaded \nagain) easily.", defaultBool)));
 
+		defKey = ""+" "+""+" "+"evict-bodies";
+		defKey = defKey.trim();
+
+		if (isInDefList(defKey)) {
+			defaultBool = getBoolDef(defKey);	
+		} else {
+			defaultBool = false;
+		}
+
+		setInput_Optionsevict_bodies_widget(new BooleanOptionWidget(editGroupInput_Options, SWT.NONE, new OptionData("Evict unmodified bodies under memory pressure", "", "","evict-bodies", "\nWhen enabled, method bodies that were loaded from a method \nsource are tracked by the body store. Once the heap usage after \ngarbage collection exceeds the threshold given by \n-body-eviction-threshold, the least recently used bodies that \nhave not been modified are released. They are transparently \nloaded again from their method source the next time they are \nrequested. A body is never released once a body transformer has \nrun on it, once it has been set explicitly, or if it may have \nchanged since it was loaded. Changes made outside of body \ntransformers, e.g., in scene transformers, cannot be attributed \nto a body, so they keep all bodies that are loaded at that time \nfrom being released. A reloaded body consists of new statements \nand locals. Clients that keep references to the statements of a \nbody, e.g., in maps keyed by units, must not rely on these \nreferences after the body has been requested again. The method \nsources of tracked bodies are kept in memory regardless of \n-drop-bodies-after-load. The number of evicted and reloaded \nbodies is reported in verbose mode.", defaultBool)));
+
+		defKey = ""+" "+""+" "+"incremental";
+		defKey = defKey.trim();
+
+		if (isInDefList(defKey)) {
+			defaultBool = getBoolDef(defKey);	
+		} else {
+			defaultBool = false;
+		}
+
+		setInput_Optionsincremental_widget(new BooleanOptionWidget(editGroupInput_Options, SWT.NONE, new OptionData("Incremental re-analysis", "", "","incremental", "\nWhen enabled, Soot records a fingerprint of the class file of \nevery application class when the necessary classes are loaded, \nand remembers which classes the bodies processed by the body \npacks refer to. Clients that keep the Scene alive, e.g., a tool \nthat analyzes the same project repeatedly, can then call \nIncrementalAnalysis.v().reanalyze() after some class files have \nchanged. Only the changed classes are resolved again. Only the \nmethods of these classes and the methods that refer to them run \nthrough the body packs again. The call graph and points-to \nanalysis are discarded on every change, because a change in one \nclass can add call targets anywhere. The class hierarchy is kept \nif no supertypes changed and no classes were added or removed. \nMethod sources are kept in memory regardless of \n-drop-bodies-after-load, so that affected bodies can be loaded \nagain. Incremental re-analysis only supports output formats with \none file per class, and neither -oaat nor -output-jar.", defaultBool)));
+
 		defKey = ""+" "+""+" "+"nc native-code";
 		defKey = defKey.trim();
 
@@ -9047,6 +9378,83 @@ public class PhaseOptionsDialog extends AbstractOptionsDialog implements Selecti
 
 		setInput_Optionsnative_code_widget(new BooleanOptionWidget(editGroupInput_Options, SWT.NONE, new OptionData("Enable native code", "", "","nc native-code", "\nThis option is needed, when analyzing native code. Particularly \nwhen using the Java Native Interface (JNI). If this option is \nenabled (set true), it allows native methods to be concrete. \nThis flag will be checked in the SootMethod.isConcrete() method, \nallowing native methods to have a body.", defaultBool)));
 
+		defKey = ""+" "+""+" "+"parallel-resolution";
+		defKey = defKey.trim();
+
+		if (isInDefList(defKey)) {
+			defaultBool = getBoolDef(defKey);	
+		} else {
+			defaultBool = false;
+		}
+
+		setInput_Optionsparallel_resolution_widget(new BooleanOptionWidget(editGroupInput_Options, SWT.NONE, new OptionData("Parallel class resolution", "", "","parallel-resolution", "\nWhen resolving classes, look up and parse the class files of the \npending classes on multiple threads before the classes are \nentered into the Scene. The classes themselves are still \nresolved one by one in worklist order, so the resulting Scene, \nincluding the order of its classes, is the same as without this \noption. The number of threads is controlled by the -num-threads \noption.", defaultBool)));
+
+		defKey = ""+" "+""+" "+"mmap-archives";
+		defKey = defKey.trim();
+
+		if (isInDefList(defKey)) {
+			defaultBool = getBoolDef(defKey);	
+		} else {
+			defaultBool = false;
+		}
+
+		setInput_Optionsmmap_archives_widget(new BooleanOptionWidget(editGroupInput_Options, SWT.NONE, new OptionData("Memory-map archives", "", "","mmap-archives", "\nMemory-map every JAR and ZIP archive on the class path once \ninstead of opening it with java.util.zip.ZipFile whenever a \nclass is read. The central directory of each archive is parsed \nwhen it is mapped, and class files are streamed directly from \nthe mapped memory. Archives that need ZIP64 extensions are still \nread with ZipFile. The entries of all archives on the class path \nare also indexed once, so that a class is found without \nsearching the archives one by one. Note that mapped archives \nstay open until Soot is reset, which on some platforms prevents \nthem from being modified or deleted in the meantime.", defaultBool)));
+
+		defKey = ""+" "+""+" "+"snapshot-bodies";
+		defKey = defKey.trim();
+
+		if (isInDefList(defKey)) {
+			defaultBool = getBoolDef(defKey);	
+		} else {
+			defaultBool = false;
+		}
+
+		setInput_Optionssnapshot_bodies_widget(new BooleanOptionWidget(editGroupInput_Options, SWT.NONE, new OptionData("Include bodies in scene snapshot", "", "","snapshot-bodies", "\nEmbed the class files of all snapshotted classes in the file \nwritten by -scene-snapshot, so that method bodies can be created \nafter restoring without accessing the class path. Without this \noption, the class files are looked up on the class path when the \nfirst body of a class is requested.", defaultBool)));
+
+		defKey = ""+" "+""+" "+"shared-library";
+		defKey = defKey.trim();
+
+		if (isInDefList(defKey)) {
+			defaultBool = getBoolDef(defKey);	
+		} else {
+			defaultBool = false;
+		}
+
+		setInput_Optionsshared_library_widget(new BooleanOptionWidget(editGroupInput_Options, SWT.NONE, new OptionData("Share library classes", "", "","shared-library", "\nKeep the classes of the JAR and ZIP archives on the class path \nthat are not input archives, such as android.jar, in memory for \nthe lifetime of the JVM and share them between all Soot runs, \nincluding runs after G.reset() and runs in parallel \nSootInstances. Each archive is indexed once, and each of its \nclasses is read and parsed once; later runs create their own \ncopy of a class from the shared, read-only form without \naccessing the archive. Method bodies of library classes are \nstill created per run and only when they are requested. This is \nmeant for analyzing many applications against the same platform \nlibraries. Archives that are modified on disk are indexed again.", defaultBool)));
+
+		defKey = ""+" "+""+" "+"lazy-method-bodies";
+		defKey = defKey.trim();
+
+		if (isInDefList(defKey)) {
+			defaultBool = getBoolDef(defKey);	
+		} else {
+			defaultBool = false;
+		}
+
+		setInput_Optionslazy_method_bodies_widget(new BooleanOptionWidget(editGroupInput_Options, SWT.NONE, new OptionData("Lazy method bodies", "", "","lazy-method-bodies", "\nWhen a class is resolved from a class file, keep only the \ncontents of the class file instead of the decoded instructions \nof each of its methods. The instructions of a method are decoded \nagain when its body is requested. This greatly reduces the \nmemory of a Scene in which many classes are resolved but only \nthe bodies of a few methods are ever built, at the cost of \ndecoding a method twice if its body is requested.", defaultBool)));
+
+		defKey = ""+" "+""+" "+"array-unit-chains";
+		defKey = defKey.trim();
+
+		if (isInDefList(defKey)) {
+			defaultBool = getBoolDef(defKey);	
+		} else {
+			defaultBool = false;
+		}
+
+		setInput_Optionsarray_unit_chains_widget(new BooleanOptionWidget(editGroupInput_Options, SWT.NONE, new OptionData("Array-based unit chains", "", "","array-unit-chains", "\nStore the units of every method body in an array-based chain \ninstead of a hash-based one. Such a chain needs no objects per \nunit and therefore considerably less memory for large bodies, \nand it decides in constant time whether one unit comes after \nanother. Units are compared by identity, which is the behavior \nof all unit chains in Soot.", defaultBool)));
+
+		defKey = ""+" "+""+" "+"freeze-bodies";
+		defKey = defKey.trim();
+
+		if (isInDefList(defKey)) {
+			defaultBool = getBoolDef(defKey);	
+		} else {
+			defaultBool = false;
+		}
+
+		setInput_Optionsfreeze_bodies_widget(new BooleanOptionWidget(editGroupInput_Options, SWT.NONE, new OptionData("Freeze bodies after loading", "", "","freeze-bodies", "\nFreeze every Jimple body once it has been built by the jb pack. \nA frozen body keeps its units, locals and traps in plain arrays \ninstead of hash-based chains, which needs considerably less \nmemory for whole-program analyses. Frozen bodies can be analyzed \nand written out, but any attempt to modify them fails. Soot \ntherefore refuses this option while any transformer of a pack \nthat may modify bodies after jb is enabled, such as jtp, jop, \nwjtp or wjop, and for dex output, which adapts the bodies to \nDalvik in place.", defaultBool)));
+
 		data = new OptionData [] {
 		
 				new OptionData("Class File",
@@ -9151,6 +9559,18 @@ public class PhaseOptionsDialog extends AbstractOptionsDialog implements Selecti
 		setInput_Optionsdotnet_nativehost_path_widget(new StringOptionWidget(editGroupInput_Options, SWT.NONE, new OptionData("Dotnet NativeHost Path",  "", "","dotnet-nativehost-path", "\nUse dotnet-nativehost-path to load the NativeHost library which \nis needed for soot.dotnet.", defaultString)));
 		
 
+		defKey = ""+" "+""+" "+"dex-body-cache-dir";
+		defKey = defKey.trim();
+
+		if (isInDefList(defKey)) {
+			defaultString = getStringDef(defKey);	
+		} else {
+			defaultString = "";
+		}
+
+		setInput_Optionsdex_body_cache_dir_widget(new StringOptionWidget(editGroupInput_Options, SWT.NONE, new OptionData("Dex body cache directory",  "", "","dex-body-cache-dir", "\nWhen set, Soot keeps a persistent, content-addressed cache of \nthe Jimple bodies it creates from Dalvik bytecode. An entry is \nkeyed by a hash of the method's code item, i.e., its \ninstructions with all references resolved, its try blocks and \nits debug information, together with the hierarchy of the types \nthe code refers to and the options that affect the conversion. \nIdentical methods, e.g., from a third-party library that is \nbundled into many APKs, are therefore converted only once and \nare parsed from the cache in all later runs. Bodies that cannot \nbe reproduced exactly from their Jimple text are never cached, \nand the cache is not used when line numbers or bytecode offsets \nare kept. Hit and miss counts as well as the time saved are \nreported in verbose mode.", defaultString)));
+		
+
 		defKey = ""+" "+""+" "+"virtualedges-path";
 		defKey = defKey.trim();
 
@@ -9163,6 +9583,18 @@ public class PhaseOptionsDialog extends AbstractOptionsDialog implements Selecti
 		setInput_Optionsvirtualedges_path_widget(new StringOptionWidget(editGroupInput_Options, SWT.NONE, new OptionData("VirtualEdges Path",  "", "","virtualedges-path", "\nUse virtual edges configuration file from location used in call \ngraph algorithms.", defaultString)));
 		
 
+		defKey = ""+" "+""+" "+"streaming-window";
+		defKey = defKey.trim();
+
+		if (isInDefList(defKey)) {
+			defaultString = getStringDef(defKey);	
+		} else {
+			defaultString = "";
+		}
+
+		setInput_Optionsstreaming_window_widget(new StringOptionWidget(editGroupInput_Options, SWT.NONE, new OptionData("Streaming window",  "", "","streaming-window", "\nSets the maximum number of classes whose bodies are resident at \nthe same time in -streaming mode. The default is four times the \nnumber of threads used for the body packs.", defaultString)));
+		
+
 		defKey = ""+" "+""+" "+"android-jars";
 		defKey = defKey.trim();
 
@@ -9211,6 +9643,42 @@ public class PhaseOptionsDialog extends AbstractOptionsDialog implements Selecti
 		setInput_Optionsmain_class_widget(new StringOptionWidget(editGroupInput_Options, SWT.NONE, new OptionData("Main Class",  "", "","main-class", "\nBy default, the first class encountered with a main method is \ntreated as the main class (entry point) in whole-program \nanalysis. This option overrides this default.", defaultString)));
 		
 
+		defKey = ""+" "+""+" "+"body-eviction-threshold";
+		defKey = defKey.trim();
+
+		if (isInDefList(defKey)) {
+			defaultString = getStringDef(defKey);	
+		} else {
+			defaultString = "";
+		}
+
+		setInput_Optionsbody_eviction_threshold_widget(new StringOptionWidget(editGroupInput_Options, SWT.NONE, new OptionData("Body eviction threshold",  "", "","body-eviction-threshold", "\nSets the percentage of the maximum heap size that must be in use \nafter a garbage collection before -evict-bodies releases any \nbodies. The default is 75.", defaultString)));
+		
+
+		defKey = ""+" "+""+" "+"class-cache-dir";
+		defKey = defKey.trim();
+
+		if (isInDefList(defKey)) {
+			defaultString = getStringDef(defKey);	
+		} else {
+			defaultString = "";
+		}
+
+		setInput_Optionsclass_cache_dir_widget(new StringOptionWidget(editGroupInput_Options, SWT.NONE, new OptionData("Class signature cache directory",  "", "","class-cache-dir", "\nWhen set, Soot keeps a persistent cache of the class signatures \nit resolves from class files found in JAR and ZIP archives or in \nthe JDK runtime image. Entries are keyed by the archive path and \na hash of the archive contents, so a changed archive is \nre-parsed automatically. On later runs, cached classes are \nbrought to the SIGNATURES level without parsing their bytecode; \nmethod bodies are only decoded from the original class file when \nthey are actually requested. Classes carrying attributes the \ncache cannot represent are always parsed from bytecode. Hit and \nmiss counts as well as timings are reported in verbose mode.", defaultString)));
+		
+
+		defKey = ""+" "+""+" "+"scene-snapshot";
+		defKey = defKey.trim();
+
+		if (isInDefList(defKey)) {
+			defaultString = getStringDef(defKey);	
+		} else {
+			defaultString = "";
+		}
+
+		setInput_Optionsscene_snapshot_widget(new StringOptionWidget(editGroupInput_Options, SWT.NONE, new OptionData("Scene snapshot",  "", "","scene-snapshot", "\nWhen set, Soot restores the Scene from the given snapshot file \ninstead of resolving the necessary classes from the class path. \nThe snapshot holds all classes with their resolving levels, \nfields, method signatures and attributes as well as the class \nintervals of the fast hierarchy. If the file does not exist, or \nif it was written for a different class path, different input \noptions or modified input files, the classes are loaded as usual \nand the snapshot is written afterwards. Method bodies are \ndecoded from the class files on demand; see -snapshot-bodies. \nClasses that were not loaded from class files, such as Jimple or \ndex sources, are resolved again when the snapshot is restored.", defaultString)));
+		
+
 
 		return editGroupInput_Options;
 	}
@@ -9241,6 +9709,17 @@ public class PhaseOptionsDialog extends AbstractOptionsDialog implements Selecti
 		
 		
 
+		defKey = ""+" "+""+" "+"type-based-frames";
+		defKey = defKey.trim();
+
+		if (isInDefList(defKey)) {
+			defaultBool = getBoolDef(defKey);	
+		} else {
+			defaultBool = false;
+		}
+
+		setOutput_Optionstype_based_frames_widget(new BooleanOptionWidget(editGroupOutput_Options, SWT.NONE, new OptionData("Type-based stack map frames", "", "","type-based-frames", "\nWhen writing class files with the ASM backend, compute the stack \nmap frames from the types of the Jimple locals and from Soot's \nclass hierarchy instead of having ASM re-analyze the generated \nbytecode. Common superclasses are looked up in the fast \nhierarchy, so no classes are loaded while frames are computed. \nClasses with code that this analysis does not support, e.g., \nunreachable code, are written with ASM's frame computation.", defaultBool)));
+
 		defKey = ""+" "+""+" "+"outjar output-jar";
 		defKey = defKey.trim();
 
@@ -9252,6 +9731,17 @@ public class PhaseOptionsDialog extends AbstractOptionsDialog implements Selecti
 
 		setOutput_Optionsoutput_jar_widget(new BooleanOptionWidget(editGroupOutput_Options, SWT.NONE, new OptionData("Output Jar File", "", "","outjar output-jar", "\nSaves output files into a Jar file instead of a directory. The \noutput Jar file name should be specified using the Output \nDirectory (output-dir) option. Note that if the output Jar file \nexists before Soot runs, any files inside it will first be \nremoved.", defaultBool)));
 
+		defKey = ""+" "+""+" "+"dex-share-registers";
+		defKey = defKey.trim();
+
+		if (isInDefList(defKey)) {
+			defaultBool = getBoolDef(defKey);	
+		} else {
+			defaultBool = false;
+		}
+
+		setOutput_Optionsdex_share_registers_widget(new BooleanOptionWidget(editGroupOutput_Options, SWT.NONE, new OptionData("Share dex registers", "", "","dex-share-registers", "\nWhen writing dex code, assign registers based on the liveness of \nlocals: locals whose live ranges do not overlap share a \nregister, found by coloring the interference graph of the body. \nThis reduces the number of registers of the generated methods, \nand copies between locals that share a register are dropped. \nWhen disabled, every local gets a register of its own. Registers \nare never shared with write-local-annotations.", defaultBool)));
+
 		defKey = ""+" "+""+" "+"hierarchy-dirs";
 		defKey = defKey.trim();
 
@@ -9613,6 +10103,17 @@ public class PhaseOptionsDialog extends AbstractOptionsDialog implements Selecti
 
 		setProcessing_Optionsomit_excepting_unit_edges_widget(new BooleanOptionWidget(editGroupProcessing_Options, SWT.NONE, new OptionData("Omit Excepting Unit Edges", "", "","omit-excepting-unit-edges", "\nWhen constructing an ExceptionalUnitGraph or \nExceptionalBlockGraph, include edges to an exception handler \nonly from the predecessors of an instruction which may throw an \nexception to the handler, and not from the excepting instruction \nitself, unless the excepting instruction has potential side \neffects. Omitting edges from excepting units allows more \naccurate flow analyses (since if an instruction without side \neffects throws an exception, it has not changed the state of the \ncomputation). This accuracy, though, could lead optimizations to \ngenerate unverifiable code, since the dataflow analyses \nperformed by bytecode verifiers might include paths to exception \nhandlers from all protected instructions, regardless of whether \nthe instructions have side effects. (In practice, the pedantic \nthrow analysis suffices to pass verification in all VMs tested \nwith Soot to date, but the JVM specification does allow for less \ndiscriminating verifiers which would reject some code that might \nbe generated using the pedantic throw analysis without also \nadding edges from all excepting units.)", defaultBool)));
 
+		defKey = ""+" "+""+" "+"cache-body-analyses";
+		defKey = defKey.trim();
+
+		if (isInDefList(defKey)) {
+			defaultBool = getBoolDef(defKey);	
+		} else {
+			defaultBool = false;
+		}
+
+		setProcessing_Optionscache_body_analyses_widget(new BooleanOptionWidget(editGroupProcessing_Options, SWT.NONE, new OptionData("Cache body analyses", "", "","cache-body-analyses", "\nKeeps the exceptional unit graph, local defs, local uses and \nlive locals that transformations request for a body, and hands \nthem out again until the body is modified. Modifications of the \nunit, local and trap chains and of value and unit boxes discard \nthe cached analyses of the body. Analyses that are requested on \ngraphs other than the cached one are not affected. With \n-verbose, the numbers of cache hits and misses are reported at \nthe end of the run.", defaultBool)));
+
 		defKey = ""+" "+""+" "+"trim-cfgs";
 		defKey = defKey.trim();
 
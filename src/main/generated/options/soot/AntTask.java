@@ -221,6 +221,11 @@ public class AntTask extends MatchingTask {
             if(arg) addArg("-search-dex-in-archives");
         }
   
+        public void setdex_body_cache_dir(String arg) {
+            addArg("-dex-body-cache-dir");
+            addArg(arg);
+        }
+  
         public void setprocess_dir(Path arg) {
             if(process_dir == null )
                 process_dir = new Path(getProject());
@@ -258,6 +263,10 @@ public class AntTask extends MatchingTask {
             if(arg) addArg("-oaat");
         }
   
+        public void setstreaming(boolean arg) {
+            if(arg) addArg("-streaming");
+        }
+  
         public void setandroid_jars(String arg) {
             addArg("-android-jars");
             addArg(arg);
@@ -342,10 +351,56 @@ public class AntTask extends MatchingTask {
             if(arg) addArg("-drop-bodies-after-load");
         }
   
+        public void setevict_bodies(boolean arg) {
+            if(arg) addArg("-evict-bodies");
+        }
+  
+        public void setincremental(boolean arg) {
+            if(arg) addArg("-incremental");
+        }
+  
         public void setnative_code(boolean arg) {
             if(arg) addArg("-native-code");
         }
   
+        public void setclass_cache_dir(String arg) {
+            addArg("-class-cache-dir");
+            addArg(arg);
+        }
+  
+        public void setparallel_resolution(boolean arg) {
+            if(arg) addArg("-parallel-resolution");
+        }
+  
+        public void setmmap_archives(boolean arg) {
+            if(arg) addArg("-mmap-archives");
+        }
+  
+        public void setscene_snapshot(String arg) {
+            addArg("-scene-snapshot");
+            addArg(arg);
+        }
+  
+        public void setsnapshot_bodies(boolean arg) {
+            if(arg) addArg("-snapshot-bodies");
+        }
+  
+        public void setshared_library(boolean arg) {
+            if(arg) addArg("-shared-library");
+        }
+  
+        public void setlazy_method_bodies(boolean arg) {
+            if(arg) addArg("-lazy-method-bodies");
+        }
+  
+        public void setarray_unit_chains(boolean arg) {
+            if(arg) addArg("-array-unit-chains");
+        }
+  
+        public void setfreeze_bodies(boolean arg) {
+            if(arg) addArg("-freeze-bodies");
+        }
+  
         public void setoutput_dir(String arg) {
             addArg("-output-dir");
             addArg(arg);
@@ -428,10 +483,18 @@ public class AntTask extends MatchingTask {
             }
         }
   
+        public void settype_based_frames(boolean arg) {
+            if(arg) addArg("-type-based-frames");
+        }
+  
         public void setoutput_jar(boolean arg) {
             if(arg) addArg("-output-jar");
         }
   
+        public void setdex_share_registers(boolean arg) {
+            if(arg) addArg("-dex-share-registers");
+        }
+  
         public void sethierarchy_dirs(boolean arg) {
             if(arg) addArg("-hierarchy-dirs");
         }
@@ -581,6 +644,10 @@ public class AntTask extends MatchingTask {
             if(arg) addArg("-omit-excepting-unit-edges");
         }
   
+        public void setcache_body_analyses(boolean arg) {
+            if(arg) addArg("-cache-body-analyses");
+        }
+  
         public void settrim_cfgs(boolean arg) {
             if(arg) addArg("-trim-cfgs");
         }
@@ -298,6 +298,22 @@ public class Options extends OptionsBase {
                     || option.equals("search-dex-in-archives")
             )
                 search_dex_in_archives = true;
+            else if (false
+                    || option.equals("dex-body-cache-dir")
+            ) {
+                if (!hasMoreOptions()) {
+                    G.v().out.println("No value given for option -" + option);
+                    return false;
+                }
+
+                String value = nextOption();
+                if (dex_body_cache_dir.isEmpty())
+                    dex_body_cache_dir = value;
+                else {
+                    G.v().out.println("Duplicate values " + dex_body_cache_dir + " and " + value + " for option -" + option);
+                    return false;
+                }
+            }
             else if (false
                     || option.equals("process-path")
                     || option.equals("process-dir")
@@ -349,6 +365,26 @@ public class Options extends OptionsBase {
                     || option.equals("oaat")
             )
                 oaat = true;
+            else if (false
+                    || option.equals("streaming")
+            )
+                streaming = true;
+            else if (false
+                || option.equals("streaming-window")
+            ) {
+                if (!hasMoreOptions()) {
+                    G.v().out.println("No value given for option -" + option);
+                    return false;
+                }
+
+                String value = nextOption();
+                if(streaming_window == -1)
+                    streaming_window = Integer.valueOf(value);
+                else {
+                    G.v().out.println("Duplicate values " + streaming_window + " and " + value + " for option -" + option);
+                    return false;
+                }
+            }
             else if (false
                     || option.equals("android-jars")
             ) {
@@ -543,11 +579,95 @@ public class Options extends OptionsBase {
                     || option.equals("no-drop-bodies-after-load")
             )
                 drop_bodies_after_load = false;
+            else if (false
+                    || option.equals("evict-bodies")
+            )
+                evict_bodies = true;
+            else if (false
+                || option.equals("body-eviction-threshold")
+            ) {
+                if (!hasMoreOptions()) {
+                    G.v().out.println("No value given for option -" + option);
+                    return false;
+                }
+
+                String value = nextOption();
+                if(body_eviction_threshold == -1)
+                    body_eviction_threshold = Integer.valueOf(value);
+                else {
+                    G.v().out.println("Duplicate values " + body_eviction_threshold + " and " + value + " for option -" + option);
+                    return false;
+                }
+            }
+            else if (false
+                    || option.equals("incremental")
+            )
+                incremental = true;
             else if (false
                     || option.equals("nc")
                     || option.equals("native-code")
             )
                 native_code = true;
+            else if (false
+                    || option.equals("class-cache-dir")
+            ) {
+                if (!hasMoreOptions()) {
+                    G.v().out.println("No value given for option -" + option);
+                    return false;
+                }
+
+                String value = nextOption();
+                if (class_cache_dir.isEmpty())
+                    class_cache_dir = value;
+                else {
+                    G.v().out.println("Duplicate values " + class_cache_dir + " and " + value + " for option -" + option);
+                    return false;
+                }
+            }
+            else if (false
+                    || option.equals("parallel-resolution")
+            )
+                parallel_resolution = true;
+            else if (false
+                    || option.equals("mmap-archives")
+            )
+                mmap_archives = true;
+            else if (false
+                    || option.equals("scene-snapshot")
+            ) {
+                if (!hasMoreOptions()) {
+                    G.v().out.println("No value given for option -" + option);
+                    return false;
+                }
+
+                String value = nextOption();
+                if (scene_snapshot.isEmpty())
+                    scene_snapshot = value;
+                else {
+                    G.v().out.println("Duplicate values " + scene_snapshot + " and " + value + " for option -" + option);
+                    return false;
+                }
+            }
+            else if (false
+                    || option.equals("snapshot-bodies")
+            )
+                snapshot_bodies = true;
+            else if (false
+                    || option.equals("shared-library")
+            )
+                shared_library = true;
+            else if (false
+                    || option.equals("lazy-method-bodies")
+            )
+                lazy_method_bodies = true;
+            else if (false
+                    || option.equals("array-unit-chains")
+            )
+                array_unit_chains = true;
+            else if (false
+                    || option.equals("freeze-bodies")
+            )
+                freeze_bodies = true;
             else if (false
                     || option.equals("d")
                     || option.equals("output-dir")
@@ -893,11 +1013,19 @@ public class Options extends OptionsBase {
                     return false;
                 }
             }
+            else if (false
+                    || option.equals("type-based-frames")
+            )
+                type_based_frames = true;
             else if (false
                     || option.equals("outjar")
                     || option.equals("output-jar")
             )
                 output_jar = true;
+            else if (false
+                    || option.equals("dex-share-registers")
+            )
+                dex_share_registers = true;
             else if (false
                     || option.equals("hierarchy-dirs")
             )
@@ -1276,6 +1404,10 @@ public class Options extends OptionsBase {
                     || option.equals("omit-excepting-unit-edges")
             )
                 omit_excepting_unit_edges = true;
+            else if (false
+                    || option.equals("cache-body-analyses")
+            )
+                cache_body_analyses = true;
             else if (false
                 || option.equals("trim-cfgs")
             ) {
@@ -1566,6 +1698,10 @@ public class Options extends OptionsBase {
     private boolean search_dex_in_archives = false;
     public void set_search_dex_in_archives(boolean setting) { search_dex_in_archives = setting; }
 
+    public String dex_body_cache_dir() { return dex_body_cache_dir; }
+    public void set_dex_body_cache_dir(String setting) { dex_body_cache_dir = setting; }
+    private String dex_body_cache_dir = "";
+
     public List<String> process_dir() {
         return process_dir == null ? Collections.emptyList() : process_dir;
     }
@@ -1590,6 +1726,14 @@ public class Options extends OptionsBase {
     private boolean oaat = false;
     public void set_oaat(boolean setting) { oaat = setting; }
 
+    public boolean streaming() { return streaming; }
+    private boolean streaming = false;
+    public void set_streaming(boolean setting) { streaming = setting; }
+
+    public int streaming_window() { return streaming_window; }
+    public void set_streaming_window(int setting) { streaming_window = setting; }
+    private int streaming_window = -1;
+
     public String android_jars() { return android_jars; }
     public void set_android_jars(String setting) { android_jars = setting; }
     private String android_jars = "";
@@ -1661,10 +1805,58 @@ public class Options extends OptionsBase {
     private boolean drop_bodies_after_load = true;
     public void set_drop_bodies_after_load(boolean setting) { drop_bodies_after_load = setting; }
 
+    public boolean evict_bodies() { return evict_bodies; }
+    private boolean evict_bodies = false;
+    public void set_evict_bodies(boolean setting) { evict_bodies = setting; }
+
+    public int body_eviction_threshold() { return body_eviction_threshold; }
+    public void set_body_eviction_threshold(int setting) { body_eviction_threshold = setting; }
+    private int body_eviction_threshold = -1;
+
+    public boolean incremental() { return incremental; }
+    private boolean incremental = false;
+    public void set_incremental(boolean setting) { incremental = setting; }
+
     public boolean native_code() { return native_code; }
     private boolean native_code = false;
     public void set_native_code(boolean setting) { native_code = setting; }
 
+    public String class_cache_dir() { return class_cache_dir; }
+    public void set_class_cache_dir(String setting) { class_cache_dir = setting; }
+    private String class_cache_dir = "";
+
+    public boolean parallel_resolution() { return parallel_resolution; }
+    private boolean parallel_resolution = false;
+    public void set_parallel_resolution(boolean setting) { parallel_resolution = setting; }
+
+    public boolean mmap_archives() { return mmap_archives; }
+    private boolean mmap_archives = false;
+    public void set_mmap_archives(boolean setting) { mmap_archives = setting; }
+
+    public String scene_snapshot() { return scene_snapshot; }
+    public void set_scene_snapshot(String setting) { scene_snapshot = setting; }
+    private String scene_snapshot = "";
+
+    public boolean snapshot_bodies() { return snapshot_bodies; }
+    private boolean snapshot_bodies = false;
+    public void set_snapshot_bodies(boolean setting) { snapshot_bodies = setting; }
+
+    public boolean shared_library() { return shared_library; }
+    private boolean shared_library = false;
+    public void set_shared_library(boolean setting) { shared_library = setting; }
+
+    public boolean lazy_method_bodies() { return lazy_method_bodies; }
+    private boolean lazy_method_bodies = false;
+    public void set_lazy_method_bodies(boolean setting) { lazy_method_bodies = setting; }
+
+    public boolean array_unit_chains() { return array_unit_chains; }
+    private boolean array_unit_chains = false;
+    public void set_array_unit_chains(boolean setting) { array_unit_chains = setting; }
+
+    public boolean freeze_bodies() { return freeze_bodies; }
+    private boolean freeze_bodies = false;
+    public void set_freeze_bodies(boolean setting) { freeze_bodies = setting; }
+
     public String output_dir() { return output_dir; }
     public void set_output_dir(String setting) { output_dir = setting; }
     private String output_dir = "";
@@ -1682,10 +1874,18 @@ public class Options extends OptionsBase {
     public void set_java_version(int setting) { java_version = setting; }
     private int java_version = 0;
 
+    public boolean type_based_frames() { return type_based_frames; }
+    private boolean type_based_frames = false;
+    public void set_type_based_frames(boolean setting) { type_based_frames = setting; }
+
     public boolean output_jar() { return output_jar; }
     private boolean output_jar = false;
     public void set_output_jar(boolean setting) { output_jar = setting; }
 
+    public boolean dex_share_registers() { return dex_share_registers; }
+    private boolean dex_share_registers = false;
+    public void set_dex_share_registers(boolean setting) { dex_share_registers = setting; }
+
     public boolean hierarchy_dirs() { return hierarchy_dirs; }
     private boolean hierarchy_dirs = false;
     public void set_hierarchy_dirs(boolean setting) { hierarchy_dirs = setting; }
@@ -1780,6 +1980,10 @@ public class Options extends OptionsBase {
     private boolean omit_excepting_unit_edges = false;
     public void set_omit_excepting_unit_edges(boolean setting) { omit_excepting_unit_edges = setting; }
 
+    public boolean cache_body_analyses() { return cache_body_analyses; }
+    private boolean cache_body_analyses = false;
+    public void set_cache_body_analyses(boolean setting) { cache_body_analyses = setting; }
+
     public boolean ignore_resolution_errors() { return ignore_resolution_errors; }
     private boolean ignore_resolution_errors = false;
     public void set_ignore_resolution_errors(boolean setting) { ignore_resolution_errors = setting; }
@@ -1870,11 +2074,13 @@ public class Options extends OptionsBase {
                 + padOpt("-ice, -ignore-classpath-errors", "Ignores invalid entries on the Soot classpath.")
                 + padOpt("-process-multiple-dex", "Process all DEX files found in APK.")
                 + padOpt("-search-dex-in-archives", "Also includes Jar and Zip files when searching for DEX files under the provided classpath.")
+                + padOpt("-dex-body-cache-dir ARG", "Cache Jimple bodies converted from DEX code in ARG")
                 + padOpt("-process-path ARG -process-dir ARG", "Process all classes found in ARG (but not classes within JAR files in ARG , use process-jar-dir for that)")
                 + padOpt("-process-jar-dir ARG", "Process all classes found in JAR files found in ARG")
                 + padOpt("-virtualedges-path ARG", "Path to virtual edges configuration used in call graphs")
                 + padOpt("-derive-java-version", "Java version for output and internal processing will be derived from the given input classes")
                 + padOpt("-oaat", "From the process-dir, processes one class at a time.")
+                + padOpt("-streaming", "Stream classes through body packs and output, releasing bodies early")
                 + padOpt("-android-jars ARG", "Use ARG as the path for finding the android.jar file")
                 + padOpt("-force-android-jar ARG", "Force Soot to use ARG as the path for the android.jar file.")
                 + padOpt("-ast-metrics", "Compute AST Metrics if performing java to jimple")
@@ -1898,7 +2104,18 @@ public class Options extends OptionsBase {
                 + padOpt("-polyglot", "Use Java 1.4 Polyglot frontend instead of JastAdd")
                 + padOpt("-permissive-resolving", "Use alternative sources when classes cannot be found using the normal resolving strategy")
                 + padOpt("-drop-bodies-after-load", "Drop the method source after it has served its purpose of loading the method body")
+                + padOpt("-evict-bodies", "Release unmodified method bodies when the heap runs full and reload them on demand")
+                + padOpt("-incremental", "Track input classes so that changed classes can be re-analyzed in the same Scene")
                 + padOpt("-nc, -native-code", "Enables native methods to be concrete. Needed for analyzing the Java Native Interface.")
+                + padOpt("-class-cache-dir ARG", "Cache resolved class signatures in ARG")
+                + padOpt("-parallel-resolution", "Read and parse class files on multiple threads while resolving")
+                + padOpt("-mmap-archives", "Read JAR and ZIP archives on the class path through memory mappings")
+                + padOpt("-scene-snapshot ARG", "Restore the loaded classes from ARG or save them there")
+                + padOpt("-snapshot-bodies", "Store the bytecode of all method bodies in the scene snapshot")
+                + padOpt("-shared-library", "Share the classes of library archives between all Soot runs in this JVM")
+                + padOpt("-lazy-method-bodies", "Decode the instructions of a method only when its body is requested")
+                + padOpt("-array-unit-chains", "Store the units of method bodies in compact array-based chains")
+                + padOpt("-freeze-bodies", "Keep method bodies in a compact read-only form after jb")
                 + "\nOutput Options:\n"
                 + padOpt("-d ARG -output-dir ARG", "Store output files in ARG")
                 + padOpt("-f ARG -output-format ARG", "Set output format for Soot")
@@ -1933,7 +2150,9 @@ public class Options extends OptionsBase {
                     + padVal("1.10 10", "Force Java 1.10 as output version (Experimental).")
                     + padVal("1.11 11", "Force Java 1.11 as output version (Experimental).")
                     + padVal("1.12 12", "Force Java 1.12 as output version (Experimental).")
+                + padOpt("-type-based-frames", "Derive stack map frames of class files from Soot's type information")
                 + padOpt("-outjar, -output-jar", "Make output dir a Jar file instead of dir")
+                + padOpt("-dex-share-registers", "Let locals with disjoint live ranges share dex registers")
                 + padOpt("-hierarchy-dirs", "Generate class hierarchy directories for Jimple/Shimple")
                 + padOpt("-xml-attributes", "Save tags to XML attributes for Eclipse")
                 + padOpt("-print-tags, -print-tags-in-output", "Print tags in output files after stmt")
@@ -1973,6 +2192,7 @@ public class Options extends OptionsBase {
                     + padVal("dalvik", "Dalvik Throw Analysis")
                     + padVal("dotnet", "Dotnet Throw Analysis")
                 + padOpt("-omit-excepting-unit-edges", "Omit CFG edges to handlers from excepting units which lack side effects")
+                + padOpt("-cache-body-analyses", "Reuse unit graphs, local defs, local uses and live locals until a body changes")
                 + padOpt("-trim-cfgs", "Trim unrealizable exceptional edges from CFGs")
                 + padOpt("-ire, -ignore-resolution-errors", "Does not throw an exception when a program references an undeclared field or method.")
                 + "\nApplication Mode Options:\n"
@@ -2162,6 +2162,20 @@ public class Singletons {
     	instance_soot_jimple_toolkits_thread_synchronization_LockAllocator = null;
     }
 
+    private soot.jimple.toolkits.thread.synchronization.LockAllocationBodyTransformer instance_soot_jimple_toolkits_thread_synchronization_LockAllocationBodyTransformer;
+    public soot.jimple.toolkits.thread.synchronization.LockAllocationBodyTransformer soot_jimple_toolkits_thread_synchronization_LockAllocationBodyTransformer() {
+        if (instance_soot_jimple_toolkits_thread_synchronization_LockAllocationBodyTransformer == null) {
+	       	synchronized (this) {
+		        if (instance_soot_jimple_toolkits_thread_synchronization_LockAllocationBodyTransformer == null)
+	        		instance_soot_jimple_toolkits_thread_synchronization_LockAllocationBodyTransformer = new soot.jimple.toolkits.thread.synchronization.LockAllocationBodyTransformer(g);
+	       	}
+       	}
+        return instance_soot_jimple_toolkits_thread_synchronization_LockAllocationBodyTransformer;
+    }
+    protected void release_soot_jimple_toolkits_thread_synchronization_LockAllocationBodyTransformer() {
+    	instance_soot_jimple_toolkits_thread_synchronization_LockAllocationBodyTransformer = null;
+    }
+
     private soot.jimple.toolkits.thread.mhp.MhpTransformer instance_soot_jimple_toolkits_thread_mhp_MhpTransformer;
     public soot.jimple.toolkits.thread.mhp.MhpTransformer soot_jimple_toolkits_thread_mhp_MhpTransformer() {
         if (instance_soot_jimple_toolkits_thread_mhp_MhpTransformer == null) {
@@ -2232,6 +2246,20 @@ public class Singletons {
     	instance_soot_dexpler_DexResolver = null;
     }
 
+    private soot.dexpler.typing.DalvikTyper instance_soot_dexpler_typing_DalvikTyper;
+    public soot.dexpler.typing.DalvikTyper soot_dexpler_typing_DalvikTyper() {
+        if (instance_soot_dexpler_typing_DalvikTyper == null) {
+	       	synchronized (this) {
+		        if (instance_soot_dexpler_typing_DalvikTyper == null)
+	        		instance_soot_dexpler_typing_DalvikTyper = new soot.dexpler.typing.DalvikTyper(g);
+	       	}
+       	}
+        return instance_soot_dexpler_typing_DalvikTyper;
+    }
+    protected void release_soot_dexpler_typing_DalvikTyper() {
+    	instance_soot_dexpler_typing_DalvikTyper = null;
+    }
+
     private soot.jimple.toolkits.scalar.EmptySwitchEliminator instance_soot_jimple_toolkits_scalar_EmptySwitchEliminator;
     public soot.jimple.toolkits.scalar.EmptySwitchEliminator soot_jimple_toolkits_scalar_EmptySwitchEliminator() {
         if (instance_soot_jimple_toolkits_scalar_EmptySwitchEliminator == null) {
@@ -2497,4 +2525,74 @@ public class Singletons {
     protected void release_soot_toolkits_scalar_LocalDefsFactory() {
     	instance_soot_toolkits_scalar_LocalDefsFactory = null;
     }
+
+    private soot.asm.cache.ClassCache instance_soot_asm_cache_ClassCache;
+    public soot.asm.cache.ClassCache soot_asm_cache_ClassCache() {
+        if (instance_soot_asm_cache_ClassCache == null) {
+	       	synchronized (this) {
+		        if (instance_soot_asm_cache_ClassCache == null)
+	        		instance_soot_asm_cache_ClassCache = new soot.asm.cache.ClassCache(g);
+	       	}
+       	}
+        return instance_soot_asm_cache_ClassCache;
+    }
+    protected void release_soot_asm_cache_ClassCache() {
+    	instance_soot_asm_cache_ClassCache = null;
+    }
+
+    private soot.BodyStore instance_soot_BodyStore;
+    public soot.BodyStore soot_BodyStore() {
+        if (instance_soot_BodyStore == null) {
+	       	synchronized (this) {
+		        if (instance_soot_BodyStore == null)
+	        		instance_soot_BodyStore = new soot.BodyStore(g);
+	       	}
+       	}
+        return instance_soot_BodyStore;
+    }
+    protected void release_soot_BodyStore() {
+    	instance_soot_BodyStore = null;
+    }
+
+    private soot.IncrementalAnalysis instance_soot_IncrementalAnalysis;
+    public soot.IncrementalAnalysis soot_IncrementalAnalysis() {
+        if (instance_soot_IncrementalAnalysis == null) {
+	       	synchronized (this) {
+		        if (instance_soot_IncrementalAnalysis == null)
+	        		instance_soot_IncrementalAnalysis = new soot.IncrementalAnalysis(g);
+	       	}
+       	}
+        return instance_soot_IncrementalAnalysis;
+    }
+    protected void release_soot_IncrementalAnalysis() {
+    	instance_soot_IncrementalAnalysis = null;
+    }
+
+    private soot.dexpler.DexBodyCache instance_soot_dexpler_DexBodyCache;
+    public soot.dexpler.DexBodyCache soot_dexpler_DexBodyCache() {
+        if (instance_soot_dexpler_DexBodyCache == null) {
+	       	synchronized (this) {
+		        if (instance_soot_dexpler_DexBodyCache == null)
+	        		instance_soot_dexpler_DexBodyCache = new soot.dexpler.DexBodyCache(g);
+	       	}
+       	}
+        return instance_soot_dexpler_DexBodyCache;
+    }
+    protected void release_soot_dexpler_DexBodyCache() {
+    	instance_soot_dexpler_DexBodyCache = null;
+    }
+
+    private soot.BodyAnalysisCache instance_soot_BodyAnalysisCache;
+    public soot.BodyAnalysisCache soot_BodyAnalysisCache() {
+        if (instance_soot_BodyAnalysisCache == null) {
+	       	synchronized (this) {
+		        if (instance_soot_BodyAnalysisCache == null)
+	        		instance_soot_BodyAnalysisCache = new soot.BodyAnalysisCache(g);
+	       	}
+       	}
+        return instance_soot_BodyAnalysisCache;
+    }
+    protected void release_soot_BodyAnalysisCache() {
+    	instance_soot_BodyAnalysisCache = null;
+    }
 }
\ No newline at end of file
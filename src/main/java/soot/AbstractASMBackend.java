@@ -222,16 +222,34 @@ public abstract class AbstractASMBackend {
    *          The OutputStream the class file is written to
    */
   public void generateClassFile(OutputStream os) {
-    ClassWriter cw = new SootASMClassWriter(ClassWriter.COMPUTE_FRAMES);
-    cv = cw;
-    generateByteCode();
+    byte[] classFile = null;
+    if (Options.v().type_based_frames()) {
+      classFile = generateClassFileWithTypeBasedFrames();
+    }
+    if (classFile == null) {
+      ClassWriter cw = new SootASMClassWriter(ClassWriter.COMPUTE_FRAMES);
+      cv = cw;
+      generateByteCode();
+      classFile = cw.toByteArray();
+    }
     try {
-      os.write(cw.toByteArray());
+      os.write(classFile);
     } catch (IOException e) {
       throw new RuntimeException("Could not write class file in the ASM-backend!", e);
     }
   }
 
+  /**
+   * Generates the class file with stack map frames derived from Soot's type information instead of having ASM compute
+   * them, see <code>-type-based-frames</code>.
+   *
+   * @return the class file, or null if the frames of some method cannot be derived this way, in which case the class file
+   *         is generated with frames computed by ASM
+   */
+  protected byte[] generateClassFileWithTypeBasedFrames() {
+    return null;
+  }
+
   /**
    * Outputs the bytecode generated as a textual representation
    *
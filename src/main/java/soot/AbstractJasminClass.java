@@ -31,6 +31,7 @@ import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -273,14 +274,11 @@ public abstract class AbstractJasminClass {
 
   private static class SafeVisibilityAnnotationTags {
 
-    private static final Map<Integer, VisibilityAnnotationTag> safeVats = new HashMap<Integer, VisibilityAnnotationTag>();
+    private static final Map<Integer, VisibilityAnnotationTag> safeVats
+        = new ConcurrentHashMap<Integer, VisibilityAnnotationTag>();
 
     static VisibilityAnnotationTag get(int kind) {
-      VisibilityAnnotationTag safeVat = safeVats.get(kind);
-      if (safeVat == null) {
-        safeVats.put(kind, safeVat = new VisibilityAnnotationTag(kind));
-      }
-      return safeVat;
+      return safeVats.computeIfAbsent(kind, VisibilityAnnotationTag::new);
     }
 
     private SafeVisibilityAnnotationTags() {
@@ -22,11 +22,18 @@ package soot;
  * #L%
  */
 
+import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.RandomAccess;
 
 import soot.tagkit.AbstractHost;
+import soot.tagkit.BytecodeOffsetTag;
+import soot.tagkit.Host;
+import soot.tagkit.LineNumberTag;
+import soot.tagkit.Tag;
+import soot.tagkit.TagInterner;
 import soot.util.Switch;
 
 /**
@@ -40,6 +47,32 @@ public abstract class AbstractUnit extends AbstractHost implements Unit {
    */
   protected List<UnitBox> boxesPointingToThis = null;
 
+  /**
+   * The position of this Unit in the numbering of its body.
+   */
+  private int number = -1;
+
+  private static final int NO_POSITION = Integer.MIN_VALUE;
+
+  /**
+   * The line number and bytecode offset of this Unit, which nearly every statement loaded from bytecode has. Tags of
+   * {@link TagInterner} are kept here by their value instead of in the tag list, and handed out as the interned tags again.
+   * {@link #NO_POSITION} if there is no such tag. They are only recorded here while the tag list is empty, so they always
+   * precede the tags in the list.
+   */
+  private int lineNumber = NO_POSITION;
+  private int bytecodeOffset = NO_POSITION;
+
+  /**
+   * Whether the bytecode offset was added before the line number.
+   */
+  private boolean offsetFirst;
+
+  /**
+   * The view returned by {@link #getTags()} while a line number or bytecode offset is recorded in the fields above.
+   */
+  private transient List<Tag> tagView;
+
   /**
    * Returns a deep clone of this object.
    */
@@ -99,6 +132,17 @@ public abstract class AbstractUnit extends AbstractHost implements Unit {
     }
   }
 
+  /**
+   * Releases the unused capacity of the list of boxes pointing to this Unit, for units that are not expected to be the
+   * target of further jumps.
+   */
+  public void trimBoxesPointingToThis() {
+    List<UnitBox> ref = boxesPointingToThis;
+    if (ref instanceof ArrayList) {
+      ((ArrayList<UnitBox>) ref).trimToSize();
+    }
+  }
+
   @Override
   public void clearUnitBoxes() {
     for (UnitBox ub : getUnitBoxes()) {
@@ -125,6 +169,146 @@ public abstract class AbstractUnit extends AbstractHost implements Unit {
     }
   }
 
+  @Override
+  public int getNumber() {
+    return number;
+  }
+
+  @Override
+  public void setNumber(int number) {
+    this.number = number;
+  }
+
+  /**
+   * Returns the tags of this Unit in the order in which they were added. If a line number or bytecode offset is recorded
+   * in this Unit, the result is a read-only view that reflects later changes to the tags.
+   */
+  @Override
+  public List<Tag> getTags() {
+    if (lineNumber == NO_POSITION && bytecodeOffset == NO_POSITION) {
+      return super.getTags();
+    }
+    List<Tag> view = tagView;
+    if (view == null) {
+      tagView = view = new TagView();
+    }
+    return view;
+  }
+
+  /**
+   * The tags of this Unit: the recorded line number and bytecode offset in the order in which they were added, followed by
+   * the tag list.
+   */
+  private final class TagView extends AbstractList<Tag> implements RandomAccess {
+
+    @Override
+    public Tag get(int index) {
+      final boolean hasLine = lineNumber != NO_POSITION;
+      final boolean hasOffset = bytecodeOffset != NO_POSITION;
+      if (index == 0 && (hasLine || hasOffset)) {
+        return hasLine && !(hasOffset && offsetFirst) ? TagInterner.lineNumber(lineNumber)
+            : TagInterner.bytecodeOffset(bytecodeOffset);
+      }
+      if (index == 1 && hasLine && hasOffset) {
+        return offsetFirst ? TagInterner.lineNumber(lineNumber) : TagInterner.bytecodeOffset(bytecodeOffset);
+      }
+      final List<Tag> tags = mTagList;
+      if (index < 0 || tags == null) {
+        throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+      }
+      return tags.get(index - (hasLine ? 1 : 0) - (hasOffset ? 1 : 0));
+    }
+
+    @Override
+    public int size() {
+      final List<Tag> tags = mTagList;
+      final int positions = (lineNumber != NO_POSITION ? 1 : 0) + (bytecodeOffset != NO_POSITION ? 1 : 0);
+      return positions + (tags == null ? 0 : tags.size());
+    }
+  }
+
+  @Override
+  public Tag getTag(String aName) {
+    if (lineNumber != NO_POSITION && LineNumberTag.NAME.equals(aName)) {
+      return TagInterner.lineNumber(lineNumber);
+    }
+    if (bytecodeOffset != NO_POSITION && BytecodeOffsetTag.NAME.equals(aName)) {
+      return TagInterner.bytecodeOffset(bytecodeOffset);
+    }
+    return super.getTag(aName);
+  }
+
+  @Override
+  public boolean hasTag(String aName) {
+    if (lineNumber != NO_POSITION && LineNumberTag.NAME.equals(aName)) {
+      return true;
+    }
+    if (bytecodeOffset != NO_POSITION && BytecodeOffsetTag.NAME.equals(aName)) {
+      return true;
+    }
+    return super.hasTag(aName);
+  }
+
+  @Override
+  public void removeTag(String aName) {
+    if (lineNumber != NO_POSITION && LineNumberTag.NAME.equals(aName)) {
+      lineNumber = NO_POSITION;
+    } else if (bytecodeOffset != NO_POSITION && BytecodeOffsetTag.NAME.equals(aName)) {
+      bytecodeOffset = NO_POSITION;
+    } else {
+      super.removeTag(aName);
+    }
+  }
+
+  /**
+   * Adds the given {@link Tag} to this Unit. An interned {@link LineNumberTag} or {@link BytecodeOffsetTag} of
+   * {@link TagInterner} that is added before any other tag is only recorded by its value. All other tags, including line
+   * number and offset tags created by the caller, are kept as they are.
+   */
+  @Override
+  public void addTag(Tag t) {
+    if (t != null && (mTagList == null || mTagList.isEmpty()) && TagInterner.isInterned(t)) {
+      if (t instanceof LineNumberTag) {
+        final int ln = ((LineNumberTag) t).getLineNumber();
+        if (lineNumber == NO_POSITION && ln != NO_POSITION) {
+          lineNumber = ln;
+          offsetFirst = bytecodeOffset != NO_POSITION;
+          return;
+        }
+      } else {
+        final int offset = ((BytecodeOffsetTag) t).getBytecodeOffset();
+        if (bytecodeOffset == NO_POSITION && offset != NO_POSITION) {
+          bytecodeOffset = offset;
+          offsetFirst = lineNumber == NO_POSITION;
+          return;
+        }
+      }
+    }
+    super.addTag(t);
+  }
+
+  @Override
+  public void removeAllTags() {
+    lineNumber = NO_POSITION;
+    bytecodeOffset = NO_POSITION;
+    super.removeAllTags();
+  }
+
+  @Override
+  public void addAllTagsOf(Host h) {
+    if (h instanceof AbstractUnit) {
+      // By index and up to the current size, as h may be this Unit
+      final List<Tag> tags = h.getTags();
+      for (int i = 0, e = tags.size(); i < e; i++) {
+        addTag(tags.get(i));
+      }
+    } else {
+      for (Tag t : h.getTags()) {
+        addTag(t);
+      }
+    }
+  }
+
   /**
    * Used to implement the Switchable construct.
    */
@@ -44,6 +44,7 @@ public abstract class AbstractUnitBox implements UnitBox {
     // Remove this from set of back pointers.
     if (this.unit != null) {
       this.unit.removeBoxPointingToThis(this);
+      BodyAnalysisCache.contentsModified();
     }
 
     // Perform link
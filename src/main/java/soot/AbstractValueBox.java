@@ -38,7 +38,11 @@ public abstract class AbstractValueBox extends AbstractHost implements ValueBox
       throw new IllegalArgumentException("value may not be null");
     }
     if (canContainValue(value)) {
+      final Value old = this.value;
       this.value = value;
+      if (old != null) {
+        BodyAnalysisCache.contentsModified();
+      }
     } else {
       throw new RuntimeException("Box " + this + " cannot contain value: " + value + "(" + value.getClass() + ")");
     }
@@ -42,7 +42,9 @@ import soot.options.Options;
 import soot.tagkit.AbstractHost;
 import soot.tagkit.CodeAttribute;
 import soot.tagkit.Tag;
+import soot.util.ArrayChain;
 import soot.util.Chain;
+import soot.util.DenseNumbering;
 import soot.util.EscapedWriter;
 import soot.util.HashChain;
 import soot.validation.BodyValidator;
@@ -89,7 +91,30 @@ public abstract class Body extends AbstractHost implements Serializable {
   /**
    * The chain of units for this Body.
    */
-  protected UnitPatchingChain unitChain = new UnitPatchingChain(new HashChain<>());
+  protected UnitPatchingChain unitChain = new UnitPatchingChain(newUnitChain());
+
+  /**
+   * The current numbering of the units and the modification count of the unit chain it was computed for.
+   */
+  private transient DenseNumbering<Unit> unitNumbering;
+  private transient long unitNumberingModCount;
+
+  /**
+   * The current numbering of the locals and the modification count of the local chain it was computed for.
+   */
+  private transient DenseNumbering<Local> localNumbering;
+  private transient long localNumberingModCount;
+
+  /**
+   * The analyses of this Body cached by {@link BodyAnalysisCache}.
+   */
+  transient BodyAnalysisCache.Entry analysisCacheEntry;
+
+  /**
+   * The modifications of boxes, locals and values attributed to this Body, see {@link BodyAnalysisCache#contentsModified()}.
+   * They are only counted by the thread that transforms the body.
+   */
+  transient long contentModificationCount;
 
   /**
    * Lazy initialized array containing some validators in order to validate the Body.
@@ -103,6 +128,14 @@ public abstract class Body extends AbstractHost implements Serializable {
     }
   }
 
+  /**
+   * Returns a new, empty chain to hold the units of a body, which is an {@link ArrayChain} if
+   * <code>-array-unit-chains</code> is set and a {@link HashChain} otherwise.
+   */
+  protected static Chain<Unit> newUnitChain() {
+    return Options.v().array_unit_chains() ? new ArrayChain<Unit>() : new HashChain<Unit>();
+  }
+
   /**
    * Creates a deep copy of this Body.
    *
@@ -192,6 +225,16 @@ public abstract class Body extends AbstractHost implements Serializable {
    * @return cloned body
    */
   public Map<Object, Object> importBodyContentsFrom(Body b, boolean noLocalsClone) {
+    // Redirecting the boxes of the copies only modifies this body
+    final Body previous = BodyAnalysisCache.enterBody(this);
+    try {
+      return copyContentsFrom(b, noLocalsClone);
+    } finally {
+      BodyAnalysisCache.exitBody(previous);
+    }
+  }
+
+  private Map<Object, Object> copyContentsFrom(Body b, boolean noLocalsClone) {
     HashMap<Object, Object> bindings = new HashMap<>();
 
     // Clone units in body's statement list
@@ -630,6 +673,48 @@ public abstract class Body extends AbstractHost implements Serializable {
     return streamOut.toString();
   }
 
+  /**
+   * Returns a numbering of the units of this Body from 0 to n-1 in chain order, which analyses can use to store data about
+   * units in arrays rather than hash maps. The numbering is recomputed when the unit chain has been modified since the last
+   * call, in which case the previous numbering becomes invalid.
+   *
+   * @return the current numbering of the units
+   */
+  public synchronized DenseNumbering<Unit> getUnitNumbering() {
+    final long modCount = unitChain.getModificationCount();
+    DenseNumbering<Unit> numbering = unitNumbering;
+    if (numbering == null || unitNumberingModCount != modCount) {
+      if (numbering != null) {
+        numbering.invalidate();
+      }
+      numbering = new DenseNumbering<Unit>(unitChain);
+      unitNumbering = numbering;
+      unitNumberingModCount = modCount;
+    }
+    return numbering;
+  }
+
+  /**
+   * Returns a numbering of the locals of this Body from 0 to n-1 in chain order. The numbering is recomputed when the local
+   * chain has been modified since the last call, or when some transformation has renumbered the locals in the meantime, in
+   * which case the previous numbering becomes invalid.
+   *
+   * @return the current numbering of the locals
+   */
+  public synchronized DenseNumbering<Local> getLocalNumbering() {
+    final long modCount = localChain.getModificationCount();
+    DenseNumbering<Local> numbering = localNumbering;
+    if (numbering == null || localNumberingModCount != modCount || !numbering.numbersMatch()) {
+      if (numbering != null) {
+        numbering.invalidate();
+      }
+      numbering = new DenseNumbering<Local>(localChain);
+      localNumbering = numbering;
+      localNumberingModCount = modCount;
+    }
+    return numbering;
+  }
+
   public long getModificationCount() {
     return localChain.getModificationCount() + unitChain.getModificationCount() + trapChain.getModificationCount();
   }
@@ -0,0 +1,451 @@
+package soot;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2026 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import soot.options.Options;
+import soot.toolkits.exceptions.ThrowAnalysis;
+import soot.toolkits.graph.DirectedBodyGraph;
+import soot.toolkits.graph.ExceptionalUnitGraph;
+import soot.toolkits.graph.ExceptionalUnitGraphFactory;
+import soot.toolkits.graph.UnitGraph;
+import soot.toolkits.scalar.LiveLocals;
+import soot.toolkits.scalar.LocalDefs;
+import soot.toolkits.scalar.LocalUses;
+
+/**
+ * Keeps the {@link ExceptionalUnitGraph}, {@link LocalDefs}, {@link LocalUses} and {@link LiveLocals} of a body, so that
+ * transformers that run one after the other on an unmodified body share them instead of computing them again.
+ *
+ * <p>
+ * The factories, i.e., {@link ExceptionalUnitGraphFactory#createExceptionalUnitGraph(Body)},
+ * {@link soot.toolkits.scalar.LocalDefsFactory}, {@link LocalUses.Factory} and {@link LiveLocals.Factory}, go through this
+ * cache. The local defs, uses and live locals are only cached if they are requested on the cached graph, either directly
+ * or through the body, so that analyses on other graphs, e.g., a {@link soot.toolkits.graph.BriefUnitGraph}, work as
+ * before.
+ * </p>
+ *
+ * <p>
+ * The cached analyses of a body are discarded as soon as the body is modified. Changes to the unit, local and trap chains
+ * are detected through {@link Body#getModificationCount()}. Changes to the contents of value and unit boxes and to the
+ * types of locals, which affect the exceptions that statements may throw, are reported by {@link #contentsModified()}.
+ * The boxes and locals do not know their body, so these changes are attributed to the body that the current thread is
+ * working on:
+ * </p>
+ * <ul>
+ * <li>inside {@link BodyTransformer#transform(Body)}, to the body being transformed. A body transformer that modifies other
+ * bodies than its own must {@link #invalidate(Body)} them.</li>
+ * <li>while a method source builds a body, see {@link #enterBodyConstruction()}, to the body being built.</li>
+ * <li>otherwise, e.g., in scene transformers, to all bodies.</li>
+ * </ul>
+ * <p>
+ * Setting the initial value of a box or the initial type of a local does not count as a change. Clients that keep an
+ * analysis while they modify the body must not rely on it reflecting their modifications, which is no different from
+ * analyses they created themselves. The analyses handed out are shared and must not be modified.
+ * </p>
+ *
+ * <p>
+ * The cache is only active if {@link Options#cache_body_analyses()} is set.
+ * </p>
+ */
+public class BodyAnalysisCache {
+  private static final Logger logger = LoggerFactory.getLogger(BodyAnalysisCache.class);
+
+  private static final int GRAPH = 0;
+  private static final int DEFS = 1;
+  private static final int USES = 2;
+  private static final int LIVE = 3;
+  private static final String[] KIND_NAMES = { "unit graphs", "local defs", "local uses", "live locals" };
+
+  /**
+   * The body that is being transformed on the current thread, if any.
+   */
+  private static final ThreadLocal<Body> currentBody = new ThreadLocal<Body>();
+
+  /**
+   * The body construction that is in progress on the current thread, if any.
+   */
+  private static final ThreadLocal<Construction> currentConstruction = new ThreadLocal<Construction>();
+
+  /**
+   * Whether modifications of boxes and locals need to be counted, i.e., whether any analyses have been cached so far.
+   */
+  private volatile boolean tracking = false;
+
+  /**
+   * Counts the modifications that cannot be attributed to a body, which discard the analyses of all bodies of this G.
+   */
+  private final AtomicLong unattributedModifications = new AtomicLong();
+
+  private final AtomicLongArray hits = new AtomicLongArray(KIND_NAMES.length);
+  private final AtomicLongArray misses = new AtomicLongArray(KIND_NAMES.length);
+
+  public BodyAnalysisCache(Singletons.Global g) {
+  }
+
+  public static BodyAnalysisCache v() {
+    return G.v().soot_BodyAnalysisCache();
+  }
+
+  public boolean isEnabled() {
+    return Options.v().cache_body_analyses();
+  }
+
+  /**
+   * Records that the contents of a value or unit box, the type of a local, or a reference or type held by a value have
+   * changed. This is called by the boxes, locals and values themselves.
+   */
+  public static void contentsModified() {
+    final BodyAnalysisCache cache = v();
+    if (!cache.tracking) {
+      return;
+    }
+    final Body body = currentBody.get();
+    if (body != null) {
+      body.contentModificationCount++;
+      return;
+    }
+    final Construction construction = currentConstruction.get();
+    if (construction != null) {
+      construction.modifications++;
+    } else {
+      cache.unattributedModifications.incrementAndGet();
+    }
+  }
+
+  /**
+   * Starts counting the modifications of boxes and locals, which only happens once the first analyses have been cached
+   * otherwise. The {@link BodyStore} needs the counts to tell whether a body may have been modified.
+   */
+  void trackModifications() {
+    tracking = true;
+  }
+
+  /**
+   * Returns the number of modifications of boxes and locals that could not be attributed to a body since the counting
+   * started.
+   */
+  long getUnattributedModifications() {
+    return unattributedModifications.get();
+  }
+
+  /**
+   * Attributes the modifications of boxes and locals on the current thread to the given body, until
+   * {@link #exitBody(Body)} is called with the returned value.
+   *
+   * @return the body that modifications were attributed to before
+   */
+  public static Body enterBody(Body body) {
+    final Body previous = currentBody.get();
+    currentBody.set(body);
+    return previous;
+  }
+
+  /**
+   * Ends a period started by {@link #enterBody(Body)}.
+   *
+   * @param previous
+   *          the value returned by {@link #enterBody(Body)}
+   */
+  public static void exitBody(Body previous) {
+    currentBody.set(previous);
+  }
+
+  /**
+   * Attributes the modifications of boxes and locals on the current thread to a body that is being built, until
+   * {@link #exitBodyConstruction()} is called. The modifications discard the analyses that have been cached during the
+   * construction, i.e., the analyses of the new body, but not those of other bodies. The body transformers that the method
+   * source runs on the new body attribute their modifications as usual.
+   */
+  public static void enterBodyConstruction() {
+    final Construction construction = new Construction(currentBody.get(), currentConstruction.get());
+    currentBody.set(null);
+    currentConstruction.set(construction);
+  }
+
+  /**
+   * Ends the innermost period started by {@link #enterBodyConstruction()} on the current thread.
+   */
+  public static void exitBodyConstruction() {
+    final Construction construction = currentConstruction.get();
+    currentBody.set(construction.enclosingBody);
+    currentConstruction.set(construction.enclosing);
+  }
+
+  /**
+   * Returns the cached exceptional unit graph of the given body for the given throw analysis, or builds and caches a new
+   * one.
+   */
+  public ExceptionalUnitGraph getExceptionalUnitGraph(Body body, ThrowAnalysis throwAnalysis,
+      boolean omitExceptingUnitEdges) {
+    final Entry e = entryOf(body);
+    synchronized (e) {
+      e.validate(body);
+      if (e.graph != null && e.throwAnalysis == throwAnalysis && e.omitExceptingUnitEdges == omitExceptingUnitEdges) {
+        hits.incrementAndGet(GRAPH);
+        return e.graph;
+      }
+      misses.incrementAndGet(GRAPH);
+      final ExceptionalUnitGraph graph
+          = ExceptionalUnitGraphFactory.createExceptionalUnitGraph(body, throwAnalysis, omitExceptingUnitEdges);
+      // The other analyses belong to the previous graph
+      e.clear();
+      e.graph = graph;
+      e.throwAnalysis = throwAnalysis;
+      e.omitExceptingUnitEdges = omitExceptingUnitEdges;
+      return graph;
+    }
+  }
+
+  /**
+   * Returns the cached local defs for the given graph if it is the cached graph of its body, or creates new ones through
+   * <code>factory</code>. The local defs for trusted and untrusted input, see
+   * {@link soot.toolkits.scalar.LocalDefsFactory#newLocalDefs(UnitGraph, boolean)}, are cached separately.
+   */
+  public LocalDefs getLocalDefs(UnitGraph graph, boolean expectUndefined, Supplier<LocalDefs> factory) {
+    final Entry e = currentEntryOf(graph);
+    if (e == null) {
+      return factory.get();
+    }
+    synchronized (e) {
+      if (!e.isCurrent(graph)) {
+        return factory.get();
+      }
+      LocalDefs defs = expectUndefined ? e.defsExpectUndefined : e.defs;
+      if (defs != null) {
+        hits.incrementAndGet(DEFS);
+        return defs;
+      }
+      misses.incrementAndGet(DEFS);
+      defs = factory.get();
+      if (expectUndefined) {
+        e.defsExpectUndefined = defs;
+      } else {
+        e.defs = defs;
+      }
+      return defs;
+    }
+  }
+
+  /**
+   * Returns the cached local uses of the given body if <code>defs</code> are its cached local defs, or creates new ones
+   * through <code>factory</code>.
+   */
+  public LocalUses getLocalUses(Body body, LocalDefs defs, Supplier<LocalUses> factory) {
+    final Entry e = body.analysisCacheEntry;
+    if (e == null || defs == null) {
+      return factory.get();
+    }
+    synchronized (e) {
+      if (!e.isCurrent(e.graph) || (defs != e.defs && defs != e.defsExpectUndefined)) {
+        return factory.get();
+      }
+      if (e.uses != null && e.usesDefs == defs) {
+        hits.incrementAndGet(USES);
+        return e.uses;
+      }
+      misses.incrementAndGet(USES);
+      final LocalUses uses = factory.get();
+      e.uses = uses;
+      e.usesDefs = defs;
+      return uses;
+    }
+  }
+
+  /**
+   * Returns the cached live locals for the given graph if it is the cached graph of its body, or creates new ones through
+   * <code>factory</code>.
+   */
+  public LiveLocals getLiveLocals(DirectedBodyGraph<Unit> graph, Supplier<LiveLocals> factory) {
+    final Entry e = currentEntryOf(graph);
+    if (e == null) {
+      return factory.get();
+    }
+    synchronized (e) {
+      if (!e.isCurrent(graph)) {
+        return factory.get();
+      }
+      if (e.liveLocals != null) {
+        hits.incrementAndGet(LIVE);
+        return e.liveLocals;
+      }
+      misses.incrementAndGet(LIVE);
+      final LiveLocals live = factory.get();
+      e.liveLocals = live;
+      return live;
+    }
+  }
+
+  /**
+   * Discards the cached analyses of the given body.
+   */
+  public void invalidate(Body body) {
+    final Entry e = body.analysisCacheEntry;
+    if (e != null) {
+      synchronized (e) {
+        e.clear();
+        e.graph = null;
+      }
+    }
+  }
+
+  private Entry entryOf(Body body) {
+    Entry e = body.analysisCacheEntry;
+    if (e == null) {
+      synchronized (body) {
+        e = body.analysisCacheEntry;
+        if (e == null) {
+          // From now on, box modifications must be counted
+          tracking = true;
+          body.analysisCacheEntry = e = new Entry(this);
+        }
+      }
+    }
+    return e;
+  }
+
+  private static Entry currentEntryOf(DirectedBodyGraph<Unit> graph) {
+    final Body body = graph.getBody();
+    return (body == null) ? null : body.analysisCacheEntry;
+  }
+
+  public long getHits() {
+    long sum = 0;
+    for (int i = 0; i < KIND_NAMES.length; i++) {
+      sum += hits.get(i);
+    }
+    return sum;
+  }
+
+  public long getMisses() {
+    long sum = 0;
+    for (int i = 0; i < KIND_NAMES.length; i++) {
+      sum += misses.get(i);
+    }
+    return sum;
+  }
+
+  public void printStatistics() {
+    if (isEnabled() && Options.v().verbose()) {
+      logger.debug("[body-analysis-cache] " + this);
+    }
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder();
+    sb.append(getHits()).append(" hits, ").append(getMisses()).append(" misses (");
+    for (int i = 0; i < KIND_NAMES.length; i++) {
+      if (i > 0) {
+        sb.append("; ");
+      }
+      sb.append(KIND_NAMES[i]).append(": ").append(hits.get(i)).append('/').append(misses.get(i));
+    }
+    return sb.append(')').toString();
+  }
+
+  /**
+   * Counts the modifications made while a body is being built.
+   */
+  private static final class Construction {
+    final Body enclosingBody;
+    final Construction enclosing;
+    long modifications;
+
+    Construction(Body enclosingBody, Construction enclosing) {
+      this.enclosingBody = enclosingBody;
+      this.enclosing = enclosing;
+    }
+  }
+
+  /**
+   * The cached analyses of a single body, which are valid as long as the modification counts of the body and of the contents
+   * have not changed since they were computed.
+   */
+  static final class Entry {
+    private final BodyAnalysisCache cache;
+
+    private long bodyModifications = -1;
+    private long contentStamp = -1;
+    private long unattributedStamp = -1;
+    private Construction construction;
+    private long constructionStamp;
+
+    private ExceptionalUnitGraph graph;
+    private ThrowAnalysis throwAnalysis;
+    private boolean omitExceptingUnitEdges;
+    private LocalDefs defs;
+    private LocalDefs defsExpectUndefined;
+    private LocalUses uses;
+    private LocalDefs usesDefs;
+    private LiveLocals liveLocals;
+
+    Entry(BodyAnalysisCache cache) {
+      this.cache = cache;
+    }
+
+    /**
+     * Discards all analyses if the body has been modified since they were computed, and starts a new period of validity.
+     */
+    void validate(Body body) {
+      final long bodyMods = body.getModificationCount();
+      if (!isUnmodified(body, bodyMods)) {
+        clear();
+        graph = null;
+        bodyModifications = bodyMods;
+        contentStamp = body.contentModificationCount;
+        unattributedStamp = cache.unattributedModifications.get();
+        // Modifications made while the body is being built are counted by its construction
+        construction = currentConstruction.get();
+        constructionStamp = (construction == null) ? 0 : construction.modifications;
+      }
+    }
+
+    /**
+     * Returns true if the given graph is the cached graph and the body has not been modified since it was built.
+     */
+    boolean isCurrent(DirectedBodyGraph<Unit> g) {
+      return g != null && g == graph && isUnmodified(g.getBody(), g.getBody().getModificationCount());
+    }
+
+    private boolean isUnmodified(Body body, long bodyMods) {
+      return bodyMods == bodyModifications && body.contentModificationCount == contentStamp
+          && cache.unattributedModifications.get() == unattributedStamp
+          && (construction == null || construction.modifications == constructionStamp);
+    }
+
+    void clear() {
+      defs = null;
+      defsExpectUndefined = null;
+      uses = null;
+      usesDefs = null;
+      liveLocals = null;
+    }
+  }
+}
@@ -0,0 +1,360 @@
+package soot;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2026 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import soot.options.Options;
+
+/**
+ * Keeps track of the method bodies that were loaded from a {@link MethodSource} and releases the least recently used ones
+ * when the heap runs full. A released body is loaded again from the method source of its method when it is requested the
+ * next time, so the eviction is transparent to clients that always go through {@link SootMethod#getActiveBody()}.
+ *
+ * <p>
+ * Only bodies that are provably unmodified are released. A body is pinned, i.e., no longer tracked, once a
+ * {@link BodyTransformer} has been applied to it or once it has been set through {@link SootMethod#setActiveBody(Body)}.
+ * Other modifications are detected by comparing a fingerprint of the body right before it is released. It covers the
+ * statements, values, locals and traps of the body and the modification counts of {@link BodyAnalysisCache}, which catch
+ * in-place changes such as {@link soot.jimple.InvokeExpr#setMethodRef(SootMethodRef)}. Such changes made outside of a body
+ * transformer cannot be attributed to a body, so they keep all bodies that are loaded at that time from being released.
+ * </p>
+ *
+ * <p>
+ * The store is only active if {@link Options#evict_bodies()} is set.
+ * </p>
+ */
+public class BodyStore {
+  private static final Logger logger = LoggerFactory.getLogger(BodyStore.class);
+
+  /** Number of loaded bodies after which the heap usage is checked again. */
+  private static final int CHECK_INTERVAL = 64;
+
+  private static final int DEFAULT_THRESHOLD = 75;
+
+  /** Bodies that are currently loaded and may be released. */
+  private final Set<Entry> resident = ConcurrentHashMap.newKeySet();
+
+  private final AtomicInteger sinceCheck = new AtomicInteger();
+  private final ReentrantLock evictionLock = new ReentrantLock();
+
+  private final AtomicLong loaded = new AtomicLong();
+  private final AtomicLong evictions = new AtomicLong();
+  private final AtomicLong rematerializations = new AtomicLong();
+  private final AtomicLong pinned = new AtomicLong();
+
+  public BodyStore(Singletons.Global g) {
+  }
+
+  public static BodyStore v() {
+    return G.v().soot_BodyStore();
+  }
+
+  public boolean isEnabled() {
+    return Options.v().evict_bodies();
+  }
+
+  /**
+   * Starts tracking a body that has just been loaded from the method source of the given method. Must be called while
+   * holding the lock of the method.
+   */
+  Entry track(SootMethod m, Body b) {
+    BodyAnalysisCache.v().trackModifications();
+    Entry e = new Entry(m);
+    e.setBody(b);
+    resident.add(e);
+    loaded.incrementAndGet();
+    return e;
+  }
+
+  /**
+   * Records that an evicted body has been loaded again. Must be called while holding the lock of the method.
+   */
+  void rematerialized(Entry e, Body b) {
+    e.setBody(b);
+    resident.add(e);
+    rematerializations.incrementAndGet();
+  }
+
+  /**
+   * Stops tracking the body of the given method, e.g., because the body has been replaced or released. Must be called
+   * while holding the lock of the method.
+   */
+  void untrack(SootMethod m, Entry e) {
+    resident.remove(e);
+    m.storedBody = null;
+    // The method source has only been kept for reloading the body
+    if (Options.v().drop_bodies_after_load() && !Options.v().incremental()) {
+      m.ms = null;
+    }
+  }
+
+  /**
+   * Pins the given body so that it is never released. This is called before a body transformer modifies the body, but
+   * clients that modify bodies by other means may call it as well.
+   */
+  public void pin(Body b) {
+    final SootMethod m = b.getMethod();
+    if (m == null) {
+      return;
+    }
+    final Entry e = m.storedBody;
+    if (e != null && e.body == b) {
+      synchronized (m) {
+        if (m.storedBody == e && e.body == b) {
+          untrack(m, e);
+          pinned.incrementAndGet();
+        }
+      }
+    }
+  }
+
+  /**
+   * Releases bodies if the heap usage exceeds the configured threshold. Only every {@value #CHECK_INTERVAL}-th call
+   * actually checks the heap. Must not be called while holding the lock of a method.
+   */
+  void checkMemory() {
+    if (sinceCheck.incrementAndGet() < CHECK_INTERVAL || !evictionLock.tryLock()) {
+      return;
+    }
+    try {
+      sinceCheck.set(0);
+      if (heapUsage() > threshold()) {
+        evictLocked(Math.max(1, resident.size() / 4));
+      }
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  private static int threshold() {
+    final int t = Options.v().body_eviction_threshold();
+    return t > 0 ? Math.min(t, 100) : DEFAULT_THRESHOLD;
+  }
+
+  /**
+   * Returns the usage of the tenured heap in percent. The young generation is ignored because it is regularly emptied by
+   * the garbage collector anyway.
+   */
+  private static int heapUsage() {
+    long used = 0;
+    long max = 0;
+    for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+      // Eden and survivor spaces do not support usage thresholds
+      if (pool.getType() == MemoryType.HEAP && pool.isValid() && pool.isUsageThresholdSupported()) {
+        MemoryUsage usage = pool.getUsage();
+        if (usage != null && usage.getMax() > 0) {
+          used += usage.getUsed();
+          max += usage.getMax();
+        }
+      }
+    }
+    if (max <= 0) {
+      Runtime rt = Runtime.getRuntime();
+      used = rt.totalMemory() - rt.freeMemory();
+      max = rt.maxMemory();
+    }
+    return (int) (used * 100 / max);
+  }
+
+  /**
+   * Releases up to the given number of unmodified bodies, starting with the least recently used ones. Must not be called
+   * while holding the lock of a method.
+   *
+   * @return the number of bodies that have been released
+   */
+  public int evict(int max) {
+    evictionLock.lock();
+    try {
+      return evictLocked(max);
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  private int evictLocked(int max) {
+    List<Entry> candidates = new ArrayList<Entry>(resident);
+    // Access times keep changing while sorting
+    for (Entry e : candidates) {
+      e.sortKey = e.lastAccess;
+    }
+    candidates.sort(Comparator.comparingLong(e -> e.sortKey));
+
+    int count = 0;
+    for (Entry e : candidates) {
+      if (count >= max) {
+        break;
+      }
+      if (evict(e)) {
+        count++;
+      }
+    }
+    if (count > 0 && Options.v().verbose()) {
+      logger.debug("[body-store] Released " + count + " bodies; " + this);
+    }
+    return count;
+  }
+
+  private boolean evict(Entry e) {
+    final SootMethod m = e.method;
+    synchronized (m) {
+      final Body b = e.body;
+      if (m.storedBody != e || b == null) {
+        resident.remove(e);
+        return false;
+      }
+      if (m.activeBody != b || fingerprint(b) != e.fingerprint) {
+        untrack(m, e);
+        pinned.incrementAndGet();
+        return false;
+      }
+      resident.remove(e);
+      e.body = null;
+      m.activeBody = null;
+      evictions.incrementAndGet();
+      return true;
+    }
+  }
+
+  /**
+   * Computes a fingerprint of the identities of all statements, values, locals and traps of the given body and of the
+   * modifications of its contents.
+   */
+  static long fingerprint(Body b) {
+    long h = mix(1, Long.hashCode(b.contentModificationCount));
+    h = mix(h, Long.hashCode(BodyAnalysisCache.v().getUnattributedModifications()));
+    for (Unit u : b.getUnits()) {
+      h = mix(h, System.identityHashCode(u));
+      for (ValueBox vb : u.getUseAndDefBoxes()) {
+        h = mix(h, System.identityHashCode(vb.getValue()));
+      }
+      for (UnitBox ub : u.getUnitBoxes()) {
+        h = mix(h, System.identityHashCode(ub.getUnit()));
+      }
+      h = mix(h, u.getTags().size());
+    }
+    for (Local l : b.getLocals()) {
+      h = mix(h, System.identityHashCode(l));
+      h = mix(h, l.getName().hashCode());
+      h = mix(h, System.identityHashCode(l.getType()));
+    }
+    for (Trap t : b.getTraps()) {
+      h = mix(h, System.identityHashCode(t));
+      h = mix(h, System.identityHashCode(t.getBeginUnit()));
+      h = mix(h, System.identityHashCode(t.getEndUnit()));
+      h = mix(h, System.identityHashCode(t.getHandlerUnit()));
+      h = mix(h, System.identityHashCode(t.getException()));
+    }
+    return mix(h, b.getTags().size());
+  }
+
+  private static long mix(long h, int v) {
+    h = (h ^ v) * 0x9E3779B97F4A7C15L;
+    return h ^ (h >>> 29);
+  }
+
+  /**
+   * Returns the number of bodies that have been loaded from their method source for the first time.
+   */
+  public long getLoaded() {
+    return loaded.get();
+  }
+
+  public long getEvictions() {
+    return evictions.get();
+  }
+
+  public long getRematerializations() {
+    return rematerializations.get();
+  }
+
+  /**
+   * Returns the number of tracked bodies that have been pinned because they were modified.
+   */
+  public long getPinned() {
+    return pinned.get();
+  }
+
+  /**
+   * Returns the number of tracked bodies that are currently loaded.
+   */
+  public int getResident() {
+    return resident.size();
+  }
+
+  /**
+   * Reports the statistics of the store in verbose mode.
+   */
+  public void printStatistics() {
+    if (isEnabled() && Options.v().verbose()) {
+      logger.debug("[body-store] " + this);
+    }
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%d bodies loaded, %d resident, %d evicted, %d reloaded, %d pinned", loaded.get(), resident.size(),
+        evictions.get(), rematerializations.get(), pinned.get());
+  }
+
+  /**
+   * The bookkeeping for the body of a single method.
+   */
+  static final class Entry {
+    final SootMethod method;
+
+    /** The tracked body, or null while the body is evicted. Only written while holding the lock of the method. */
+    volatile Body body;
+    long fingerprint;
+    volatile long lastAccess;
+    long sortKey;
+
+    Entry(SootMethod method) {
+      this.method = method;
+    }
+
+    void setBody(Body b) {
+      body = b;
+      fingerprint = fingerprint(b);
+      lastAccess = System.nanoTime();
+    }
+
+    void touch() {
+      lastAccess = System.nanoTime();
+    }
+  }
+}
@@ -44,12 +44,15 @@ public abstract class BodyTransformer extends Transformer {
    */
   public final void transform(Body b, String phaseName, Map<String, String> options) {
     if (PhaseOptions.getBoolean(options, "enabled")) {
-      internalTransform(b, phaseName, options);
+      // Transformed bodies cannot be restored from their method source
+      BodyStore.v().pin(b);
+      apply(b, phaseName, options);
     }
   }
 
   public final void transform(Body b, String phaseName) {
-    internalTransform(b, phaseName, enabledOnlyMap);
+    BodyStore.v().pin(b);
+    apply(b, phaseName, enabledOnlyMap);
   }
 
   public final void transform(Body b) {
@@ -69,4 +72,14 @@ public abstract class BodyTransformer extends Transformer {
    */
   protected abstract void internalTransform(Body b, String phaseName, Map<String, String> options);
 
+  private void apply(Body b, String phaseName, Map<String, String> options) {
+    // Box and local modifications made by the transformer only discard the cached analyses of its body
+    final Body previous = BodyAnalysisCache.enterBody(b);
+    try {
+      internalTransform(b, phaseName, options);
+    } finally {
+      BodyAnalysisCache.exitBody(previous);
+    }
+  }
+
 }
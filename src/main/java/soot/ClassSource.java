@@ -43,6 +43,14 @@ public abstract class ClassSource {
    */
   public abstract Dependencies resolve(SootClass sc);
 
+  /**
+   * Performs the parts of {@link #resolve(SootClass)} that do not depend on the Scene ahead of time, e.g., reading and
+   * parsing the class file. This method may be called concurrently for different class sources and must not modify the
+   * Scene. The default implementation does nothing.
+   */
+  public void preload() {
+  }
+
   public void close() {
   }
 }
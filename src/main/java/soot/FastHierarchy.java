@@ -36,10 +36,12 @@ import java.util.List;
 import java.util.Map;
 import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import soot.dotnet.types.DotnetBasicTypes;
 import soot.jimple.spark.internal.TypeManager;
 import soot.options.Options;
+import soot.toolkits.scalar.Pair;
 import soot.util.ConcurrentHashMultiMap;
 import soot.util.MultiMap;
 import soot.util.NumberedString;
@@ -98,6 +100,12 @@ public class FastHierarchy {
    */
   protected Map<SootClass, Interval> classToInterval = new HashMap<SootClass, Interval>();
 
+  /**
+   * Memoizes {@link #getLeastCommonSuperclassOf(SootClass, SootClass)}. The pairs are ordered by class name.
+   */
+  protected final Map<Pair<SootClass, SootClass>, SootClass> leastCommonSuperclasses
+      = new ConcurrentHashMap<Pair<SootClass, SootClass>, SootClass>();
+
   protected final Scene sc;
   protected final RefType rtObject;
   protected final RefType rtSerializable;
@@ -153,6 +161,17 @@ public class FastHierarchy {
    * Constructs a hierarchy from the current scene.
    */
   public FastHierarchy() {
+    this(null);
+  }
+
+  /**
+   * Constructs a hierarchy from the current scene, reusing the class intervals of an earlier hierarchy over the same
+   * classes, e.g., one that was restored from a snapshot of the scene.
+   *
+   * @param intervals
+   *          the intervals as returned by {@link #getIntervals()}, or null to compute them
+   */
+  public FastHierarchy(Map<SootClass, int[]> intervals) {
     this.sc = Scene.v();
 
     this.rtObject = sc.getObjectType();
@@ -169,6 +188,14 @@ public class FastHierarchy {
     /* First build the inverse maps. */
     buildInverseMaps();
 
+    if (intervals != null) {
+      for (Map.Entry<SootClass, int[]> e : intervals.entrySet()) {
+        int[] interval = e.getValue();
+        classToInterval.put(e.getKey(), new Interval(interval[0], interval[1]));
+      }
+      return;
+    }
+
     /* Now do a dfs traversal to get the Interval numbers. */
     int r = dfsVisit(0, sc.getObjectType().getSootClass());
     /*
@@ -182,6 +209,18 @@ public class FastHierarchy {
     }
   }
 
+  /**
+   * Returns the preorder and postorder number of each class (not interface) in the inheritance tree.
+   */
+  public Map<SootClass, int[]> getIntervals() {
+    Map<SootClass, int[]> result = new HashMap<SootClass, int[]>(classToInterval.size() * 4 / 3 + 1);
+    for (Map.Entry<SootClass, Interval> e : classToInterval.entrySet()) {
+      Interval interval = e.getValue();
+      result.put(e.getKey(), new int[] { interval.lower, interval.upper });
+    }
+    return result;
+  }
+
   protected void buildInverseMaps() {
     for (SootClass cl : sc.getClasses().getElementsUnsorted()) {
       if (cl.resolvingLevel() < SootClass.HIERARCHY) {
@@ -216,6 +255,38 @@ public class FastHierarchy {
     return parentInterval != null && childInterval != null && parentInterval.isSubrange(childInterval);
   }
 
+  /**
+   * Returns the most specific class that both given classes extend, neither of them being allowed to be interfaces. If
+   * the classes have no common superclass in the hierarchy, e.g., because one of them is phantom, the result is
+   * <code>java.lang.Object</code>. Results are cached, so this is cheap to call repeatedly for the same classes.
+   *
+   * <p>
+   * This method can be used concurrently (is thread safe).
+   */
+  public SootClass getLeastCommonSuperclassOf(SootClass a, SootClass b) {
+    if (a == b) {
+      return a;
+    }
+    final Pair<SootClass, SootClass> key
+        = a.getName().compareTo(b.getName()) < 0 ? new Pair<SootClass, SootClass>(a, b) : new Pair<SootClass, SootClass>(b, a);
+    SootClass result = leastCommonSuperclasses.get(key);
+    if (result == null) {
+      result = rtObject.getSootClass();
+      final Interval other = classToInterval.get(b);
+      if (other != null) {
+        for (SootClass c = a; c != null; c = c.getSuperclassUnsafe()) {
+          Interval interval = classToInterval.get(c);
+          if (interval != null && interval.isSubrange(other)) {
+            result = c;
+            break;
+          }
+        }
+      }
+      leastCommonSuperclasses.putIfAbsent(key, result);
+    }
+    return result;
+  }
+
   /**
    * For an interface parent (MUST be an interface), returns set of all implementers of it but NOT their subclasses.
    *
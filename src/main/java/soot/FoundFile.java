@@ -41,6 +41,7 @@ import java.util.zip.ZipFile;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import soot.util.MappedArchive;
 import soot.util.SharedCloseable;
 
 public class FoundFile implements IFoundFile {
@@ -131,6 +132,22 @@ public class FoundFile implements IFoundFile {
         throw new RuntimeException("Error: Failed to open a InputStream for the file at path '" + file.getPath() + "'.", e);
       }
     } else {
+      MappedArchive mapped = SourceLocator.v().getMappedArchive(file.getPath());
+      if (mapped != null) {
+        try {
+          ret = mapped.getInputStream(entryName);
+        } catch (IOException e) {
+          throw new RuntimeException("Error: Failed to open a InputStream for the entry '" + entryName
+              + "' of the archive at path '" + file.getPath() + "'.", e);
+        }
+        if (ret == null) {
+          throw new RuntimeException(
+              "Error: Failed to find entry '" + entryName + "' in the archive file at path '" + file.getPath() + "'.");
+        }
+        // The entry is read directly from memory, there is no need for buffering
+        openedInputStreams.add(ret);
+        return ret;
+      }
       if (zipFile == null) {
         try {
           zipFile = SourceLocator.v().archivePathToZip.getRef(file.getPath());
@@ -35,14 +35,18 @@ import java.util.Set;
 import soot.dava.internal.SET.SETBasicBlock;
 import soot.dava.internal.SET.SETNode;
 import soot.dexpler.DalvikThrowAnalysis;
+import soot.jimple.Stmt;
 import soot.jimple.spark.pag.MethodPAG;
 import soot.jimple.spark.pag.Parm;
 import soot.jimple.spark.sets.P2SetFactory;
 import soot.jimple.toolkits.annotation.arraycheck.Array2ndDimensionSymbol;
+import soot.jimple.toolkits.annotation.purity.PurityEdge;
+import soot.jimple.toolkits.annotation.purity.PurityNode;
 import soot.jimple.toolkits.pointer.UnionFactory;
 import soot.jimple.toolkits.pointer.util.NativeHelper;
 import soot.jimple.toolkits.typing.ClassHierarchy;
 import soot.toolkits.astmetrics.ClassData;
+import soot.toolkits.exceptions.UnitThrowAnalysis;
 import soot.toolkits.scalar.Pair;
 
 /** A class to group together all the global variables in Soot. */
@@ -62,7 +66,7 @@ public class G extends Singletons {
     objectGetter.reset();
   }
 
-  private static GlobalObjectGetter objectGetter = new GlobalObjectGetter() {
+  private static volatile GlobalObjectGetter objectGetter = new GlobalObjectGetter() {
 
     private G instance = new G();
 
@@ -81,6 +85,15 @@ public class G extends Singletons {
     objectGetter = newGetter;
   }
 
+  /**
+   * Returns the getter that is currently used by {@link #v()}.
+   *
+   * @see SootInstance
+   */
+  public static GlobalObjectGetter getGlobalObjectGetter() {
+    return objectGetter;
+  }
+
   /**
    * Deprecated use logging via slf4j instead
    */
@@ -113,6 +126,24 @@ public class G extends Singletons {
   public int Timer_count;
   public final Map<Scene, ClassHierarchy> ClassHierarchy_classHierarchyMap = new HashMap<Scene, ClassHierarchy>();
   public final Map<MethodContext, MethodContext> MethodContext_map = new HashMap<MethodContext, MethodContext>();
+  public final Map<PurityNode, PurityNode> PurityGraph_nodeCache = new HashMap<PurityNode, PurityNode>();
+  public final Map<PurityEdge, PurityEdge> PurityGraph_edgeCache = new HashMap<PurityEdge, PurityEdge>();
+  public final Map<SootMethod, Integer> PurityMethodNode_nMap = new HashMap<SootMethod, Integer>();
+  public final Map<Stmt, Integer> PurityStmtNode_nMap = new HashMap<Stmt, Integer>();
+  public final Set<SootMethod> LockableReferenceAnalysis_analyzing = new HashSet<SootMethod>();
+  public int LockableReferenceAnalysis_groupNum = 1;
+  public int NewStaticLock_nextidnum = 1;
+  public int CriticalSection_nextIDNum = 1;
+  public String ShimpleBodyBuilder_freshSeparator = "_";
+
+  public UnitThrowAnalysis interproceduralUnitThrowAnalysis = null;
+
+  public UnitThrowAnalysis interproceduralUnitThrowAnalysis() {
+    if (this.interproceduralUnitThrowAnalysis == null) {
+      this.interproceduralUnitThrowAnalysis = new UnitThrowAnalysis(g, true);
+    }
+    return this.interproceduralUnitThrowAnalysis;
+  }
 
   public DalvikThrowAnalysis interproceduralDalvikThrowAnalysis = null;
 
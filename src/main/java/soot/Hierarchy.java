@@ -31,6 +31,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import soot.jimple.SpecialInvokeExpr;
 import soot.util.ArraySet;
@@ -44,7 +45,7 @@ import soot.util.Chain;
  */
 public class Hierarchy {
 
-  // These two maps are not filled in the constructor.
+  // These maps are not filled in the constructor, but on demand, possibly by concurrent threads (e.g., when writing dex).
   protected Map<SootClass, List<SootClass>> classToSubclasses;
   protected Map<SootClass, List<SootClass>> interfaceToSubinterfaces;
   protected Map<SootClass, List<SootClass>> interfaceToSuperinterfaces;
@@ -70,9 +71,9 @@ public class Hierarchy {
       Chain<SootClass> allClasses = sc.getClasses();
       final int mapSize = allClasses.size() * 2 + 1;
 
-      this.classToSubclasses = new HashMap<SootClass, List<SootClass>>(mapSize, 0.7f);
-      this.interfaceToSubinterfaces = new HashMap<SootClass, List<SootClass>>(mapSize, 0.7f);
-      this.interfaceToSuperinterfaces = new HashMap<SootClass, List<SootClass>>(mapSize, 0.7f);
+      this.classToSubclasses = new ConcurrentHashMap<SootClass, List<SootClass>>(mapSize, 0.7f);
+      this.interfaceToSubinterfaces = new ConcurrentHashMap<SootClass, List<SootClass>>(mapSize, 0.7f);
+      this.interfaceToSuperinterfaces = new ConcurrentHashMap<SootClass, List<SootClass>>(mapSize, 0.7f);
 
       this.classToDirSubclasses = new HashMap<SootClass, List<SootClass>>(mapSize, 0.7f);
       this.interfaceToDirSubinterfaces = new HashMap<SootClass, List<SootClass>>(mapSize, 0.7f);
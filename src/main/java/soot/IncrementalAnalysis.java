@@ -0,0 +1,482 @@
+package soot;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2026 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteStreams;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import soot.asm.cache.ClassCache;
+import soot.jimple.ClassConstant;
+import soot.jimple.FieldRef;
+import soot.jimple.InstanceOfExpr;
+import soot.jimple.InvokeExpr;
+import soot.options.Options;
+
+/**
+ * Re-analyzes an application after some of its class files have changed, e.g., between two builds in an IDE.
+ *
+ * <p>
+ * While the application is loaded, the class file of every application class is recorded, and while the body packs run,
+ * the classes each method body refers to are recorded. {@link #reanalyze()} then compares the class files with the
+ * recorded ones, reloads the classes that have changed, and runs the body packs only on the methods of these classes and
+ * on the methods that refer to them. Everything else, in particular the bodies of the unaffected methods, is kept.
+ * Whole-program results such as the call graph and the points-to analysis cannot be patched and are discarded whenever
+ * something changed. The class hierarchy is kept as long as no supertypes changed and no classes were added or removed.
+ * </p>
+ *
+ * <p>
+ * This is enabled with the <code>-incremental</code> option.
+ * </p>
+ */
+public class IncrementalAnalysis {
+  private static final Logger logger = LoggerFactory.getLogger(IncrementalAnalysis.class);
+
+  /** The class files the application classes have been loaded from. */
+  private final Map<String, ClassFileStamp> classes = new ConcurrentHashMap<String, ClassFileStamp>();
+
+  /** The archives on the process path, which {@link SourceLocator} and {@link ClassCache} keep caches for. */
+  private final Map<File, ClassFileStamp> archives = new ConcurrentHashMap<File, ClassFileStamp>();
+
+  /** Maps class names to the methods whose bodies refer to the respective class. */
+  private final Map<String, Set<SootMethod>> dependents = new ConcurrentHashMap<String, Set<SootMethod>>();
+
+  public IncrementalAnalysis(Singletons.Global g) {
+  }
+
+  public static IncrementalAnalysis v() {
+    return G.v().soot_IncrementalAnalysis();
+  }
+
+  public boolean isEnabled() {
+    return Options.v().incremental();
+  }
+
+  /**
+   * Records the class files of all application classes. This is called by {@link Scene#loadNecessaryClasses()}.
+   */
+  public void recordClasses() {
+    classes.clear();
+    archives.clear();
+    for (String path : Options.v().process_dir()) {
+      File f = new File(path);
+      if (f.isFile()) {
+        archives.put(f, new ClassFileStamp(f, null, null));
+      }
+    }
+    for (SootClass sc : Scene.v().getApplicationClasses()) {
+      if (!sc.isPhantom()) {
+        ClassFileStamp stamp = stampOf(sc.getName());
+        if (stamp != null) {
+          classes.put(sc.getName(), stamp);
+        }
+      }
+    }
+  }
+
+  /**
+   * Records the classes that the given body refers to, so that the body is processed again when one of them changes. The
+   * declaring class of the body is not recorded, since all of its methods are processed again when it changes anyway.
+   */
+  public void recordDependencies(Body b) {
+    final Set<String> names = new HashSet<String>();
+    for (Local l : b.getLocals()) {
+      addType(names, l.getType());
+    }
+    for (Unit u : b.getUnits()) {
+      for (ValueBox vb : u.getUseAndDefBoxes()) {
+        Value v = vb.getValue();
+        if (v instanceof InvokeExpr) {
+          names.add(((InvokeExpr) v).getMethodRef().getDeclaringClass().getName());
+        } else if (v instanceof FieldRef) {
+          names.add(((FieldRef) v).getFieldRef().declaringClass().getName());
+        } else if (v instanceof InstanceOfExpr) {
+          addType(names, ((InstanceOfExpr) v).getCheckType());
+        } else if (v instanceof ClassConstant) {
+          addType(names, ((ClassConstant) v).toSootType());
+        }
+        addType(names, v.getType());
+      }
+    }
+    for (Trap t : b.getTraps()) {
+      names.add(t.getException().getName());
+    }
+
+    final SootMethod m = b.getMethod();
+    names.remove(m.getDeclaringClass().getName());
+    for (String name : names) {
+      dependents.computeIfAbsent(name, k -> ConcurrentHashMap.newKeySet()).add(m);
+    }
+  }
+
+  private static void addType(Set<String> names, Type t) {
+    if (t instanceof ArrayType) {
+      t = ((ArrayType) t).baseType;
+    }
+    if (t instanceof RefType) {
+      names.add(((RefType) t).getClassName());
+    }
+  }
+
+  /**
+   * Compares the class files on the process path with the recorded ones. A class file is only read again if its
+   * modification time or size changed, and it only counts as changed if its content changed.
+   */
+  public Delta computeDelta() {
+    final Delta delta = new Delta();
+
+    boolean archivesChanged = false;
+    for (Map.Entry<File, ClassFileStamp> e : archives.entrySet()) {
+      if (!e.getValue().isCurrent(e.getKey())) {
+        ClassCache.v().invalidate(e.getKey());
+        e.setValue(new ClassFileStamp(e.getKey(), null, null));
+        archivesChanged = true;
+      }
+    }
+    if (archivesChanged) {
+      SourceLocator.v().invalidateCaches();
+    }
+
+    for (Map.Entry<String, ClassFileStamp> e : classes.entrySet()) {
+      final String name = e.getKey();
+      final ClassFileStamp old = e.getValue();
+      final IFoundFile file = SourceLocator.v().lookupInClassPath(toFileName(name));
+      if (file == null) {
+        delta.removed.add(name);
+        continue;
+      }
+      try {
+        if (old.path.equals(file.getAbsolutePath()) && old.isCurrent(file.getFile())) {
+          continue;
+        }
+        ClassFileStamp stamp = stampOf(file);
+        if (stamp == null) {
+          delta.removed.add(name);
+        } else if (!stamp.hash.equals(old.hash)) {
+          delta.changed.add(name);
+          delta.stamps.put(name, stamp);
+        } else {
+          // Same content, e.g., after a rebuild that did not change this class
+          e.setValue(stamp);
+        }
+      } finally {
+        file.close();
+      }
+    }
+
+    final Scene scene = Scene.v();
+    for (String path : Options.v().process_dir()) {
+      for (String name : SourceLocator.v().getClassesUnder(path)) {
+        if (!classes.containsKey(name) && !delta.stamps.containsKey(name)) {
+          SootClass sc = scene.getSootClassUnsafe(name, false);
+          if (sc == null || !sc.isApplicationClass()) {
+            ClassFileStamp stamp = stampOf(name);
+            if (stamp != null) {
+              delta.added.add(name);
+              delta.stamps.put(name, stamp);
+            }
+          }
+        }
+      }
+    }
+    return delta;
+  }
+
+  /**
+   * Brings the {@link Scene} up to date with the given delta and returns the methods whose bodies have to be processed
+   * again, i.e., all concrete methods of the changed and added classes and the methods that refer to any of the changed,
+   * added or removed classes or to one of their subtypes. The bodies of these methods are released, all other bodies are
+   * kept.
+   */
+  public Set<SootMethod> apply(Delta delta) {
+    final Scene scene = Scene.v();
+    final FastHierarchy hierarchy = scene.getOrMakeFastHierarchy();
+    final Set<String> touched = new HashSet<String>();
+    touched.addAll(delta.added);
+    touched.addAll(delta.changed);
+    touched.addAll(delta.removed);
+
+    // A method may refer to a member that a subtype inherits from a changed class
+    final Set<String> referenced = new HashSet<String>(touched);
+    for (String name : touched) {
+      SootClass sc = scene.getSootClassUnsafe(name, false);
+      if (sc != null && sc.isInScene()) {
+        for (SootClass sub : getSubtypes(hierarchy, sc)) {
+          referenced.add(sub.getName());
+        }
+      }
+    }
+
+    final Set<SootMethod> dependentMethods = new LinkedHashSet<SootMethod>();
+    for (String name : referenced) {
+      Set<SootMethod> methods = dependents.remove(name);
+      if (methods != null) {
+        for (SootMethod m : methods) {
+          if (m.isDeclared() && !touched.contains(m.getDeclaringClass().getName())) {
+            dependentMethods.add(m);
+          }
+        }
+      }
+    }
+
+    boolean hierarchyChanged = !delta.added.isEmpty() || !delta.removed.isEmpty();
+    final Set<SootMethod> affected = new LinkedHashSet<SootMethod>();
+    for (String name : delta.removed) {
+      SootClass sc = scene.getSootClassUnsafe(name, false);
+      if (sc != null && sc.isInScene()) {
+        scene.removeClass(sc);
+      }
+      classes.remove(name);
+    }
+    for (String name : delta.changed) {
+      SootClass sc = scene.getSootClass(name);
+      final List<SootClass> oldSupertypes = getDirectSupertypes(sc);
+      SootResolver.v().reload(sc);
+      if (!oldSupertypes.equals(getDirectSupertypes(sc))) {
+        hierarchyChanged = true;
+      }
+      addConcreteMethods(sc, affected);
+    }
+    for (String name : delta.added) {
+      SootClass sc = scene.forceResolve(name, SootClass.BODIES);
+      if (!sc.isPhantom()) {
+        sc.setApplicationClass();
+        addConcreteMethods(sc, affected);
+      }
+    }
+    classes.putAll(delta.stamps);
+
+    // Without a method source, a body can only be recreated by reloading its class
+    final Set<SootClass> reload = new LinkedHashSet<SootClass>();
+    for (SootMethod m : dependentMethods) {
+      if (m.getSource() == null) {
+        reload.add(m.getDeclaringClass());
+      } else {
+        m.releaseActiveBody();
+        affected.add(m);
+      }
+    }
+    for (SootClass sc : reload) {
+      SootResolver.v().reload(sc);
+      addConcreteMethods(sc, affected);
+    }
+
+    if (hierarchyChanged) {
+      scene.releaseFastHierarchy();
+    } else {
+      scene.setFastHierarchy(hierarchy);
+    }
+    scene.releaseActiveHierarchy();
+    if (scene.hasCallGraph() || scene.hasPointsToAnalysis()) {
+      scene.releaseCallGraph();
+      scene.releasePointsToAnalysis();
+      scene.releaseSideEffectAnalysis();
+      G.v().resetSpark();
+    }
+
+    if (Options.v().verbose()) {
+      logger.debug("[incremental] " + delta + "; " + affected.size() + " affected methods, " + dependentMethods.size()
+          + " of them in unchanged classes" + (hierarchyChanged ? "; hierarchy changed" : ""));
+    }
+    return affected;
+  }
+
+  /**
+   * Re-analyzes the application after some of its class files have changed, i.e., applies the {@link #computeDelta()
+   * delta} to the Scene, runs the body packs on the affected methods and writes out the classes that declare them.
+   * Returns the affected methods, which is empty if nothing changed.
+   */
+  public Set<SootMethod> reanalyze() {
+    final Delta delta = computeDelta();
+    if (delta.isEmpty()) {
+      return Collections.emptySet();
+    }
+
+    final Options opts = Options.v();
+    final boolean write = opts.output_format() != Options.output_format_none;
+    final List<File> obsolete = new ArrayList<File>();
+    if (write) {
+      for (String name : delta.removed) {
+        SootClass sc = Scene.v().getSootClassUnsafe(name, false);
+        if (sc != null) {
+          obsolete.add(new File(SourceLocator.v().getFileNameFor(sc, opts.output_format())));
+        }
+      }
+    }
+
+    final Set<SootMethod> affected = apply(delta);
+    final Set<SootClass> affectedClasses = new LinkedHashSet<SootClass>();
+    for (SootMethod m : affected) {
+      affectedClasses.add(m.getDeclaringClass());
+    }
+    if (write && !opts.no_writeout_body_releasing()) {
+      // The other bodies of the affected classes have been released when the classes were written
+      for (SootClass sc : affectedClasses) {
+        for (SootMethod m : sc.getMethods()) {
+          if (m.isConcrete() && !m.hasActiveBody()) {
+            affected.add(m);
+          }
+        }
+      }
+    }
+
+    PackManager.v().runBodyPacks(affected);
+    if (write) {
+      PackManager.v().writeOutput(affectedClasses);
+      for (File f : obsolete) {
+        if (f.isFile() && !f.delete()) {
+          logger.warn("Could not delete " + f);
+        }
+      }
+    }
+    return affected;
+  }
+
+  private static void addConcreteMethods(SootClass sc, Set<SootMethod> methods) {
+    for (SootMethod m : sc.getMethods()) {
+      if (m.isConcrete()) {
+        methods.add(m);
+      }
+    }
+  }
+
+  private static List<SootClass> getDirectSupertypes(SootClass sc) {
+    final List<SootClass> supertypes = new ArrayList<SootClass>(sc.getInterfaces());
+    supertypes.add(sc.hasSuperclass() ? sc.getSuperclass() : null);
+    return supertypes;
+  }
+
+  private static Set<SootClass> getSubtypes(FastHierarchy hierarchy, SootClass sc) {
+    final Set<SootClass> subtypes = new HashSet<SootClass>();
+    final List<SootClass> worklist = new ArrayList<SootClass>();
+    if (sc.isInterface()) {
+      worklist.addAll(hierarchy.getAllSubinterfaces(sc));
+      worklist.addAll(hierarchy.getAllImplementersOfInterface(sc));
+    } else {
+      worklist.add(sc);
+    }
+    while (!worklist.isEmpty()) {
+      SootClass c = worklist.remove(worklist.size() - 1);
+      if (subtypes.add(c) && !c.isInterface()) {
+        worklist.addAll(hierarchy.getSubclassesOf(c));
+      }
+    }
+    subtypes.remove(sc);
+    return subtypes;
+  }
+
+  private static String toFileName(String className) {
+    return className.replace('.', '/') + ".class";
+  }
+
+  private static ClassFileStamp stampOf(String className) {
+    final IFoundFile file = SourceLocator.v().lookupInClassPath(toFileName(className));
+    if (file == null) {
+      return null;
+    }
+    try {
+      return stampOf(file);
+    } finally {
+      file.close();
+    }
+  }
+
+  private static ClassFileStamp stampOf(IFoundFile file) {
+    try (InputStream in = file.inputStream()) {
+      return new ClassFileStamp(file.getFile(), file.getAbsolutePath(),
+          Hashing.murmur3_128().hashBytes(ByteStreams.toByteArray(in)));
+    } catch (IOException e) {
+      logger.debug("Could not read " + file.getAbsolutePath() + ": " + e.getMessage());
+      return null;
+    }
+  }
+
+  /**
+   * The classes that have been added, changed or removed since they have been recorded.
+   */
+  public static final class Delta {
+    private final Set<String> added = new TreeSet<String>();
+    private final Set<String> changed = new TreeSet<String>();
+    private final Set<String> removed = new TreeSet<String>();
+    private final Map<String, ClassFileStamp> stamps = new ConcurrentHashMap<String, ClassFileStamp>();
+
+    public Set<String> getAdded() {
+      return Collections.unmodifiableSet(added);
+    }
+
+    public Set<String> getChanged() {
+      return Collections.unmodifiableSet(changed);
+    }
+
+    public Set<String> getRemoved() {
+      return Collections.unmodifiableSet(removed);
+    }
+
+    public boolean isEmpty() {
+      return added.isEmpty() && changed.isEmpty() && removed.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+      return added.size() + " added, " + changed.size() + " changed, " + removed.size() + " removed classes";
+    }
+  }
+
+  /**
+   * Identifies the content of a class file. The modification time and size refer to the file itself or to the archive
+   * containing it; the hash is only known for class files.
+   */
+  private static final class ClassFileStamp {
+    final String path;
+    final long lastModified;
+    final long length;
+    final HashCode hash;
+
+    ClassFileStamp(File container, String path, HashCode hash) {
+      this.path = path;
+      this.lastModified = container == null ? 0 : container.lastModified();
+      this.length = container == null ? -1 : container.length();
+      this.hash = hash;
+    }
+
+    boolean isCurrent(File container) {
+      return container != null && container.lastModified() == lastModified && container.length() == length;
+    }
+  }
+}
@@ -25,6 +25,7 @@ package soot;
 import static java.net.URLEncoder.encode;
 
 import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
@@ -34,6 +35,12 @@ import java.io.PrintWriter;
 import java.io.UnsupportedEncodingException;
 import java.util.Date;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import soot.asm.cache.ClassCache;
+import soot.asm.cache.SceneSnapshot;
+import soot.dexpler.DexBodyCache;
 import soot.options.CGOptions;
 import soot.options.Options;
 import soot.toolkits.astmetrics.ClassData;
@@ -42,6 +49,8 @@ import soot.toolkits.astmetrics.ClassData;
  * Main class for Soot; provides Soot's command-line user interface.
  */
 public class Main {
+  private static final Logger logger = LoggerFactory.getLogger(Main.class);
+
   public Main(Singletons.Global g) {
   }
 
@@ -219,6 +228,33 @@ public class Main {
     return sb.append(s, start, end);
   }
 
+  /**
+   * Loads the necessary classes into the Scene, or restores them from the snapshot given by
+   * {@link Options#scene_snapshot()}. If there is no usable snapshot, the classes are loaded as usual and a new snapshot is
+   * written.
+   */
+  private void loadNecessaryClasses() {
+    final String snapshot = Options.v().scene_snapshot();
+    if (snapshot == null || snapshot.isEmpty()) {
+      Scene.v().loadNecessaryClasses();
+      return;
+    }
+    final File file = new File(snapshot);
+    try {
+      if (SceneSnapshot.restore(file)) {
+        return;
+      }
+    } catch (IOException e) {
+      throw new CompilationDeathException("Cannot restore scene snapshot " + file, e);
+    }
+    Scene.v().loadNecessaryClasses();
+    try {
+      SceneSnapshot.save(file, Options.v().snapshot_bodies());
+    } catch (IOException e) {
+      logger.warn("Cannot save scene snapshot " + file + ": " + e.getMessage());
+    }
+  }
+
   /**
    * Entry point to the soot's compilation process.
    */
@@ -237,7 +273,7 @@ public class Main {
 
       System.out.println("Soot started on " + start);
 
-      Scene.v().loadNecessaryClasses();
+      loadNecessaryClasses();
 
       /*
        * By this all the java to jimple has occured so we just check ast-metrics flag
@@ -264,10 +300,16 @@ public class Main {
       }
 
       PackManager.v().runPacks();
-      if (!Options.v().oaat()) {
+      if (!Options.v().oaat() && !Options.v().streaming()) {
         PackManager.v().writeOutput();
       }
 
+      // Classes may have been resolved lazily while running the packs
+      ClassCache.v().flush();
+      BodyStore.v().printStatistics();
+      DexBodyCache.v().printStatistics();
+      BodyAnalysisCache.v().printStatistics();
+
       Timers.v().totalTimer.end();
 
       // Print out time stats.
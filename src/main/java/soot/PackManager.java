@@ -24,26 +24,36 @@ import heros.solver.CountingThreadPoolExecutor;
  * #L%
  */
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.util.jar.JarEntry;
 import java.util.jar.JarOutputStream;
 import java.util.zip.GZIPOutputStream;
-import java.util.zip.ZipEntry;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -67,6 +77,7 @@ import soot.dava.toolkits.base.misc.ThrowFinder;
 import soot.grimp.Grimp;
 import soot.grimp.GrimpBody;
 import soot.grimp.toolkits.base.ConstructorFolder;
+import soot.jimple.FrozenJimpleBody;
 import soot.jimple.JimpleBody;
 import soot.jimple.paddle.PaddleHook;
 import soot.jimple.spark.SparkTransformer;
@@ -137,6 +148,8 @@ import soot.toolkits.scalar.LocalPacker;
 import soot.toolkits.scalar.LocalSplitter;
 import soot.toolkits.scalar.SharedInitializationLocalSplitter;
 import soot.toolkits.scalar.UnusedLocalEliminator;
+import soot.util.Chain;
+import soot.util.ConcurrentJarWriter;
 import soot.util.EscapedWriter;
 import soot.util.JasminOutputStream;
 import soot.util.PhaseDumper;
@@ -150,10 +163,17 @@ public class PackManager {
   private static final Logger logger = LoggerFactory.getLogger(PackManager.class);
   public static boolean DEBUG = false;
 
+  /**
+   * The packs whose transformers may modify Jimple or Shimple bodies after they have been built by jb.
+   */
+  private static final String[] BODY_TRANSFORMING_PACKS
+      = { "wjpp", "wspp", "wjtp", "wjop", "wstp", "wsop", "jtp", "jop", "stp", "sop" };
+
   private final Map<String, Pack> packNameToPack = new HashMap<String, Pack>();
   private final List<Pack> packList = new LinkedList<Pack>();
   private boolean onlyStandardPacks = false;
   private JarOutputStream jarFile = null;
+  private ConcurrentJarWriter jarWriter = null;
   protected DexPrinter dexPrinter = null;
 
   public PackManager(Singletons.Global g) {
@@ -419,13 +439,204 @@ public class PackManager {
   }
 
   public void runPacks() {
+    checkFrozenBodies();
     if (Options.v().oaat()) {
       runPacksForOneClassAtATime();
+    } else if (Options.v().streaming()) {
+      runPacksStreaming();
     } else {
       runPacksNormally();
     }
   }
 
+  /**
+   * Frozen bodies throw on any modification, so <code>-freeze-bodies</code> is rejected as long as any phase that may
+   * transform bodies after jb is enabled, and for dex output, which adapts the bodies to Dalvik in place.
+   */
+  private void checkFrozenBodies() {
+    final Options opts = Options.v();
+    if (!opts.freeze_bodies()) {
+      return;
+    }
+    if (opts.output_format() == Options.output_format_dex || opts.output_format() == Options.output_format_force_dex) {
+      throw new CompilationDeathException(CompilationDeathException.COMPILATION_ABORTED,
+          "-freeze-bodies cannot be used with dex output, as the dex printer transforms bodies");
+    }
+    final PhaseOptions phaseOptions = PhaseOptions.v();
+    for (String packName : BODY_TRANSFORMING_PACKS) {
+      Pack pack = getPack(packName);
+      if (!PhaseOptions.getBoolean(phaseOptions.getPhaseOptions(pack), "enabled")) {
+        continue;
+      }
+      for (Transform t : pack) {
+        if (PhaseOptions.getBoolean(phaseOptions.getPhaseOptions(t), "enabled")) {
+          throw new CompilationDeathException(CompilationDeathException.COMPILATION_ABORTED,
+              "-freeze-bodies cannot be used while phase " + t.getPhaseName() + " is enabled, as it may transform bodies");
+        }
+      }
+    }
+  }
+
+  /**
+   * Runs the whole-program packs, if enabled, and then streams the application classes through body creation, the body
+   * packs, output writing and body releasing. At most a fixed window of classes is in flight at any time, so that only the
+   * bodies of these classes need to be resident at once. Output is written as part of this method, i.e.,
+   * {@link #writeOutput()} must not be called afterwards.
+   */
+  private void runPacksStreaming() {
+    final Options opts = Options.v();
+    final int format = opts.output_format();
+    if (format == Options.output_format_dava || opts.interactive_mode()) {
+      logger.warn("Streaming is not supported for Dava output or in interactive mode, using the regular pipeline.");
+      runPacksNormally();
+      writeOutput();
+      return;
+    }
+
+    if (opts.src_prec() == Options.src_prec_class && opts.keep_line_number()) {
+      LineNumberAdder.v().internalTransform("", null);
+    }
+    if (opts.whole_program() || opts.whole_shimple()) {
+      runWholeProgramPacks();
+    }
+
+    setupJAR();
+    final boolean dex = format == Options.output_format_dex || format == Options.output_format_force_dex;
+    if (dex) {
+      dexPrinter = new DexPrinter();
+    }
+    // Class files can be written concurrently unless they go into a JAR file, for which they are generated and compressed
+    // concurrently. All other output is written in class order by the calling thread, so that the output does not depend
+    // on scheduling.
+    final boolean concurrentWrites = format == Options.output_format_class && jarWriter == null;
+    final boolean concurrentJarEntries = format == Options.output_format_class && jarWriter != null;
+
+    int threadNum = opts.num_threads();
+    if (threadNum < 1) {
+      threadNum = Runtime.getRuntime().availableProcessors();
+    }
+    final int window = opts.streaming_window() > 0 ? opts.streaming_window() : 4 * threadNum;
+    ExecutorService executor
+        = new ThreadPoolExecutor(threadNum, threadNum, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>());
+    try {
+      final Deque<Future<StreamedClass>> inFlight = new ArrayDeque<Future<StreamedClass>>(window);
+      // Creating bodies may add application classes, e.g., the classes that LambdaMetaFactory generates for
+      // invokedynamic, so the application classes are scanned again once all classes seen so far have been scheduled
+      final Set<SootClass> scheduled = new HashSet<SootClass>();
+      final Chain<SootClass> applicationClasses = Scene.v().getApplicationClasses();
+      Iterator<SootClass> classes = reachableClasses();
+      int scannedSize = applicationClasses.size();
+      while (true) {
+        while (inFlight.size() < window) {
+          if (!classes.hasNext()) {
+            if (applicationClasses.size() == scannedSize && !inFlight.isEmpty()) {
+              // New classes may still be added by the classes in flight
+              break;
+            }
+            scannedSize = applicationClasses.size();
+            classes = reachableClasses();
+          }
+          SootClass next = null;
+          while (next == null && classes.hasNext()) {
+            final SootClass candidate = classes.next();
+            if (scheduled.add(candidate)) {
+              next = candidate;
+            }
+          }
+          if (next == null) {
+            break;
+          }
+          final SootClass c = next;
+          inFlight.add(executor.submit(() -> {
+            streamClass(c, concurrentWrites);
+            return new StreamedClass(c, concurrentJarEntries ? toJarEntry(c) : null);
+          }));
+        }
+        if (inFlight.isEmpty()) {
+          break;
+        }
+        StreamedClass s = await(inFlight.poll());
+        if (!concurrentWrites) {
+          writeStreamedClass(s);
+        }
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    if (dex) {
+      dexPrinter.print();
+      dexPrinter = null;
+    } else {
+      tearDownJAR();
+    }
+  }
+
+  private void streamClass(SootClass c, boolean write) {
+    if (Options.v().validate()) {
+      c.validate();
+    }
+    if (!c.isPhantom) {
+      // Create tags from all values we only have in code assignments now
+      SootMethod clinit = c.getMethodByNameUnsafe(SootMethod.staticInitializerName);
+      if (clinit != null && clinit.isConcrete()) {
+        clinit.retrieveActiveBody();
+      }
+      ConstantInitializerToTagTransformer.v().transformClass(c, true);
+    }
+    runBodyPacks(c);
+    InnerClassTagAggregator.v().aggregate(c);
+    if (write) {
+      writeStreamedClass(new StreamedClass(c, null));
+    }
+  }
+
+  private void writeStreamedClass(StreamedClass s) {
+    final SootClass c = s.clazz;
+    if (s.jarEntry != null) {
+      writeJarEntry(s.jarEntry);
+    } else {
+      writeClass(c);
+    }
+    if (Options.v().xml_attributes() && Options.v().output_format() == Options.output_format_jimple) {
+      processXMLForClass(c);
+    }
+    if (!Options.v().no_writeout_body_releasing()) {
+      releaseBodies(c);
+    }
+  }
+
+  /**
+   * A class that has passed through the packs, with its compressed JAR entry if that has been generated concurrently.
+   */
+  private static final class StreamedClass {
+    final SootClass clazz;
+    final ConcurrentJarWriter.Entry jarEntry;
+
+    StreamedClass(SootClass clazz, ConcurrentJarWriter.Entry jarEntry) {
+      this.clazz = clazz;
+      this.jarEntry = jarEntry;
+    }
+  }
+
+  private static <T> T await(Future<T> f) {
+    try {
+      return f.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("Could not wait for pack threads to finish: " + e.getMessage(), e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      } else if (cause instanceof Error) {
+        throw (Error) cause;
+      } else {
+        throw new RuntimeException(cause);
+      }
+    }
+  }
+
   private void runPacksForOneClassAtATime() {
     if (Options.v().src_prec() == Options.src_prec_class && Options.v().keep_line_number()) {
       LineNumberAdder.v().internalTransform("", null);
@@ -529,6 +740,28 @@ public class PackManager {
     runBodyPacks(reachableClasses());
   }
 
+  /**
+   * Runs the body packs for the given methods only, e.g., for the methods that are affected by a change in an incremental
+   * re-analysis. The whole-program packs are not run.
+   */
+  public void runBodyPacks(Collection<SootMethod> methods) {
+    final Map<SootClass, List<SootMethod>> classToMethods = new LinkedHashMap<SootClass, List<SootMethod>>();
+    for (SootMethod m : methods) {
+      classToMethods.computeIfAbsent(m.getDeclaringClass(), k -> new ArrayList<SootMethod>()).add(m);
+    }
+    runBodyPacks(classToMethods.entrySet().iterator(), e -> runBodyPacks(e.getKey(), e.getValue()));
+  }
+
+  /**
+   * Returns the stream of the output JAR for output formats that are not written class by class, i.e., for dex and Dava
+   * output, or null otherwise.
+   *
+   * <p>
+   * Note that this includes JAR output of all other formats, e.g., class files or Jimple. Their entries are compressed
+   * concurrently and written by an internal writer whose stream must not be used directly, so this method returns null for
+   * them although <code>-output-jar</code> is set. Earlier versions returned the stream in this case as well.
+   * </p>
+   */
   public JarOutputStream getJarFile() {
     return jarFile;
   }
@@ -562,6 +795,23 @@ public class PackManager {
     }
   }
 
+  /**
+   * Writes out the given classes only, e.g., the classes that have been re-analyzed incrementally. This is only supported
+   * for output formats that produce one file per class, i.e., neither with -output-jar nor for dex or Dava output.
+   */
+  public void writeOutput(Collection<SootClass> classes) {
+    final int format = Options.v().output_format();
+    if (Options.v().output_jar() || format == Options.output_format_dava || format == Options.output_format_dex
+        || format == Options.output_format_force_dex) {
+      throw new IllegalStateException("Individual classes cannot be written to the configured output");
+    }
+    writeOutput(classes.iterator());
+    postProcessXML(classes.iterator());
+    if (!Options.v().no_writeout_body_releasing()) {
+      releaseBodies(classes.iterator());
+    }
+  }
+
   protected void writeDexOutput() {
     dexPrinter = new DexPrinter();
     writeOutput(reachableClasses());
@@ -570,15 +820,21 @@ public class PackManager {
   }
 
   private void setupJAR() {
+    jarFile = null;
+    jarWriter = null;
     if (Options.v().output_jar()) {
+      final int format = Options.v().output_format();
       String outFileName = SourceLocator.v().getOutputJarName();
       try {
-        jarFile = new JarOutputStream(new FileOutputStream(outFileName));
+        if (format == Options.output_format_dava || format == Options.output_format_dex
+            || format == Options.output_format_force_dex) {
+          jarFile = new JarOutputStream(new FileOutputStream(outFileName));
+        } else {
+          jarWriter = new ConcurrentJarWriter(new FileOutputStream(outFileName));
+        }
       } catch (IOException e) {
         throw new CompilationDeathException("Cannot open output Jar file " + outFileName);
       }
-    } else {
-      jarFile = null;
     }
   }
 
@@ -630,6 +886,10 @@ public class PackManager {
   }
 
   private void runBodyPacks(final Iterator<SootClass> classes) {
+    runBodyPacks(classes, this::runBodyPacks);
+  }
+
+  private <T> void runBodyPacks(final Iterator<T> tasks, final Consumer<T> action) {
     int threadNum = Options.v().num_threads();
     if (threadNum < 1) {
       threadNum = Runtime.getRuntime().availableProcessors();
@@ -637,9 +897,9 @@ public class PackManager {
     CountingThreadPoolExecutor executor
         = new CountingThreadPoolExecutor(threadNum, threadNum, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>());
 
-    while (classes.hasNext()) {
-      final SootClass c = classes.next();
-      executor.execute(() -> runBodyPacks(c));
+    while (tasks.hasNext()) {
+      final T t = tasks.next();
+      executor.execute(() -> action.accept(t));
     }
 
     // Wait till all packs have been executed
@@ -667,10 +927,14 @@ public class PackManager {
   }
 
   protected void writeOutput(Iterator<SootClass> classes) {
+    if (jarWriter != null) {
+      writeJarOutput(classes);
+      return;
+    }
     // If we're writing individual class files, we can write them
     // concurrently. Otherwise, we need to synchronize for not destroying
     // the shared output stream.
-    int threadNum = Options.v().output_format() == Options.output_format_class && jarFile == null
+    int threadNum = Options.v().output_format() == Options.output_format_class
         ? Runtime.getRuntime().availableProcessors()
         : 1;
     CountingThreadPoolExecutor executor
@@ -701,11 +965,53 @@ public class PackManager {
     }
   }
 
+  /**
+   * Writes the given classes into the output JAR. Class files are generated and compressed concurrently, like the class
+   * files written to a directory, and are appended to the JAR by the calling thread in class order, so that the JAR does not
+   * depend on scheduling.
+   */
+  private void writeJarOutput(Iterator<SootClass> classes) {
+    final int threadNum
+        = Options.v().output_format() == Options.output_format_class ? Runtime.getRuntime().availableProcessors() : 1;
+    final int window = 4 * threadNum;
+    ExecutorService executor
+        = new ThreadPoolExecutor(threadNum, threadNum, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>());
+    try {
+      final Deque<Future<ConcurrentJarWriter.Entry>> inFlight = new ArrayDeque<Future<ConcurrentJarWriter.Entry>>(window);
+      while (true) {
+        while (inFlight.size() < window && classes.hasNext()) {
+          final SootClass c = classes.next();
+          inFlight.add(executor.submit(() -> toJarEntry(c)));
+        }
+        if (inFlight.isEmpty()) {
+          break;
+        }
+        ConcurrentJarWriter.Entry entry = await(inFlight.poll());
+        if (entry != null) {
+          writeJarEntry(entry);
+        }
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private void writeJarEntry(ConcurrentJarWriter.Entry entry) {
+    try {
+      jarWriter.write(entry);
+    } catch (IOException e) {
+      throw new CompilationDeathException("Cannot output file " + entry.getName(), e);
+    }
+  }
+
   private void tearDownJAR() {
     try {
       if (jarFile != null) {
         jarFile.close();
       }
+      if (jarWriter != null) {
+        jarWriter.close();
+      }
     } catch (IOException e) {
       throw new CompilationDeathException("Error closing output jar: " + e);
     }
@@ -855,6 +1161,10 @@ public class PackManager {
 
   @SuppressWarnings("fallthrough")
   private void runBodyPacks(SootClass c) {
+    runBodyPacks(c, c.getMethods());
+  }
+
+  private void runBodyPacks(SootClass c, Collection<SootMethod> methods) {
     final int format = Options.v().output_format();
     if (format == Options.output_format_dava) {
       logger.debug("Decompiling {}...", c.getName());
@@ -916,7 +1226,8 @@ public class PackManager {
     // such adding of methods happens in rare occasions: for instance when
     // resolving a method reference to a non-existing method, then this
     // method is created as a phantom method when phantom-refs are enabled
-    for (SootMethod m : new ArrayList<SootMethod>(c.getMethods())) {
+    final IncrementalAnalysis incremental = IncrementalAnalysis.v().isEnabled() ? IncrementalAnalysis.v() : null;
+    for (SootMethod m : new ArrayList<SootMethod>(methods)) {
       if (DEBUG) {
         if (!m.getExceptions().isEmpty()) {
           System.out.println("PackManager printing out jimple body exceptions for method " + m.toString() + " "
@@ -927,6 +1238,9 @@ public class PackManager {
       if (!m.isConcrete()) {
         continue;
       }
+      if (incremental != null) {
+        incremental.recordDependencies(m.retrieveActiveBody());
+      }
 
       if (produceShimple || wholeShimple) {
         ShimpleBody sBody;
@@ -959,11 +1273,14 @@ public class PackManager {
       if (produceJimple) {
         Body body = m.retrieveActiveBody();
 
-        getTransform("jb.cp").apply(body); // CopyPropagator
-        getTransform("jb.cbf").apply(body); // ConditionalBranchFolder
-        getTransform("jb.uce").apply(body); // UnreachableCodeEliminator
-        getTransform("jb.dae").apply(body); // DeadAssignmentEliminator
-        getTransform("jb.cp-ule").apply(body); // UnusedLocalEliminator
+        // Frozen bodies are left exactly as jb built them, there is nothing to clean up
+        if (!(body instanceof FrozenJimpleBody)) {
+          getTransform("jb.cp").apply(body); // CopyPropagator
+          getTransform("jb.cbf").apply(body); // ConditionalBranchFolder
+          getTransform("jb.uce").apply(body); // UnreachableCodeEliminator
+          getTransform("jb.dae").apply(body); // DeadAssignmentEliminator
+          getTransform("jb.cp-ule").apply(body); // UnusedLocalEliminator
+        }
         getPack("jtp").apply(body);
 
         if (Options.v().validate()) {
@@ -993,7 +1310,7 @@ public class PackManager {
     }
 
     if (produceDava) {
-      for (SootMethod m : c.getMethods()) {
+      for (SootMethod m : methods) {
         if (!m.isConcrete() || !m.hasActiveBody()) {
           // note: abnormal class can have a concrete method without body.
           continue;
@@ -1036,59 +1353,103 @@ public class PackManager {
   }
 
   protected void writeClass(SootClass c) {
+    if (jarWriter != null) {
+      ConcurrentJarWriter.Entry entry = toJarEntry(c);
+      if (entry != null) {
+        writeJarEntry(entry);
+      }
+      return;
+    }
+    final int format = Options.v().output_format();
+    if (!prepareClassOutput(c, format)) {
+      return;
+    }
+
+    final String fileName = getClassFileName(c, format);
+    OutputStream streamOut;
+    try {
+      new File(fileName).getParentFile().mkdirs();
+      streamOut = new FileOutputStream(fileName);
+    } catch (IOException e) {
+      throw new CompilationDeathException("Cannot output file " + fileName, e);
+    }
+    logger.debug("Writing to " + fileName);
+    try {
+      printClass(c, format, streamOut);
+    } catch (IOException e) {
+      throw new CompilationDeathException("Cannot close output file " + fileName);
+    }
+  }
+
+  /**
+   * Generates the output for the given class and compresses it into an entry of the output JAR, or returns null if the
+   * output format does not produce a file per class. Like {@link #writeClass(SootClass)}, this may be called concurrently
+   * for class files.
+   */
+  private ConcurrentJarWriter.Entry toJarEntry(SootClass c) {
     final int format = Options.v().output_format();
+    if (!prepareClassOutput(c, format)) {
+      return null;
+    }
+
+    // Fix path delimiters according to ZIP specification
+    final String fileName = getClassFileName(c, format).replace('\\', '/');
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try {
+      printClass(c, format, bytes);
+    } catch (IOException e) {
+      throw new CompilationDeathException("Cannot output file " + fileName, e);
+    }
+    logger.debug("Writing to " + fileName);
+    return ConcurrentJarWriter.deflate(fileName, bytes.toByteArray());
+  }
+
+  /**
+   * Prepares the given class for being written and returns true if the output format produces a file per class.
+   */
+  private boolean prepareClassOutput(SootClass c, int format) {
     switch (format) {
       case Options.output_format_none:
       case Options.output_format_dava:
-        return;
+        return false;
       case Options.output_format_dex:
       case Options.output_format_force_dex:
         // just add the class to the dex printer, writing is done after
         // adding all classes
         dexPrinter.add(c);
-        return;
+        return false;
       case Options.output_format_jimple:
         // Create code assignments for those values we only have in code assignments
         if (!c.isPhantom) {
           ConstantValueToInitializerTransformer.v().transformClass(c);
         }
-        break;
+        return true;
       default:
-        break;
+        return true;
     }
+  }
 
+  private static String getClassFileName(SootClass c, int format) {
     String fileName = SourceLocator.v().getFileNameFor(c, format);
     if (Options.v().gzip()) {
       fileName = fileName + ".gz";
     }
+    return fileName;
+  }
 
-    OutputStream streamOut = null;
-    PrintWriter writerOut = null;
-    try {
-      if (jarFile != null) {
-        // Fix path delimiters according to ZIP specification
-        fileName = fileName.replace("\\", "/");
-        JarEntry entry = new JarEntry(fileName);
-        entry.setMethod(ZipEntry.DEFLATED);
-        jarFile.putNextEntry(entry);
-        streamOut = jarFile;
-      } else {
-        new File(fileName).getParentFile().mkdirs();
-        streamOut = new FileOutputStream(fileName);
-      }
-      if (Options.v().gzip()) {
-        streamOut = new GZIPOutputStream(streamOut);
-      }
-      if (format == Options.output_format_class) {
-        if (Options.v().jasmin_backend()) {
-          streamOut = new JasminOutputStream(streamOut);
-        }
+  /**
+   * Prints the given class in the given output format to the given stream and closes the stream.
+   */
+  private void printClass(SootClass c, int format, OutputStream streamOut) throws IOException {
+    if (Options.v().gzip()) {
+      streamOut = new GZIPOutputStream(streamOut);
+    }
+    if (format == Options.output_format_class) {
+      if (Options.v().jasmin_backend()) {
+        streamOut = new JasminOutputStream(streamOut);
       }
-      writerOut = new PrintWriter(new OutputStreamWriter(streamOut));
-      logger.debug("Writing to " + fileName);
-    } catch (IOException e) {
-      throw new CompilationDeathException("Cannot output file " + fileName, e);
     }
+    PrintWriter writerOut = new PrintWriter(new OutputStreamWriter(streamOut));
 
     if (Options.v().xml_attributes()) {
       Printer.v().setOption(Printer.ADD_JIMPLE_LN);
@@ -1132,17 +1493,9 @@ public class PackManager {
         throw new RuntimeException();
     }
 
-    try {
-      writerOut.flush();
-      if (jarFile == null) {
-        streamOut.close();
-        writerOut.close();
-      } else {
-        jarFile.closeEntry();
-      }
-    } catch (IOException e) {
-      throw new CompilationDeathException("Cannot close output file " + fileName);
-    }
+    writerOut.flush();
+    streamOut.close();
+    writerOut.close();
   }
 
   /**
@@ -26,6 +26,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.StringTokenizer;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -67,14 +68,32 @@ public class PhaseOptions {
     return getPhaseOptions(getPM().getPhase(phaseName));
   }
 
+  /**
+   * The resolved options of each phase, together with the default options they were computed from. Bodies are transformed
+   * one at a time and every transformer looks up its options for every body, so the options are resolved only once and
+   * then handed out until an option of the phase changes.
+   */
+  private final Map<HasPhaseOptions, ResolvedOptions> resolvedOptions
+      = new ConcurrentHashMap<HasPhaseOptions, ResolvedOptions>();
+
   public Map<String, String> getPhaseOptions(HasPhaseOptions phase) {
+    final String defaults = phase.getDefaultOptions();
+    ResolvedOptions resolved = resolvedOptions.get(phase);
+    if (resolved == null || resolved.defaults != defaults) {
+      resolved = new ResolvedOptions(defaults, resolvePhaseOptions(phase, defaults));
+      resolvedOptions.put(phase, resolved);
+    }
+    return resolved.options;
+  }
+
+  private Map<String, String> resolvePhaseOptions(HasPhaseOptions phase, String defaults) {
     Map<String, String> ret = phaseToOptionMap.get(phase);
     if (ret == null) {
       ret = new HashMap<String, String>();
     } else {
       ret = new HashMap<String, String>(ret);
     }
-    for (StringTokenizer st = new StringTokenizer(phase.getDefaultOptions()); st.hasMoreTokens();) {
+    for (StringTokenizer st = new StringTokenizer(defaults); st.hasMoreTokens();) {
       String opt = st.nextToken();
       String key = getKey(opt);
       String value = getValue(opt);
@@ -133,11 +152,6 @@ public class PhaseOptions {
     return val != null ? Integer.parseInt(val) : 0;
   }
 
-  private Map<String, String> mapForPhase(String phaseName) {
-    HasPhaseOptions phase = getPM().getPhase(phaseName);
-    return phase != null ? mapForPhase(phase) : null;
-  }
-
   private Map<String, String> mapForPhase(HasPhaseOptions phase) {
     Map<String, String> optionMap = phaseToOptionMap.get(phase);
     if (optionMap == null) {
@@ -223,6 +237,7 @@ public class PhaseOptions {
     }
     if (declaresOption(phase, key)) {
       optionMap.put(key, getValue(option));
+      resolvedOptions.remove(phase);
       return true;
     }
     logger.debug("Invalid option " + option + " for phase " + phase.getPhaseName());
@@ -245,7 +260,8 @@ public class PhaseOptions {
   }
 
   public void setPhaseOptionIfUnset(String phaseName, String option) {
-    Map<String, String> optionMap = mapForPhase(phaseName);
+    HasPhaseOptions phase = getPM().getPhase(phaseName);
+    Map<String, String> optionMap = phase != null ? mapForPhase(phase) : null;
     if (optionMap == null) {
       throw new RuntimeException("No such phase " + phaseName);
     }
@@ -256,5 +272,16 @@ public class PhaseOptions {
       throw new RuntimeException("No option " + option + " for phase " + phaseName);
     }
     optionMap.put(getKey(option), getValue(option));
+    resolvedOptions.remove(phase);
+  }
+
+  private static final class ResolvedOptions {
+    final String defaults;
+    final Map<String, String> options;
+
+    ResolvedOptions(String defaults, Map<String, String> options) {
+      this.defaults = defaults;
+      this.options = options;
+    }
   }
 }
@@ -55,6 +55,8 @@ import org.slf4j.LoggerFactory;
 import pxb.android.axml.AxmlReader;
 import pxb.android.axml.AxmlVisitor;
 import pxb.android.axml.NodeVisitor;
+import soot.asm.cache.ClassCache;
+import soot.asm.cache.SharedLibrary;
 import soot.dexpler.DalvikThrowAnalysis;
 import soot.dotnet.exceptiontoolkits.DotnetThrowAnalysis;
 import soot.dotnet.members.DotnetMethod;
@@ -1922,6 +1924,13 @@ public class Scene {
 
     prepareClasses();
     setDoneResolving();
+    ClassCache.v().flush();
+    if (opts.verbose() && SharedLibrary.isEnabled()) {
+      logger.debug("[shared-library] " + SharedLibrary.statistics());
+    }
+    if (opts.incremental()) {
+      IncrementalAnalysis.v().recordClasses();
+    }
   }
 
   public void loadDynamicClasses() {
@@ -0,0 +1,168 @@
+package soot;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2026 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.concurrent.Callable;
+
+/**
+ * An isolated set of Soot's global state, i.e., its own {@link G} with its own {@link Scene}, {@link PackManager},
+ * {@link soot.options.Options} and all other singletons. Several instances can be used concurrently in one JVM, e.g., to
+ * analyze many applications in parallel with a pool of worker threads:
+ *
+ * <pre>
+ * SootInstance soot = SootInstance.create();
+ * executor.submit(soot.wrap(() -&gt; {
+ *   Options.v().set_process_dir(...);
+ *   Scene.v().loadNecessaryClasses();
+ *   PackManager.v().runPacks();
+ * }));
+ * </pre>
+ *
+ * <p>
+ * An instance is bound to the current thread while one of {@link #run(Runnable)} and {@link #call(Callable)} executes.
+ * During that time, {@link G#v()} and thus all <code>v()</code> methods return the state of this instance. Threads that
+ * are started by a bound thread, e.g., the worker threads that Soot creates for processing method bodies in parallel,
+ * inherit the binding. Threads without a binding keep using the default global state, so code that does not use this class
+ * is not affected.
+ * </p>
+ *
+ * <p>
+ * An instance must not be bound to two threads that modify its state at the same time, unless the respective parts of Soot
+ * are thread-safe anyway.
+ * </p>
+ */
+public final class SootInstance {
+
+  private static final InheritableThreadLocal<SootInstance> current = new InheritableThreadLocal<SootInstance>();
+
+  private volatile G g = new G();
+
+  private SootInstance() {
+  }
+
+  /**
+   * Creates a new instance with a fresh global state. The first call installs a {@link G.GlobalObjectGetter} that resolves
+   * {@link G#v()} through the instance that is bound to the current thread. The getter delegates to the previously
+   * installed one for threads without a binding.
+   */
+  public static SootInstance create() {
+    synchronized (SootInstance.class) {
+      G.GlobalObjectGetter getter = G.getGlobalObjectGetter();
+      if (!(getter instanceof ThreadScopedGetter)) {
+        G.setGlobalObjectGetter(new ThreadScopedGetter(getter));
+      }
+    }
+    return new SootInstance();
+  }
+
+  /**
+   * Returns the instance that is bound to the current thread, or null if the thread uses the default global state.
+   */
+  public static SootInstance current() {
+    return current.get();
+  }
+
+  public G getG() {
+    return g;
+  }
+
+  /**
+   * Discards the state of this instance. This is what {@link G#reset()} does when called from a bound thread.
+   */
+  public void reset() {
+    g = new G();
+  }
+
+  /**
+   * Runs the given task with this instance bound to the current thread and restores the previous binding afterwards.
+   */
+  public void run(Runnable task) {
+    final SootInstance previous = current.get();
+    current.set(this);
+    try {
+      task.run();
+    } finally {
+      restore(previous);
+    }
+  }
+
+  /**
+   * Calls the given task with this instance bound to the current thread and restores the previous binding afterwards.
+   */
+  public <T> T call(Callable<T> task) throws Exception {
+    final SootInstance previous = current.get();
+    current.set(this);
+    try {
+      return task.call();
+    } finally {
+      restore(previous);
+    }
+  }
+
+  /**
+   * Returns a task that runs the given task bound to this instance, e.g., for submitting it to an executor.
+   */
+  public Runnable wrap(Runnable task) {
+    return () -> run(task);
+  }
+
+  /**
+   * Returns a task that calls the given task bound to this instance, e.g., for submitting it to an executor.
+   */
+  public <T> Callable<T> wrap(Callable<T> task) {
+    return () -> call(task);
+  }
+
+  private static void restore(SootInstance previous) {
+    if (previous == null) {
+      current.remove();
+    } else {
+      current.set(previous);
+    }
+  }
+
+  private static final class ThreadScopedGetter implements G.GlobalObjectGetter {
+
+    private final G.GlobalObjectGetter fallback;
+
+    ThreadScopedGetter(G.GlobalObjectGetter fallback) {
+      this.fallback = fallback;
+    }
+
+    @Override
+    public G getG() {
+      final SootInstance instance = current.get();
+      return instance == null ? fallback.getG() : instance.g;
+    }
+
+    @Override
+    public void reset() {
+      final SootInstance instance = current.get();
+      if (instance == null) {
+        fallback.reset();
+      } else {
+        instance.reset();
+      }
+    }
+  }
+}
@@ -38,6 +38,8 @@ import org.slf4j.LoggerFactory;
 import soot.dava.DavaBody;
 import soot.dava.toolkits.base.renamer.RemoveFullyQualifiedName;
 import soot.dotnet.members.DotnetMethod;
+import soot.jimple.FrozenJimpleBody;
+import soot.jimple.JimpleBody;
 import soot.options.Options;
 import soot.tagkit.AbstractHost;
 import soot.util.IterableSet;
@@ -104,6 +106,11 @@ public class SootMethod extends AbstractHost implements ClassMember, MethodOrMet
    */
   protected volatile MethodSource ms;
 
+  /**
+   * Bookkeeping of the {@link BodyStore} while the active body may be evicted, null otherwise.
+   */
+  volatile BodyStore.Entry storedBody;
+
   protected volatile String sig;
   protected volatile String subSig;
   protected NumberedString subsignature;
@@ -350,8 +357,13 @@ public class SootMethod extends AbstractHost implements ClassMember, MethodOrMet
     // This is a quick check just in case the activeBody exists.
     Body activeBody = this.activeBody;
     if (activeBody != null) {
+      touchStoredBody();
       return activeBody;
     }
+    if (storedBody != null) {
+      // The body has been evicted and is loaded again
+      return retrieveActiveBody();
+    }
 
     // Synchronize because we are operating on two fields that may be updated
     // separately otherwise.
@@ -396,6 +408,10 @@ public class SootMethod extends AbstractHost implements ClassMember, MethodOrMet
       body.setMethod(this);
     }
 
+    BodyStore.Entry stored = this.storedBody;
+    if (stored != null) {
+      BodyStore.v().untrack(this, stored);
+    }
     this.activeBody = body;
   }
 
@@ -427,9 +443,11 @@ public class SootMethod extends AbstractHost implements ClassMember, MethodOrMet
     // This is a quick check just in case the activeBody exists.
     Body activeBody = this.activeBody;
     if (activeBody != null) {
+      touchStoredBody();
       return activeBody;
     }
 
+    final BodyStore store = BodyStore.v();
     // Synchronize because we are operating on multiple fields that may be updated
     // separately otherwise.
     synchronized (this) {
@@ -451,19 +469,47 @@ public class SootMethod extends AbstractHost implements ClassMember, MethodOrMet
       }
 
       // Method sources are not expected to be thread safe
-      activeBody = ms.getBody(this, "jb");
+      BodyAnalysisCache.enterBodyConstruction();
+      try {
+        activeBody = ms.getBody(this, "jb");
+      } finally {
+        BodyAnalysisCache.exitBodyConstruction();
+      }
+      if (Options.v().freeze_bodies() && activeBody instanceof JimpleBody) {
+        activeBody = FrozenJimpleBody.freeze((JimpleBody) activeBody);
+      }
 
       // Call the consumer such that clients can update any data structures, caches, etc.
       // atomically before the body is available to other threads.
       consumer.accept(activeBody);
 
-      setActiveBody(activeBody);
-
-      // If configured, we drop the method source to save memory
-      if (Options.v().drop_bodies_after_load()) {
-        ms = null;
+      final BodyStore.Entry stored = this.storedBody;
+      if (stored != null) {
+        // Reloading an evicted body, which is still tracked
+        this.activeBody = activeBody;
+        store.rematerialized(stored, activeBody);
+      } else {
+        setActiveBody(activeBody);
+        if (store.isEnabled()) {
+          // The method source must be kept for reloading the body once it has been evicted
+          this.storedBody = store.track(this, activeBody);
+        } else if (Options.v().drop_bodies_after_load() && !Options.v().incremental()) {
+          // If configured, we drop the method source to save memory. Incremental re-analysis needs the method source for
+          // loading the body again once a class it depends on has changed.
+          ms = null;
+        }
       }
-      return activeBody;
+    }
+    if (store.isEnabled()) {
+      store.checkMemory();
+    }
+    return activeBody;
+  }
+
+  private void touchStoredBody() {
+    BodyStore.Entry stored = this.storedBody;
+    if (stored != null) {
+      stored.touch();
     }
   }
 
@@ -471,13 +517,18 @@ public class SootMethod extends AbstractHost implements ClassMember, MethodOrMet
    * Returns true if this method has an active body.
    */
   public boolean hasActiveBody() {
-    return activeBody != null;
+    // Evicted bodies are still considered to be present
+    return activeBody != null || storedBody != null;
   }
 
   /**
    * Releases the active body associated with this method.
    */
   public synchronized void releaseActiveBody() {
+    BodyStore.Entry stored = this.storedBody;
+    if (stored != null) {
+      BodyStore.v().untrack(this, stored);
+    }
     this.activeBody = null;
   }
 
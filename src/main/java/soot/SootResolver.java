@@ -26,9 +26,20 @@ package soot;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -57,6 +68,21 @@ public class SootResolver {
   @SuppressWarnings("unchecked")
   private final Deque<SootClass>[] worklist = new Deque[4];
 
+  /** Number of classes preloaded per thread and batch in parallel resolution mode. */
+  private static final int PRELOAD_BATCH_PER_THREAD = 16;
+
+  /**
+   * Class sources that have been looked up and preloaded ahead of time in parallel resolution mode, but have not been
+   * resolved yet. A null value indicates that no source exists for the class.
+   */
+  private final Map<SootClass, ClassSource> preloadedSources = new HashMap<SootClass, ClassSource>();
+
+  /** Thread pool for preloading class sources, only set while processing the worklist in parallel resolution mode. */
+  private ExecutorService preloadExecutor = null;
+
+  /** Nesting depth of worklist processing in parallel resolution mode. */
+  private int preloadDepth = 0;
+
   private Program program = null;
 
   public SootResolver(Singletons.Global g) {
@@ -167,12 +193,29 @@ public class SootResolver {
 
   /** Resolve all classes on toResolveWorklist. */
   protected void processResolveWorklist() {
+    final boolean parallel = Options.v().parallel_resolution();
+    if (parallel) {
+      preloadDepth++;
+    }
+    try {
+      processResolveWorklist(parallel);
+    } finally {
+      if (parallel && --preloadDepth == 0) {
+        releasePreloadedSources();
+      }
+    }
+  }
+
+  private void processResolveWorklist(boolean parallel) {
     final Scene scene = Scene.v();
     final boolean resolveEverything = resolveEverything();
     final boolean no_bodies_for_excluded = Options.v().no_bodies_for_excluded();
     for (int i = SootClass.BODIES; i >= SootClass.HIERARCHY; i--) {
       Deque<SootClass> currWorklist = worklist[i];
       while (!currWorklist.isEmpty()) {
+        if (parallel) {
+          preloadAhead(currWorklist);
+        }
         SootClass sc = currWorklist.pop();
         if (resolveEverything) {
           // Whole program mode
@@ -210,6 +253,95 @@ public class SootResolver {
     }
   }
 
+  /**
+   * Makes sure that the class at the head of the given worklist has been preloaded. If it has not, the class sources for
+   * the next batch of unresolved classes on the worklist are looked up and preloaded concurrently. Preloading only reads
+   * and parses class files and never modifies the Scene. The classes are still resolved one by one in worklist order, so
+   * the resulting Scene is the same as in sequential mode.
+   */
+  private void preloadAhead(Deque<SootClass> currWorklist) {
+    SootClass head = currWorklist.peek();
+    if (head.resolvingLevel() != SootClass.DANGLING || preloadedSources.containsKey(head)) {
+      return;
+    }
+
+    final int threadNum = getPreloadThreadCount();
+    final int batchSize = threadNum * PRELOAD_BATCH_PER_THREAD;
+    final List<ClassSource> batch = new ArrayList<ClassSource>();
+    for (Iterator<SootClass> it = currWorklist.iterator(); it.hasNext() && batch.size() < batchSize;) {
+      SootClass sc = it.next();
+      if (sc.resolvingLevel() == SootClass.DANGLING && !preloadedSources.containsKey(sc)) {
+        ClassSource is = findClassSource(sc);
+        preloadedSources.put(sc, is);
+        if (is != null) {
+          batch.add(is);
+        }
+      }
+    }
+    if (batch.size() < 2) {
+      // Not worth handing off to another thread
+      return;
+    }
+
+    if (preloadExecutor == null) {
+      ThreadPoolExecutor executor = new ThreadPoolExecutor(threadNum, threadNum, 30, TimeUnit.SECONDS,
+          new LinkedBlockingQueue<Runnable>(), r -> {
+            Thread t = new Thread(r, "soot-resolver-preload");
+            t.setDaemon(true);
+            return t;
+          });
+      executor.allowCoreThreadTimeOut(true);
+      preloadExecutor = executor;
+    }
+    List<Callable<Void>> tasks = new ArrayList<Callable<Void>>(batch.size());
+    for (final ClassSource is : batch) {
+      tasks.add(() -> {
+        is.preload();
+        return null;
+      });
+    }
+    try {
+      for (Future<Void> f : preloadExecutor.invokeAll(tasks)) {
+        try {
+          f.get();
+        } catch (ExecutionException e) {
+          // Preloading is only an optimization. The error will surface again when the class is actually resolved.
+          if (Options.v().debug_resolver()) {
+            logger.debug("preloading failed: " + e.getCause());
+          }
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("Interrupted while preloading classes", e);
+    }
+  }
+
+  private static int getPreloadThreadCount() {
+    int threadNum = Options.v().num_threads();
+    if (threadNum < 1) {
+      threadNum = Runtime.getRuntime().availableProcessors();
+    }
+    return threadNum;
+  }
+
+  /**
+   * Closes the preloaded class sources that have not been used, e.g., because resolution was aborted, and shuts down the
+   * preload thread pool.
+   */
+  private void releasePreloadedSources() {
+    for (ClassSource is : preloadedSources.values()) {
+      if (is != null) {
+        is.close();
+      }
+    }
+    preloadedSources.clear();
+    if (preloadExecutor != null) {
+      preloadExecutor.shutdown();
+      preloadExecutor = null;
+    }
+  }
+
   protected void addToResolveWorklist(Type type, int level) {
     // We go from Type -> SootClass directly, since RefType.getSootClass
     // calls makeClassRef anyway
@@ -244,14 +376,25 @@ public class SootResolver {
     bringToHierarchyUnchecked(sc);
   }
 
+  /**
+   * Looks up the source the given class can be resolved from, or returns null if there is none.
+   */
+  protected ClassSource findClassSource(SootClass sc) {
+    if (ModuleUtil.module_mode()) {
+      return ModulePathSourceLocator.v().getClassSource(sc.getName(),
+          com.google.common.base.Optional.fromNullable(sc.moduleName));
+    } else {
+      return SourceLocator.v().getClassSource(sc.getName());
+    }
+  }
+
   protected void bringToHierarchyUnchecked(SootClass sc) {
     String className = sc.getName();
     ClassSource is;
-    if (ModuleUtil.module_mode()) {
-      is = ModulePathSourceLocator.v().getClassSource(className,
-          com.google.common.base.Optional.fromNullable(sc.moduleName));
+    if (preloadedSources.containsKey(sc)) {
+      is = preloadedSources.remove(sc);
     } else {
-      is = SourceLocator.v().getClassSource(className);
+      is = findClassSource(sc);
     }
     try {
       boolean modelAsPhantomRef = (is == null);
@@ -398,6 +541,45 @@ public class SootResolver {
     reResolve(cl, SootClass.HIERARCHY);
   }
 
+  /**
+   * Discards the contents of the given class and resolves it again from its class source to the level it had before, e.g.,
+   * because its class file has changed. The SootClass object itself is kept, so that references to it from other classes
+   * remain valid. All fields and methods are replaced by new objects.
+   */
+  public void reload(SootClass sc) {
+    final int level = sc.resolvingLevel();
+    if (level >= SootClass.SIGNATURES) {
+      for (SootMethod m : new ArrayList<SootMethod>(sc.getMethods())) {
+        sc.removeMethod(m);
+      }
+      for (SootField f : new ArrayList<SootField>(sc.getFields())) {
+        sc.removeField(f);
+      }
+    }
+    if (level >= SootClass.HIERARCHY) {
+      for (SootClass iface : new ArrayList<SootClass>(sc.getInterfaces())) {
+        sc.removeInterface(iface);
+      }
+      sc.setSuperclass(null);
+      sc.setOuterClass(null);
+    }
+    sc.removeAllTags();
+    sc.setModifiers(0);
+    classToTypesSignature.remove(sc);
+    classToTypesHierarchy.remove(sc);
+
+    sc.setResolvingLevel(SootClass.DANGLING);
+    final Scene scene = Scene.v();
+    final boolean doneResolving = scene.doneResolving();
+    scene.setResolving(false);
+    try {
+      addToResolveWorklist(sc, Math.max(level, SootClass.HIERARCHY));
+      processResolveWorklist();
+    } finally {
+      scene.setResolving(doneResolving);
+    }
+  }
+
   public Program getProgram() {
     if (program == null) {
       initializeProgram();
@@ -37,6 +37,7 @@ import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Enumeration;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
@@ -61,10 +62,15 @@ import soot.JavaClassProvider.JarException;
 import soot.asm.AsmClassProvider;
 import soot.asm.AsmClassSource;
 import soot.asm.AsmJava9ClassProvider;
+import soot.asm.cache.CachingClassProvider;
+import soot.asm.cache.ClassCache;
+import soot.asm.cache.SharedLibrary;
+import soot.asm.cache.SharedLibraryClassProvider;
 import soot.dexpler.DexFileProvider;
 import soot.dotnet.AssemblyFile;
 import soot.dotnet.DotnetClassProvider;
 import soot.options.Options;
+import soot.util.MappedArchive;
 import soot.util.SharedCloseable;
 
 /**
@@ -147,6 +153,10 @@ public class SourceLocator {
           .concurrencyLevel(Runtime.getRuntime().availableProcessors()).build(new CacheLoader<String, Set<String>>() {
             @Override
             public Set<String> load(String archivePath) throws Exception {
+              MappedArchive mapped = getMappedArchive(archivePath);
+              if (mapped != null) {
+                return mapped.getEntryNames();
+              }
               try (SharedCloseable<ZipFile> archive = archivePathToZip.getRef(archivePath)) {
                 Set<String> ret = new HashSet<String>();
                 for (Enumeration<? extends ZipEntry> it = archive.get().entries(); it.hasMoreElements();) {
@@ -157,6 +167,19 @@ public class SourceLocator {
             }
           });
 
+  /**
+   * Archives that have been memory-mapped if the mmap-archives option is set. Mapped archives stay open until the caches are
+   * invalidated. Archives that cannot be mapped are kept in {@link #unmappableArchives}.
+   */
+  private final Map<String, MappedArchive> mappedArchives = new ConcurrentHashMap<String, MappedArchive>();
+  private final Set<String> unmappableArchives = ConcurrentHashMap.newKeySet();
+
+  /**
+   * Index of the archives on {@link #classPath} if the mmap-archives option is set, see {@link #lookupInClassPath(String)}.
+   * It is built on the first lookup and replaced when the class path changes.
+   */
+  private volatile ClassPathIndex classPathIndex;
+
   public SourceLocator(Singletons.Global g) {
   }
 
@@ -164,6 +187,38 @@ public class SourceLocator {
     archivePathToZip.invalidateAll();
     archivePathToEntriesCache.invalidateAll();
     pathToSourceType.invalidateAll();
+    mappedArchives.clear();
+    unmappableArchives.clear();
+    classPathIndex = null;
+  }
+
+  /**
+   * Returns the memory-mapped view of the given archive, or null if archives are not mapped or this archive cannot be
+   * mapped, in which case the archive has to be read with {@link ZipFile}.
+   */
+  public MappedArchive getMappedArchive(String archivePath) {
+    if (!Options.v().mmap_archives() || unmappableArchives.contains(archivePath)) {
+      return null;
+    }
+    MappedArchive archive = mappedArchives.get(archivePath);
+    if (archive == null) {
+      synchronized (mappedArchives) {
+        archive = mappedArchives.get(archivePath);
+        if (archive == null && !unmappableArchives.contains(archivePath)) {
+          try {
+            archive = MappedArchive.open(archivePath);
+          } catch (IOException e) {
+            logger.debug("Could not map archive " + archivePath + ": " + e.getMessage());
+          }
+          if (archive == null) {
+            unmappableArchives.add(archivePath);
+          } else {
+            mappedArchives.put(archivePath, archive);
+          }
+        }
+      }
+    }
+    return archive;
   }
 
   public static SourceLocator v() {
@@ -279,7 +334,12 @@ public class SourceLocator {
 
   protected void setupClassProviders() {
     final List<ClassProvider> classProviders = new LinkedList<ClassProvider>();
-    final ClassProvider classFileClassProvider = new AsmClassProvider();
+    final boolean useClassCache = ClassCache.v().isEnabled();
+    ClassProvider classFileClassProvider
+        = useClassCache ? new CachingClassProvider(new AsmClassProvider()) : new AsmClassProvider();
+    if (SharedLibrary.isEnabled()) {
+      classFileClassProvider = new SharedLibraryClassProvider(classFileClassProvider);
+    }
     switch (Options.v().src_prec()) {
       case Options.src_prec_class:
         classProviders.add(classFileClassProvider);
@@ -318,7 +378,8 @@ public class SourceLocator {
         throw new RuntimeException("Other source precedences are not currently supported.");
     }
     if (this.java9Mode) {
-      classProviders.add(new AsmJava9ClassProvider());
+      final ClassProvider java9ClassProvider = new AsmJava9ClassProvider();
+      classProviders.add(useClassCache ? new CachingClassProvider(java9ClassProvider) : java9ClassProvider);
     }
     this.classProviders = classProviders;
   }
@@ -379,7 +440,7 @@ public class SourceLocator {
       // Get the dex file from an apk
       try {
         for (DexFileProvider.DexContainer<? extends DexFile> dex : DexFileProvider.v().getDexFromSource(new File(aPath))) {
-          classes.addAll(DexClassProvider.classesOfDex(dex.getBase().getDexFile()));
+          classes.addAll(dex.getClassNames());
         }
       } catch (IOException e) {
         throw new CompilationDeathException("Error reading dex source", e);
@@ -401,7 +462,7 @@ public class SourceLocator {
       // we might have dex files inside the archive
       try {
         for (DexFileProvider.DexContainer<? extends DexFile> dex : DexFileProvider.v().getDexFromSource(new File(aPath))) {
-          classes.addAll(DexClassProvider.classesOfDex(dex.getBase().getDexFile()));
+          classes.addAll(dex.getClassNames());
         }
       } catch (CompilationDeathException e) {
         // There might be cases where there is no dex file within a JAR or ZIP file...
@@ -481,7 +542,7 @@ public class SourceLocator {
           } else if (fileName.endsWith(".dex")) {
             try {
               for (DexFileProvider.DexContainer<? extends DexFile> dex : DexFileProvider.v().getDexFromSource(element)) {
-                classes.addAll(DexClassProvider.classesOfDex(dex.getBase().getDexFile()));
+                classes.addAll(dex.getClassNames());
               }
             } catch (IOException e) {
               /* Ignore unreadable files */
@@ -679,23 +740,64 @@ public class SourceLocator {
 
   /**
    * Searches for a file with the given name in the exploded classPath.
+   *
+   * <p>
+   * If the mmap-archives option is set, the entries of all archives on the class path are indexed once, so that the first
+   * archive containing the file is found with a single lookup. Only the directories before that archive, as well as
+   * archives that could not be indexed, still need to be searched one by one.
+   * </p>
    */
   public IFoundFile lookupInClassPath(String fileName) {
-    for (String dir : classPath) {
-      IFoundFile ret = null;
-      ClassSourceType cst = getClassSourceType(dir);
-      if (cst == ClassSourceType.zip || cst == ClassSourceType.jar) {
-        ret = lookupInArchive(dir, fileName);
-      } else if (cst == ClassSourceType.directory) {
-        ret = lookupInDir(dir, fileName);
+    if (!Options.v().mmap_archives()) {
+      for (String dir : classPath) {
+        IFoundFile ret = lookupInClassPathEntry(dir, fileName);
+        if (ret != null) {
+          return ret;
+        }
       }
+      return null;
+    }
+    final ClassPathIndex index = getClassPathIndex();
+    final Integer archivePos = index.firstArchive.get(fileName);
+    final int end = archivePos == null ? Integer.MAX_VALUE : archivePos;
+    for (int pos : index.probedEntries) {
+      if (pos > end) {
+        break;
+      }
+      IFoundFile ret = lookupInClassPathEntry(index.classPath.get(pos), fileName);
       if (ret != null) {
         return ret;
       }
     }
+    return archivePos == null ? null : lookupInArchive(index.classPath.get(archivePos), fileName);
+  }
+
+  private IFoundFile lookupInClassPathEntry(String dir, String fileName) {
+    ClassSourceType cst = getClassSourceType(dir);
+    if (cst == ClassSourceType.zip || cst == ClassSourceType.jar) {
+      return lookupInArchive(dir, fileName);
+    } else if (cst == ClassSourceType.directory) {
+      return lookupInDir(dir, fileName);
+    }
     return null;
   }
 
+  private ClassPathIndex getClassPathIndex() {
+    final List<String> cp = classPath;
+    ClassPathIndex index = classPathIndex;
+    if (index == null || index.classPath != cp) {
+      // Only building the index takes the lock, lookups with an up-to-date index do not
+      synchronized (this) {
+        index = classPathIndex;
+        if (index == null || index.classPath != cp) {
+          index = new ClassPathIndex(cp);
+          classPathIndex = index;
+        }
+      }
+    }
+    return index;
+  }
+
   protected IFoundFile lookupInDir(String dir, String fileName) {
     File f = new File(dir, fileName);
     return (f.exists() && f.canRead()) ? new FoundFile(f) : null;
@@ -786,6 +888,45 @@ public class SourceLocator {
     this.sourcePath = null;
   }
 
+  /**
+   * Maps every file contained in an archive on the class path to the position of the first archive that contains it.
+   */
+  private final class ClassPathIndex {
+    final List<String> classPath;
+    final Map<String, Integer> firstArchive = new HashMap<String, Integer>();
+
+    /**
+     * Positions of the class path entries that are not covered by the index and must be searched directly, in ascending
+     * order. These are directories and archives that could not be read while building the index; the latter will report
+     * their error if a lookup actually reaches them.
+     */
+    final int[] probedEntries;
+
+    ClassPathIndex(List<String> classPath) {
+      this.classPath = classPath;
+      final List<Integer> probed = new ArrayList<Integer>();
+      for (int pos = 0; pos < classPath.size(); pos++) {
+        final String dir = classPath.get(pos);
+        try {
+          ClassSourceType cst = getClassSourceType(dir);
+          if (cst == ClassSourceType.zip || cst == ClassSourceType.jar) {
+            for (String entry : archivePathToEntriesCache.get(dir)) {
+              firstArchive.putIfAbsent(entry, pos);
+            }
+          } else if (cst == ClassSourceType.directory) {
+            probed.add(pos);
+          }
+        } catch (Exception e) {
+          probed.add(pos);
+        }
+      }
+      probedEntries = new int[probed.size()];
+      for (int i = 0; i < probedEntries.length; i++) {
+        probedEntries[i] = probed.get(i);
+      }
+    }
+  }
+
   protected enum ClassSourceType {
     jar, zip, apk, dex, directory, jrt, unknown, exe, dll
   }
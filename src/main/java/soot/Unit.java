@@ -24,22 +24,48 @@ package soot;
 
 import java.io.Serializable;
 import java.util.List;
+import java.util.function.Consumer;
 
 import soot.tagkit.Host;
 import soot.util.Chain;
+import soot.util.Numberable;
 import soot.util.Switchable;
 
 /**
  * A code fragment (eg Stmt or Inst), used within Body classes. Intermediate representations must use an implementation of
  * Unit for their code. In general, a unit denotes some sort of unit for execution.
+ *
+ * <p>
+ * The number of a unit is its position in the dense numbering of its body, see {@link Body#getUnitNumbering()}.
+ * </p>
  */
-public interface Unit extends Switchable, Host, Serializable, Context {
+public interface Unit extends Switchable, Host, Serializable, Context, Numberable {
   /** Returns a list of Boxes containing Values used in this Unit. */
   public List<ValueBox> getUseBoxes();
 
   /** Returns a list of Boxes containing Values defined in this Unit. */
   public List<ValueBox> getDefBoxes();
 
+  /**
+   * Passes each box that {@link #getUseBoxes()} would return to the given action, in the same order, without allocating
+   * lists for the common Jimple statements.
+   */
+  public default void forEachUseBox(Consumer<? super ValueBox> action) {
+    for (ValueBox vb : getUseBoxes()) {
+      action.accept(vb);
+    }
+  }
+
+  /**
+   * Passes each box that {@link #getDefBoxes()} would return to the given action, in the same order, without allocating
+   * lists for the common Jimple statements.
+   */
+  public default void forEachDefBox(Consumer<? super ValueBox> action) {
+    for (ValueBox vb : getDefBoxes()) {
+      action.accept(vb);
+    }
+  }
+
   /**
    * Returns a list of Boxes containing Units defined in this Unit; typically branch targets.
    */
@@ -24,6 +24,7 @@ package soot;
 
 import java.io.Serializable;
 import java.util.List;
+import java.util.function.Consumer;
 
 import soot.util.Switchable;
 
@@ -39,6 +40,16 @@ public interface Value extends Switchable, EquivTo, Serializable {
    */
   public List<ValueBox> getUseBoxes();
 
+  /**
+   * Passes each box that {@link #getUseBoxes()} would return to the given action, in the same order. Unlike
+   * <code>getUseBoxes()</code>, the common Jimple values implement this without allocating lists.
+   */
+  public default void forEachUseBox(Consumer<? super ValueBox> action) {
+    for (ValueBox vb : getUseBoxes()) {
+      action.accept(vb);
+    }
+  }
+
   /**
    * Returns the Soot type of this Value.
    */
@@ -22,16 +22,21 @@ package soot.asm;
  * #L%
  */
 
+import com.google.common.io.ByteStreams;
+
 import java.io.IOException;
 import java.io.InputStream;
 
 import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.ClassNode;
 
 import soot.ClassSource;
 import soot.IFoundFile;
 import soot.SootClass;
 import soot.SootResolver;
 import soot.javaToJimple.IInitialResolver.Dependencies;
+import soot.options.Options;
 
 /**
  * ASM class source implementation.
@@ -42,6 +47,12 @@ public class AsmClassSource extends ClassSource {
 
   protected IFoundFile foundFile;
 
+  /** The class file parsed ahead of time by {@link #preload()}, or null. */
+  protected volatile ClassNode preloadedClass;
+
+  /** The class file read ahead of time by {@link #preload()} with <code>-lazy-method-bodies</code>, or null. */
+  protected volatile byte[] preloadedClassFile;
+
   /**
    * Constructs a new ASM class source.
    * 
@@ -58,34 +69,69 @@ public class AsmClassSource extends ClassSource {
     this.foundFile = foundFile;
   }
 
+  @Override
+  public void preload() {
+    if (preloadedClass == null && preloadedClassFile == null && foundFile != null) {
+      if (Options.v().lazy_method_bodies()) {
+        preloadedClassFile = readClassFile();
+      } else {
+        preloadedClass = readClassNode();
+      }
+    }
+  }
+
+  /**
+   * Reads the contents of the class file.
+   */
+  protected byte[] readClassFile() {
+    try (InputStream d = foundFile.inputStream()) {
+      return ByteStreams.toByteArray(d);
+    } catch (IOException e) {
+      throw new RuntimeException("Error: Failed to read class file.", e);
+    }
+  }
+
+  /**
+   * Reads the class file into a tree representation, which can later be resolved without touching the file again.
+   */
+  protected ClassNode readClassNode() {
+    try (InputStream d = foundFile.inputStream()) {
+      ClassNode node = new ClassNode(Opcodes.ASM9);
+      new ClassReader(d).accept(node, ClassReader.SKIP_FRAMES);
+      return node;
+    } catch (IOException e) {
+      throw new RuntimeException("Error: Failed to create class reader from class source.", e);
+    }
+  }
+
   @Override
   public Dependencies resolve(SootClass sc) {
+    ClassNode node = preloadedClass;
+    if (node != null) {
+      preloadedClass = null;
+      try {
+        return resolve(sc, node);
+      } finally {
+        close();
+      }
+    }
+
+    if (Options.v().lazy_method_bodies()) {
+      byte[] classFile = preloadedClassFile;
+      try {
+        if (classFile == null) {
+          classFile = readClassFile();
+        }
+        return resolve(sc, classFile);
+      } finally {
+        close();
+      }
+    }
+
     InputStream d = null;
     try {
       d = foundFile.inputStream();
-      ClassReader clsr = new ClassReader(d);
-      SootClassBuilder scb = new SootClassBuilder(sc);
-      clsr.accept(scb, ClassReader.SKIP_FRAMES);
-      Dependencies deps = new Dependencies();
-      deps.typesToSignature.addAll(scb.deps);
-      // add the outer class information, could not be called in the builder, since sc needs to be
-      // resolved - before calling setOuterClass()
-      if (!sc.hasOuterClass() && className.contains("$")) {
-        String outerClassName;
-        if (className.contains("$-")) {
-          /*
-           * This is a special case for generated lambda classes of jack and jill compiler. Generated lambda classes may
-           * contain '$' which do not indicate an inner/outer class separator if the '$' occurs after a inner class with a
-           * name starting with '-'. Thus we search for '$-' and anything after it including '-' is the inner classes name
-           * and anything before it is the outer classes name.
-           */
-          outerClassName = className.substring(0, className.indexOf("$-"));
-        } else {
-          outerClassName = className.substring(0, className.lastIndexOf('$'));
-        }
-        sc.setOuterClass(SootResolver.v().makeClassRef(outerClassName));
-      }
-      return deps;
+      return resolve(sc, new ClassReader(d));
     } catch (IOException e) {
       throw new RuntimeException("Error: Failed to create class reader from class source.", e);
     } finally {
@@ -102,8 +148,68 @@ public class AsmClassSource extends ClassSource {
     }
   }
 
+  /**
+   * Resolves the class from an already opened class reader into the SootClass sc.
+   */
+  protected Dependencies resolve(SootClass sc, ClassReader clsr) {
+    SootClassBuilder scb = new SootClassBuilder(sc);
+    clsr.accept(scb, ClassReader.SKIP_FRAMES);
+    return getDependencies(sc, scb);
+  }
+
+  /**
+   * Resolves the class from the contents of its class file into the SootClass sc. The methods keep a reference to the class
+   * file instead of their instructions, which are decoded only when the body of a method is requested.
+   */
+  protected Dependencies resolve(SootClass sc, byte[] classFile) {
+    SootClassBuilder scb = new SootClassBuilder(sc, classFile);
+    new ClassReader(classFile).accept(scb, ClassReader.SKIP_FRAMES);
+    return getDependencies(sc, scb);
+  }
+
+  /**
+   * Resolves the class from a preloaded class tree into the SootClass sc.
+   */
+  protected Dependencies resolve(SootClass sc, ClassNode node) {
+    SootClassBuilder scb = new SootClassBuilder(sc);
+    node.accept(scb);
+    return getDependencies(sc, scb);
+  }
+
+  private Dependencies getDependencies(SootClass sc, SootClassBuilder scb) {
+    Dependencies deps = new Dependencies();
+    deps.typesToSignature.addAll(scb.deps);
+    // add the outer class information, could not be called in the builder, since sc needs to be
+    // resolved - before calling setOuterClass()
+    if (!sc.hasOuterClass() && className.contains("$")) {
+      String outerClassName;
+      if (className.contains("$-")) {
+        /*
+         * This is a special case for generated lambda classes of jack and jill compiler. Generated lambda classes may
+         * contain '$' which do not indicate an inner/outer class separator if the '$' occurs after a inner class with a
+         * name starting with '-'. Thus we search for '$-' and anything after it including '-' is the inner classes name
+         * and anything before it is the outer classes name.
+         */
+        outerClassName = className.substring(0, className.indexOf("$-"));
+      } else {
+        outerClassName = className.substring(0, className.lastIndexOf('$'));
+      }
+      sc.setOuterClass(SootResolver.v().makeClassRef(outerClassName));
+    }
+    return deps;
+  }
+
+  /**
+   * Returns the file this class is read from, or null if the source has already been closed.
+   */
+  public IFoundFile getFoundFile() {
+    return foundFile;
+  }
+
   @Override
   public void close() {
+    preloadedClass = null;
+    preloadedClassFile = null;
     if (foundFile != null) {
       foundFile.close();
       foundFile = null;
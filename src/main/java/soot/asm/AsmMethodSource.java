@@ -292,6 +292,7 @@ import soot.jimple.UnopExpr;
 import soot.options.Options;
 import soot.tagkit.LineNumberTag;
 import soot.tagkit.Tag;
+import soot.tagkit.TagInterner;
 import soot.util.Chain;
 
 /**
@@ -326,13 +327,15 @@ public class AsmMethodSource implements MethodSource {
   protected int nextLocal;
   protected Map<Integer, Local> locals;
   private Multimap<LabelNode, UnitBox> labels;
-  private Map<AbstractInsnNode, Unit> units;
+  /* units and frames are indexed by the position of the instruction in the instruction list */
+  private Unit[] units;
   private ArrayList<Operand> stack;
-  private Map<AbstractInsnNode, StackFrame> frames;
+  private StackFrame[] frames;
   private Multimap<LabelNode, UnitBox> trapHandlers;
   private JimpleBody body;
   private int lastLineNumber = -1;
-  private Table<AbstractInsnNode, AbstractInsnNode, Edge> edges;
+  /* outgoing edges, indexed like units */
+  private Edge[][] edges;
   private ArrayDeque<Edge> conversionWorklist;
 
   public AsmMethodSource(int maxLocals, InsnList insns, List<LocalVariableNode> localVars,
@@ -345,10 +348,11 @@ public class AsmMethodSource implements MethodSource {
   }
 
   private StackFrame getFrame(AbstractInsnNode insn) {
-    StackFrame frame = frames.get(insn);
+    final int idx = instructions.indexOf(insn);
+    StackFrame frame = frames[idx];
     if (frame == null) {
       frame = new StackFrame(this);
-      frames.put(insn, frame);
+      frames[idx] = frame;
     }
     return frame;
   }
@@ -531,25 +535,25 @@ public class AsmMethodSource implements MethodSource {
     if (Options.v().keep_line_number() && lastLineNumber >= 0) {
       Tag lineTag = u.getTag(LineNumberTag.NAME);
       if (lineTag == null) {
-        lineTag = new LineNumberTag(lastLineNumber);
+        lineTag = TagInterner.lineNumber(lastLineNumber);
         u.addTag(lineTag);
       } else if (((LineNumberTag) lineTag).getLineNumber() != lastLineNumber) {
         throw new RuntimeException("Line tag mismatch");
       }
     }
 
-    Unit o = units.put(insn, u);
+    final int idx = instructions.indexOf(insn);
+    Unit o = units[idx];
     if (o != null) {
       throw new AssertionError(insn.getOpcode() + " already has a unit, " + o);
     }
+    units[idx] = u;
   }
 
   void mergeUnits(AbstractInsnNode insn, Unit u) {
-    Unit prev = units.put(insn, u);
-    if (prev != null) {
-      Unit merged = new UnitContainer(prev, u);
-      units.put(insn, merged);
-    }
+    final int idx = instructions.indexOf(insn);
+    Unit prev = units[idx];
+    units[idx] = prev == null ? u : new UnitContainer(prev, u);
   }
 
   protected Local newStackLocal() {
@@ -561,7 +565,11 @@ public class AsmMethodSource implements MethodSource {
 
   @SuppressWarnings("unchecked")
   <A extends Unit> A getUnit(AbstractInsnNode insn) {
-    return (A) units.get(insn);
+    return insn == null ? null : (A) units[instructions.indexOf(insn)];
+  }
+
+  private boolean hasUnit(AbstractInsnNode insn) {
+    return units[instructions.indexOf(insn)] != null;
   }
 
   private void assignReadOps(Local l) {
@@ -697,7 +705,7 @@ public class AsmMethodSource implements MethodSource {
   private void convertIincInsn(IincInsnNode insn) {
     Local local = getLocal(insn.var);
     assignReadOps(local);
-    if (!units.containsKey(insn)) {
+    if (!hasUnit(insn)) {
       AddExpr add = Jimple.v().newAddExpr(local, IntConstant.v(insn.incr));
       setUnit(insn, Jimple.v().newAssignStmt(local, add));
     }
@@ -787,7 +795,7 @@ public class AsmMethodSource implements MethodSource {
     int op = insn.getOpcode();
     boolean dword = op == LASTORE || op == DASTORE;
     StackFrame frame = getFrame(insn);
-    if (!units.containsKey(insn)) {
+    if (!hasUnit(insn)) {
       Operand valu = dword ? popImmediateDual() : popImmediate();
       Operand indx = popImmediate();
       Operand base = popLocal();
@@ -1051,7 +1059,7 @@ public class AsmMethodSource implements MethodSource {
     int op = insn.getOpcode();
     boolean dword = op == LRETURN || op == DRETURN;
     StackFrame frame = getFrame(insn);
-    if (!units.containsKey(insn)) {
+    if (!hasUnit(insn)) {
       Operand val = dword ? popImmediateDual() : popImmediate();
       ReturnStmt ret = Jimple.v().newReturnStmt(val.stackOrValue());
       val.addBox(ret.getOpBox());
@@ -1069,8 +1077,8 @@ public class AsmMethodSource implements MethodSource {
       /*
        * We can ignore NOP instructions, but for completeness, we handle them
        */
-      if (!units.containsKey(insn)) {
-        units.put(insn, Jimple.v().newNopStmt());
+      if (!hasUnit(insn)) {
+        units[instructions.indexOf(insn)] = Jimple.v().newNopStmt();
       }
     } else if (op >= ACONST_NULL && op <= DCONST_1) {
       convertConstInsn(insn);
@@ -1103,13 +1111,13 @@ public class AsmMethodSource implements MethodSource {
     } else if (op >= IRETURN && op <= ARETURN) {
       convertReturnInsn(insn);
     } else if (op == RETURN) {
-      if (!units.containsKey(insn)) {
+      if (!hasUnit(insn)) {
         setUnit(insn, Jimple.v().newReturnVoidStmt());
       }
     } else if (op == ATHROW) {
       StackFrame frame = getFrame(insn);
       Operand opr;
-      if (!units.containsKey(insn)) {
+      if (!hasUnit(insn)) {
         opr = popImmediate();
         ThrowStmt ts = Jimple.v().newThrowStmt(opr.stackOrValue());
         opr.addBox(ts.getOpBox());
@@ -1124,7 +1132,7 @@ public class AsmMethodSource implements MethodSource {
       push(opr);
     } else if (op == MONITORENTER || op == MONITOREXIT) {
       StackFrame frame = getFrame(insn);
-      if (!units.containsKey(insn)) {
+      if (!hasUnit(insn)) {
         Operand opr = popStackConst();
         MonitorStmt ts = op == MONITORENTER ? Jimple.v().newEnterMonitorStmt(opr.stackOrValue())
             : Jimple.v().newExitMonitorStmt(opr.stackOrValue());
@@ -1200,7 +1208,7 @@ public class AsmMethodSource implements MethodSource {
   private void convertJumpInsn(JumpInsnNode insn) {
     int op = insn.getOpcode();
     if (op == GOTO) {
-      if (!units.containsKey(insn)) {
+      if (!hasUnit(insn)) {
         UnitBox box = Jimple.v().newStmtBox(null);
         labels.put(insn.label, box);
         setUnit(insn, Jimple.v().newGotoStmt(box));
@@ -1209,7 +1217,7 @@ public class AsmMethodSource implements MethodSource {
     }
     /* must be ifX insn */
     StackFrame frame = getFrame(insn);
-    if (!units.containsKey(insn)) {
+    if (!hasUnit(insn)) {
       Operand val = popImmediate();
       Value v = val.stackOrValue();
       ConditionExpr cond;
@@ -1357,7 +1365,7 @@ public class AsmMethodSource implements MethodSource {
 
   private void convertLookupSwitchInsn(LookupSwitchInsnNode insn) {
     StackFrame frame = getFrame(insn);
-    if (units.containsKey(insn)) {
+    if (hasUnit(insn)) {
       frame.mergeIn(pop());
       return;
     }
@@ -1486,7 +1494,7 @@ public class AsmMethodSource implements MethodSource {
       pushDual(opr);
     } else if (!(returnType instanceof VoidType)) {
       push(opr);
-    } else if (!units.containsKey(insn)) {
+    } else if (!hasUnit(insn)) {
       setUnit(insn, Jimple.v().newInvokeStmt(opr.value));
     }
     /*
@@ -1590,7 +1598,7 @@ public class AsmMethodSource implements MethodSource {
       pushDual(opr);
     } else if (!(returnType instanceof VoidType)) {
       push(opr);
-    } else if (!units.containsKey(insn)) {
+    } else if (!hasUnit(insn)) {
       setUnit(insn, Jimple.v().newInvokeStmt(opr.value));
     }
     /*
@@ -1660,7 +1668,7 @@ public class AsmMethodSource implements MethodSource {
 
   private void convertTableSwitchInsn(TableSwitchInsnNode insn) {
     StackFrame frame = getFrame(insn);
-    if (units.containsKey(insn)) {
+    if (hasUnit(insn)) {
       frame.mergeIn(pop());
       return;
     }
@@ -1757,7 +1765,7 @@ public class AsmMethodSource implements MethodSource {
     StackFrame frame = getFrame(insn);
     Operand opr = dword ? popDual() : pop();
     Local local = getLocal(insn.var);
-    if (!units.containsKey(insn)) {
+    if (!hasUnit(insn)) {
       DefinitionStmt as = Jimple.v().newAssignStmt(local, opr.stackOrValue());
       opr.addBox(as.getRightOpBox());
       frame.boxes(as.getRightOpBox());
@@ -1777,7 +1785,7 @@ public class AsmMethodSource implements MethodSource {
       convertVarStoreInsn(insn);
     } else if (op == RET) {
       /* we handle it, even thought it should be removed */
-      if (!units.containsKey(insn)) {
+      if (!hasUnit(insn)) {
         setUnit(insn, Jimple.v().newRetStmt(getLocal(insn.var)));
       }
     } else {
@@ -1796,7 +1804,7 @@ public class AsmMethodSource implements MethodSource {
     // somewhere from the real exception handler in case this is inline
     // code
     if (inlineExceptionLabels.contains(ln)) {
-      if (!units.containsKey(ln)) {
+      if (!hasUnit(ln)) {
         NopStmt nop = Jimple.v().newNopStmt();
         setUnit(ln, nop);
       }
@@ -1827,17 +1835,29 @@ public class AsmMethodSource implements MethodSource {
   private void addEdges(AbstractInsnNode cur, AbstractInsnNode tgt1, List<LabelNode> tgts) {
     int lastIdx = tgts == null ? -1 : tgts.size() - 1;
     Operand[] stackss = stack.toArray(new Operand[stack.size()]);
-    List<Operand> stackssL = Arrays.asList(stackss);
+    final int curIdx = instructions.indexOf(cur);
+    Edge[] out = edges[curIdx];
+    if (out == null) {
+      // An instruction always has the same successors, so there is room for one edge per target
+      edges[curIdx] = out = new Edge[lastIdx + 2];
+    }
     AbstractInsnNode tgt = tgt1;
     int i = 0;
     tgt_loop: do {
-      Edge edge = edges.get(cur, tgt);
+      Edge edge = null;
+      int slot = 0;
+      for (; slot < out.length && out[slot] != null; slot++) {
+        if (out[slot].insn == tgt) {
+          edge = out[slot];
+          break;
+        }
+      }
       if (edge == null) {
         // make sure to store last line number to stay sound if the branch that comes later in
         // bytecode is processed first
         edge = new Edge(tgt, lastLineNumber);
-        edge.prevStacks.add(stackssL);
-        edges.put(cur, tgt, edge);
+        edge.prevStacks.add(stackss);
+        out[slot] = edge;
         conversionWorklist.add(edge);
         continue;
       }
@@ -1858,7 +1878,7 @@ public class AsmMethodSource implements MethodSource {
         }
         continue;
       }
-      if (!edge.prevStacks.add(stackssL)) {
+      if (!edge.addPrevStack(stackss)) {
         continue tgt_loop;
       }
       edge.stack = new ArrayList<Operand>(stack);
@@ -1913,7 +1933,7 @@ public class AsmMethodSource implements MethodSource {
     }
     worklist.add(new Edge(instructions.getFirst(), new ArrayList<Operand>()));
     conversionWorklist = worklist;
-    edges = HashBasedTable.create(instructions.size(), 1);
+    edges = new Edge[instructions.size()][];
 
     do {
       Edge edge = worklist.pollLast();
@@ -2146,7 +2166,7 @@ public class AsmMethodSource implements MethodSource {
       }
 
       // Get the unit associated with the current instruction
-      Unit u = units.get(insn);
+      Unit u = getUnit(insn);
       if (u == null) {
         insn = insn.getNext();
         continue;
@@ -2196,7 +2216,7 @@ public class AsmMethodSource implements MethodSource {
       }
 
       // We need to jump to the original implementation
-      Unit targetUnit = units.get(ln);
+      Unit targetUnit = getUnit(ln);
       GotoStmt gotoImpl = Jimple.v().newGotoStmt(targetUnit);
       body.getUnits().add(gotoImpl);
     }
@@ -2241,8 +2261,8 @@ public class AsmMethodSource implements MethodSource {
     nextLocal = maxLocals;
     locals = new LinkedHashMap<Integer, Local>(maxLocals + (maxLocals / 2));
     labels = LinkedListMultimap.create(4);
-    units = new LinkedHashMap<AbstractInsnNode, Unit>(nrInsn);
-    frames = new LinkedHashMap<AbstractInsnNode, StackFrame>(nrInsn);
+    units = new Unit[nrInsn];
+    frames = new StackFrame[nrInsn];
     trapHandlers = LinkedListMultimap.create(tryCatchBlocks.size());
     body = jb;
     /* retrieve all trap handlers */
@@ -2382,7 +2402,7 @@ public class AsmMethodSource implements MethodSource {
               // the initial instruction to check, the bytecode generated by
               // some compilers has the start PC one instruction late it seems.
               Unit uStart;
-              for (AbstractInsnNode i = lvn.start.getPrevious(); (uStart = units.get(i)) == null && i != null;) {
+              for (AbstractInsnNode i = lvn.start.getPrevious(); (uStart = getUnit(i)) == null && i != null;) {
                 i = i.getNext();
               }
               if (uStart instanceof UnitContainer) {
@@ -2390,7 +2410,7 @@ public class AsmMethodSource implements MethodSource {
               }
               // Get the previous real instruction before 'end'
               Unit uEnd;
-              for (AbstractInsnNode i = lvn.end.getPrevious(); (uEnd = units.get(i)) == null && i != null;) {
+              for (AbstractInsnNode i = lvn.end.getPrevious(); (uEnd = getUnit(i)) == null && i != null;) {
                 i = i.getPrevious();
               }
               if (uEnd instanceof UnitContainer) {
@@ -2458,17 +2478,37 @@ public class AsmMethodSource implements MethodSource {
     /* edge endpoint */
     final AbstractInsnNode insn;
     /* previous stacks at edge */
-    final Set<List<Operand>> prevStacks;
+    final List<Operand[]> prevStacks;
     private int lastLineNumber = -1;
     /* current stack at edge */
     ArrayList<Operand> stack;
 
     Edge(AbstractInsnNode insn, ArrayList<Operand> stack) {
       this.insn = insn;
-      this.prevStacks = new HashSet<List<Operand>>();
+      this.prevStacks = new ArrayList<Operand[]>(1);
       this.stack = stack;
     }
 
+    /**
+     * Records the given stack unless the same operands have already been seen at this edge.
+     *
+     * @return true if the stack is new
+     */
+    boolean addPrevStack(Operand[] prev) {
+      stacks: for (Operand[] s : prevStacks) {
+        if (s.length == prev.length) {
+          for (int j = 0; j < s.length; j++) {
+            if (s[j] != prev[j]) {
+              continue stacks;
+            }
+          }
+          return false;
+        }
+      }
+      prevStacks.add(prev);
+      return true;
+    }
+
     Edge(AbstractInsnNode insn, int lastLineNumber) {
       this(insn, new ArrayList<Operand>(AsmMethodSource.this.stack));
       this.lastLineNumber = lastLineNumber;
@@ -0,0 +1,86 @@
+package soot.asm;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2026 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.commons.JSRInlinerAdapter;
+
+import soot.Body;
+import soot.MethodSource;
+import soot.SootMethod;
+
+/**
+ * Method source of a class that was resolved with <code>-lazy-method-bodies</code>. Instead of the instructions of the
+ * method, it keeps only a reference to the class file, which is shared by all methods of the class. When the body is
+ * requested, the instructions of this one method are decoded again and handed to
+ * {@link MethodBuilder#createAsmMethodSource(int, org.objectweb.asm.tree.InsnList, java.util.List, java.util.List, String)}
+ * of the builder that created this source, just like in eager mode.
+ */
+class LazyAsmMethodSource implements MethodSource {
+
+  private final MethodBuilder builder;
+  private final byte[] classFile;
+  private final String name;
+  private final String desc;
+  private final String module;
+
+  LazyAsmMethodSource(MethodBuilder builder, byte[] classFile, String name, String desc, String module) {
+    this.builder = builder;
+    this.classFile = classFile;
+    this.name = name;
+    this.desc = desc;
+    this.module = module;
+  }
+
+  @Override
+  public Body getBody(SootMethod m, String phaseName) {
+    return readMethod().getBody(m, phaseName);
+  }
+
+  private MethodSource readMethod() {
+    final MethodSource[] result = new MethodSource[1];
+    new ClassReader(classFile).accept(new ClassVisitor(Opcodes.ASM9) {
+      @Override
+      public MethodVisitor visitMethod(int access, String mName, String mDesc, String signature, String[] exceptions) {
+        if (result[0] != null || !name.equals(mName) || !desc.equals(mDesc)) {
+          // The code of all other methods is skipped
+          return null;
+        }
+        return new JSRInlinerAdapter(Opcodes.ASM9, null, access, mName, mDesc, signature, exceptions) {
+          @Override
+          public void visitEnd() {
+            super.visitEnd();
+            result[0] = builder.createAsmMethodSource(maxLocals, instructions, localVariables, tryCatchBlocks, module);
+          }
+        };
+      }
+    }, ClassReader.SKIP_FRAMES);
+    if (result[0] == null) {
+      throw new RuntimeException("Error: Method " + name + desc + " not found in its class file");
+    }
+    return result[0];
+  }
+}
@@ -308,8 +308,17 @@ public class MethodBuilder extends JSRInlinerAdapter {
       method.addTag(AggregatedMethodParametersTag.of(parameterNames, mpTag));
     }
     if (method.isConcrete()) {
-      method.setSource(
-          createAsmMethodSource(maxLocals, instructions, localVariables, tryCatchBlocks, scb.getKlass().moduleName));
+      final byte[] classFile = scb.getClassFile();
+      if (classFile != null) {
+        method.setSource(new LazyAsmMethodSource(this, classFile, name, desc, scb.getKlass().moduleName));
+        // The lazy source keeps this builder for createAsmMethodSource, but not the code that was read
+        instructions = new InsnList();
+        localVariables = null;
+        tryCatchBlocks = null;
+      } else {
+        method.setSource(
+            createAsmMethodSource(maxLocals, instructions, localVariables, tryCatchBlocks, scb.getKlass().moduleName));
+      }
     }
   }
 
@@ -72,6 +72,7 @@ public class SootClassBuilder extends ClassVisitor {
   protected final SootClass klass;
   protected final Set<Type> deps;
   protected TagBuilder tb;
+  protected final byte[] classFile;
 
   /**
    * Constructs a new builder for the given {@link SootClass}.
@@ -80,9 +81,23 @@ public class SootClassBuilder extends ClassVisitor {
    *          Soot class to build.
    */
   protected SootClassBuilder(SootClass klass) {
+    this(klass, null);
+  }
+
+  /**
+   * Constructs a new builder for the given {@link SootClass}. If the contents of the class file are given, the methods
+   * keep only a reference to them and decode their instructions when their body is requested.
+   *
+   * @param klass
+   *          Soot class to build.
+   * @param classFile
+   *          the class file that is visited, or null.
+   */
+  protected SootClassBuilder(SootClass klass, byte[] classFile) {
     super(Opcodes.ASM9);
     this.klass = klass;
     this.deps = new HashSet<>();
+    this.classFile = classFile;
   }
 
   private TagBuilder getTagBuilder() {
@@ -97,6 +112,13 @@ public class SootClassBuilder extends ClassVisitor {
     return klass;
   }
 
+  /**
+   * Returns the class file from which method bodies are decoded on demand, or null if every method keeps its instructions.
+   */
+  protected byte[] getClassFile() {
+    return classFile;
+  }
+
   protected void addDep(String s) {
     addDep(makeRefType(AsmUtil.baseTypeName(s)));
   }
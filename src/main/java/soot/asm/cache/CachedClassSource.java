@@ -0,0 +1,135 @@
+package soot.asm.cache;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2026 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.tree.ClassNode;
+
+import soot.IFoundFile;
+import soot.SootClass;
+import soot.asm.AsmClassSource;
+import soot.javaToJimple.IInitialResolver.Dependencies;
+import soot.options.Options;
+
+/**
+ * Class source that restores a class from the {@link ClassCache} if possible and otherwise parses the class file with the
+ * ASM frontend and adds the result to the cache.
+ */
+public class CachedClassSource extends AsmClassSource {
+
+  protected final ClassCache.Container container;
+
+  /**
+   * Constructs a new cached class source.
+   *
+   * @param cls
+   *          fully qualified name of the class.
+   * @param foundFile
+   *          foundfile pointing to the data for class.
+   * @param container
+   *          the cache container of the archive holding the class.
+   */
+  CachedClassSource(String cls, IFoundFile foundFile, ClassCache.Container container) {
+    super(cls, foundFile);
+    this.container = container;
+  }
+
+  @Override
+  public void preload() {
+    // Cached classes are restored from their records, there is nothing to parse ahead of time
+    if (ClassCache.v().lookup(container, className) == null) {
+      super.preload();
+    }
+  }
+
+  @Override
+  public Dependencies resolve(SootClass sc) {
+    final ClassCache cache = ClassCache.v();
+    final long start = System.nanoTime();
+    byte[] record = cache.lookup(container, className);
+    if (record != null) {
+      // The class file is not opened here, the lazy bodies take over the file
+      preloadedClass = null;
+      Dependencies deps = ClassRecordCodec.decode(record, sc, new LazyClassBodies(className, foundFile));
+      foundFile = null;
+      cache.recordHit(System.nanoTime() - start);
+      return deps;
+    }
+
+    ClassNode node = preloadedClass;
+    if (node != null) {
+      preloadedClass = null;
+      try {
+        Dependencies deps = resolve(sc, node);
+        storeRecord(sc, deps, node.version, start);
+        return deps;
+      } finally {
+        close();
+      }
+    }
+
+    if (Options.v().lazy_method_bodies()) {
+      try {
+        final byte[] classFile = preloadedClassFile != null ? preloadedClassFile : readClassFile();
+        Dependencies deps = resolve(sc, classFile);
+        storeRecord(sc, deps, new ClassReader(classFile).readInt(4), start);
+        return deps;
+      } finally {
+        close();
+      }
+    }
+
+    InputStream d = null;
+    try {
+      d = foundFile.inputStream();
+      ClassReader clsr = new ClassReader(d);
+      Dependencies deps = resolve(sc, clsr);
+      storeRecord(sc, deps, clsr.readInt(4), start);
+      return deps;
+    } catch (IOException e) {
+      throw new RuntimeException("Error: Failed to create class reader from class source.", e);
+    } finally {
+      try {
+        if (d != null) {
+          d.close();
+        }
+      } catch (IOException e) {
+        throw new RuntimeException("Error: Failed to close source input stream.", e);
+      } finally {
+        close();
+      }
+    }
+  }
+
+  private void storeRecord(SootClass sc, Dependencies deps, int classVersion, long start) {
+    final ClassCache cache = ClassCache.v();
+    byte[] record = ClassRecordCodec.encode(sc, deps, classVersion);
+    if (record != null) {
+      cache.store(container, className, record);
+    }
+    cache.recordMiss(System.nanoTime() - start, record != null);
+  }
+}
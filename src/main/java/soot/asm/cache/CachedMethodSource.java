@@ -0,0 +1,58 @@
+package soot.asm.cache;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2026 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import soot.Body;
+import soot.MethodSource;
+import soot.SootMethod;
+
+/**
+ * Method source of a method whose declaring class was restored from the {@link ClassCache} or a {@link SceneSnapshot}. The
+ * bytecode of the method is only decoded when its body is requested for the first time.
+ */
+final class CachedMethodSource implements MethodSource {
+
+  private final LazyClassBodies bodies;
+  private final String name;
+  private final String desc;
+  private MethodSource delegate;
+
+  CachedMethodSource(LazyClassBodies bodies, String name, String desc) {
+    this.bodies = bodies;
+    this.name = name;
+    this.desc = desc;
+  }
+
+  @Override
+  public Body getBody(SootMethod m, String phaseName) {
+    MethodSource d = delegate;
+    if (d == null) {
+      d = bodies.takeSource(name, desc);
+      if (d == null) {
+        throw new RuntimeException("Error: No bytecode found for cached method " + m.getSignature());
+      }
+      delegate = d;
+    }
+    return d.getBody(m, phaseName);
+  }
+}
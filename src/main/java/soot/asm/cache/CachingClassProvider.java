@@ -0,0 +1,54 @@
+package soot.asm.cache;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2026 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import soot.ClassProvider;
+import soot.ClassSource;
+import soot.IFoundFile;
+import soot.asm.AsmClassSource;
+
+/**
+ * Class provider that sits in front of a class file provider and routes all classes found in archives through the
+ * {@link ClassCache}. Classes the cache cannot hold are returned as found by the wrapped provider.
+ */
+public class CachingClassProvider implements ClassProvider {
+
+  protected final ClassProvider delegate;
+
+  public CachingClassProvider(ClassProvider delegate) {
+    this.delegate = delegate;
+  }
+
+  @Override
+  public ClassSource find(String className) {
+    ClassSource src = delegate.find(className);
+    if (src != null && src.getClass() == AsmClassSource.class) {
+      IFoundFile file = ((AsmClassSource) src).getFoundFile();
+      ClassCache.Container container = ClassCache.v().getContainer(file);
+      if (container != null) {
+        return new CachedClassSource(className, file, container);
+      }
+    }
+    return src;
+  }
+}
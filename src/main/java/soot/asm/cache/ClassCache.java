@@ -0,0 +1,331 @@
+package soot.asm.cache;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2026 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import com.google.common.base.Strings;
+import com.google.common.hash.Hashing;
+import com.google.common.io.Files;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import soot.G;
+import soot.IFoundFile;
+import soot.ModuleUtil;
+import soot.Singletons;
+import soot.options.Options;
+
+/**
+ * Persistent store for class signatures resolved by the ASM frontend. The store keeps one cache file per class container,
+ * i.e., per JAR/ZIP archive or per JDK runtime image. A cache file is identified by the container path and a hash of the
+ * container contents, so modifying an archive automatically invalidates all signatures cached for it.
+ *
+ * <p>
+ * Cache files are read lazily the first time a class from the respective container is requested and written back by
+ * {@link #flush()} if new signatures have been added in the meantime.
+ * </p>
+ */
+public class ClassCache {
+  private static final Logger logger = LoggerFactory.getLogger(ClassCache.class);
+
+  private static final int MAGIC = 0x53434331; // "SCC1"
+
+  /**
+   * Must be increased whenever the layout of the cache files or of the serialized class records changes.
+   */
+  static final int FORMAT_VERSION = 1;
+
+  private static final String CACHE_FILE_SUFFIX = ".sigcache";
+
+  private final Map<String, Container> containers = new ConcurrentHashMap<String, Container>();
+
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+  private final AtomicLong uncacheable = new AtomicLong();
+  private final AtomicLong warmNanos = new AtomicLong();
+  private final AtomicLong coldNanos = new AtomicLong();
+  private final AtomicLong ioNanos = new AtomicLong();
+
+  public ClassCache(Singletons.Global g) {
+  }
+
+  public static ClassCache v() {
+    return G.v().soot_asm_cache_ClassCache();
+  }
+
+  /**
+   * Returns true if a cache directory has been configured and the cache can be used with the current settings.
+   */
+  public boolean isEnabled() {
+    return !Strings.isNullOrEmpty(Options.v().class_cache_dir()) && !ModuleUtil.module_mode();
+  }
+
+  /**
+   * Returns the cache container for the archive or runtime image that holds the given file, or null if classes loaded
+   * from this file cannot be cached, e.g., because it is a plain class file in a directory.
+   */
+  Container getContainer(IFoundFile file) {
+    final String key;
+    if (file.isZipFile()) {
+      key = file.getFile() != null ? archiveKey(file.getFile()) : file.getAbsolutePath();
+    } else if (file.getFile() == null && file.getAbsolutePath().startsWith("/modules/")) {
+      // Classes from the JDK runtime image (jrt:/) are identified by the runtime they belong to
+      key = "jrt:" + System.getProperty("java.home");
+    } else {
+      return null;
+    }
+    Container c = containers.get(key);
+    if (c == null) {
+      Container newContainer = new Container(key);
+      c = containers.putIfAbsent(key, newContainer);
+      if (c == null) {
+        c = newContainer;
+      }
+    }
+    return c;
+  }
+
+  /**
+   * Returns the key of the container for the given archive. {@link #getContainer(IFoundFile)} and
+   * {@link #invalidate(File)} must normalize the path in the same way, so that an archive named by a relative path or
+   * through a symbolic link still finds its container.
+   */
+  private static String archiveKey(File archive) {
+    try {
+      return archive.getCanonicalPath();
+    } catch (IOException e) {
+      return archive.getAbsolutePath();
+    }
+  }
+
+  /**
+   * Returns the serialized record of the given class, or null if the class is not in the cache.
+   */
+  byte[] lookup(Container container, String className) {
+    return container.getEntries().get(className);
+  }
+
+  void store(Container container, String className, byte[] record) {
+    container.getEntries().put(className, record);
+    container.dirty = true;
+  }
+
+  void recordHit(long nanos) {
+    hits.incrementAndGet();
+    warmNanos.addAndGet(nanos);
+  }
+
+  void recordMiss(long nanos, boolean cached) {
+    if (cached) {
+      misses.incrementAndGet();
+    } else {
+      uncacheable.incrementAndGet();
+    }
+    coldNanos.addAndGet(nanos);
+  }
+
+  public long getHits() {
+    return hits.get();
+  }
+
+  public long getMisses() {
+    return misses.get();
+  }
+
+  public long getUncacheable() {
+    return uncacheable.get();
+  }
+
+  /**
+   * Writes all containers with new signatures back to the cache directory and, in verbose mode, reports the cache
+   * statistics.
+   */
+  public void flush() {
+    if (!isEnabled()) {
+      return;
+    }
+    for (Container c : containers.values()) {
+      if (c.dirty) {
+        try {
+          c.write();
+        } catch (IOException e) {
+          logger.warn("Could not write class cache for " + c.path + ": " + e.getMessage());
+        }
+      }
+    }
+    if (Options.v().verbose()) {
+      logger.debug("[class-cache] " + this);
+    }
+  }
+
+  /**
+   * Drops the container of the given archive, e.g., because the archive has been modified. New signatures of its old
+   * content are written first, so that the cache still serves the old version of the archive.
+   */
+  public void invalidate(File archive) {
+    final Container c = containers.remove(archiveKey(archive));
+    if (c != null && c.dirty && isEnabled()) {
+      try {
+        c.write();
+      } catch (IOException e) {
+        logger.warn("Could not write class cache for " + c.path + ": " + e.getMessage());
+      }
+    }
+  }
+
+  @Override
+  public String toString() {
+    final long h = hits.get(), m = misses.get(), u = uncacheable.get();
+    final long total = h + m + u;
+    return String.format("%d hits, %d misses, %d uncacheable (hit rate %.1f%%); warm %d ms, cold %d ms, cache I/O %d ms",
+        h, m, u, total == 0 ? 0.0 : (100.0 * h / total), warmNanos.get() / 1000000, coldNanos.get() / 1000000,
+        ioNanos.get() / 1000000);
+  }
+
+  /**
+   * The cached class records of a single class container.
+   */
+  final class Container {
+    final String path;
+    private volatile Map<String, byte[]> entries;
+    private File cacheFile;
+    volatile boolean dirty;
+
+    Container(String path) {
+      this.path = path;
+    }
+
+    Map<String, byte[]> getEntries() {
+      Map<String, byte[]> e = entries;
+      if (e == null) {
+        synchronized (this) {
+          e = entries;
+          if (e == null) {
+            e = new ConcurrentHashMap<String, byte[]>();
+            final long start = System.nanoTime();
+            try {
+              cacheFile = computeCacheFile();
+              if (cacheFile.isFile()) {
+                read(e);
+              }
+            } catch (IOException ex) {
+              logger.debug("Ignoring unreadable class cache for " + path + ": " + ex.getMessage());
+              e.clear();
+            }
+            ioNanos.addAndGet(System.nanoTime() - start);
+            entries = e;
+          }
+        }
+      }
+      return e;
+    }
+
+    private String pathHash() {
+      return Hashing.murmur3_128().hashString(path, StandardCharsets.UTF_8).toString().substring(0, 16);
+    }
+
+    private File computeCacheFile() throws IOException {
+      final String contentHash;
+      if (path.startsWith("jrt:")) {
+        contentHash = Hashing.murmur3_128()
+            .hashString(System.getProperty("java.runtime.version", "") + System.getProperty("java.vendor", ""),
+                StandardCharsets.UTF_8)
+            .toString();
+      } else {
+        contentHash = Files.asByteSource(new File(path)).hash(Hashing.murmur3_128()).toString();
+      }
+      return new File(Options.v().class_cache_dir(), pathHash() + "-" + contentHash + CACHE_FILE_SUFFIX);
+    }
+
+    private void read(Map<String, byte[]> target) throws IOException {
+      try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(cacheFile)))) {
+        if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION || !path.equals(in.readUTF())) {
+          return;
+        }
+        for (int i = in.readInt(); i > 0; i--) {
+          String className = in.readUTF();
+          byte[] record = new byte[in.readInt()];
+          in.readFully(record);
+          target.put(className, record);
+        }
+      }
+    }
+
+    synchronized void write() throws IOException {
+      if (cacheFile == null) {
+        // The cache file name could not be computed, e.g., because the archive is unreadable
+        dirty = false;
+        return;
+      }
+      final long start = System.nanoTime();
+      File dir = cacheFile.getParentFile();
+      if (!dir.isDirectory() && !dir.mkdirs()) {
+        throw new IOException("Cannot create directory " + dir);
+      }
+      File tmp = File.createTempFile(cacheFile.getName(), ".tmp", dir);
+      try {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+          out.writeInt(MAGIC);
+          out.writeInt(FORMAT_VERSION);
+          out.writeUTF(path);
+          Map<String, byte[]> e = entries;
+          out.writeInt(e.size());
+          for (Map.Entry<String, byte[]> entry : e.entrySet()) {
+            out.writeUTF(entry.getKey());
+            out.writeInt(entry.getValue().length);
+            out.write(entry.getValue());
+          }
+        }
+        java.nio.file.Files.move(tmp.toPath(), cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+      } finally {
+        tmp.delete();
+      }
+      dirty = false;
+
+      // Remove stale cache files that were written for older contents of the same container
+      final String prefix = pathHash() + "-";
+      File[] stale = dir.listFiles((d, name) -> name.startsWith(prefix) && name.endsWith(CACHE_FILE_SUFFIX)
+          && !name.equals(cacheFile.getName()));
+      if (stale != null) {
+        for (File f : stale) {
+          f.delete();
+        }
+      }
+      ioNanos.addAndGet(System.nanoTime() - start);
+    }
+  }
+}
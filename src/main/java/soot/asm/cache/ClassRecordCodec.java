@@ -0,0 +1,706 @@
+package soot.asm.cache;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2026 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import com.google.common.base.Optional;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import soot.ArrayType;
+import soot.Modifier;
+import soot.RefType;
+import soot.Scene;
+import soot.SootClass;
+import soot.SootField;
+import soot.SootMethod;
+import soot.SootResolver;
+import soot.Type;
+import soot.asm.AsmUtil;
+import soot.javaToJimple.IInitialResolver.Dependencies;
+import soot.options.Options;
+import soot.tagkit.AggregatedMethodParametersTag;
+import soot.tagkit.AnnotationAnnotationElem;
+import soot.tagkit.AnnotationArrayElem;
+import soot.tagkit.AnnotationBooleanElem;
+import soot.tagkit.AnnotationClassElem;
+import soot.tagkit.AnnotationDefaultTag;
+import soot.tagkit.AnnotationDoubleElem;
+import soot.tagkit.AnnotationElem;
+import soot.tagkit.AnnotationEnumElem;
+import soot.tagkit.AnnotationFloatElem;
+import soot.tagkit.AnnotationIntElem;
+import soot.tagkit.AnnotationLongElem;
+import soot.tagkit.AnnotationStringElem;
+import soot.tagkit.AnnotationTag;
+import soot.tagkit.DoubleConstantValueTag;
+import soot.tagkit.EnclosingMethodTag;
+import soot.tagkit.FloatConstantValueTag;
+import soot.tagkit.GenericAttribute;
+import soot.tagkit.Host;
+import soot.tagkit.InnerClassTag;
+import soot.tagkit.IntegerConstantValueTag;
+import soot.tagkit.LocalVariableTableTag;
+import soot.tagkit.LongConstantValueTag;
+import soot.tagkit.MethodParametersTag;
+import soot.tagkit.ParamNamesTag;
+import soot.tagkit.SignatureTag;
+import soot.tagkit.SourceFileTag;
+import soot.tagkit.StringConstantValueTag;
+import soot.tagkit.Tag;
+import soot.tagkit.VisibilityAnnotationTag;
+import soot.tagkit.VisibilityLocalVariableAnnotationTag;
+import soot.tagkit.VisibilityParameterAnnotationTag;
+import soot.util.backend.ASMBackendUtils;
+
+/**
+ * Converts the signature-level state of a class resolved by the ASM frontend into a compact binary record and back. A
+ * record holds everything {@link soot.asm.AsmClassSource} puts into a {@link SootClass} except for the method bodies, plus
+ * the dependencies reported to the {@link SootResolver}. Types are stored as JVM descriptors.
+ */
+final class ClassRecordCodec {
+
+  private static final byte TAG_SIGNATURE = 1;
+  private static final byte TAG_SOURCE_FILE = 2;
+  private static final byte TAG_INNER_CLASS = 3;
+  private static final byte TAG_ENCLOSING_METHOD = 4;
+  private static final byte TAG_INT_CONSTANT = 5;
+  private static final byte TAG_LONG_CONSTANT = 6;
+  private static final byte TAG_FLOAT_CONSTANT = 7;
+  private static final byte TAG_DOUBLE_CONSTANT = 8;
+  private static final byte TAG_STRING_CONSTANT = 9;
+  private static final byte TAG_ANNOTATIONS = 10;
+  private static final byte TAG_ANNOTATION_DEFAULT = 11;
+  private static final byte TAG_GENERIC_ATTRIBUTE = 12;
+  private static final byte TAG_PARAMETER_ANNOTATIONS = 13;
+  private static final byte TAG_LOCAL_VARIABLE_ANNOTATIONS = 14;
+  private static final byte TAG_PARAM_NAMES = 15;
+  private static final byte TAG_LOCAL_VARIABLE_TABLE = 16;
+  private static final byte TAG_METHOD_PARAMETERS = 17;
+  private static final byte TAG_AGGREGATED_METHOD_PARAMETERS = 18;
+
+  private static final byte ELEM_INT = 1;
+  private static final byte ELEM_LONG = 2;
+  private static final byte ELEM_FLOAT = 3;
+  private static final byte ELEM_DOUBLE = 4;
+  private static final byte ELEM_STRING = 5;
+  private static final byte ELEM_BOOLEAN = 6;
+  private static final byte ELEM_CLASS = 7;
+  private static final byte ELEM_ENUM = 8;
+  private static final byte ELEM_ARRAY = 9;
+  private static final byte ELEM_ANNOTATION = 10;
+
+  private static final Optional<String> NO_MODULE = Optional.absent();
+
+  /**
+   * Signals that a class carries information that cannot be represented in a record.
+   */
+  private static final class UncacheableException extends Exception {
+    private static final long serialVersionUID = 4076358924519812263L;
+
+    UncacheableException(String message) {
+      super(message, null, false, false);
+    }
+  }
+
+  private ClassRecordCodec() {
+  }
+
+  /**
+   * Serializes the given freshly resolved class. Returns null if the class cannot be cached.
+   *
+   * @param sc
+   *          the class as produced by the ASM frontend
+   * @param deps
+   *          the dependencies the frontend reported for the class
+   * @param classVersion
+   *          the class file version as reported by ASM
+   */
+  static byte[] encode(SootClass sc, Dependencies deps, int classVersion) {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(512);
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      out.writeInt(classVersion);
+      out.writeInt(sc.getModifiers());
+      SootClass superClass = sc.getSuperclassUnsafe();
+      writeNullableUTF(out, superClass == null ? null : superClass.getName());
+      SootClass outerClass = sc.getOuterClassUnsafe();
+      writeNullableUTF(out, outerClass == null ? null : outerClass.getName());
+      out.writeInt(sc.getInterfaceCount());
+      for (SootClass iface : sc.getInterfaces()) {
+        out.writeUTF(iface.getName());
+      }
+      writeTags(out, sc);
+
+      out.writeInt(sc.getFieldCount());
+      for (SootField f : sc.getFields()) {
+        out.writeUTF(f.getName());
+        out.writeUTF(ASMBackendUtils.toTypeDesc(f.getType()));
+        out.writeInt(f.getModifiers());
+        writeTags(out, f);
+      }
+
+      out.writeInt(sc.getMethodCount());
+      for (SootMethod m : sc.getMethods()) {
+        out.writeUTF(m.getName());
+        out.writeUTF(ASMBackendUtils.toTypeDesc(m.getParameterTypes(), m.getReturnType()));
+        out.writeInt(m.getModifiers());
+        List<SootClass> exceptions = m.getExceptionsUnsafe();
+        if (exceptions == null) {
+          out.writeInt(0);
+        } else {
+          out.writeInt(exceptions.size());
+          for (SootClass ex : exceptions) {
+            out.writeUTF(ex.getName());
+          }
+        }
+        writeTags(out, m);
+      }
+
+      writeTypes(out, deps.typesToHierarchy);
+      writeTypes(out, deps.typesToSignature);
+
+      // The frontend marks referenced classes as interfaces before they are resolved themselves, e.g., the target
+      // classes of interface method handles. Record these marks so that they can be replayed.
+      List<String> interfaceMarks = new ArrayList<String>();
+      for (Type t : deps.typesToSignature) {
+        if (t instanceof RefType) {
+          RefType rt = (RefType) t;
+          if (rt.hasSootClass()) {
+            SootClass c = rt.getSootClass();
+            if (c.resolvingLevel() == SootClass.DANGLING && Modifier.isInterface(c.getModifiers())) {
+              interfaceMarks.add(c.getName());
+            }
+          }
+        }
+      }
+      out.writeInt(interfaceMarks.size());
+      for (String name : interfaceMarks) {
+        out.writeUTF(name);
+      }
+    } catch (UncacheableException e) {
+      return null;
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+    return bytes.toByteArray();
+  }
+
+  /**
+   * Restores a class from its record. Concrete methods receive a {@link CachedMethodSource} that loads the body from the
+   * given class bodies on demand.
+   *
+   * @return the dependencies of the class
+   */
+  static Dependencies decode(byte[] record, SootClass sc, LazyClassBodies bodies) {
+    final SootResolver resolver = SootResolver.v();
+    final Scene scene = Scene.v();
+    try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(record))) {
+      final int classVersion = in.readInt();
+      final Options opts = Options.v();
+      if (opts.derive_java_version()) {
+        opts.set_java_version(Math.max(opts.java_version(), AsmUtil.byteCodeToJavaVersion(classVersion)));
+      }
+      sc.setModifiers(in.readInt());
+      String superName = readNullableUTF(in);
+      if (superName != null) {
+        sc.setSuperclass(resolver.makeClassRef(superName));
+      }
+      String outerName = readNullableUTF(in);
+      for (int i = in.readInt(); i > 0; i--) {
+        SootClass iface = resolver.makeClassRef(in.readUTF());
+        iface.setModifiers(iface.getModifiers() | Modifier.INTERFACE);
+        sc.addInterface(iface);
+      }
+      readTags(in, sc);
+
+      for (int i = in.readInt(); i > 0; i--) {
+        String name = in.readUTF();
+        Type type = AsmUtil.toJimpleType(in.readUTF(), NO_MODULE);
+        SootField f = sc.getOrAddField(scene.makeSootField(name, type, in.readInt()));
+        readTags(in, f);
+      }
+
+      for (int i = in.readInt(); i > 0; i--) {
+        String name = in.readUTF();
+        String desc = in.readUTF();
+        int modifiers = in.readInt();
+        List<SootClass> exceptions;
+        int numExceptions = in.readInt();
+        if (numExceptions == 0) {
+          exceptions = Collections.emptyList();
+        } else {
+          exceptions = new ArrayList<SootClass>(numExceptions);
+          for (int j = 0; j < numExceptions; j++) {
+            exceptions.add(resolver.makeClassRef(in.readUTF()));
+          }
+        }
+        List<Type> sigTypes = AsmUtil.toJimpleDesc(desc, NO_MODULE);
+        SootMethod m = scene.makeSootMethod(name, sigTypes, sigTypes.remove(sigTypes.size() - 1), modifiers, exceptions);
+        readTags(in, m);
+        m = sc.getOrAddMethod(m);
+        if (m.isConcrete()) {
+          m.setSource(new CachedMethodSource(bodies, name, desc));
+        }
+      }
+
+      Dependencies deps = new Dependencies();
+      readTypes(in, deps.typesToHierarchy);
+      readTypes(in, deps.typesToSignature);
+      for (int i = in.readInt(); i > 0; i--) {
+        SootClass c = resolver.makeClassRef(in.readUTF());
+        c.setModifiers(c.getModifiers() | Modifier.INTERFACE);
+      }
+
+      if (outerName != null) {
+        sc.setOuterClass(resolver.makeClassRef(outerName));
+      }
+      return deps;
+    } catch (IOException e) {
+      throw new RuntimeException("Corrupt class cache record for " + sc.getName(), e);
+    }
+  }
+
+  private static void writeTypes(DataOutputStream out, Set<Type> types) throws IOException {
+    // Only reference types are relevant for the resolver
+    List<String> descs = new ArrayList<String>(types.size());
+    for (Type t : types) {
+      if (t instanceof RefType || t instanceof ArrayType) {
+        descs.add(ASMBackendUtils.toTypeDesc(t));
+      }
+    }
+    out.writeInt(descs.size());
+    for (String desc : descs) {
+      out.writeUTF(desc);
+    }
+  }
+
+  private static void readTypes(DataInputStream in, Set<Type> types) throws IOException {
+    for (int i = in.readInt(); i > 0; i--) {
+      types.add(AsmUtil.toJimpleType(in.readUTF(), NO_MODULE));
+    }
+  }
+
+  private static void writeTags(DataOutputStream out, Host host) throws IOException, UncacheableException {
+    List<Tag> tags = host.getTags();
+    out.writeInt(tags.size());
+    for (Tag tag : tags) {
+      if (tag instanceof SignatureTag) {
+        out.writeByte(TAG_SIGNATURE);
+        out.writeUTF(((SignatureTag) tag).getSignature());
+      } else if (tag instanceof SourceFileTag) {
+        SourceFileTag t = (SourceFileTag) tag;
+        out.writeByte(TAG_SOURCE_FILE);
+        writeNullableUTF(out, t.getSourceFile());
+        writeNullableUTF(out, t.getAbsolutePath());
+      } else if (tag instanceof InnerClassTag) {
+        InnerClassTag t = (InnerClassTag) tag;
+        out.writeByte(TAG_INNER_CLASS);
+        writeNullableUTF(out, t.getInnerClass());
+        writeNullableUTF(out, t.getOuterClass());
+        writeNullableUTF(out, t.getShortName());
+        out.writeInt(t.getAccessFlags());
+      } else if (tag instanceof EnclosingMethodTag) {
+        EnclosingMethodTag t = (EnclosingMethodTag) tag;
+        out.writeByte(TAG_ENCLOSING_METHOD);
+        writeNullableUTF(out, t.getEnclosingClass());
+        writeNullableUTF(out, t.getEnclosingMethod());
+        writeNullableUTF(out, t.getEnclosingMethodSig());
+      } else if (tag instanceof IntegerConstantValueTag) {
+        out.writeByte(TAG_INT_CONSTANT);
+        out.writeInt(((IntegerConstantValueTag) tag).getIntValue());
+      } else if (tag instanceof LongConstantValueTag) {
+        out.writeByte(TAG_LONG_CONSTANT);
+        out.writeLong(((LongConstantValueTag) tag).getLongValue());
+      } else if (tag instanceof FloatConstantValueTag) {
+        out.writeByte(TAG_FLOAT_CONSTANT);
+        out.writeFloat(((FloatConstantValueTag) tag).getFloatValue());
+      } else if (tag instanceof DoubleConstantValueTag) {
+        out.writeByte(TAG_DOUBLE_CONSTANT);
+        out.writeDouble(((DoubleConstantValueTag) tag).getDoubleValue());
+      } else if (tag instanceof StringConstantValueTag) {
+        out.writeByte(TAG_STRING_CONSTANT);
+        writeLongUTF(out, ((StringConstantValueTag) tag).getStringValue());
+      } else if (tag instanceof VisibilityAnnotationTag) {
+        out.writeByte(TAG_ANNOTATIONS);
+        writeAnnotations(out, (VisibilityAnnotationTag) tag);
+      } else if (tag instanceof AnnotationDefaultTag) {
+        out.writeByte(TAG_ANNOTATION_DEFAULT);
+        writeElem(out, ((AnnotationDefaultTag) tag).getDefaultVal());
+      } else if (tag instanceof GenericAttribute) {
+        GenericAttribute t = (GenericAttribute) tag;
+        out.writeByte(TAG_GENERIC_ATTRIBUTE);
+        out.writeUTF(t.getName());
+        writeNullableBytes(out, t.getValue());
+      } else if (tag instanceof VisibilityParameterAnnotationTag) {
+        VisibilityParameterAnnotationTag t = (VisibilityParameterAnnotationTag) tag;
+        out.writeByte(tag instanceof VisibilityLocalVariableAnnotationTag ? TAG_LOCAL_VARIABLE_ANNOTATIONS
+            : TAG_PARAMETER_ANNOTATIONS);
+        out.writeInt(t.getNumParams());
+        out.writeInt(t.getKind());
+        List<VisibilityAnnotationTag> vats = t.getVisibilityAnnotations();
+        if (vats == null) {
+          out.writeInt(-1);
+        } else {
+          out.writeInt(vats.size());
+          for (VisibilityAnnotationTag vat : vats) {
+            out.writeBoolean(vat != null);
+            if (vat != null) {
+              writeAnnotations(out, vat);
+            }
+          }
+        }
+      } else if (tag instanceof ParamNamesTag) {
+        out.writeByte(TAG_PARAM_NAMES);
+        String[] names = ((ParamNamesTag) tag).getNameArray();
+        out.writeInt(names.length);
+        for (String name : names) {
+          writeNullableUTF(out, name);
+        }
+      } else if (tag instanceof LocalVariableTableTag) {
+        out.writeByte(TAG_LOCAL_VARIABLE_TABLE);
+        LocalVariableTableTag.LocalVariableItem[] items = ((LocalVariableTableTag) tag).getItems();
+        out.writeInt(items.length);
+        for (LocalVariableTableTag.LocalVariableItem item : items) {
+          writeNullableUTF(out, item.getName());
+          writeNullableUTF(out, item.getDesc());
+          writeNullableUTF(out, item.getSignature());
+          out.writeInt(item.getIndex());
+        }
+      } else if (tag instanceof MethodParametersTag) {
+        out.writeByte(TAG_METHOD_PARAMETERS);
+        writeParameterItems(out, ((MethodParametersTag) tag).getParams());
+      } else if (tag instanceof AggregatedMethodParametersTag) {
+        out.writeByte(TAG_AGGREGATED_METHOD_PARAMETERS);
+        writeParameterItems(out, ((AggregatedMethodParametersTag) tag).getParams());
+      } else {
+        throw new UncacheableException("Unsupported tag " + tag.getName());
+      }
+    }
+  }
+
+  private static void readTags(DataInputStream in, Host host) throws IOException {
+    for (int i = in.readInt(); i > 0; i--) {
+      final byte kind = in.readByte();
+      switch (kind) {
+        case TAG_SIGNATURE:
+          host.addTag(new SignatureTag(in.readUTF()));
+          break;
+        case TAG_SOURCE_FILE: {
+          String sourceFile = readNullableUTF(in);
+          host.addTag(new SourceFileTag(sourceFile, readNullableUTF(in)));
+          break;
+        }
+        case TAG_INNER_CLASS: {
+          String innerClass = readNullableUTF(in);
+          String outerClass = readNullableUTF(in);
+          String name = readNullableUTF(in);
+          host.addTag(new InnerClassTag(innerClass, outerClass, name, in.readInt()));
+          break;
+        }
+        case TAG_ENCLOSING_METHOD: {
+          String enclosingClass = readNullableUTF(in);
+          String enclosingMethod = readNullableUTF(in);
+          host.addTag(new EnclosingMethodTag(enclosingClass, enclosingMethod, readNullableUTF(in)));
+          break;
+        }
+        case TAG_INT_CONSTANT:
+          host.addTag(new IntegerConstantValueTag(in.readInt()));
+          break;
+        case TAG_LONG_CONSTANT:
+          host.addTag(new LongConstantValueTag(in.readLong()));
+          break;
+        case TAG_FLOAT_CONSTANT:
+          host.addTag(new FloatConstantValueTag(in.readFloat()));
+          break;
+        case TAG_DOUBLE_CONSTANT:
+          host.addTag(new DoubleConstantValueTag(in.readDouble()));
+          break;
+        case TAG_STRING_CONSTANT:
+          host.addTag(new StringConstantValueTag(readLongUTF(in)));
+          break;
+        case TAG_ANNOTATIONS:
+          host.addTag(readAnnotations(in));
+          break;
+        case TAG_ANNOTATION_DEFAULT:
+          host.addTag(new AnnotationDefaultTag(readElem(in)));
+          break;
+        case TAG_GENERIC_ATTRIBUTE: {
+          String name = in.readUTF();
+          host.addTag(new GenericAttribute(name, readNullableBytes(in)));
+          break;
+        }
+        case TAG_PARAMETER_ANNOTATIONS:
+        case TAG_LOCAL_VARIABLE_ANNOTATIONS: {
+          int num = in.readInt();
+          int visibility = in.readInt();
+          VisibilityParameterAnnotationTag t = kind == TAG_LOCAL_VARIABLE_ANNOTATIONS
+              ? new VisibilityLocalVariableAnnotationTag(num, visibility)
+              : new VisibilityParameterAnnotationTag(num, visibility);
+          for (int j = in.readInt(); j > 0; j--) {
+            t.addVisibilityAnnotation(in.readBoolean() ? readAnnotations(in) : null);
+          }
+          host.addTag(t);
+          break;
+        }
+        case TAG_PARAM_NAMES: {
+          String[] names = new String[in.readInt()];
+          for (int j = 0; j < names.length; j++) {
+            names[j] = readNullableUTF(in);
+          }
+          host.addTag(new ParamNamesTag(names));
+          break;
+        }
+        case TAG_LOCAL_VARIABLE_TABLE: {
+          LocalVariableTableTag.LocalVariableItem[] items = new LocalVariableTableTag.LocalVariableItem[in.readInt()];
+          for (int j = 0; j < items.length; j++) {
+            String name = readNullableUTF(in);
+            String desc = readNullableUTF(in);
+            String signature = readNullableUTF(in);
+            items[j] = new LocalVariableTableTag.LocalVariableItem(name, desc, signature, in.readInt());
+          }
+          host.addTag(new LocalVariableTableTag(items));
+          break;
+        }
+        case TAG_METHOD_PARAMETERS:
+          host.addTag(new MethodParametersTag(readParameterItems(in)));
+          break;
+        case TAG_AGGREGATED_METHOD_PARAMETERS:
+          host.addTag(new AggregatedMethodParametersTag(readParameterItems(in)));
+          break;
+        default:
+          throw new IOException("Unknown tag kind " + kind);
+      }
+    }
+  }
+
+  private static void writeParameterItems(DataOutputStream out, MethodParametersTag.ParameterItem[] params)
+      throws IOException {
+    if (params == null) {
+      out.writeInt(-1);
+      return;
+    }
+    out.writeInt(params.length);
+    for (MethodParametersTag.ParameterItem p : params) {
+      writeNullableUTF(out, p.getName());
+      out.writeInt(p.getAccess());
+    }
+  }
+
+  private static MethodParametersTag.ParameterItem[] readParameterItems(DataInputStream in) throws IOException {
+    int num = in.readInt();
+    if (num < 0) {
+      return null;
+    }
+    MethodParametersTag.ParameterItem[] params = new MethodParametersTag.ParameterItem[num];
+    for (int i = 0; i < num; i++) {
+      String name = readNullableUTF(in);
+      params[i] = new MethodParametersTag.ParameterItem(name, in.readInt());
+    }
+    return params;
+  }
+
+  private static void writeAnnotations(DataOutputStream out, VisibilityAnnotationTag tag) throws IOException {
+    out.writeInt(tag.getVisibility());
+    List<AnnotationTag> annotations = tag.getAnnotations();
+    if (annotations == null) {
+      out.writeInt(-1);
+      return;
+    }
+    out.writeInt(annotations.size());
+    for (AnnotationTag annotation : annotations) {
+      writeAnnotation(out, annotation);
+    }
+  }
+
+  private static VisibilityAnnotationTag readAnnotations(DataInputStream in) throws IOException {
+    VisibilityAnnotationTag tag = new VisibilityAnnotationTag(in.readInt());
+    for (int i = in.readInt(); i > 0; i--) {
+      tag.addAnnotation(readAnnotation(in));
+    }
+    return tag;
+  }
+
+  private static void writeAnnotation(DataOutputStream out, AnnotationTag annotation) throws IOException {
+    out.writeUTF(annotation.getType());
+    Collection<AnnotationElem> elems = annotation.getElems();
+    out.writeInt(elems.size());
+    for (AnnotationElem elem : elems) {
+      writeElem(out, elem);
+    }
+  }
+
+  private static AnnotationTag readAnnotation(DataInputStream in) throws IOException {
+    String type = in.readUTF();
+    int num = in.readInt();
+    List<AnnotationElem> elems = new ArrayList<AnnotationElem>(num);
+    for (int i = 0; i < num; i++) {
+      elems.add(readElem(in));
+    }
+    return new AnnotationTag(type, elems);
+  }
+
+  private static void writeElem(DataOutputStream out, AnnotationElem elem) throws IOException {
+    if (elem instanceof AnnotationIntElem) {
+      out.writeByte(ELEM_INT);
+      writeElemHeader(out, elem);
+      out.writeInt(((AnnotationIntElem) elem).getValue());
+    } else if (elem instanceof AnnotationLongElem) {
+      out.writeByte(ELEM_LONG);
+      writeElemHeader(out, elem);
+      out.writeLong(((AnnotationLongElem) elem).getValue());
+    } else if (elem instanceof AnnotationFloatElem) {
+      out.writeByte(ELEM_FLOAT);
+      writeElemHeader(out, elem);
+      out.writeFloat(((AnnotationFloatElem) elem).getValue());
+    } else if (elem instanceof AnnotationDoubleElem) {
+      out.writeByte(ELEM_DOUBLE);
+      writeElemHeader(out, elem);
+      out.writeDouble(((AnnotationDoubleElem) elem).getValue());
+    } else if (elem instanceof AnnotationStringElem) {
+      out.writeByte(ELEM_STRING);
+      writeElemHeader(out, elem);
+      writeLongUTF(out, ((AnnotationStringElem) elem).getValue());
+    } else if (elem instanceof AnnotationBooleanElem) {
+      out.writeByte(ELEM_BOOLEAN);
+      writeElemHeader(out, elem);
+      out.writeBoolean(((AnnotationBooleanElem) elem).getValue());
+    } else if (elem instanceof AnnotationClassElem) {
+      out.writeByte(ELEM_CLASS);
+      writeElemHeader(out, elem);
+      out.writeUTF(((AnnotationClassElem) elem).getDesc());
+    } else if (elem instanceof AnnotationEnumElem) {
+      AnnotationEnumElem e = (AnnotationEnumElem) elem;
+      out.writeByte(ELEM_ENUM);
+      writeElemHeader(out, elem);
+      out.writeUTF(e.getTypeName());
+      out.writeUTF(e.getConstantName());
+    } else if (elem instanceof AnnotationArrayElem) {
+      List<AnnotationElem> values = ((AnnotationArrayElem) elem).getValues();
+      out.writeByte(ELEM_ARRAY);
+      writeElemHeader(out, elem);
+      out.writeInt(values.size());
+      for (AnnotationElem value : values) {
+        writeElem(out, value);
+      }
+    } else if (elem instanceof AnnotationAnnotationElem) {
+      out.writeByte(ELEM_ANNOTATION);
+      writeElemHeader(out, elem);
+      writeAnnotation(out, ((AnnotationAnnotationElem) elem).getValue());
+    } else {
+      throw new IOException("Unsupported annotation element " + elem.getClass().getName());
+    }
+  }
+
+  private static void writeElemHeader(DataOutputStream out, AnnotationElem elem) throws IOException {
+    out.writeChar(elem.getKind());
+    writeNullableUTF(out, elem.getName());
+  }
+
+  private static AnnotationElem readElem(DataInputStream in) throws IOException {
+    final byte type = in.readByte();
+    final char kind = in.readChar();
+    final String name = readNullableUTF(in);
+    switch (type) {
+      case ELEM_INT:
+        return new AnnotationIntElem(in.readInt(), kind, name);
+      case ELEM_LONG:
+        return new AnnotationLongElem(in.readLong(), kind, name);
+      case ELEM_FLOAT:
+        return new AnnotationFloatElem(in.readFloat(), kind, name);
+      case ELEM_DOUBLE:
+        return new AnnotationDoubleElem(in.readDouble(), kind, name);
+      case ELEM_STRING:
+        return new AnnotationStringElem(readLongUTF(in), kind, name);
+      case ELEM_BOOLEAN:
+        return new AnnotationBooleanElem(in.readBoolean(), kind, name);
+      case ELEM_CLASS:
+        return new AnnotationClassElem(in.readUTF(), kind, name);
+      case ELEM_ENUM: {
+        String typeName = in.readUTF();
+        return new AnnotationEnumElem(typeName, in.readUTF(), kind, name);
+      }
+      case ELEM_ARRAY: {
+        int num = in.readInt();
+        ArrayList<AnnotationElem> values = new ArrayList<AnnotationElem>(num);
+        for (int i = 0; i < num; i++) {
+          values.add(readElem(in));
+        }
+        return new AnnotationArrayElem(values, kind, name);
+      }
+      case ELEM_ANNOTATION:
+        return new AnnotationAnnotationElem(readAnnotation(in), kind, name);
+      default:
+        throw new IOException("Unknown annotation element type " + type);
+    }
+  }
+
+  private static void writeNullableUTF(DataOutputStream out, String s) throws IOException {
+    out.writeBoolean(s != null);
+    if (s != null) {
+      out.writeUTF(s);
+    }
+  }
+
+  private static String readNullableUTF(DataInputStream in) throws IOException {
+    return in.readBoolean() ? in.readUTF() : null;
+  }
+
+  /**
+   * Writes a string that may exceed the 64k limit of {@link DataOutputStream#writeUTF(String)}, e.g., a string constant.
+   */
+  private static void writeLongUTF(DataOutputStream out, String s) throws IOException {
+    writeNullableBytes(out, s == null ? null : s.getBytes(java.nio.charset.StandardCharsets.UTF_8));
+  }
+
+  private static String readLongUTF(DataInputStream in) throws IOException {
+    byte[] b = readNullableBytes(in);
+    return b == null ? null : new String(b, java.nio.charset.StandardCharsets.UTF_8);
+  }
+
+  private static void writeNullableBytes(DataOutputStream out, byte[] b) throws IOException {
+    if (b == null) {
+      out.writeInt(-1);
+    } else {
+      out.writeInt(b.length);
+      out.write(b);
+    }
+  }
+
+  private static byte[] readNullableBytes(DataInputStream in) throws IOException {
+    int len = in.readInt();
+    if (len < 0) {
+      return null;
+    }
+    byte[] b = new byte[len];
+    in.readFully(b);
+    return b;
+  }
+}
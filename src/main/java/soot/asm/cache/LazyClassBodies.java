@@ -0,0 +1,133 @@
+package soot.asm.cache;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2026 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.commons.JSRInlinerAdapter;
+
+import soot.ClassSource;
+import soot.IFoundFile;
+import soot.MethodSource;
+import soot.SourceLocator;
+import soot.asm.AsmClassSource;
+import soot.asm.AsmMethodSource;
+
+/**
+ * Gives access to the method bodies of a class whose signatures were restored from the {@link ClassCache} or a
+ * {@link SceneSnapshot}. The class file is only parsed when the first body is requested; all method sources are then
+ * created in a single pass and handed out one by one.
+ */
+final class LazyClassBodies {
+
+  private final String className;
+  private IFoundFile foundFile;
+  private byte[] classFile;
+  private Map<String, MethodSource> sources;
+
+  /**
+   * Reads the bodies from the given class file, or looks up the class file on the class path if it is null.
+   */
+  LazyClassBodies(String className, IFoundFile foundFile) {
+    this.className = className;
+    this.foundFile = foundFile;
+  }
+
+  /**
+   * Reads the bodies from the given contents of the class file.
+   */
+  LazyClassBodies(String className, byte[] classFile) {
+    this.className = className;
+    this.classFile = classFile;
+  }
+
+  /**
+   * Looks up the class file of the given class through the class providers of the {@link SourceLocator}. Returns null if
+   * the class is not found or does not come from a class file.
+   */
+  static IFoundFile findClassFile(String className) {
+    ClassSource src = SourceLocator.v().getClassSource(className);
+    if (src instanceof AsmClassSource) {
+      IFoundFile file = ((AsmClassSource) src).getFoundFile();
+      if (file != null) {
+        return file;
+      }
+    }
+    if (src != null) {
+      src.close();
+    }
+    return null;
+  }
+
+  /**
+   * Returns the method source for the method with the given name and descriptor. Each source is only returned once.
+   */
+  synchronized MethodSource takeSource(String name, String desc) {
+    if (sources == null) {
+      sources = parse();
+    }
+    return sources.remove(name + desc);
+  }
+
+  private Map<String, MethodSource> parse() {
+    final Map<String, MethodSource> result = new HashMap<String, MethodSource>();
+    if (classFile == null && foundFile == null) {
+      foundFile = findClassFile(className);
+      if (foundFile == null) {
+        throw new RuntimeException("Error: Could not find the class file of " + className);
+      }
+    }
+    try (InputStream d = classFile != null ? new ByteArrayInputStream(classFile) : foundFile.inputStream()) {
+      new ClassReader(d).accept(new ClassVisitor(Opcodes.ASM9) {
+        @Override
+        public MethodVisitor visitMethod(int access, final String name, final String desc, String signature,
+            String[] exceptions) {
+          return new JSRInlinerAdapter(Opcodes.ASM9, null, access, name, desc, signature, exceptions) {
+            @Override
+            public void visitEnd() {
+              super.visitEnd();
+              result.put(name + desc, new AsmMethodSource(maxLocals, instructions, localVariables, tryCatchBlocks, null));
+            }
+          };
+        }
+      }, ClassReader.SKIP_FRAMES);
+    } catch (IOException e) {
+      throw new RuntimeException("Error: Failed to read the class file of " + className, e);
+    } finally {
+      if (foundFile != null) {
+        foundFile.close();
+        foundFile = null;
+      }
+      classFile = null;
+    }
+    return result;
+  }
+}
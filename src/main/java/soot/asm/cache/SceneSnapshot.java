@@ -0,0 +1,442 @@
+package soot.asm.cache;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2026 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import com.google.common.io.ByteStreams;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import soot.FastHierarchy;
+import soot.IFoundFile;
+import soot.MethodSource;
+import soot.ModulePathSourceLocator;
+import soot.ModuleUtil;
+import soot.Scene;
+import soot.SootClass;
+import soot.SootField;
+import soot.SootMethod;
+import soot.SootResolver;
+import soot.asm.AsmMethodSource;
+import soot.javaToJimple.IInitialResolver.Dependencies;
+import soot.options.Options;
+
+/**
+ * Saves the classes of a loaded {@link Scene} into a versioned binary snapshot and restores them into the Scene of a fresh
+ * Soot instance, which is much faster than resolving the classes from the class path again.
+ *
+ * <p>
+ * A snapshot holds every class of the Scene with its resolving level, kind (application, library or phantom) and, using
+ * the records of the {@link ClassCache}, its fields, method signatures and attributes. The class intervals of the
+ * {@link FastHierarchy} are stored as well. Method bodies are not serialized; instead, their bytecode is decoded on demand,
+ * either from the class files embedded in the snapshot or from the class path. Classes that were not read from class files,
+ * or that carry information the records cannot represent, are resolved from their original source again on restore.
+ * </p>
+ *
+ * <p>
+ * A snapshot is only restored if it was written for the same class path and input options, and if none of the class path
+ * entries and input directories has changed since. Restoring must happen instead of {@link Scene#loadNecessaryClasses()}.
+ * </p>
+ */
+public final class SceneSnapshot {
+  private static final Logger logger = LoggerFactory.getLogger(SceneSnapshot.class);
+
+  private static final int MAGIC = 0x536f6f53;
+  private static final int FORMAT_VERSION = 1;
+
+  private static final byte KIND_NONE = 0;
+  private static final byte KIND_APPLICATION = 1;
+  private static final byte KIND_LIBRARY = 2;
+  private static final byte KIND_PHANTOM = 3;
+
+  /** Dangling and phantom classes only consist of their name, level, kind and modifiers. */
+  private static final byte CONTENT_NONE = 0;
+  private static final byte CONTENT_RECORD = 1;
+  private static final byte CONTENT_RECORD_AND_CLASS_FILE = 2;
+  /** The class cannot be represented in a record and is resolved from its source again. */
+  private static final byte CONTENT_RESOLVE = 3;
+
+  private SceneSnapshot() {
+  }
+
+  /**
+   * Writes a snapshot of the current Scene to the given file. Computes the fast hierarchy if it does not exist yet.
+   *
+   * @param withBodies
+   *          whether to embed the class files of all classes, so that method bodies can be created without the class path
+   */
+  public static void save(File file, boolean withBodies) throws IOException {
+    if (ModuleUtil.module_mode()) {
+      throw new IllegalStateException("Scene snapshots are not supported in module mode");
+    }
+    final long start = System.nanoTime();
+    final Scene scene = Scene.v();
+    final FastHierarchy hierarchy = scene.getOrMakeFastHierarchy();
+    final List<SootClass> classes = new ArrayList<SootClass>(scene.getClasses());
+    final Map<SootClass, Integer> index = new HashMap<SootClass, Integer>(classes.size() * 4 / 3 + 1);
+
+    final boolean doneResolving = scene.doneResolving();
+    final File tmp = new File(file.getPath() + ".tmp");
+    // Classes below SIGNATURES still carry all their members, reading them must not fail the level checks
+    scene.setResolving(false);
+    try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp), 1 << 16))) {
+      out.writeInt(MAGIC);
+      out.writeInt(FORMAT_VERSION);
+      writeLongUTF(out, configuration());
+      Set<String> paths = inputPaths();
+      out.writeInt(paths.size());
+      for (String path : paths) {
+        writeLongUTF(out, path);
+        out.writeLong(stamp(path));
+      }
+      out.writeInt(Options.v().java_version());
+      out.writeBoolean(doneResolving);
+
+      out.writeInt(classes.size());
+      for (SootClass sc : classes) {
+        index.put(sc, index.size());
+        out.writeUTF(sc.getName());
+      }
+      for (SootClass sc : classes) {
+        writeClass(out, sc, withBodies);
+      }
+
+      Map<SootClass, int[]> intervals = hierarchy.getIntervals();
+      out.writeInt(intervals.size());
+      for (Map.Entry<SootClass, int[]> e : intervals.entrySet()) {
+        Integer i = index.get(e.getKey());
+        out.writeInt(i == null ? -1 : i);
+        out.writeInt(e.getValue()[0]);
+        out.writeInt(e.getValue()[1]);
+      }
+    } catch (IOException | RuntimeException e) {
+      tmp.delete();
+      throw e;
+    } finally {
+      scene.setResolving(doneResolving);
+    }
+    Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    if (Options.v().verbose()) {
+      logger.debug("[scene-snapshot] Saved " + classes.size() + " classes to " + file + " in "
+          + (System.nanoTime() - start) / 1000000 + " ms");
+    }
+  }
+
+  private static void writeClass(DataOutputStream out, SootClass sc, boolean withBodies) throws IOException {
+    final int level = sc.resolvingLevel();
+    out.writeByte(level);
+    out.writeByte(sc.isApplicationClass() ? KIND_APPLICATION
+        : sc.isLibraryClass() ? KIND_LIBRARY : sc.isPhantomClass() ? KIND_PHANTOM : KIND_NONE);
+    out.writeInt(sc.getModifiers());
+    if (sc.isPhantom() || level < SootClass.HIERARCHY) {
+      out.writeByte(CONTENT_NONE);
+      return;
+    }
+    final byte[] record = isFromClassFile(sc) ? ClassRecordCodec.encode(sc, new Dependencies(), 0) : null;
+    if (record == null) {
+      out.writeByte(CONTENT_RESOLVE);
+      return;
+    }
+    final byte[] classFile = withBodies ? readClassFile(sc.getName()) : null;
+    out.writeByte(classFile == null ? CONTENT_RECORD : CONTENT_RECORD_AND_CLASS_FILE);
+    out.writeInt(record.length);
+    out.write(record);
+    if (classFile != null) {
+      out.writeInt(classFile.length);
+      out.write(classFile);
+    }
+  }
+
+  /**
+   * Checks whether the given class has been read from a class file and is unchanged, i.e., has no phantom members.
+   */
+  private static boolean isFromClassFile(SootClass sc) {
+    for (SootField f : sc.getFields()) {
+      if (f.isPhantom()) {
+        return false;
+      }
+    }
+    Boolean fromClassFile = null;
+    for (SootMethod m : sc.getMethods()) {
+      if (m.isPhantom()) {
+        return false;
+      }
+      MethodSource ms = m.getSource();
+      if (ms != null && fromClassFile == null) {
+        fromClassFile = ms instanceof AsmMethodSource || ms instanceof CachedMethodSource;
+      }
+    }
+    if (fromClassFile != null) {
+      return fromClassFile;
+    }
+    // The method sources may have been dropped already
+    IFoundFile file = LazyClassBodies.findClassFile(sc.getName());
+    if (file == null) {
+      return false;
+    }
+    file.close();
+    return true;
+  }
+
+  private static byte[] readClassFile(String className) throws IOException {
+    IFoundFile file = LazyClassBodies.findClassFile(className);
+    if (file == null) {
+      return null;
+    }
+    try (InputStream in = file.inputStream()) {
+      return ByteStreams.toByteArray(in);
+    } finally {
+      file.close();
+    }
+  }
+
+  /**
+   * Restores the Scene from the given snapshot. The Scene must not contain any classes yet.
+   *
+   * @return true if the Scene has been restored, false if the snapshot does not exist or does not match the current class
+   *         path, options or input files
+   */
+  public static boolean restore(File file) throws IOException {
+    if (!file.isFile() || ModuleUtil.module_mode()) {
+      return false;
+    }
+    final long start = System.nanoTime();
+    final Scene scene = Scene.v();
+    if (!scene.getClasses().isEmpty()) {
+      throw new IllegalStateException("Scene snapshots can only be restored into an empty Scene");
+    }
+
+    try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(Files.readAllBytes(file.toPath())))) {
+      if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+        return stale(file, "unsupported format");
+      }
+      if (!configuration().equals(readLongUTF(in))) {
+        return stale(file, "different class path or options");
+      }
+      for (int i = in.readInt(); i > 0; i--) {
+        String path = readLongUTF(in);
+        if (stamp(path) != in.readLong()) {
+          return stale(file, path + " has changed");
+        }
+      }
+      final Options opts = Options.v();
+      final int javaVersion = in.readInt();
+      if (opts.derive_java_version()) {
+        opts.set_java_version(Math.max(opts.java_version(), javaVersion));
+      }
+      final boolean doneResolving = in.readBoolean();
+
+      final SootResolver resolver = SootResolver.v();
+      final SootClass[] classes = new SootClass[in.readInt()];
+      for (int i = 0; i < classes.length; i++) {
+        classes[i] = resolver.makeClassRef(in.readUTF());
+      }
+
+      final int[] levels = new int[classes.length];
+      final byte[] kinds = new byte[classes.length];
+      final boolean[] unrecorded = new boolean[classes.length];
+      int numUnrecorded = 0;
+      for (int i = 0; i < classes.length; i++) {
+        final SootClass sc = classes[i];
+        levels[i] = in.readByte();
+        kinds[i] = in.readByte();
+        final int modifiers = in.readInt();
+        switch (in.readByte()) {
+          case CONTENT_NONE:
+            sc.setModifiers(modifiers);
+            sc.setResolvingLevel(levels[i]);
+            break;
+          case CONTENT_RESOLVE:
+            unrecorded[i] = true;
+            numUnrecorded++;
+            break;
+          case CONTENT_RECORD:
+            ClassRecordCodec.decode(readBytes(in), sc, new LazyClassBodies(sc.getName(), (IFoundFile) null));
+            sc.setModifiers(modifiers);
+            sc.setResolvingLevel(levels[i]);
+            break;
+          case CONTENT_RECORD_AND_CLASS_FILE:
+            byte[] record = readBytes(in);
+            ClassRecordCodec.decode(record, sc, new LazyClassBodies(sc.getName(), readBytes(in)));
+            sc.setModifiers(modifiers);
+            sc.setResolvingLevel(levels[i]);
+            break;
+          default:
+            throw new IOException("Corrupt scene snapshot " + file);
+        }
+      }
+
+      final Map<SootClass, int[]> intervals = new HashMap<SootClass, int[]>();
+      for (int i = in.readInt(); i > 0; i--) {
+        int c = in.readInt();
+        int[] interval = { in.readInt(), in.readInt() };
+        if (c >= 0) {
+          intervals.put(classes[c], interval);
+        }
+      }
+
+      scene.setResolving(false);
+      for (int i = 0; i < classes.length; i++) {
+        if (unrecorded[i]) {
+          resolver.resolveClass(classes[i].getName(), levels[i]);
+        }
+      }
+      scene.loadDynamicClasses();
+
+      for (int i = 0; i < classes.length; i++) {
+        final SootClass sc = classes[i];
+        switch (kinds[i]) {
+          case KIND_APPLICATION:
+            sc.setApplicationClass();
+            break;
+          case KIND_LIBRARY:
+            sc.setLibraryClass();
+            break;
+          case KIND_PHANTOM:
+            sc.setPhantomClass();
+            break;
+          default:
+            scene.getApplicationClasses().remove(sc);
+            scene.getLibraryClasses().remove(sc);
+            scene.getPhantomClasses().remove(sc);
+            break;
+        }
+      }
+      if (numUnrecorded == 0) {
+        // Otherwise, the hierarchy may have changed in ways the snapshot does not know about
+        scene.setFastHierarchy(new FastHierarchy(intervals));
+      }
+      if (doneResolving) {
+        scene.setDoneResolving();
+      }
+      if (opts.verbose()) {
+        logger.debug("[scene-snapshot] Restored " + classes.length + " classes (" + numUnrecorded + " resolved again) from "
+            + file + " in " + (System.nanoTime() - start) / 1000000 + " ms");
+      }
+      return true;
+    }
+  }
+
+  private static boolean stale(File file, String reason) {
+    if (Options.v().verbose()) {
+      logger.debug("[scene-snapshot] Ignoring " + file + ": " + reason);
+    }
+    return false;
+  }
+
+  /**
+   * Describes all options that influence which classes are loaded, and how.
+   */
+  private static String configuration() {
+    final Options opts = Options.v();
+    StringBuilder sb = new StringBuilder();
+    sb.append(Scene.v().getSootClassPath()).append('\n');
+    sb.append(opts.process_dir()).append('\n');
+    sb.append(opts.classes()).append('\n');
+    sb.append(opts.dynamic_class()).append(opts.dynamic_dir()).append(opts.dynamic_package()).append('\n');
+    sb.append(opts.include()).append(opts.exclude()).append(opts.include_all()).append(opts.app()).append('\n');
+    sb.append(opts.src_prec()).append(' ').append(opts.allow_phantom_refs()).append(' ').append(opts.allow_phantom_elms());
+    sb.append(' ').append(opts.oaat()).append(' ').append(opts.full_resolver());
+    sb.append(' ').append(opts.no_bodies_for_excluded()).append(' ').append(opts.whole_program());
+    return sb.toString();
+  }
+
+  /**
+   * Returns all class path entries and input directories whose contents end up in the Scene.
+   */
+  private static Set<String> inputPaths() {
+    final Options opts = Options.v();
+    Set<String> paths = new LinkedHashSet<String>();
+    for (String entry : Scene.v().getSootClassPath().split(File.pathSeparator)) {
+      if (!entry.isEmpty()) {
+        paths.add(entry);
+      }
+    }
+    paths.addAll(opts.process_dir());
+    paths.addAll(opts.dynamic_dir());
+    return paths;
+  }
+
+  /**
+   * Computes a value that changes whenever the contents of the given file or directory change.
+   */
+  private static long stamp(String path) throws IOException {
+    if (ModulePathSourceLocator.DUMMY_CLASSPATH_JDK9_FS.equals(path)) {
+      return (System.getProperty("java.home") + System.getProperty("java.runtime.version")).hashCode();
+    }
+    File f = new File(path);
+    if (f.isFile()) {
+      return f.length() * 31 + f.lastModified();
+    }
+    if (!f.isDirectory()) {
+      return 0;
+    }
+    long h = 1;
+    try (Stream<Path> files = Files.walk(f.toPath())) {
+      for (Iterator<Path> it = files.filter(Files::isRegularFile).sorted().iterator(); it.hasNext();) {
+        File e = it.next().toFile();
+        h = h * 31 + e.getPath().hashCode();
+        h = h * 31 + e.length();
+        h = h * 31 + e.lastModified();
+      }
+    }
+    return h;
+  }
+
+  private static byte[] readBytes(DataInputStream in) throws IOException {
+    byte[] b = new byte[in.readInt()];
+    in.readFully(b);
+    return b;
+  }
+
+  private static void writeLongUTF(DataOutputStream out, String s) throws IOException {
+    byte[] b = s.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(b.length);
+    out.write(b);
+  }
+
+  private static String readLongUTF(DataInputStream in) throws IOException {
+    return new String(readBytes(in), StandardCharsets.UTF_8);
+  }
+}
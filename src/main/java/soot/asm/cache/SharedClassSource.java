@@ -0,0 +1,85 @@
+package soot.asm.cache;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2026 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import org.objectweb.asm.ClassReader;
+
+import soot.FoundFile;
+import soot.IFoundFile;
+import soot.SootClass;
+import soot.asm.AsmClassSource;
+import soot.javaToJimple.IInitialResolver.Dependencies;
+import soot.options.Options;
+
+/**
+ * Class source for a class of a {@link SharedLibrary} archive. The class is decoded from its shared form if another run has
+ * already resolved it, and is otherwise parsed from the archive and added to the shared library.
+ */
+public class SharedClassSource extends AsmClassSource {
+
+  protected final SharedLibrary.Archive archive;
+
+  /** The class file read ahead of time by {@link #preload()}, or null. */
+  private byte[] classFile;
+
+  SharedClassSource(String cls, IFoundFile foundFile, SharedLibrary.Archive archive) {
+    super(cls, foundFile);
+    this.archive = archive;
+  }
+
+  SharedClassSource(String cls, SharedLibrary.Archive archive) {
+    this(cls, new FoundFile(archive.path, cls.replace('.', '/') + ".class"), archive);
+  }
+
+  @Override
+  public void preload() {
+    if (classFile == null && archive.get(className) == null) {
+      classFile = readClassFile();
+    }
+  }
+
+  @Override
+  public Dependencies resolve(SootClass sc) {
+    try {
+      final SharedLibrary.Entry entry = archive.get(className);
+      if (entry != null) {
+        SharedLibrary.recordHit();
+        if (entry.record != null) {
+          return ClassRecordCodec.decode(entry.record, sc, new LazyClassBodies(className, entry.classFile));
+        }
+        return Options.v().lazy_method_bodies() ? resolve(sc, entry.classFile)
+            : resolve(sc, new ClassReader(entry.classFile));
+      }
+
+      final byte[] bytes = classFile != null ? classFile : readClassFile();
+      classFile = null;
+      final ClassReader clsr = new ClassReader(bytes);
+      final Dependencies deps = Options.v().lazy_method_bodies() ? resolve(sc, bytes) : resolve(sc, clsr);
+      archive.put(className, new SharedLibrary.Entry(ClassRecordCodec.encode(sc, deps, clsr.readInt(4)), bytes));
+      SharedLibrary.recordMiss();
+      return deps;
+    } finally {
+      close();
+    }
+  }
+}
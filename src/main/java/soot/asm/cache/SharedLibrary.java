@@ -0,0 +1,192 @@
+package soot.asm.cache;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2026 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import soot.ModuleUtil;
+import soot.options.Options;
+
+/**
+ * The library classes that all Soot runs in this JVM share when <code>-shared-library</code> is set. Unlike all other state,
+ * which belongs to a {@link soot.G} and is discarded by {@link soot.G#reset()}, the shared library lives as long as the JVM,
+ * so that a batch driver that analyzes one application after the other, or several applications in parallel
+ * {@link soot.SootInstance}s, reads and parses a platform library such as <code>android.jar</code> only once.
+ *
+ * <p>
+ * For every archive, the names of the classes it contains are indexed once. The first run that resolves a class stores its
+ * class file together with the {@link ClassRecordCodec record} of its signatures; every later run decodes its own
+ * {@link soot.SootClass} from that record, since SootClasses belong to the Scene of a single run. The shared data itself
+ * is never modified after it has been stored.
+ * </p>
+ */
+public final class SharedLibrary {
+  private static final Logger logger = LoggerFactory.getLogger(SharedLibrary.class);
+
+  private static final Map<String, Archive> archives = new ConcurrentHashMap<String, Archive>();
+
+  private static final AtomicLong hits = new AtomicLong();
+  private static final AtomicLong misses = new AtomicLong();
+
+  private SharedLibrary() {
+  }
+
+  /**
+   * Returns true if library classes are shared with the current settings.
+   */
+  public static boolean isEnabled() {
+    return Options.v().shared_library() && !ModuleUtil.module_mode();
+  }
+
+  /**
+   * Returns the shared view of the given archive, indexing it if necessary, or null if it cannot be read.
+   */
+  static Archive getArchive(File file) {
+    String path;
+    try {
+      path = file.getCanonicalPath();
+    } catch (IOException e) {
+      path = file.getAbsolutePath();
+    }
+    Archive a = archives.get(path);
+    if (a == null || !a.isCurrent()) {
+      try {
+        a = new Archive(path);
+      } catch (IOException e) {
+        logger.debug("Cannot share library " + path + ": " + e.getMessage());
+        return null;
+      }
+      archives.put(path, a);
+    }
+    return a;
+  }
+
+  /**
+   * Drops all shared classes. Runs that are in progress keep the classes they already have.
+   */
+  public static void clear() {
+    archives.clear();
+  }
+
+  /**
+   * Returns how many classes have been created from their shared form.
+   */
+  public static long getHits() {
+    return hits.get();
+  }
+
+  /**
+   * Returns how many classes have been read from their archive and added to the shared library.
+   */
+  public static long getMisses() {
+    return misses.get();
+  }
+
+  static void recordHit() {
+    hits.incrementAndGet();
+  }
+
+  static void recordMiss() {
+    misses.incrementAndGet();
+  }
+
+  public static String statistics() {
+    int classes = 0;
+    for (Archive a : archives.values()) {
+      classes += a.entries.size();
+    }
+    return archives.size() + " archives, " + classes + " classes shared; " + hits.get() + " hits, " + misses.get()
+        + " misses";
+  }
+
+  /**
+   * A library archive with the classes that have been resolved from it so far.
+   */
+  static final class Archive {
+    final String path;
+    private final long lastModified;
+    private final long length;
+    private final Set<String> classNames;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<String, Entry>();
+
+    private Archive(String path) throws IOException {
+      final File f = new File(path);
+      this.path = path;
+      this.lastModified = f.lastModified();
+      this.length = f.length();
+      final Set<String> names = new HashSet<String>();
+      try (ZipFile zip = new ZipFile(f)) {
+        for (Enumeration<? extends ZipEntry> e = zip.entries(); e.hasMoreElements();) {
+          String name = e.nextElement().getName();
+          if (name.endsWith(".class")) {
+            names.add(name.substring(0, name.length() - 6).replace('/', '.'));
+          }
+        }
+      }
+      this.classNames = Collections.unmodifiableSet(names);
+    }
+
+    boolean isCurrent() {
+      final File f = new File(path);
+      return f.lastModified() == lastModified && f.length() == length;
+    }
+
+    boolean contains(String className) {
+      return classNames.contains(className);
+    }
+
+    Entry get(String className) {
+      return entries.get(className);
+    }
+
+    void put(String className, Entry entry) {
+      entries.putIfAbsent(className, entry);
+    }
+  }
+
+  /**
+   * The shared form of a class: its class file and, if the class can be encoded, the record of its signatures.
+   */
+  static final class Entry {
+    final byte[] record;
+    final byte[] classFile;
+
+    Entry(byte[] record, byte[] classFile) {
+      this.record = record;
+      this.classFile = classFile;
+    }
+  }
+}
@@ -0,0 +1,119 @@
+package soot.asm.cache;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2026 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import soot.ClassProvider;
+import soot.ClassSource;
+import soot.IFoundFile;
+import soot.SourceLocator;
+import soot.asm.AsmClassSource;
+import soot.options.Options;
+
+/**
+ * Class provider that sits in front of a class file provider and serves the classes of library archives from the
+ * {@link SharedLibrary}. Library archives are all JAR and ZIP archives on the class path that are not input archives.
+ */
+public class SharedLibraryClassProvider implements ClassProvider {
+
+  protected final ClassProvider delegate;
+
+  /** The library archives at the start of the class path, which can be searched without consulting the delegate. */
+  private volatile List<SharedLibrary.Archive> leading;
+
+  private volatile Set<File> inputs;
+
+  private volatile List<String> classPath;
+
+  public SharedLibraryClassProvider(ClassProvider delegate) {
+    this.delegate = delegate;
+  }
+
+  @Override
+  public ClassSource find(String className) {
+    final List<String> cp = SourceLocator.v().classPath();
+    if (cp != classPath) {
+      init(cp);
+    }
+    for (SharedLibrary.Archive a : leading) {
+      if (a.contains(className)) {
+        return new SharedClassSource(className, a);
+      }
+    }
+
+    ClassSource src = delegate.find(className);
+    if (src != null && src.getClass() == AsmClassSource.class) {
+      IFoundFile file = ((AsmClassSource) src).getFoundFile();
+      if (file.isZipFile() && isLibrary(file.getFile())) {
+        SharedLibrary.Archive a = SharedLibrary.getArchive(file.getFile());
+        if (a != null) {
+          return new SharedClassSource(className, file, a);
+        }
+      }
+    }
+    return src;
+  }
+
+  private synchronized void init(List<String> cp) {
+    if (cp == classPath) {
+      return;
+    }
+    final Set<File> inputs = new HashSet<File>();
+    for (String path : Options.v().process_dir()) {
+      inputs.add(new File(path).getAbsoluteFile());
+    }
+    this.inputs = inputs;
+
+    final List<SharedLibrary.Archive> leading = new ArrayList<SharedLibrary.Archive>();
+    for (String path : cp == null ? Collections.<String>emptyList() : cp) {
+      final File f = new File(path);
+      final String name = f.getName().toLowerCase(Locale.ROOT);
+      if (name.endsWith(".apk") || name.endsWith(".dex")) {
+        // Contains no class files that could hide library classes
+        continue;
+      }
+      if (!isLibrary(f)) {
+        break;
+      }
+      SharedLibrary.Archive a = SharedLibrary.getArchive(f);
+      if (a == null) {
+        break;
+      }
+      leading.add(a);
+    }
+    this.leading = leading;
+    this.classPath = cp;
+  }
+
+  private boolean isLibrary(File f) {
+    final String name = f.getName().toLowerCase(Locale.ROOT);
+    return f.isFile() && (name.endsWith(".jar") || name.endsWith(".zip")) && !inputs.contains(f.getAbsoluteFile());
+  }
+}
@@ -26,16 +26,20 @@ import static soot.util.backend.ASMBackendUtils.sizeOfType;
 import static soot.util.backend.ASMBackendUtils.slashify;
 import static soot.util.backend.ASMBackendUtils.toTypeDesc;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import org.objectweb.asm.ClassWriter;
 import org.objectweb.asm.Handle;
 import org.objectweb.asm.Label;
 import org.objectweb.asm.MethodVisitor;
 import org.objectweb.asm.Opcodes;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import soot.AbstractASMBackend;
 import soot.ArrayType;
@@ -81,6 +85,7 @@ import soot.jimple.ThisRef;
 import soot.options.Options;
 import soot.tagkit.LineNumberTag;
 import soot.util.Chain;
+import soot.util.backend.SootASMClassWriter;
 
 /**
  * Concrete ASM based bytecode generation backend for the BAF intermediate representation
@@ -88,6 +93,7 @@ import soot.util.Chain;
  * @author Tobias Hamann, Florian Kuebler, Dominik Helm, Lukas Sommer, Alex Bertram, Andreas Dann
  */
 public class BafASMBackend extends AbstractASMBackend {
+  private static final Logger logger = LoggerFactory.getLogger(BafASMBackend.class);
 
   // Contains one Label for every Unit that is the target of a branch or jump
   protected final Map<Unit, Label> branchTargetLabels = new HashMap<Unit, Label>();
@@ -95,6 +101,9 @@ public class BafASMBackend extends AbstractASMBackend {
   // Contains a mapping of local variables to indices in the local variable stack
   protected final Map<Local, Integer> localToSlot = new HashMap<Local, Integer>();
 
+  // Whether the stack map frames are computed by a StackMapFrameComputer rather than by ASM
+  private boolean typeBasedFrames = false;
+
   /**
    * Returns the ASM Label for a given Unit that is the target of a branch or jump
    *
@@ -119,6 +128,32 @@ public class BafASMBackend extends AbstractASMBackend {
     super(sc, javaVersion);
   }
 
+  /*
+   * (non-Javadoc)
+   *
+   * @see soot.AbstractASMBackend#generateClassFileWithTypeBasedFrames()
+   */
+  @Override
+  protected byte[] generateClassFileWithTypeBasedFrames() {
+    ClassWriter cw = new SootASMClassWriter(ClassWriter.COMPUTE_MAXS);
+    cv = cw;
+    typeBasedFrames = true;
+    try {
+      generateByteCode();
+      return cw.toByteArray();
+    } catch (StackMapFrameComputer.UnsupportedException e) {
+      if (Options.v().verbose()) {
+        logger.debug("Falling back to ASM frame computation for " + sc.getName() + ": " + e.getMessage());
+      }
+      // Labels are bound to the class writer that has used them
+      branchTargetLabels.clear();
+      localToSlot.clear();
+      return null;
+    } finally {
+      typeBasedFrames = false;
+    }
+  }
+
   /*
    * (non-Javadoc)
    *
@@ -243,12 +278,26 @@ public class BafASMBackend extends AbstractASMBackend {
       }
     }
 
+    Map<Unit, StackMapFrameComputer.Frame> frames = Collections.emptyMap();
+    if (typeBasedFrames && javaVersion >= Opcodes.V1_6) {
+      frames = new StackMapFrameComputer(method, body, localToSlot, localCount).compute();
+      // Uninitialized objects in frames refer to the label of the instruction that created them
+      for (StackMapFrameComputer.Frame frame : frames.values()) {
+        labelNewInsts(frame.locals);
+        labelNewInsts(frame.stack);
+      }
+    }
+
     // Generate the code
     for (Unit u : instructions) {
       if (branchTargetLabels.containsKey(u)) {
         mv.visitLabel(branchTargetLabels.get(u));
       }
       generateTagsForUnit(mv, u);
+      StackMapFrameComputer.Frame frame = frames.get(u);
+      if (frame != null) {
+        mv.visitFrame(Opcodes.F_NEW, frame.locals.length, frame.locals, frame.stack.length, frame.stack);
+      }
       generateInstruction(mv, (Inst) u);
     }
 
@@ -271,6 +320,23 @@ public class BafASMBackend extends AbstractASMBackend {
     }
   }
 
+  /**
+   * Replaces the {@link NewInst}s in the given frame values by their labels, creating the labels if necessary.
+   */
+  private void labelNewInsts(Object[] values) {
+    for (int i = 0; i < values.length; i++) {
+      if (values[i] instanceof NewInst) {
+        Unit u = (Unit) values[i];
+        Label l = branchTargetLabels.get(u);
+        if (l == null) {
+          l = new Label();
+          branchTargetLabels.put(u, l);
+        }
+        values[i] = l;
+      }
+    }
+  }
+
   /**
    * Writes out the information stored in tags associated with the given unit
    * 
@@ -0,0 +1,1036 @@
+package soot.baf;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2026 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import static soot.util.backend.ASMBackendUtils.sizeOfType;
+import static soot.util.backend.ASMBackendUtils.slashify;
+import static soot.util.backend.ASMBackendUtils.toTypeDesc;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.objectweb.asm.Opcodes;
+
+import soot.ArrayType;
+import soot.DoubleType;
+import soot.FastHierarchy;
+import soot.FloatType;
+import soot.IntegerType;
+import soot.Local;
+import soot.LongType;
+import soot.NullType;
+import soot.RefLikeType;
+import soot.RefType;
+import soot.Scene;
+import soot.SootClass;
+import soot.SootMethod;
+import soot.SootMethodRef;
+import soot.Trap;
+import soot.Type;
+import soot.Unit;
+import soot.UnitBox;
+import soot.VoidType;
+import soot.jimple.CaughtExceptionRef;
+import soot.jimple.Constant;
+import soot.jimple.DoubleConstant;
+import soot.jimple.FloatConstant;
+import soot.jimple.IntConstant;
+import soot.jimple.LongConstant;
+import soot.jimple.NullConstant;
+
+/**
+ * Computes the stack map frames of a method from the type information that Soot already has, so that the ASM backend
+ * does not need to compute them with {@link org.objectweb.asm.ClassWriter#COMPUTE_FRAMES}, which loads classes to find
+ * common superclasses. Locals take the declared type of the Jimple local that is stored to them, stack values the type
+ * that the instruction pushing them produces, and reference types are merged along the class hierarchy with
+ * {@link FastHierarchy#getLeastCommonSuperclassOf(SootClass, SootClass)}.
+ *
+ * <p>
+ * Frames are computed for the units that need one, i.e., branch targets and exception handlers. If a method contains a
+ * construct for which no frames can be derived reliably, e.g., unreachable code, subroutines, or classes that are
+ * missing from the hierarchy, {@link #compute()} throws an {@link UnsupportedException} and the caller should let ASM
+ * compute the frames instead.
+ * </p>
+ */
+final class StackMapFrameComputer {
+
+  /**
+   * Thrown if the frames of a method cannot be derived from its types.
+   */
+  static final class UnsupportedException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    UnsupportedException(String message) {
+      super(message);
+    }
+  }
+
+  /**
+   * A frame in the format expected by {@link org.objectweb.asm.MethodVisitor#visitFrame(int, int, Object[], int, Object[])}
+   * for {@link Opcodes#F_NEW}, except that uninitialized objects are represented by the {@link NewInst} that created them
+   * instead of its label.
+   */
+  static final class Frame {
+    final Object[] locals;
+    final Object[] stack;
+
+    Frame(Object[] locals, Object[] stack) {
+      this.locals = locals;
+      this.stack = stack;
+    }
+  }
+
+  /**
+   * The abstract state before a unit. Values are {@link Opcodes#TOP}, {@link Opcodes#INTEGER}, {@link Opcodes#FLOAT},
+   * {@link Opcodes#LONG}, {@link Opcodes#DOUBLE}, {@link Opcodes#NULL}, {@link Opcodes#UNINITIALIZED_THIS}, a
+   * {@link RefLikeType} for initialized references, or a {@link NewInst} for uninitialized ones. Long and double locals
+   * occupy two slots, the second one being {@link Opcodes#TOP}; on the stack every value occupies a single entry.
+   */
+  private static final class State {
+    final Object[] locals;
+    final List<Object> stack;
+
+    State(Object[] locals, List<Object> stack) {
+      this.locals = locals;
+      this.stack = stack;
+    }
+
+    State copy() {
+      return new State(locals.clone(), new ArrayList<Object>(stack));
+    }
+  }
+
+  private final SootMethod method;
+  private final BafBody body;
+  private final Map<Local, Integer> localToSlot;
+  private final int maxLocals;
+  private final FastHierarchy hierarchy;
+  private final RefType objectType;
+  private final RefType throwableType;
+  private final boolean constructor;
+
+  private Unit[] units;
+  private State[] in;
+  private int maxStack;
+  private BitSet worklist;
+
+  /** The trap ranges as triples of begin index, end index and handler index. */
+  private int[] trapRanges;
+
+  /**
+   * Creates a frame computer for the given method.
+   *
+   * @param method
+   *          the method whose frames are computed
+   * @param body
+   *          the Baf body of the method
+   * @param localToSlot
+   *          the slots the backend has assigned to the locals of the body
+   * @param maxLocals
+   *          the number of local variable slots the method uses
+   */
+  StackMapFrameComputer(SootMethod method, BafBody body, Map<Local, Integer> localToSlot, int maxLocals) {
+    this.method = method;
+    this.body = body;
+    this.localToSlot = localToSlot;
+    this.maxLocals = maxLocals;
+    this.hierarchy = Scene.v().getOrMakeFastHierarchy();
+    this.objectType = Scene.v().getObjectType();
+    this.throwableType = RefType.v("java.lang.Throwable");
+    this.constructor = SootMethod.constructorName.equals(method.getName());
+  }
+
+  /**
+   * Computes the frames of all branch targets and exception handlers of the method as well as the maximum stack size.
+   *
+   * @return the frames, in the order of their units
+   * @throws UnsupportedException
+   *           if the frames cannot be derived from the types of the method
+   */
+  Map<Unit, Frame> compute() {
+    final int n = body.getUnits().size();
+    units = body.getUnits().toArray(new Unit[n]);
+    final Map<Unit, Integer> indices = new HashMap<Unit, Integer>(n * 2);
+    for (int i = 0; i < n; i++) {
+      indices.put(units[i], i);
+    }
+
+    final boolean[] framePoints = new boolean[n];
+    for (Unit u : units) {
+      if (u.branches()) {
+        for (UnitBox box : u.getUnitBoxes()) {
+          framePoints[indices.get(box.getUnit())] = true;
+        }
+      }
+    }
+
+    // The exception handlers, with the stack value of every handler
+    final List<Trap> traps = new ArrayList<Trap>();
+    final Map<Integer, Object> handlerStacks = new HashMap<Integer, Object>();
+    for (Trap trap : body.getTraps()) {
+      if (trap.getBeginUnit() != trap.getEndUnit()) {
+        traps.add(trap);
+        final int handler = indices.get(trap.getHandlerUnit());
+        framePoints[handler] = true;
+        Object type = valueOf(trap.getException().getType());
+        Object previous = handlerStacks.get(handler);
+        handlerStacks.put(handler, previous == null ? type : merge(previous, type));
+      }
+    }
+    for (Map.Entry<Integer, Object> e : handlerStacks.entrySet()) {
+      Object type = e.getValue();
+      if (!(type instanceof RefType) || !hierarchy.canStoreType((RefType) type, throwableType)) {
+        e.setValue(throwableType);
+      }
+    }
+    trapRanges = new int[traps.size() * 3];
+    final boolean[] trapBoundaries = new boolean[n];
+    for (int t = 0; t < traps.size(); t++) {
+      Trap trap = traps.get(t);
+      trapRanges[3 * t] = indices.get(trap.getBeginUnit());
+      trapRanges[3 * t + 1] = indices.get(trap.getEndUnit());
+      trapRanges[3 * t + 2] = indices.get(trap.getHandlerUnit());
+      trapBoundaries[trapRanges[3 * t]] = true;
+      trapBoundaries[trapRanges[3 * t + 1]] = true;
+    }
+
+    for (int i = 0; i < n; i++) {
+      if (framePoints[i] && units[i] instanceof IdentityInst
+          && !(((IdentityInst) units[i]).getRightOp() instanceof CaughtExceptionRef)) {
+        // Identity instructions for this and the parameters produce no code, so the frame would be misplaced
+        throw new UnsupportedException("branch to an identity instruction");
+      }
+    }
+
+    in = new State[n];
+    worklist = new BitSet(n);
+    in[0] = entryState();
+    worklist.set(0);
+
+    final BitSet reached = new BitSet(n);
+    final Interpreter interpreter = new Interpreter();
+    while (!worklist.isEmpty()) {
+      int i = worklist.nextSetBit(0);
+      worklist.clear(i);
+      final State s = in[i].copy();
+      interpreter.state = s;
+      interpreter.stackSize = 0;
+      for (Object v : s.stack) {
+        interpreter.stackSize += isWide(v) ? 2 : 1;
+      }
+      interpreter.localsChanged = true;
+      while (true) {
+        reached.set(i);
+        final Unit u = units[i];
+        // The handlers only see the locals, so they need to be updated only if these or the enclosing traps change
+        if (interpreter.localsChanged || trapBoundaries[i]) {
+          mergeIntoHandlers(i, s, handlerStacks);
+          interpreter.localsChanged = false;
+        }
+        ((Inst) u).apply(interpreter);
+        if (interpreter.initialized) {
+          // The handlers of a constructor call see both the uninitialized and the initialized object
+          mergeIntoHandlers(i, s, handlerStacks);
+          interpreter.initialized = false;
+        }
+        if (u.branches()) {
+          for (UnitBox box : u.getUnitBoxes()) {
+            mergeInto(indices.get(box.getUnit()), s.locals, s.stack);
+          }
+        }
+        if (!u.fallsThrough()) {
+          break;
+        }
+        if (++i == n) {
+          throw new UnsupportedException("control flow falls off the end of the method");
+        }
+        if (framePoints[i]) {
+          mergeInto(i, s.locals, s.stack);
+          break;
+        }
+      }
+    }
+    if (reached.cardinality() != n) {
+      throw new UnsupportedException("unreachable code");
+    }
+
+    final Map<Unit, Frame> frames = new LinkedHashMap<Unit, Frame>();
+    for (int i = 0; i < n; i++) {
+      if (framePoints[i]) {
+        frames.put(units[i], toFrame(in[i]));
+      }
+    }
+    return frames;
+  }
+
+  /**
+   * Returns the maximum size of the operand stack in words, which is known after {@link #compute()} has returned.
+   */
+  int getMaxStack() {
+    return maxStack;
+  }
+
+  private State entryState() {
+    final Object[] locals = new Object[maxLocals];
+    for (int i = 0; i < maxLocals; i++) {
+      locals[i] = Opcodes.TOP;
+    }
+    int slot = 0;
+    if (!method.isStatic()) {
+      final SootClass declaringClass = method.getDeclaringClass();
+      if (constructor && declaringClass.hasSuperclass()) {
+        locals[slot++] = Opcodes.UNINITIALIZED_THIS;
+      } else {
+        locals[slot++] = declaringClass.getType();
+      }
+    }
+    for (Type t : method.getParameterTypes()) {
+      locals[slot] = valueOf(t);
+      slot += sizeOfType(t);
+    }
+    return new State(locals, new ArrayList<Object>());
+  }
+
+  private void mergeIntoHandlers(int index, State s, Map<Integer, Object> handlerStacks) {
+    final int[] ranges = trapRanges;
+    for (int t = 0; t < ranges.length; t += 3) {
+      if (ranges[t] <= index && index < ranges[t + 1]) {
+        if (constructor) {
+          for (Object v : s.locals) {
+            if (v == Opcodes.UNINITIALIZED_THIS) {
+              throw new UnsupportedException("exception handler for the superclass constructor call");
+            }
+          }
+        }
+        final int handler = ranges[t + 2];
+        final List<Object> stack = new ArrayList<Object>(1);
+        stack.add(handlerStacks.get(handler));
+        mergeInto(handler, s.locals, stack);
+      }
+    }
+  }
+
+  /**
+   * Merges the given state into the state before the unit with the given index and schedules the unit if its state has
+   * changed.
+   */
+  private void mergeInto(int index, Object[] locals, List<Object> stack) {
+    final State target = in[index];
+    if (target == null) {
+      in[index] = new State(locals.clone(), new ArrayList<Object>(stack));
+      worklist.set(index);
+      return;
+    }
+    if (target.stack.size() != stack.size()) {
+      throw new UnsupportedException("stack heights differ");
+    }
+    boolean changed = false;
+    for (int i = 0; i < locals.length; i++) {
+      final Object old = target.locals[i];
+      final Object merged = merge(old, locals[i]);
+      if (merged != old) {
+        target.locals[i] = merged;
+        changed = true;
+      }
+    }
+    for (int i = 0; i < stack.size(); i++) {
+      final Object old = target.stack.get(i);
+      final Object merged = merge(old, stack.get(i));
+      if (merged == Opcodes.TOP) {
+        throw new UnsupportedException("incompatible stack values");
+      }
+      if (merged != old) {
+        target.stack.set(i, merged);
+        changed = true;
+      }
+    }
+    if (changed) {
+      worklist.set(index);
+    }
+  }
+
+  private Object merge(Object a, Object b) {
+    if (a == b || a.equals(b)) {
+      return a;
+    }
+    if (a == Opcodes.TOP || b == Opcodes.TOP) {
+      return Opcodes.TOP;
+    }
+    if (a == Opcodes.NULL && b instanceof RefLikeType) {
+      return b;
+    }
+    if (b == Opcodes.NULL && a instanceof RefLikeType) {
+      return a;
+    }
+    if (a instanceof RefLikeType && b instanceof RefLikeType) {
+      return mergeReferences((RefLikeType) a, (RefLikeType) b);
+    }
+    return Opcodes.TOP;
+  }
+
+  private RefLikeType mergeReferences(RefLikeType a, RefLikeType b) {
+    if (a.equals(b)) {
+      return a;
+    }
+    if (a instanceof ArrayType && b instanceof ArrayType) {
+      final Type ea = ((ArrayType) a).getElementType();
+      final Type eb = ((ArrayType) b).getElementType();
+      if (ea instanceof RefLikeType && eb instanceof RefLikeType) {
+        return mergeReferences((RefLikeType) ea, (RefLikeType) eb).makeArrayType();
+      }
+      return objectType;
+    }
+    if (a instanceof ArrayType || b instanceof ArrayType) {
+      // Arrays are only assignable to Object, Cloneable and Serializable
+      final RefLikeType other = a instanceof ArrayType ? b : a;
+      return hierarchy.canStoreType(a instanceof ArrayType ? a : b, other) ? other : objectType;
+    }
+    final SootClass ca = ((RefType) a).getSootClass();
+    final SootClass cb = ((RefType) b).getSootClass();
+    if (ca.isPhantom() || cb.isPhantom()) {
+      throw new UnsupportedException("merging the phantom classes " + ca + " and " + cb);
+    }
+    if (ca.isInterface() || cb.isInterface()) {
+      if (hierarchy.canStoreType(a, b)) {
+        return b;
+      }
+      if (hierarchy.canStoreType(b, a)) {
+        return a;
+      }
+      return objectType;
+    }
+    return hierarchy.getLeastCommonSuperclassOf(ca, cb).getType();
+  }
+
+  /**
+   * Returns the value of the given type.
+   */
+  private Object valueOf(Type t) {
+    if (t instanceof IntegerType) {
+      return Opcodes.INTEGER;
+    } else if (t instanceof LongType) {
+      return Opcodes.LONG;
+    } else if (t instanceof FloatType) {
+      return Opcodes.FLOAT;
+    } else if (t instanceof DoubleType) {
+      return Opcodes.DOUBLE;
+    } else if (t instanceof NullType) {
+      return Opcodes.NULL;
+    } else if (t instanceof ArrayType || (t instanceof RefType && !((RefType) t).getClassName().isEmpty())) {
+      return t;
+    }
+    throw new UnsupportedException("no verification type for " + t);
+  }
+
+  private static boolean isWide(Object v) {
+    return v == Opcodes.LONG || v == Opcodes.DOUBLE;
+  }
+
+  private Frame toFrame(State s) {
+    final List<Object> locals = new ArrayList<Object>(maxLocals);
+    for (int i = 0; i < maxLocals; i++) {
+      final Object v = s.locals[i];
+      locals.add(toAsm(v));
+      if (isWide(v)) {
+        i++;
+      }
+    }
+    int size = locals.size();
+    while (size > 0 && locals.get(size - 1) == Opcodes.TOP) {
+      size--;
+    }
+    final Object[] stack = new Object[s.stack.size()];
+    for (int i = 0; i < stack.length; i++) {
+      stack[i] = toAsm(s.stack.get(i));
+    }
+    return new Frame(locals.subList(0, size).toArray(), stack);
+  }
+
+  private static Object toAsm(Object v) {
+    if (v instanceof RefType) {
+      return slashify(((RefType) v).getClassName());
+    } else if (v instanceof ArrayType) {
+      return toTypeDesc((ArrayType) v);
+    }
+    return v;
+  }
+
+  /**
+   * Applies the effect of a single instruction to the current state.
+   */
+  private final class Interpreter implements InstSwitch {
+    State state;
+
+    /** Set if the last instruction initialized an object. */
+    boolean initialized;
+
+    /** Set if an instruction has modified the locals. */
+    boolean localsChanged;
+
+    /** The size of the current stack in words. */
+    int stackSize;
+
+    private void push(Object v) {
+      state.stack.add(v);
+      stackSize += isWide(v) ? 2 : 1;
+      if (stackSize > maxStack) {
+        maxStack = stackSize;
+      }
+    }
+
+    private Object pop() {
+      final List<Object> stack = state.stack;
+      if (stack.isEmpty()) {
+        throw new UnsupportedException("stack underflow");
+      }
+      final Object v = stack.remove(stack.size() - 1);
+      stackSize -= isWide(v) ? 2 : 1;
+      return v;
+    }
+
+    private void pop(int count) {
+      for (int i = 0; i < count; i++) {
+        pop();
+      }
+    }
+
+    private Object peek(int depth) {
+      final List<Object> stack = state.stack;
+      if (stack.size() <= depth) {
+        throw new UnsupportedException("stack underflow");
+      }
+      return stack.get(stack.size() - 1 - depth);
+    }
+
+    private int slotOf(Local l) {
+      final Integer slot = localToSlot.get(l);
+      if (slot == null) {
+        throw new UnsupportedException("no slot for local " + l);
+      }
+      return slot;
+    }
+
+    private void store(Local l, Object v, Type declared) {
+      final int slot = slotOf(l);
+      final Object[] locals = state.locals;
+      if ((v instanceof RefLikeType || v == Opcodes.NULL) && declared instanceof RefLikeType) {
+        // Prefer the declared type of the Jimple local, which is what later uses of the local rely on
+        final Object d = declared instanceof RefType && ((RefType) declared).getClassName().isEmpty() ? null : declared;
+        if (d != null && (v == Opcodes.NULL || d.equals(objectType) || hierarchy.canStoreType((Type) v, (Type) d))) {
+          v = d;
+        }
+      }
+      localsChanged = true;
+      if (slot > 0 && isWide(locals[slot - 1])) {
+        locals[slot - 1] = Opcodes.TOP;
+      }
+      locals[slot] = v;
+      if (isWide(v)) {
+        if (isWide(locals[slot + 1])) {
+          locals[slot + 2] = Opcodes.TOP;
+        }
+        locals[slot + 1] = Opcodes.TOP;
+      }
+    }
+
+    private void invoke(SootMethodRef ref, boolean hasReceiver) {
+      pop(ref.getParameterTypes().size());
+      if (hasReceiver) {
+        pop();
+      }
+      pushReturn(ref);
+    }
+
+    private void pushReturn(SootMethodRef ref) {
+      final Type ret = ref.getReturnType();
+      if (!(ret instanceof VoidType)) {
+        push(valueOf(ret));
+      }
+    }
+
+    private void replace(Object from, Object to) {
+      final Object[] locals = state.locals;
+      for (int i = 0; i < locals.length; i++) {
+        if (locals[i] == from) {
+          locals[i] = to;
+          localsChanged = true;
+        }
+      }
+      final List<Object> stack = state.stack;
+      for (int i = 0; i < stack.size(); i++) {
+        if (stack.get(i) == from) {
+          stack.set(i, to);
+        }
+      }
+    }
+
+    @Override
+    public void caseReturnVoidInst(ReturnVoidInst i) {
+    }
+
+    @Override
+    public void caseReturnInst(ReturnInst i) {
+      pop();
+    }
+
+    @Override
+    public void caseNopInst(NopInst i) {
+    }
+
+    @Override
+    public void caseGotoInst(GotoInst i) {
+    }
+
+    @Override
+    public void caseJSRInst(JSRInst i) {
+      throw new UnsupportedException("subroutines");
+    }
+
+    @Override
+    public void casePushInst(PushInst i) {
+      final Constant c = i.getConstant();
+      if (c instanceof IntConstant) {
+        push(Opcodes.INTEGER);
+      } else if (c instanceof LongConstant) {
+        push(Opcodes.LONG);
+      } else if (c instanceof FloatConstant) {
+        push(Opcodes.FLOAT);
+      } else if (c instanceof DoubleConstant) {
+        push(Opcodes.DOUBLE);
+      } else if (c instanceof NullConstant) {
+        push(Opcodes.NULL);
+      } else {
+        push(valueOf(c.getType()));
+      }
+    }
+
+    @Override
+    public void casePopInst(PopInst i) {
+      pop();
+    }
+
+    @Override
+    public void caseIdentityInst(IdentityInst i) {
+      if (i.getRightOp() instanceof CaughtExceptionRef) {
+        final Object v = pop();
+        if (i.getLeftOp() instanceof Local) {
+          store((Local) i.getLeftOp(), v, null);
+        }
+      }
+    }
+
+    @Override
+    public void caseStoreInst(StoreInst i) {
+      store(i.getLocal(), pop(), i.getOpType());
+    }
+
+    @Override
+    public void caseLoadInst(LoadInst i) {
+      final Object v = state.locals[slotOf(i.getLocal())];
+      if (v == Opcodes.TOP) {
+        throw new UnsupportedException("load of an undefined local " + i.getLocal());
+      }
+      push(v);
+    }
+
+    @Override
+    public void caseArrayWriteInst(ArrayWriteInst i) {
+      pop(3);
+    }
+
+    @Override
+    public void caseArrayReadInst(ArrayReadInst i) {
+      pop();
+      final Object array = pop();
+      if (array instanceof ArrayType) {
+        push(valueOf(((ArrayType) array).getElementType()));
+      } else if (array == Opcodes.NULL && i.getOpType() instanceof RefLikeType) {
+        push(Opcodes.NULL);
+      } else {
+        push(valueOf(i.getOpType()));
+      }
+    }
+
+    @Override
+    public void caseIfNullInst(IfNullInst i) {
+      pop();
+    }
+
+    @Override
+    public void caseIfNonNullInst(IfNonNullInst i) {
+      pop();
+    }
+
+    @Override
+    public void caseIfEqInst(IfEqInst i) {
+      pop();
+    }
+
+    @Override
+    public void caseIfNeInst(IfNeInst i) {
+      pop();
+    }
+
+    @Override
+    public void caseIfGtInst(IfGtInst i) {
+      pop();
+    }
+
+    @Override
+    public void caseIfGeInst(IfGeInst i) {
+      pop();
+    }
+
+    @Override
+    public void caseIfLtInst(IfLtInst i) {
+      pop();
+    }
+
+    @Override
+    public void caseIfLeInst(IfLeInst i) {
+      pop();
+    }
+
+    @Override
+    public void caseIfCmpEqInst(IfCmpEqInst i) {
+      pop(2);
+    }
+
+    @Override
+    public void caseIfCmpNeInst(IfCmpNeInst i) {
+      pop(2);
+    }
+
+    @Override
+    public void caseIfCmpGtInst(IfCmpGtInst i) {
+      pop(2);
+    }
+
+    @Override
+    public void caseIfCmpGeInst(IfCmpGeInst i) {
+      pop(2);
+    }
+
+    @Override
+    public void caseIfCmpLtInst(IfCmpLtInst i) {
+      pop(2);
+    }
+
+    @Override
+    public void caseIfCmpLeInst(IfCmpLeInst i) {
+      pop(2);
+    }
+
+    @Override
+    public void caseStaticGetInst(StaticGetInst i) {
+      push(valueOf(i.getFieldRef().type()));
+    }
+
+    @Override
+    public void caseStaticPutInst(StaticPutInst i) {
+      pop();
+    }
+
+    @Override
+    public void caseFieldGetInst(FieldGetInst i) {
+      pop();
+      push(valueOf(i.getFieldRef().type()));
+    }
+
+    @Override
+    public void caseFieldPutInst(FieldPutInst i) {
+      pop(2);
+    }
+
+    @Override
+    public void caseInstanceCastInst(InstanceCastInst i) {
+      pop();
+      push(valueOf(i.getCastType()));
+    }
+
+    @Override
+    public void caseInstanceOfInst(InstanceOfInst i) {
+      pop();
+      push(Opcodes.INTEGER);
+    }
+
+    @Override
+    public void casePrimitiveCastInst(PrimitiveCastInst i) {
+      pop();
+      push(valueOf(i.getToType()));
+    }
+
+    @Override
+    public void caseDynamicInvokeInst(DynamicInvokeInst i) {
+      invoke(i.getMethodRef(), false);
+    }
+
+    @Override
+    public void caseStaticInvokeInst(StaticInvokeInst i) {
+      invoke(i.getMethodRef(), false);
+    }
+
+    @Override
+    public void caseVirtualInvokeInst(VirtualInvokeInst i) {
+      invoke(i.getMethodRef(), true);
+    }
+
+    @Override
+    public void caseInterfaceInvokeInst(InterfaceInvokeInst i) {
+      invoke(i.getMethodRef(), true);
+    }
+
+    @Override
+    public void caseSpecialInvokeInst(SpecialInvokeInst i) {
+      final SootMethodRef ref = i.getMethodRef();
+      pop(ref.getParameterTypes().size());
+      final Object receiver = pop();
+      if (SootMethod.constructorName.equals(ref.getName())) {
+        if (receiver instanceof NewInst) {
+          replace(receiver, valueOf(((NewInst) receiver).getBaseType()));
+          initialized = true;
+        } else if (receiver == Opcodes.UNINITIALIZED_THIS) {
+          replace(receiver, method.getDeclaringClass().getType());
+          initialized = true;
+        }
+      }
+      pushReturn(ref);
+    }
+
+    @Override
+    public void caseThrowInst(ThrowInst i) {
+      pop();
+    }
+
+    private void binary(OpTypeArgInst i) {
+      pop(2);
+      push(valueOf(i.getOpType()));
+    }
+
+    @Override
+    public void caseAddInst(AddInst i) {
+      binary(i);
+    }
+
+    @Override
+    public void caseAndInst(AndInst i) {
+      binary(i);
+    }
+
+    @Override
+    public void caseOrInst(OrInst i) {
+      binary(i);
+    }
+
+    @Override
+    public void caseXorInst(XorInst i) {
+      binary(i);
+    }
+
+    @Override
+    public void caseArrayLengthInst(ArrayLengthInst i) {
+      pop();
+      push(Opcodes.INTEGER);
+    }
+
+    @Override
+    public void caseCmpInst(CmpInst i) {
+      pop(2);
+      push(Opcodes.INTEGER);
+    }
+
+    @Override
+    public void caseCmpgInst(CmpgInst i) {
+      pop(2);
+      push(Opcodes.INTEGER);
+    }
+
+    @Override
+    public void caseCmplInst(CmplInst i) {
+      pop(2);
+      push(Opcodes.INTEGER);
+    }
+
+    @Override
+    public void caseDivInst(DivInst i) {
+      binary(i);
+    }
+
+    @Override
+    public void caseIncInst(IncInst i) {
+    }
+
+    @Override
+    public void caseMulInst(MulInst i) {
+      binary(i);
+    }
+
+    @Override
+    public void caseRemInst(RemInst i) {
+      binary(i);
+    }
+
+    @Override
+    public void caseSubInst(SubInst i) {
+      binary(i);
+    }
+
+    @Override
+    public void caseShlInst(ShlInst i) {
+      binary(i);
+    }
+
+    @Override
+    public void caseShrInst(ShrInst i) {
+      binary(i);
+    }
+
+    @Override
+    public void caseUshrInst(UshrInst i) {
+      binary(i);
+    }
+
+    @Override
+    public void caseNewInst(NewInst i) {
+      push(i);
+    }
+
+    @Override
+    public void caseNegInst(NegInst i) {
+      pop();
+      push(valueOf(i.getOpType()));
+    }
+
+    @Override
+    public void caseSwapInst(SwapInst i) {
+      final Object top = pop();
+      final Object under = pop();
+      push(top);
+      push(under);
+    }
+
+    @Override
+    public void caseDup1Inst(Dup1Inst i) {
+      push(peek(0));
+    }
+
+    @Override
+    public void caseDup2Inst(Dup2Inst i) {
+      if (sizeOfType(i.getOp1Type()) == 2 || sizeOfType(i.getOp2Type()) == 2) {
+        throw new UnsupportedException("dup2 of long or double values");
+      }
+      final Object under = peek(1);
+      final Object top = peek(0);
+      push(under);
+      push(top);
+    }
+
+    @Override
+    public void caseDup1_x1Inst(Dup1_x1Inst i) {
+      dupX(sizeOfType(i.getOp1Type()), sizeOfType(i.getUnder1Type()));
+    }
+
+    @Override
+    public void caseDup1_x2Inst(Dup1_x2Inst i) {
+      dupX(sizeOfType(i.getOp1Type()), sizeOfType(i.getUnder1Type()) + sizeOfType(i.getUnder2Type()));
+    }
+
+    @Override
+    public void caseDup2_x1Inst(Dup2_x1Inst i) {
+      dupX(sizeOfType(i.getOp1Type()) + sizeOfType(i.getOp2Type()), sizeOfType(i.getUnder1Type()));
+    }
+
+    @Override
+    public void caseDup2_x2Inst(Dup2_x2Inst i) {
+      dupX(sizeOfType(i.getOp1Type()) + sizeOfType(i.getOp2Type()),
+          sizeOfType(i.getUnder1Type()) + sizeOfType(i.getUnder2Type()));
+    }
+
+    /**
+     * Duplicates the given number of words on top of the stack below the given number of words under them, which is how
+     * the backend translates the dup_x instructions.
+     */
+    private void dupX(int words, int under) {
+      final List<Object> top = popWords(words);
+      final List<Object> skipped = popWords(under);
+      for (Object v : top) {
+        push(v);
+      }
+      for (Object v : skipped) {
+        push(v);
+      }
+      for (Object v : top) {
+        push(v);
+      }
+    }
+
+    private List<Object> popWords(int words) {
+      final List<Object> values = new ArrayList<Object>(words);
+      while (words > 0) {
+        final Object v = pop();
+        words -= isWide(v) ? 2 : 1;
+        values.add(0, v);
+      }
+      if (words < 0) {
+        throw new UnsupportedException("dup splits a long or double value");
+      }
+      return values;
+    }
+
+    @Override
+    public void caseNewArrayInst(NewArrayInst i) {
+      pop();
+      push(i.getBaseType().makeArrayType());
+    }
+
+    @Override
+    public void caseNewMultiArrayInst(NewMultiArrayInst i) {
+      pop(i.getDimensionCount());
+      push(i.getBaseType());
+    }
+
+    @Override
+    public void caseLookupSwitchInst(LookupSwitchInst i) {
+      pop();
+    }
+
+    @Override
+    public void caseTableSwitchInst(TableSwitchInst i) {
+      pop();
+    }
+
+    @Override
+    public void caseEnterMonitorInst(EnterMonitorInst i) {
+      pop();
+    }
+
+    @Override
+    public void caseExitMonitorInst(ExitMonitorInst i) {
+      pop();
+    }
+  }
+}
@@ -25,6 +25,7 @@ package soot.baf.internal;
 import java.util.Collections;
 import java.util.List;
 
+import soot.BodyAnalysisCache;
 import soot.Local;
 import soot.Type;
 import soot.UnitPrinter;
@@ -89,6 +90,9 @@ public class BafLocal implements Local {
 
   @Override
   public void setType(Type t) {
+    if (this.type != null) {
+      BodyAnalysisCache.contentsModified();
+    }
     this.type = t;
   }
 
@@ -58,8 +58,8 @@ public class PeepholeOptimizer extends BodyTransformer {
   }
 
   private final String packageName = "soot.baf.toolkits.base";
-  private static boolean peepholesLoaded = false;
-  private static final Object loaderLock = new Object();
+  private volatile boolean peepholesLoaded = false;
+  private final Object loaderLock = new Object();
 
   private final Map<String, Class<?>> peepholeMap = new HashMap<String, Class<?>>();
 
@@ -72,12 +72,11 @@ public class PeepholeOptimizer extends BodyTransformer {
     if (!peepholesLoaded) {
       synchronized (loaderLock) {
         if (!peepholesLoaded) {
-          peepholesLoaded = true;
-
           InputStream peepholeListingStream = null;
           peepholeListingStream = PeepholeOptimizer.class.getResourceAsStream("/peephole.dat");
           if (peepholeListingStream == null) {
             logger.warn("Could not find peephole.dat in the classpath");
+            peepholesLoaded = true;
             return;
           }
           BufferedReader reader = new BufferedReader(new InputStreamReader(peepholeListingStream));
@@ -117,6 +116,7 @@ public class PeepholeOptimizer extends BodyTransformer {
               peepholeMap.put(peepholeName, peepholeClass);
             }
           }
+          peepholesLoaded = true;
         }
       }
     }
@@ -238,13 +238,13 @@ public enum StackTypesValidator implements BodyValidator {
 
   private static final class VMStateAnalysis extends ForwardFlowAnalysis<Unit, BitArray> {
 
-    protected static final Type TYPE_UNK = UnknownType.v();
-    protected static final Type TYPE_REF = RefType.v();
-    protected static final Type TYPE_INT = IntType.v();
-    protected static final Type TYPE_DUB = DoubleType.v();
-    protected static final Type TYPE_FLT = FloatType.v();
-    protected static final Type TYPE_LNG = LongType.v();
-    protected static final Type TYPE_ERR = ErroneousType.v();
+    protected final Type TYPE_UNK = UnknownType.v();
+    protected final Type TYPE_REF = RefType.v();
+    protected final Type TYPE_INT = IntType.v();
+    protected final Type TYPE_DUB = DoubleType.v();
+    protected final Type TYPE_FLT = FloatType.v();
+    protected final Type TYPE_LNG = LongType.v();
+    protected final Type TYPE_ERR = ErroneousType.v();
 
     // NOTE: UnknownType is 0 so that a new BitArray is trivially all UnknownType
     protected static final int TYPE_UNK_BITS = 0b000;
@@ -258,7 +258,7 @@ public enum StackTypesValidator implements BodyValidator {
      *
      * @return
      */
-    protected static Type canonicalize(Type t) {
+    protected Type canonicalize(Type t) {
       return (t instanceof RefLikeType || t instanceof NullType) ? TYPE_REF : (t instanceof IntegerType) ? TYPE_INT : t;
     }
 
@@ -269,7 +269,7 @@ public enum StackTypesValidator implements BodyValidator {
      *
      * @return
      */
-    protected static int typeToBits(Type type) {
+    protected int typeToBits(Type type) {
       if (type == TYPE_UNK) {
         return TYPE_UNK_BITS;
       } else if (type == TYPE_INT || type instanceof IntegerType) {
@@ -296,7 +296,7 @@ public enum StackTypesValidator implements BodyValidator {
      * 
      * @return
      */
-    protected static Type bitsToType(int bits) {
+    protected Type bitsToType(int bits) {
       switch (bits) {
         case TYPE_UNK_BITS:
           return TYPE_UNK;
@@ -345,7 +345,7 @@ public enum StackTypesValidator implements BodyValidator {
       doAnalysis();
     }
 
-    protected static String toString(Type t) {
+    protected String toString(Type t) {
       return (t == TYPE_REF) ? "RefType" : t.toString();
     }
 
@@ -450,8 +450,8 @@ public enum StackTypesValidator implements BodyValidator {
           Type canonExpect = canonicalize(expect);
           Type canonActual = canonicalize(actual);
           if (!Objects.equals(canonExpect, canonActual)) {
-            exceptions.add(new ValidationException(i, "Expected " + VMStateAnalysis.toString(canonExpect) + " but found "
-                + VMStateAnalysis.toString(canonActual)));
+            exceptions.add(new ValidationException(i, "Expected " + VMStateAnalysis.this.toString(canonExpect) + " but found "
+                + VMStateAnalysis.this.toString(canonActual)));
           }
         }
 
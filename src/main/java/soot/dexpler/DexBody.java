@@ -119,8 +119,8 @@ import soot.jimple.toolkits.scalar.UnreachableCodeEliminator;
 import soot.jimple.toolkits.typing.TypeAssigner;
 import soot.options.JBOptions;
 import soot.options.Options;
-import soot.tagkit.LineNumberTag;
 import soot.tagkit.SourceLineNumberTag;
+import soot.tagkit.TagInterner;
 import soot.toolkits.exceptions.TrapTightener;
 import soot.toolkits.scalar.LocalPacker;
 import soot.toolkits.scalar.LocalSplitter;
@@ -994,7 +994,7 @@ public class DexBody {
       int lineNumber = unit.getJavaSourceStartLineNumber();
       if (lineNumber < 0) {
         if (prevLn >= 0) {
-          unit.addTag(new LineNumberTag(prevLn));
+          unit.addTag(TagInterner.lineNumber(prevLn));
           unit.addTag(new SourceLineNumberTag(prevLn));
         }
       } else {
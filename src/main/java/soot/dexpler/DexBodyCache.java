@@ -0,0 +1,530 @@
+package soot.dexpler;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2026 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import com.google.common.base.Strings;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.jf.dexlib2.iface.ExceptionHandler;
+import org.jf.dexlib2.iface.Method;
+import org.jf.dexlib2.iface.MethodImplementation;
+import org.jf.dexlib2.iface.MethodParameter;
+import org.jf.dexlib2.iface.TryBlock;
+import org.jf.dexlib2.iface.debug.DebugItem;
+import org.jf.dexlib2.iface.debug.EndLocal;
+import org.jf.dexlib2.iface.debug.LineNumber;
+import org.jf.dexlib2.iface.debug.LocalInfo;
+import org.jf.dexlib2.iface.debug.RestartLocal;
+import org.jf.dexlib2.iface.debug.SetSourceFile;
+import org.jf.dexlib2.iface.debug.StartLocal;
+import org.jf.dexlib2.iface.instruction.DualReferenceInstruction;
+import org.jf.dexlib2.iface.instruction.FieldOffsetInstruction;
+import org.jf.dexlib2.iface.instruction.FiveRegisterInstruction;
+import org.jf.dexlib2.iface.instruction.HatLiteralInstruction;
+import org.jf.dexlib2.iface.instruction.InlineIndexInstruction;
+import org.jf.dexlib2.iface.instruction.Instruction;
+import org.jf.dexlib2.iface.instruction.OffsetInstruction;
+import org.jf.dexlib2.iface.instruction.OneRegisterInstruction;
+import org.jf.dexlib2.iface.instruction.ReferenceInstruction;
+import org.jf.dexlib2.iface.instruction.RegisterRangeInstruction;
+import org.jf.dexlib2.iface.instruction.SwitchElement;
+import org.jf.dexlib2.iface.instruction.SwitchPayload;
+import org.jf.dexlib2.iface.instruction.ThreeRegisterInstruction;
+import org.jf.dexlib2.iface.instruction.TwoRegisterInstruction;
+import org.jf.dexlib2.iface.instruction.VariableRegisterInstruction;
+import org.jf.dexlib2.iface.instruction.VerificationErrorInstruction;
+import org.jf.dexlib2.iface.instruction.VtableIndexInstruction;
+import org.jf.dexlib2.iface.instruction.WideLiteralInstruction;
+import org.jf.dexlib2.iface.instruction.formats.ArrayPayload;
+import org.jf.dexlib2.iface.reference.FieldReference;
+import org.jf.dexlib2.iface.reference.MethodReference;
+import org.jf.dexlib2.iface.reference.Reference;
+import org.jf.dexlib2.iface.reference.TypeReference;
+import org.jf.dexlib2.util.ReferenceUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import soot.ArrayType;
+import soot.Body;
+import soot.G;
+import soot.PackManager;
+import soot.PhaseOptions;
+import soot.Printer;
+import soot.RefType;
+import soot.Scene;
+import soot.Singletons;
+import soot.SootClass;
+import soot.SootField;
+import soot.SootMethod;
+import soot.Transform;
+import soot.Type;
+import soot.jimple.parser.JimpleAST;
+import soot.options.Options;
+
+/**
+ * Persistent, content-addressed store for the Jimple bodies that {@link DexBody} creates from Dalvik bytecode. Popular
+ * third-party libraries are bundled into many APKs, so the same method code is converted over and over again. The cache
+ * keys every body by a hash of the method's code item, of the hierarchy of the types that the code refers to and of the
+ * options that affect the conversion, and stores the finished body as Jimple text. A later conversion of identical code,
+ * in the same run, in another APK or in a later run, parses the cached text instead of running the full conversion.
+ *
+ * <p>
+ * A body is only stored if parsing its Jimple text yields exactly the same body again, so that a cache hit is
+ * indistinguishable from a fresh conversion. Entries are plain files named after their key, so concurrent runs can share a
+ * cache directory.
+ * </p>
+ */
+public class DexBodyCache {
+  private static final Logger logger = LoggerFactory.getLogger(DexBodyCache.class);
+
+  /**
+   * Must be increased whenever the key computation or the conversion from Dalvik bytecode to Jimple changes.
+   */
+  static final int FORMAT_VERSION = 1;
+
+  private static final String CACHE_FILE_SUFFIX = ".jimple";
+
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+  private final AtomicLong uncacheable = new AtomicLong();
+  private final AtomicLong hitNanos = new AtomicLong();
+  private final AtomicLong missNanos = new AtomicLong();
+
+  public DexBodyCache(Singletons.Global g) {
+  }
+
+  public static DexBodyCache v() {
+    return G.v().soot_dexpler_DexBodyCache();
+  }
+
+  /**
+   * Returns true if a cache directory has been configured and the cache can be used with the current settings. Line number
+   * and bytecode offset tags do not survive the Jimple text, so bodies are always converted when line numbers or offsets
+   * are kept.
+   */
+  public boolean isEnabled() {
+    final Options opts = Options.v();
+    return !Strings.isNullOrEmpty(opts.dex_body_cache_dir()) && !opts.keep_line_number() && !opts.keep_offset();
+  }
+
+  /**
+   * Computes the cache key for the body of the given method, or returns null if the method has no code or its code cannot
+   * be read, in which case the body is converted as usual.
+   *
+   * @param method
+   *          the Dalvik method
+   * @param m
+   *          the Soot method the body is created for
+   */
+  public String computeKey(Method method, SootMethod m) {
+    final MethodImplementation impl = method.getImplementation();
+    if (impl == null) {
+      return null;
+    }
+    try {
+      return computeKey(method, impl, m);
+    } catch (RuntimeException e) {
+      // Leave it to the conversion to report broken code
+      logger.debug("Cannot compute dex body cache key for " + m + ": " + e.getMessage());
+      return null;
+    }
+  }
+
+  private String computeKey(Method method, MethodImplementation impl, SootMethod m) {
+    final Hasher h = Hashing.murmur3_128().newHasher();
+    final Set<String> types = new TreeSet<String>();
+    h.putInt(FORMAT_VERSION);
+    putOptions(h);
+
+    h.putUnencodedChars(m.getSignature()).putInt(m.getModifiers());
+    types.add(m.getDeclaringClass().getName());
+    for (MethodParameter p : method.getParameters()) {
+      putNullable(h, p.getName());
+    }
+
+    h.putInt(impl.getRegisterCount());
+    for (Instruction i : impl.getInstructions()) {
+      putInstruction(h, i, types);
+    }
+    for (TryBlock<? extends ExceptionHandler> tb : impl.getTryBlocks()) {
+      h.putInt(tb.getStartCodeAddress()).putInt(tb.getCodeUnitCount());
+      for (ExceptionHandler eh : tb.getExceptionHandlers()) {
+        putNullable(h, eh.getExceptionType());
+        h.putInt(eh.getHandlerCodeAddress());
+        addType(types, eh.getExceptionType());
+      }
+    }
+    for (DebugItem d : impl.getDebugItems()) {
+      putDebugItem(h, d, types);
+    }
+
+    // The conversion types locals and fixes references based on the class hierarchy, so the key includes what the Scene
+    // currently knows about every type the code refers to
+    for (String type : types) {
+      putTypeContext(h, type);
+    }
+    return h.hash().toString();
+  }
+
+  private static void putOptions(Hasher h) {
+    final Options opts = Options.v();
+    h.putInt(opts.wrong_staticness()).putBoolean(opts.ignore_resolution_errors()).putInt(Scene.v().getAndroidAPIVersion());
+    for (Transform t : PackManager.v().getPack("jb")) {
+      putPhaseOptions(h, t.getPhaseName());
+    }
+    putPhaseOptions(h, "jb");
+  }
+
+  private static void putPhaseOptions(Hasher h, String phaseName) {
+    h.putUnencodedChars(phaseName);
+    for (Map.Entry<String, String> e : new TreeMap<String, String>(PhaseOptions.v().getPhaseOptions(phaseName)).entrySet()) {
+      h.putUnencodedChars(e.getKey()).putChar('=');
+      putNullable(h, e.getValue());
+    }
+  }
+
+  private static void putInstruction(Hasher h, Instruction i, Set<String> types) {
+    h.putUnencodedChars(i.getOpcode().name).putInt(i.getCodeUnits());
+    if (i instanceof OneRegisterInstruction) {
+      h.putInt(((OneRegisterInstruction) i).getRegisterA());
+    }
+    if (i instanceof TwoRegisterInstruction) {
+      h.putInt(((TwoRegisterInstruction) i).getRegisterB());
+    }
+    if (i instanceof ThreeRegisterInstruction) {
+      h.putInt(((ThreeRegisterInstruction) i).getRegisterC());
+    }
+    if (i instanceof VariableRegisterInstruction) {
+      h.putInt(((VariableRegisterInstruction) i).getRegisterCount());
+    }
+    if (i instanceof FiveRegisterInstruction) {
+      FiveRegisterInstruction fi = (FiveRegisterInstruction) i;
+      h.putInt(fi.getRegisterC()).putInt(fi.getRegisterD()).putInt(fi.getRegisterE()).putInt(fi.getRegisterF())
+          .putInt(fi.getRegisterG());
+    }
+    if (i instanceof RegisterRangeInstruction) {
+      h.putInt(((RegisterRangeInstruction) i).getStartRegister());
+    }
+    if (i instanceof WideLiteralInstruction) {
+      h.putLong(((WideLiteralInstruction) i).getWideLiteral());
+    }
+    if (i instanceof HatLiteralInstruction) {
+      h.putShort(((HatLiteralInstruction) i).getHatLiteral());
+    }
+    if (i instanceof OffsetInstruction) {
+      h.putInt(((OffsetInstruction) i).getCodeOffset());
+    }
+    if (i instanceof ReferenceInstruction) {
+      putReference(h, ((ReferenceInstruction) i).getReference(), types);
+    }
+    if (i instanceof DualReferenceInstruction) {
+      putReference(h, ((DualReferenceInstruction) i).getReference2(), types);
+    }
+    if (i instanceof FieldOffsetInstruction) {
+      h.putInt(((FieldOffsetInstruction) i).getFieldOffset());
+    }
+    if (i instanceof InlineIndexInstruction) {
+      h.putInt(((InlineIndexInstruction) i).getInlineIndex());
+    }
+    if (i instanceof VtableIndexInstruction) {
+      h.putInt(((VtableIndexInstruction) i).getVtableIndex());
+    }
+    if (i instanceof VerificationErrorInstruction) {
+      h.putInt(((VerificationErrorInstruction) i).getVerificationError());
+    }
+    if (i instanceof SwitchPayload) {
+      for (SwitchElement e : ((SwitchPayload) i).getSwitchElements()) {
+        h.putInt(e.getKey()).putInt(e.getOffset());
+      }
+    }
+    if (i instanceof ArrayPayload) {
+      ArrayPayload ap = (ArrayPayload) i;
+      h.putInt(ap.getElementWidth());
+      for (Number n : ap.getArrayElements()) {
+        h.putLong(n.longValue());
+      }
+    }
+  }
+
+  private static void putReference(Hasher h, Reference ref, Set<String> types) {
+    putNullable(h, ReferenceUtil.getReferenceString(ref));
+    if (ref instanceof TypeReference) {
+      addType(types, ((TypeReference) ref).getType());
+    } else if (ref instanceof FieldReference) {
+      FieldReference fr = (FieldReference) ref;
+      addType(types, fr.getDefiningClass());
+      addType(types, fr.getType());
+      putFieldContext(h, fr);
+    } else if (ref instanceof MethodReference) {
+      MethodReference mr = (MethodReference) ref;
+      addType(types, mr.getDefiningClass());
+      addType(types, mr.getReturnType());
+      for (CharSequence p : mr.getParameterTypes()) {
+        addType(types, p.toString());
+      }
+      putMethodContext(h, mr);
+    }
+  }
+
+  private static void putDebugItem(Hasher h, DebugItem d, Set<String> types) {
+    h.putInt(d.getDebugItemType()).putInt(d.getCodeAddress());
+    if (d instanceof LineNumber) {
+      h.putInt(((LineNumber) d).getLineNumber());
+    } else if (d instanceof SetSourceFile) {
+      putNullable(h, ((SetSourceFile) d).getSourceFile());
+    }
+    if (d instanceof StartLocal) {
+      h.putInt(((StartLocal) d).getRegister());
+    } else if (d instanceof EndLocal) {
+      h.putInt(((EndLocal) d).getRegister());
+    } else if (d instanceof RestartLocal) {
+      h.putInt(((RestartLocal) d).getRegister());
+    }
+    if (d instanceof LocalInfo) {
+      LocalInfo li = (LocalInfo) d;
+      putNullable(h, li.getName());
+      putNullable(h, li.getType());
+      putNullable(h, li.getSignature());
+      addType(types, li.getType());
+    }
+  }
+
+  /**
+   * Records whether the referenced field exists in the Scene and whether it is static, which the staticness correction
+   * depends on.
+   */
+  private static void putFieldContext(Hasher h, FieldReference fr) {
+    final SootClass sc = getClass(fr.getDefiningClass());
+    final SootField f = sc == null ? null : sc.getFieldUnsafe(fr.getName(), DexType.toSoot(fr.getType()));
+    h.putInt(f == null ? -1 : f.getModifiers());
+  }
+
+  private static void putMethodContext(Hasher h, MethodReference mr) {
+    final SootClass sc = getClass(mr.getDefiningClass());
+    SootMethod sm = null;
+    if (sc != null) {
+      List<Type> parameterTypes = new ArrayList<Type>();
+      for (CharSequence p : mr.getParameterTypes()) {
+        parameterTypes.add(DexType.toSoot(p.toString()));
+      }
+      sm = sc.getMethodUnsafe(mr.getName(), parameterTypes, DexType.toSoot(mr.getReturnType()));
+    }
+    h.putInt(sm == null ? -1 : sm.getModifiers());
+  }
+
+  private static void putTypeContext(Hasher h, String className) {
+    h.putUnencodedChars(className);
+    for (SootClass c = Scene.v().getSootClassUnsafe(className, false); c != null;) {
+      h.putUnencodedChars(c.getName()).putInt(c.getModifiers()).putBoolean(c.isPhantom());
+      if (c.resolvingLevel() < SootClass.HIERARCHY) {
+        h.putChar('?');
+        break;
+      }
+      for (SootClass i : c.getInterfaces()) {
+        h.putUnencodedChars(i.getName());
+      }
+      h.putChar(';');
+      c = c.getSuperclassUnsafe();
+    }
+  }
+
+  private static SootClass getClass(String descriptor) {
+    Type t = DexType.toSoot(descriptor);
+    return t instanceof RefType ? Scene.v().getSootClassUnsafe(((RefType) t).getClassName(), false) : null;
+  }
+
+  private static void addType(Set<String> types, String descriptor) {
+    if (descriptor == null) {
+      return;
+    }
+    Type t = DexType.toSoot(descriptor);
+    if (t instanceof ArrayType) {
+      t = ((ArrayType) t).baseType;
+    }
+    if (t instanceof RefType) {
+      types.add(((RefType) t).getClassName());
+    }
+  }
+
+  private static void putNullable(Hasher h, CharSequence s) {
+    if (s == null) {
+      h.putByte((byte) 0);
+    } else {
+      h.putByte((byte) 1).putUnencodedChars(s).putChar('\0');
+    }
+  }
+
+  private static File getCacheFile(String key) {
+    return new File(new File(Options.v().dex_body_cache_dir(), key.substring(0, 2)), key + CACHE_FILE_SUFFIX);
+  }
+
+  /**
+   * Returns the cached body for the given key, or null if there is none.
+   */
+  public Body lookup(String key, SootMethod m) {
+    final long start = System.nanoTime();
+    final File f = getCacheFile(key);
+    if (!f.isFile()) {
+      return null;
+    }
+    Body b;
+    try {
+      b = parse(java.nio.file.Files.readAllBytes(f.toPath()), m);
+    } catch (Exception e) {
+      logger.debug("Ignoring unreadable dex body cache entry " + f + ": " + e.getMessage());
+      return null;
+    }
+    if (b != null) {
+      hits.incrementAndGet();
+      hitNanos.addAndGet(System.nanoTime() - start);
+    }
+    return b;
+  }
+
+  /**
+   * Stores a freshly converted body unless it cannot be reproduced from its Jimple text.
+   *
+   * @param key
+   *          the key computed for the method before the conversion
+   * @param b
+   *          the converted body
+   * @param nanos
+   *          the time the conversion took
+   */
+  public void store(String key, Body b, long nanos) {
+    missNanos.addAndGet(nanos);
+    final StringWriter sw = new StringWriter();
+    try (PrintWriter out = new PrintWriter(sw)) {
+      Printer.v().printTo(b, out);
+    }
+    final byte[] text = sw.toString().getBytes(StandardCharsets.UTF_8);
+    try {
+      Body parsed = parse(text, b.getMethod());
+      if (parsed == null || !parsed.toString().equals(b.toString())) {
+        uncacheable.incrementAndGet();
+        return;
+      }
+    } catch (Exception e) {
+      uncacheable.incrementAndGet();
+      return;
+    }
+    misses.incrementAndGet();
+
+    final File f = getCacheFile(key);
+    try {
+      File dir = f.getParentFile();
+      if (!dir.isDirectory() && !dir.mkdirs()) {
+        throw new IOException("Cannot create directory " + dir);
+      }
+      File tmp = File.createTempFile(f.getName(), ".tmp", dir);
+      try {
+        java.nio.file.Files.write(tmp.toPath(), text);
+        java.nio.file.Files.move(tmp.toPath(), f.toPath(), StandardCopyOption.REPLACE_EXISTING);
+      } finally {
+        tmp.delete();
+      }
+    } catch (IOException e) {
+      logger.warn("Could not write dex body cache entry " + f + ": " + e.getMessage());
+    }
+  }
+
+  /**
+   * Counts a conversion whose result cannot be cached, e.g., because the method contains invalid bytecode.
+   */
+  public void recordUncacheable(long nanos) {
+    missNanos.addAndGet(nanos);
+    uncacheable.incrementAndGet();
+  }
+
+  /**
+   * Parses the Jimple text of a single method body. The text is wrapped into a class declaration so that the regular Jimple
+   * parser can be used.
+   */
+  private static Body parse(byte[] methodText, SootMethod m) throws Exception {
+    final byte[] header = ("class " + Scene.v().quotedNameOf(m.getDeclaringClass().getName()) + "\n{\n")
+        .getBytes(StandardCharsets.UTF_8);
+    final byte[] trailer = "}\n".getBytes(StandardCharsets.UTF_8);
+    final byte[] text = new byte[header.length + methodText.length + trailer.length];
+    System.arraycopy(header, 0, text, 0, header.length);
+    System.arraycopy(methodText, 0, text, header.length, methodText.length);
+    System.arraycopy(trailer, 0, text, header.length + methodText.length, trailer.length);
+    return new JimpleAST(new ByteArrayInputStream(text)).getBody(m);
+  }
+
+  public long getHits() {
+    return hits.get();
+  }
+
+  public long getMisses() {
+    return misses.get();
+  }
+
+  public long getUncacheable() {
+    return uncacheable.get();
+  }
+
+  /**
+   * Returns the estimated time in nanoseconds that the cache hits have saved, i.e., the average conversion time times the
+   * number of hits minus the time spent on reading the hits.
+   */
+  public long getTimeSaved() {
+    final long converted = misses.get() + uncacheable.get();
+    if (converted == 0) {
+      return 0;
+    }
+    return missNanos.get() / converted * hits.get() - hitNanos.get();
+  }
+
+  /**
+   * Reports the cache statistics in verbose mode.
+   */
+  public void printStatistics() {
+    if (isEnabled() && Options.v().verbose()) {
+      logger.debug("[dex-body-cache] " + this);
+    }
+  }
+
+  @Override
+  public String toString() {
+    final long h = hits.get(), m = misses.get(), u = uncacheable.get();
+    final long total = h + m + u;
+    return String.format("%d hits, %d misses, %d uncacheable (hit rate %.1f%%); hits took %d ms, estimated %d ms saved", h,
+        m, u, total == 0 ? 0.0 : (100.0 * h / total), hitNanos.get() / 1000000, getTimeSaved() / 1000000);
+  }
+}
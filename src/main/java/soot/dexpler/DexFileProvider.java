@@ -22,8 +22,11 @@ package soot.dexpler;
  * #L%
  */
 
+import com.google.common.io.ByteStreams;
+
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -36,10 +39,17 @@ import java.util.ListIterator;
 import java.util.Map;
 import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.jf.dexlib2.DexFileFactory;
 import org.jf.dexlib2.Opcodes;
 import org.jf.dexlib2.dexbacked.DexBackedDexFile;
+import org.jf.dexlib2.dexbacked.ZipDexContainer;
+import org.jf.dexlib2.iface.ClassDef;
 import org.jf.dexlib2.iface.DexFile;
 import org.jf.dexlib2.iface.MultiDexContainer;
 import org.jf.dexlib2.iface.MultiDexContainer.DexEntry;
@@ -50,7 +60,9 @@ import soot.CompilationDeathException;
 import soot.G;
 import soot.Scene;
 import soot.Singletons;
+import soot.SourceLocator;
 import soot.options.Options;
+import soot.util.MappedArchive;
 
 /**
  * Class providing dex files from a given source, e.g., jar, apk, dex, folder containing multiple dex files
@@ -208,8 +220,8 @@ public class DexFileProvider {
     boolean multiple_dex = Options.v().process_multiple_dex();
 
     // load dex files from apk/folder/file
-    MultiDexContainer<? extends DexBackedDexFile> dexContainer
-        = DexFileFactory.loadDexContainer(dexSourceFile, Opcodes.forApi(api));
+    Opcodes opcodes = Opcodes.forApi(api);
+    MultiDexContainer<? extends DexBackedDexFile> dexContainer = DexFileFactory.loadDexContainer(dexSourceFile, opcodes);
 
     List<String> dexEntryNameList = dexContainer.getDexEntryNames();
     int dexFileCount = dexEntryNameList.size();
@@ -221,34 +233,123 @@ public class DexFileProvider {
       return Collections.emptyMap();
     }
 
-    Map<String, DexContainer<? extends DexFile>> dexMap = new HashMap<>(dexFileCount);
-
-    // report found dex files and add to list.
-    // We do this in reverse order to make sure that we add the first entry if there is no classes.dex file in single dex
-    // mode
+    // Select the dex files to load. We go through the entries in reverse order to make sure that we select the first entry
+    // if there is no classes.dex file in single dex mode
+    final List<String> selected = new ArrayList<>(dexFileCount);
     ListIterator<String> entryNameIterator = dexEntryNameList.listIterator(dexFileCount);
     while (entryNameIterator.hasPrevious()) {
       String entryName = entryNameIterator.previous();
-      DexEntry<? extends DexFile> entry = dexContainer.getEntry(entryName);
-      entryName = deriveDexName(entryName);
-      logger.debug("" + String.format("Found dex file '%s' with %d classes in '%s'", entryName,
-          entry.getDexFile().getClasses().size(), dexSourceFile.getCanonicalPath()));
-
       if (multiple_dex) {
-        dexMap.put(entryName, new DexContainer<>(entry, entryName, dexSourceFile));
-      } else if (dexMap.isEmpty() && (entryName.equals("classes.dex") || !entryNameIterator.hasPrevious())) {
+        selected.add(entryName);
+      } else if (deriveDexName(entryName).equals("classes.dex") || !entryNameIterator.hasPrevious()) {
         // We prefer to have classes.dex in single dex mode.
         // If we haven't found a classes.dex until the last element, take the last!
-        dexMap = Collections.singletonMap(entryName, new DexContainer<>(entry, entryName, dexSourceFile));
+        selected.add(entryName);
         if (dexFileCount > 1) {
-          logger.warn("Multiple dex files detected, only processing '" + entryName
+          logger.warn("Multiple dex files detected, only processing '" + deriveDexName(entryName)
               + "'. Use '-process-multiple-dex' option to process them all.");
         }
+        break;
       }
     }
+
+    final MappedArchive mapped = dexContainer instanceof ZipDexContainer
+        ? SourceLocator.v().getMappedArchive(dexSourceFile.getPath()) : null;
+    final List<DexContainer<? extends DexFile>> loaded = loadDexFiles(dexSourceFile, dexContainer, opcodes, mapped, selected);
+
+    Map<String, DexContainer<? extends DexFile>> dexMap = new HashMap<>(dexFileCount);
+    for (DexContainer<? extends DexFile> container : loaded) {
+      logger.debug("" + String.format("Found dex file '%s' with %d classes in '%s'", container.getDexName(),
+          container.getClassNames().size(), dexSourceFile.getCanonicalPath()));
+      dexMap.put(container.getDexName(), container);
+    }
     return Collections.unmodifiableMap(dexMap);
   }
 
+  /**
+   * Loads and indexes the given entries of a dex container. The entries of a multi-dex container are independent of each
+   * other, so they are loaded in parallel.
+   */
+  private List<DexContainer<? extends DexFile>> loadDexFiles(final File dexSourceFile,
+      final MultiDexContainer<? extends DexBackedDexFile> dexContainer, final Opcodes opcodes, final MappedArchive mapped,
+      List<String> entryNames) throws IOException {
+    List<Callable<DexContainer<? extends DexFile>>> tasks = new ArrayList<>(entryNames.size());
+    for (final String entryName : entryNames) {
+      tasks.add(new Callable<DexContainer<? extends DexFile>>() {
+        @Override
+        public DexContainer<? extends DexFile> call() throws IOException {
+          DexEntry<? extends DexBackedDexFile> entry = mapped != null && mapped.containsEntry(entryName)
+              ? new MappedDexEntry(dexContainer, entryName, readMapped(mapped, entryName, opcodes))
+              : dexContainer.getEntry(entryName);
+          DexContainer<? extends DexFile> container = new DexContainer<>(entry, deriveDexName(entryName), dexSourceFile);
+          // Build the class index in this task as well
+          container.getClassNames();
+          return container;
+        }
+      });
+    }
+
+    int threadNum = Math.min(tasks.size(), getThreadCount());
+    if (threadNum <= 1) {
+      List<DexContainer<? extends DexFile>> result = new ArrayList<>(tasks.size());
+      for (Callable<DexContainer<? extends DexFile>> task : tasks) {
+        try {
+          result.add(task.call());
+        } catch (IOException | RuntimeException e) {
+          throw e;
+        } catch (Exception e) {
+          throw new IOException(e);
+        }
+      }
+      return result;
+    }
+
+    ExecutorService executor = Executors.newFixedThreadPool(threadNum);
+    try {
+      List<DexContainer<? extends DexFile>> result = new ArrayList<>(tasks.size());
+      for (Future<DexContainer<? extends DexFile>> f : executor.invokeAll(tasks)) {
+        try {
+          result.add(f.get());
+        } catch (ExecutionException e) {
+          Throwable cause = e.getCause();
+          if (cause instanceof IOException) {
+            throw (IOException) cause;
+          } else if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+          }
+          throw new IOException(cause);
+        }
+      }
+      return result;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while loading dex files from " + dexSourceFile, e);
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  private static int getThreadCount() {
+    int threadNum = Options.v().num_threads();
+    if (threadNum < 1) {
+      threadNum = Runtime.getRuntime().availableProcessors();
+    }
+    return threadNum;
+  }
+
+  /**
+   * Reads a dex file from a memory-mapped archive. dexlib2 requires the dex file in a byte array, so the contents are copied
+   * once into an array of the exact size.
+   */
+  private static DexBackedDexFile readMapped(MappedArchive mapped, String entryName, Opcodes opcodes)
+      throws IOException {
+    final byte[] buf = new byte[(int) mapped.getSize(entryName)];
+    try (InputStream in = mapped.getInputStream(entryName)) {
+      ByteStreams.readFully(in, buf);
+    }
+    return new DexBackedDexFile(opcodes, buf);
+  }
+
   private String deriveDexName(String entryName) {
     return new File(entryName).getName();
   }
@@ -277,6 +378,7 @@ public class DexFileProvider {
     private final DexEntry<T> base;
     private final String name;
     private final File filePath;
+    private volatile Map<String, ClassDef> classIndex;
 
     public DexContainer(DexEntry<T> base, String name, File filePath) {
       this.base = base;
@@ -295,6 +397,68 @@ public class DexFileProvider {
     public File getFilePath() {
       return filePath;
     }
+
+    /**
+     * Returns the names of all classes defined in this dex file.
+     */
+    public Set<String> getClassNames() {
+      return getClassIndex().keySet();
+    }
+
+    /**
+     * Returns the definition of the class with the given name, or null if the class is not defined in this dex file. If a
+     * class is defined more than once, the last definition is returned.
+     */
+    public ClassDef getClassDef(String className) {
+      return getClassIndex().get(className);
+    }
+
+    private Map<String, ClassDef> getClassIndex() {
+      Map<String, ClassDef> index = classIndex;
+      if (index == null) {
+        synchronized (this) {
+          index = classIndex;
+          if (index == null) {
+            Set<? extends ClassDef> classes = base.getDexFile().getClasses();
+            index = new HashMap<>(classes.size() * 4 / 3 + 1);
+            for (ClassDef defItem : classes) {
+              index.put(Util.dottedClassName(defItem.getType()), defItem);
+            }
+            classIndex = index = Collections.unmodifiableMap(index);
+          }
+        }
+      }
+      return index;
+    }
   }
 
+  /**
+   * A dex file that has been read from a memory-mapped archive.
+   */
+  private static final class MappedDexEntry implements DexEntry<DexBackedDexFile> {
+    private final MultiDexContainer<? extends DexBackedDexFile> container;
+    private final String entryName;
+    private final DexBackedDexFile dexFile;
+
+    MappedDexEntry(MultiDexContainer<? extends DexBackedDexFile> container, String entryName, DexBackedDexFile dexFile) {
+      this.container = container;
+      this.entryName = entryName;
+      this.dexFile = dexFile;
+    }
+
+    @Override
+    public String getEntryName() {
+      return entryName;
+    }
+
+    @Override
+    public DexBackedDexFile getDexFile() {
+      return dexFile;
+    }
+
+    @Override
+    public MultiDexContainer<? extends DexBackedDexFile> getContainer() {
+      return container;
+    }
+  }
 }
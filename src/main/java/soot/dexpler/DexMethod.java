@@ -110,12 +110,29 @@ public class DexMethod {
 
       @Override
       public Body getBody(SootMethod m, String phaseName) {
+        final DexBodyCache cache = DexBodyCache.v();
+        final String key = cache.isEnabled() ? cache.computeKey(method, m) : null;
+        if (key != null) {
+          Body cached = cache.lookup(key, m);
+          if (cached != null) {
+            m.setActiveBody(cached);
+            return m.getActiveBody();
+          }
+        }
+
+        final long start = System.nanoTime();
         Body b = Jimple.v().newBody(m);
         try {
           // add the body of this code item
           DexBody dexBody = new DexBody(dexEntry, method, declaringClass.getType());
           dexBody.jimplify(b, m);
+          if (key != null) {
+            cache.store(key, b, System.nanoTime() - start);
+          }
         } catch (InvalidDalvikBytecodeException e) {
+          if (key != null) {
+            cache.recordUncacheable(System.nanoTime() - start);
+          }
           String msg = "Warning: Invalid bytecode in method " + m + ": " + e;
           logger.debug("" + msg);
           Util.emptyBody(b);
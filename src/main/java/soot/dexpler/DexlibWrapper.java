@@ -29,20 +29,16 @@ package soot.dexpler;
 
 import java.io.File;
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
+import java.util.ListIterator;
 import java.util.Set;
 
 import org.jf.dexlib2.dexbacked.DexBackedDexFile;
 import org.jf.dexlib2.dexbacked.reference.DexBackedTypeReference;
 import org.jf.dexlib2.iface.ClassDef;
 import org.jf.dexlib2.iface.DexFile;
-import org.jf.dexlib2.iface.MultiDexContainer.DexEntry;
 
 import soot.ArrayType;
 import soot.CompilationDeathException;
@@ -77,18 +73,7 @@ public class DexlibWrapper {
 
   private final DexClassLoader dexLoader = createDexClassLoader();
 
-  private static class ClassInformation {
-    public DexEntry<? extends DexFile> dexEntry;
-    public ClassDef classDefinition;
-
-    public ClassInformation(DexEntry<? extends DexFile> entry, ClassDef classDef) {
-      this.dexEntry = entry;
-      this.classDefinition = classDef;
-    }
-  }
-
-  private final Map<String, ClassInformation> classesToDefItems = new HashMap<String, ClassInformation>();
-  private final Collection<DexEntry<? extends DexFile>> dexFiles;
+  private final List<DexFileProvider.DexContainer<? extends DexFile>> dexContainers;
 
   /**
    * Construct a DexlibWrapper from a dex file and stores its classes referenced by their name. No further process is done
@@ -96,11 +81,7 @@ public class DexlibWrapper {
    */
   public DexlibWrapper(File dexSource) {
     try {
-      List<DexFileProvider.DexContainer<? extends DexFile>> containers = DexFileProvider.v().getDexFromSource(dexSource);
-      this.dexFiles = new ArrayList<>(containers.size());
-      for (DexFileProvider.DexContainer<? extends DexFile> container : containers) {
-        this.dexFiles.add(container.getBase());
-      }
+      this.dexContainers = DexFileProvider.v().getDexFromSource(dexSource);
     } catch (IOException e) {
       throw new CompilationDeathException("IOException during dex parsing", e);
     }
@@ -116,19 +97,10 @@ public class DexlibWrapper {
   }
 
   public void initialize() {
-    // resolve classes in dex files
-    for (DexEntry<? extends DexFile> dexEntry : dexFiles) {
-      final DexFile dexFile = dexEntry.getDexFile();
-      for (ClassDef defItem : dexFile.getClasses()) {
-        String forClassName = Util.dottedClassName(defItem.getType());
-        classesToDefItems.put(forClassName, new ClassInformation(dexEntry, defItem));
-      }
-    }
-
-    // It is important to first resolve the classes, otherwise we will
-    // produce an error during type resolution.
-    for (DexEntry<? extends DexFile> dexEntry : dexFiles) {
-      final DexFile dexFile = dexEntry.getDexFile();
+    // The classes of each dex file are looked up in the class index of its container, which is built when the dex file is
+    // loaded. It is important to first resolve the classes, otherwise we will produce an error during type resolution.
+    for (DexFileProvider.DexContainer<? extends DexFile> container : dexContainers) {
+      final DexFile dexFile = container.getBase().getDexFile();
       if (dexFile instanceof DexBackedDexFile) {
         for (DexBackedTypeReference typeRef : ((DexBackedDexFile) dexFile).getTypeReferences()) {
           String t = typeRef.getType();
@@ -163,9 +135,14 @@ public class DexlibWrapper {
       className = Util.dottedClassName(className);
     }
 
-    ClassInformation defItem = classesToDefItems.get(className);
-    if (defItem != null) {
-      return dexLoader.makeSootClass(sc, defItem.classDefinition, defItem.dexEntry);
+    // If a class is defined in more than one dex file, the definition in the last one wins
+    for (ListIterator<DexFileProvider.DexContainer<? extends DexFile>> it = dexContainers.listIterator(dexContainers.size());
+        it.hasPrevious();) {
+      DexFileProvider.DexContainer<? extends DexFile> container = it.previous();
+      ClassDef defItem = container.getClassDef(className);
+      if (defItem != null) {
+        return dexLoader.makeSootClass(sc, defItem, container.getBase());
+      }
     }
 
     throw new RuntimeException("Error: class not found in DEX files: " + className);
@@ -40,10 +40,9 @@ import soot.Type;
 import soot.Unit;
 import soot.dexpler.DexBody;
 import soot.options.Options;
-import soot.tagkit.BytecodeOffsetTag;
 import soot.tagkit.Host;
-import soot.tagkit.LineNumberTag;
 import soot.tagkit.SourceLineNumberTag;
+import soot.tagkit.TagInterner;
 
 /**
  * This class represents a wrapper around dexlib instruction.
@@ -162,11 +161,11 @@ public abstract class DexlibAbstractInstruction {
   protected void addTags(Host host) {
     Options options = Options.v();
     if (options.keep_line_number() && lineNumber != -1) {
-      host.addTag(new LineNumberTag(lineNumber));
+      host.addTag(TagInterner.lineNumber(lineNumber));
       host.addTag(new SourceLineNumberTag(lineNumber));
     }
     if (options.keep_offset()) {
-      host.addTag(new BytecodeOffsetTag(codeAddress));
+      host.addTag(TagInterner.bytecodeOffset(codeAddress));
     }
   }
 
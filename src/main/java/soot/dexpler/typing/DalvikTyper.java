@@ -56,12 +56,14 @@ import soot.ByteType;
 import soot.CharType;
 import soot.DoubleType;
 import soot.FloatType;
+import soot.G;
 import soot.IntType;
 import soot.Local;
 import soot.LongType;
 import soot.PrimType;
 import soot.RefType;
 import soot.ShortType;
+import soot.Singletons;
 import soot.Type;
 import soot.Unit;
 import soot.UnknownType;
@@ -114,8 +116,6 @@ import soot.toolkits.scalar.UnitValueBoxPair;
 
 public class DalvikTyper implements IDalvikTyper {
 
-  private static DalvikTyper dt = null;
-
   private Set<Constraint> constraints = new HashSet<Constraint>();
   private Map<ValueBox, Type> typed = new HashMap<ValueBox, Type>();
   private Map<Local, Type> localTyped = new HashMap<Local, Type>();
@@ -123,14 +123,11 @@ public class DalvikTyper implements IDalvikTyper {
   private List<LocalObj> localObjList = new ArrayList<LocalObj>();
   private Map<Local, List<LocalObj>> local2Obj = new HashMap<Local, List<LocalObj>>();
 
-  private DalvikTyper() {
+  public DalvikTyper(Singletons.Global g) {
   }
 
   public static DalvikTyper v() {
-    if (dt == null) {
-      dt = new DalvikTyper();
-    }
-    return dt;
+    return G.v().soot_dexpler_typing_DalvikTyper();
   }
 
   public void clear() {
@@ -22,7 +22,6 @@ package soot.jbco.util;
  * #L%
  */
 
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -43,9 +42,8 @@ public class SimpleExceptionalGraph extends TrapUnitGraph {
    */
   public SimpleExceptionalGraph(Body body) {
     super(body);
-    int size = unitChain.size();
-    unitToSuccs = new HashMap<Unit, List<Unit>>(size * 2 + 1, 0.7f);
-    unitToPreds = new HashMap<Unit, List<Unit>>(size * 2 + 1, 0.7f);
+    unitToSuccs = newUnitMap();
+    unitToPreds = newUnitMap();
     buildUnexceptionalEdges(unitToSuccs, unitToPreds);
     buildSimpleExceptionalEdges(unitToSuccs, unitToPreds);
 
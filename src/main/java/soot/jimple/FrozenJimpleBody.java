@@ -0,0 +1,131 @@
+package soot.jimple;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2026 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.Collection;
+import java.util.Iterator;
+
+import soot.AbstractUnit;
+import soot.Local;
+import soot.Trap;
+import soot.Unit;
+import soot.UnitPatchingChain;
+import soot.util.Chain;
+import soot.util.FrozenChain;
+
+/**
+ * A JimpleBody that cannot be modified, for runs that only analyze bodies once they have been built. Its units, locals and
+ * traps are kept in {@link FrozenChain}s, which are plain arrays, instead of hash-based chains with an object per element,
+ * and the units and locals are numbered by their positions, so that the chains need no lookup tables either.
+ *
+ * <p>
+ * All read-only operations, like iterating over the units, the successor and predecessor queries of the chains and the
+ * construction of unit graphs, work as for any other body. Every modification of the chains throws an
+ * {@link UnsupportedOperationException} before any jump has been redirected. Use {@link #clone()} to obtain a modifiable
+ * copy.
+ * </p>
+ */
+@SuppressWarnings("serial")
+public class FrozenJimpleBody extends JimpleBody {
+
+  /**
+   * Creates a frozen body that takes over the units, locals and traps of the given body, which is left empty. The units
+   * and locals themselves are not copied, so any references to them stay valid.
+   *
+   * @param body
+   *          the body to freeze
+   */
+  public FrozenJimpleBody(JimpleBody body) {
+    super(body.getMethodUnsafe());
+    this.unitChain = new FrozenUnitChain(new FrozenChain<Unit>(body.getUnits()));
+    this.localChain = new FrozenChain<Local>(body.getLocals());
+    this.trapChain = new FrozenChain<Trap>(body.getTraps());
+    addAllTagsOf(body);
+
+    for (Unit u : unitChain) {
+      if (u instanceof AbstractUnit) {
+        ((AbstractUnit) u).trimBoxesPointingToThis();
+      }
+    }
+    // Number the units and locals by their positions, which is what the frozen chains look for
+    getUnitNumbering();
+    getLocalNumbering();
+
+    // Release the chains of the given body, without redirecting any jumps
+    body.getUnits().getNonPatchingChain().clear();
+    body.getLocals().clear();
+    body.getTraps().clear();
+  }
+
+  /**
+   * Returns a frozen copy of the given body, or the body itself if it is already frozen. See
+   * {@link #FrozenJimpleBody(JimpleBody)}.
+   */
+  public static FrozenJimpleBody freeze(JimpleBody body) {
+    return (body instanceof FrozenJimpleBody) ? (FrozenJimpleBody) body : new FrozenJimpleBody(body);
+  }
+
+  /**
+   * A unit chain on a {@link FrozenChain} that fails on modifications before it patches any jumps.
+   */
+  private static class FrozenUnitChain extends UnitPatchingChain {
+
+    FrozenUnitChain(Chain<Unit> aChain) {
+      super(aChain);
+    }
+
+    private static UnsupportedOperationException frozen() {
+      return new UnsupportedOperationException("Cannot modify a frozen body");
+    }
+
+    @Override
+    public void insertBefore(Unit toInsert, Unit point) {
+      throw frozen();
+    }
+
+    @Override
+    public boolean remove(Object obj) {
+      throw frozen();
+    }
+
+    @Override
+    public void insertOnEdge(Collection<? extends Unit> toInsert, Unit point_src, Unit point_tgt) {
+      throw frozen();
+    }
+
+    @Override
+    public Iterator<Unit> iterator() {
+      return innerChain.iterator();
+    }
+
+    @Override
+    public Iterator<Unit> iterator(Unit u) {
+      return innerChain.iterator(u);
+    }
+
+    @Override
+    public Iterator<Unit> iterator(Unit head, Unit tail) {
+      return innerChain.iterator(head, tail);
+    }
+  }
+}
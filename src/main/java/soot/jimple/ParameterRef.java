@@ -25,6 +25,7 @@ package soot.jimple;
 import java.util.Collections;
 import java.util.List;
 
+import soot.BodyAnalysisCache;
 import soot.Type;
 import soot.UnitPrinter;
 import soot.ValueBox;
@@ -79,6 +80,7 @@ public class ParameterRef implements IdentityRef {
   /** Sets the index of this ParameterRef. */
   public void setIndex(int index) {
     n = index;
+    BodyAnalysisCache.contentsModified();
   }
 
   @Override
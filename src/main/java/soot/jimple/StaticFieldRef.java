@@ -26,6 +26,7 @@ package soot.jimple;
 import java.util.Collections;
 import java.util.List;
 
+import soot.BodyAnalysisCache;
 import soot.SootField;
 import soot.SootFieldRef;
 import soot.Type;
@@ -64,6 +65,7 @@ public class StaticFieldRef implements FieldRef, ConvertToBaf {
 
   public void setFieldRef(SootFieldRef fieldRef) {
     this.fieldRef = fieldRef;
+    BodyAnalysisCache.contentsModified();
   }
 
   public SootField getField() {
@@ -24,6 +24,7 @@ package soot.jimple.internal;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 import soot.BooleanType;
 import soot.ByteType;
@@ -99,6 +100,14 @@ public abstract class AbstractBinopExpr implements Expr {
     return list;
   }
 
+  @Override
+  public final void forEachUseBox(Consumer<? super ValueBox> action) {
+    op1Box.getValue().forEachUseBox(action);
+    action.accept(op1Box);
+    op2Box.getValue().forEachUseBox(action);
+    action.accept(op2Box);
+  }
+
   @Override
   public boolean equivTo(Object o) {
     if (o instanceof AbstractBinopExpr) {
@@ -24,8 +24,10 @@ package soot.jimple.internal;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 import soot.ArrayType;
+import soot.BodyAnalysisCache;
 import soot.RefType;
 import soot.Type;
 import soot.Unit;
@@ -116,6 +118,12 @@ public abstract class AbstractCastExpr implements CastExpr, ConvertToBaf {
     return list;
   }
 
+  @Override
+  public final void forEachUseBox(Consumer<? super ValueBox> action) {
+    opBox.getValue().forEachUseBox(action);
+    action.accept(opBox);
+  }
+
   @Override
   public Type getCastType() {
     return type;
@@ -124,6 +132,7 @@ public abstract class AbstractCastExpr implements CastExpr, ConvertToBaf {
   @Override
   public void setCastType(Type castType) {
     this.type = castType;
+    BodyAnalysisCache.contentsModified();
   }
 
   @Override
@@ -25,6 +25,7 @@ package soot.jimple.internal;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Consumer;
 
 import soot.Value;
 import soot.ValueBox;
@@ -66,6 +67,11 @@ public abstract class AbstractDefinitionStmt extends AbstractStmt implements Def
     return Collections.singletonList(leftBox);
   }
 
+  @Override
+  public final void forEachDefBox(Consumer<? super ValueBox> action) {
+    action.accept(leftBox);
+  }
+
   @Override
   public List<ValueBox> getUseBoxes() {
     List<ValueBox> list = new ArrayList<ValueBox>();
@@ -75,6 +81,13 @@ public abstract class AbstractDefinitionStmt extends AbstractStmt implements Def
     return list;
   }
 
+  @Override
+  public void forEachUseBox(Consumer<? super ValueBox> action) {
+    getLeftOp().forEachUseBox(action);
+    action.accept(rightBox);
+    getRightOp().forEachUseBox(action);
+  }
+
   @Override
   public boolean fallsThrough() {
     return true;
@@ -25,7 +25,9 @@ package soot.jimple.internal;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
+import soot.BodyAnalysisCache;
 import soot.SootField;
 import soot.SootFieldRef;
 import soot.Type;
@@ -90,6 +92,7 @@ public abstract class AbstractInstanceFieldRef implements InstanceFieldRef, Conv
 
   public void setFieldRef(SootFieldRef fieldRef) {
     this.fieldRef = fieldRef;
+    BodyAnalysisCache.contentsModified();
   }
 
   public SootField getField() {
@@ -106,6 +109,12 @@ public abstract class AbstractInstanceFieldRef implements InstanceFieldRef, Conv
     return useBoxes;
   }
 
+  @Override
+  public final void forEachUseBox(Consumer<? super ValueBox> action) {
+    baseBox.getValue().forEachUseBox(action);
+    action.accept(baseBox);
+  }
+
   public Type getType() {
     return fieldRef.type();
   }
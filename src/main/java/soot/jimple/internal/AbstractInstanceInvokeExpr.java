@@ -25,6 +25,7 @@ package soot.jimple.internal;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Consumer;
 
 import soot.SootMethodRef;
 import soot.Value;
@@ -70,4 +71,19 @@ public abstract class AbstractInstanceInvokeExpr extends AbstractInvokeExpr impl
 
     return list;
   }
+
+  @Override
+  public void forEachUseBox(Consumer<? super ValueBox> action) {
+    baseBox.getValue().forEachUseBox(action);
+    action.accept(baseBox);
+
+    if (argBoxes != null) {
+      for (ValueBox element : argBoxes) {
+        action.accept(element);
+      }
+      for (ValueBox element : argBoxes) {
+        element.getValue().forEachUseBox(action);
+      }
+    }
+  }
 }
@@ -24,7 +24,9 @@ package soot.jimple.internal;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
+import soot.BodyAnalysisCache;
 import soot.BooleanType;
 import soot.Type;
 import soot.UnitPrinter;
@@ -98,6 +100,12 @@ public abstract class AbstractInstanceOfExpr implements InstanceOfExpr {
     return list;
   }
 
+  @Override
+  public final void forEachUseBox(Consumer<? super ValueBox> action) {
+    opBox.getValue().forEachUseBox(action);
+    action.accept(opBox);
+  }
+
   @Override
   public Type getType() {
     return BooleanType.v();
@@ -111,6 +119,7 @@ public abstract class AbstractInstanceOfExpr implements InstanceOfExpr {
   @Override
   public void setCheckType(Type checkType) {
     this.checkType = checkType;
+    BodyAnalysisCache.contentsModified();
   }
 
   @Override
@@ -26,7 +26,9 @@ package soot.jimple.internal;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Consumer;
 
+import soot.BodyAnalysisCache;
 import soot.SootMethod;
 import soot.SootMethodRef;
 import soot.Type;
@@ -48,6 +50,7 @@ public abstract class AbstractInvokeExpr implements InvokeExpr {
   @Override
   public void setMethodRef(SootMethodRef methodRef) {
     this.methodRef = methodRef;
+    BodyAnalysisCache.contentsModified();
   }
 
   @Override
@@ -121,4 +124,17 @@ public abstract class AbstractInvokeExpr implements InvokeExpr {
     }
     return list;
   }
+
+  @Override
+  public void forEachUseBox(Consumer<? super ValueBox> action) {
+    final ValueBox[] boxes = argBoxes;
+    if (boxes != null) {
+      for (ValueBox element : boxes) {
+        action.accept(element);
+      }
+      for (ValueBox element : boxes) {
+        element.getValue().forEachUseBox(action);
+      }
+    }
+  }
 }
@@ -24,8 +24,10 @@ package soot.jimple.internal;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 import soot.ArrayType;
+import soot.BodyAnalysisCache;
 import soot.Type;
 import soot.Unit;
 import soot.UnitPrinter;
@@ -96,6 +98,7 @@ public abstract class AbstractNewArrayExpr implements NewArrayExpr, ConvertToBaf
   @Override
   public void setBaseType(Type type) {
     baseType = type;
+    BodyAnalysisCache.contentsModified();
   }
 
   @Override
@@ -120,6 +123,12 @@ public abstract class AbstractNewArrayExpr implements NewArrayExpr, ConvertToBaf
     return useBoxes;
   }
 
+  @Override
+  public final void forEachUseBox(Consumer<? super ValueBox> action) {
+    sizeBox.getValue().forEachUseBox(action);
+    action.accept(sizeBox);
+  }
+
   @Override
   public Type getType() {
     if (baseType instanceof ArrayType) {
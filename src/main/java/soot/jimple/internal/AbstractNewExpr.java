@@ -25,6 +25,7 @@ package soot.jimple.internal;
 import java.util.Collections;
 import java.util.List;
 
+import soot.BodyAnalysisCache;
 import soot.RefType;
 import soot.Type;
 import soot.UnitPrinter;
@@ -76,6 +77,7 @@ public abstract class AbstractNewExpr implements NewExpr {
   @Override
   public void setBaseType(RefType type) {
     this.type = type;
+    BodyAnalysisCache.contentsModified();
   }
 
   @Override
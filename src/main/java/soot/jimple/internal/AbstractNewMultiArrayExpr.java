@@ -25,8 +25,10 @@ package soot.jimple.internal;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Consumer;
 
 import soot.ArrayType;
+import soot.BodyAnalysisCache;
 import soot.Type;
 import soot.Unit;
 import soot.UnitPrinter;
@@ -107,6 +109,7 @@ public abstract class AbstractNewMultiArrayExpr implements NewMultiArrayExpr, Co
   @Override
   public void setBaseType(ArrayType baseType) {
     this.baseType = baseType;
+    BodyAnalysisCache.contentsModified();
   }
 
   @Override
@@ -149,6 +152,16 @@ public abstract class AbstractNewMultiArrayExpr implements NewMultiArrayExpr, Co
     return list;
   }
 
+  @Override
+  public final void forEachUseBox(Consumer<? super ValueBox> action) {
+    for (ValueBox element : sizeBoxes) {
+      action.accept(element);
+    }
+    for (ValueBox element : sizeBoxes) {
+      element.getValue().forEachUseBox(action);
+    }
+  }
+
   @Override
   public Type getType() {
     return baseType;
@@ -24,6 +24,7 @@ package soot.jimple.internal;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 import soot.Value;
 import soot.ValueBox;
@@ -55,4 +56,10 @@ public abstract class AbstractOpStmt extends AbstractStmt {
     list.add(opBox);
     return list;
   }
+
+  @Override
+  public final void forEachUseBox(Consumer<? super ValueBox> action) {
+    opBox.getValue().forEachUseBox(action);
+    action.accept(opBox);
+  }
 }
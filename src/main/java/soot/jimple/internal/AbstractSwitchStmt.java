@@ -26,6 +26,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.ListIterator;
+import java.util.function.Consumer;
 import java.util.function.Function;
 
 import soot.Unit;
@@ -101,6 +102,12 @@ public abstract class AbstractSwitchStmt extends AbstractStmt implements SwitchS
     return list;
   }
 
+  @Override
+  public final void forEachUseBox(Consumer<? super ValueBox> action) {
+    keyBox.getValue().forEachUseBox(action);
+    action.accept(keyBox);
+  }
+
   final public int getTargetCount() {
     return targetBoxes.length;
   }
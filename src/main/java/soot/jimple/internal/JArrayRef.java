@@ -24,6 +24,7 @@ package soot.jimple.internal;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 import soot.ArrayType;
 import soot.Local;
@@ -133,6 +134,14 @@ public class JArrayRef implements ArrayRef, ConvertToBaf {
     return useBoxes;
   }
 
+  @Override
+  public void forEachUseBox(Consumer<? super ValueBox> action) {
+    baseBox.getValue().forEachUseBox(action);
+    action.accept(baseBox);
+    indexBox.getValue().forEachUseBox(action);
+    action.accept(indexBox);
+  }
+
   @Override
   public Type getType() {
     Type type = baseBox.getValue().getType();
@@ -25,6 +25,7 @@ package soot.jimple.internal;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Consumer;
 
 import soot.Unit;
 import soot.UnitBox;
@@ -128,6 +129,12 @@ public class JIfStmt extends AbstractStmt implements IfStmt, BranchableStmt {
     return useBoxes;
   }
 
+  @Override
+  public void forEachUseBox(Consumer<? super ValueBox> action) {
+    conditionBox.getValue().forEachUseBox(action);
+    action.accept(conditionBox);
+  }
+
   @Override
   public final List<UnitBox> getUnitBoxes() {
     return targetBoxes;
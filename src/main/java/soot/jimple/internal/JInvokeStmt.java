@@ -24,6 +24,7 @@ package soot.jimple.internal;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 import soot.Type;
 import soot.Unit;
@@ -94,6 +95,12 @@ public class JInvokeStmt extends AbstractStmt implements InvokeStmt {
     return list;
   }
 
+  @Override
+  public void forEachUseBox(Consumer<? super ValueBox> action) {
+    invokeExprBox.getValue().forEachUseBox(action);
+    action.accept(invokeExprBox);
+  }
+
   @Override
   public void apply(Switch sw) {
     ((StmtSwitch) sw).caseInvokeStmt(this);
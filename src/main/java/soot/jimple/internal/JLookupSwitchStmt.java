@@ -27,6 +27,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.ListIterator;
 
+import soot.BodyAnalysisCache;
 import soot.Unit;
 import soot.UnitBox;
 import soot.UnitPrinter;
@@ -126,12 +127,16 @@ public class JLookupSwitchStmt extends AbstractSwitchStmt implements LookupSwitc
 
   @Override
   public void setLookupValues(List<IntConstant> lookupValues) {
+    if (this.lookupValues != null) {
+      BodyAnalysisCache.contentsModified();
+    }
     this.lookupValues = new ArrayList<IntConstant>(lookupValues);
   }
 
   @Override
   public void setLookupValue(int index, int value) {
     lookupValues.set(index, IntConstant.v(value));
+    BodyAnalysisCache.contentsModified();
   }
 
   @Override
@@ -25,6 +25,7 @@ package soot.jimple.internal;
 import java.util.ArrayList;
 import java.util.List;
 
+import soot.BodyAnalysisCache;
 import soot.Unit;
 import soot.UnitBox;
 import soot.UnitPrinter;
@@ -136,11 +137,13 @@ public class JTableSwitchStmt extends AbstractSwitchStmt implements TableSwitchS
   @Override
   public void setLowIndex(int lowIndex) {
     this.lowIndex = lowIndex;
+    BodyAnalysisCache.contentsModified();
   }
 
   @Override
   public void setHighIndex(int highIndex) {
     this.highIndex = highIndex;
+    BodyAnalysisCache.contentsModified();
   }
 
   @Override
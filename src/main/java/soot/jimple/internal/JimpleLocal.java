@@ -25,6 +25,7 @@ package soot.jimple.internal;
 import java.util.Collections;
 import java.util.List;
 
+import soot.BodyAnalysisCache;
 import soot.Local;
 import soot.Type;
 import soot.Unit;
@@ -96,6 +97,9 @@ public class JimpleLocal implements Local, ConvertToBaf {
   /** Sets the type of this local. */
   @Override
   public void setType(Type t) {
+    if (this.type != null) {
+      BodyAnalysisCache.contentsModified();
+    }
     this.type = t;
   }
 
@@ -129,6 +129,98 @@ public class MethodNodeFactory extends AbstractShimpleValueSwitch {
     return getNode();
   }
 
+  /**
+   * Adds the edges for a single statement. It does not depend on the statement being handled, so it is created once rather
+   * than for every statement.
+   */
+  private final AbstractStmtSwitch<Node> stmtSwitch = new AbstractStmtSwitch<Node>() {
+    @Override
+    final public void caseAssignStmt(AssignStmt as) {
+      Value l = as.getLeftOp();
+      Value r = as.getRightOp();
+      if (!(l.getType() instanceof RefLikeType)) {
+        return;
+      }
+      assert r.getType() instanceof RefLikeType : "Type mismatch in assignment " + as + " in method "
+          + method.getSignature();
+      l.apply(MethodNodeFactory.this);
+      Node dest = getNode();
+      r.apply(MethodNodeFactory.this);
+      Node src = getNode();
+      if (l instanceof InstanceFieldRef) {
+        ((InstanceFieldRef) l).getBase().apply(MethodNodeFactory.this);
+        pag.addDereference((VarNode) getNode());
+      }
+      if (r instanceof InstanceFieldRef) {
+        ((InstanceFieldRef) r).getBase().apply(MethodNodeFactory.this);
+        pag.addDereference((VarNode) getNode());
+      } else if (r instanceof StaticFieldRef) {
+        StaticFieldRef sfr = (StaticFieldRef) r;
+        SootFieldRef s = sfr.getFieldRef();
+        if (pag.getOpts().empties_as_allocs()) {
+          if (s.declaringClass().getName().equals("java.util.Collections")) {
+            if (s.name().equals("EMPTY_SET")) {
+              src = pag.makeAllocNode(rtHashSet, rtHashSet, method);
+            } else if (s.name().equals("EMPTY_MAP")) {
+              src = pag.makeAllocNode(rtHashMap, rtHashMap, method);
+            } else if (s.name().equals("EMPTY_LIST")) {
+              src = pag.makeAllocNode(rtLinkedList, rtLinkedList, method);
+            }
+          } else if (s.declaringClass().getName().equals("java.util.Hashtable")) {
+            if (s.name().equals("emptyIterator")) {
+              src = pag.makeAllocNode(rtHashtableEmptyIterator, rtHashtableEmptyIterator, method);
+            } else if (s.name().equals("emptyEnumerator")) {
+              src = pag.makeAllocNode(rtHashtableEmptyEnumerator, rtHashtableEmptyEnumerator, method);
+            }
+          }
+        }
+      }
+      mpag.addInternalEdge(src, dest);
+    }
+
+    @Override
+    final public void caseReturnStmt(ReturnStmt rs) {
+      if (!(rs.getOp().getType() instanceof RefLikeType)) {
+        return;
+      }
+      rs.getOp().apply(MethodNodeFactory.this);
+      Node retNode = getNode();
+      mpag.addInternalEdge(retNode, caseRet());
+    }
+
+    @Override
+    final public void caseIdentityStmt(IdentityStmt is) {
+      if (!(is.getLeftOp().getType() instanceof RefLikeType)) {
+        return;
+      }
+      Value leftOp = is.getLeftOp();
+      Value rightOp = is.getRightOp();
+      leftOp.apply(MethodNodeFactory.this);
+      Node dest = getNode();
+      rightOp.apply(MethodNodeFactory.this);
+      Node src = getNode();
+      mpag.addInternalEdge(src, dest);
+
+      // in case library mode is activated add allocations to any
+      // possible type of this local and
+      // parameters of accessible methods
+      int libOption = pag.getCGOpts().library();
+      if (libOption != CGOptions.library_disabled && (accessibilityOracle.isAccessible(method))) {
+        if (rightOp instanceof IdentityRef) {
+          Type rt = rightOp.getType();
+          rt.apply(new SparkLibraryHelper(pag, src, method));
+        }
+      }
+
+    }
+
+    @Override
+    final public void caseThrowStmt(ThrowStmt ts) {
+      ts.getOp().apply(MethodNodeFactory.this);
+      mpag.addOutEdge(getNode(), pag.nodeFactory().caseThrow());
+    }
+  };
+
   /** Adds the edges required for this statement to the graph. */
   final public void handleStmt(Stmt s) {
     // We only consider reflective class creation when it is enabled
@@ -147,93 +239,7 @@ public class MethodNodeFactory extends AbstractShimpleValueSwitch {
       }
     }
 
-    s.apply(new AbstractStmtSwitch<Node>() {
-      @Override
-      final public void caseAssignStmt(AssignStmt as) {
-        Value l = as.getLeftOp();
-        Value r = as.getRightOp();
-        if (!(l.getType() instanceof RefLikeType)) {
-          return;
-        }
-        assert r.getType() instanceof RefLikeType : "Type mismatch in assignment " + as + " in method "
-            + method.getSignature();
-        l.apply(MethodNodeFactory.this);
-        Node dest = getNode();
-        r.apply(MethodNodeFactory.this);
-        Node src = getNode();
-        if (l instanceof InstanceFieldRef) {
-          ((InstanceFieldRef) l).getBase().apply(MethodNodeFactory.this);
-          pag.addDereference((VarNode) getNode());
-        }
-        if (r instanceof InstanceFieldRef) {
-          ((InstanceFieldRef) r).getBase().apply(MethodNodeFactory.this);
-          pag.addDereference((VarNode) getNode());
-        } else if (r instanceof StaticFieldRef) {
-          StaticFieldRef sfr = (StaticFieldRef) r;
-          SootFieldRef s = sfr.getFieldRef();
-          if (pag.getOpts().empties_as_allocs()) {
-            if (s.declaringClass().getName().equals("java.util.Collections")) {
-              if (s.name().equals("EMPTY_SET")) {
-                src = pag.makeAllocNode(rtHashSet, rtHashSet, method);
-              } else if (s.name().equals("EMPTY_MAP")) {
-                src = pag.makeAllocNode(rtHashMap, rtHashMap, method);
-              } else if (s.name().equals("EMPTY_LIST")) {
-                src = pag.makeAllocNode(rtLinkedList, rtLinkedList, method);
-              }
-            } else if (s.declaringClass().getName().equals("java.util.Hashtable")) {
-              if (s.name().equals("emptyIterator")) {
-                src = pag.makeAllocNode(rtHashtableEmptyIterator, rtHashtableEmptyIterator, method);
-              } else if (s.name().equals("emptyEnumerator")) {
-                src = pag.makeAllocNode(rtHashtableEmptyEnumerator, rtHashtableEmptyEnumerator, method);
-              }
-            }
-          }
-        }
-        mpag.addInternalEdge(src, dest);
-      }
-
-      @Override
-      final public void caseReturnStmt(ReturnStmt rs) {
-        if (!(rs.getOp().getType() instanceof RefLikeType)) {
-          return;
-        }
-        rs.getOp().apply(MethodNodeFactory.this);
-        Node retNode = getNode();
-        mpag.addInternalEdge(retNode, caseRet());
-      }
-
-      @Override
-      final public void caseIdentityStmt(IdentityStmt is) {
-        if (!(is.getLeftOp().getType() instanceof RefLikeType)) {
-          return;
-        }
-        Value leftOp = is.getLeftOp();
-        Value rightOp = is.getRightOp();
-        leftOp.apply(MethodNodeFactory.this);
-        Node dest = getNode();
-        rightOp.apply(MethodNodeFactory.this);
-        Node src = getNode();
-        mpag.addInternalEdge(src, dest);
-
-        // in case library mode is activated add allocations to any
-        // possible type of this local and
-        // parameters of accessible methods
-        int libOption = pag.getCGOpts().library();
-        if (libOption != CGOptions.library_disabled && (accessibilityOracle.isAccessible(method))) {
-          if (rightOp instanceof IdentityRef) {
-            Type rt = rightOp.getType();
-            rt.apply(new SparkLibraryHelper(pag, src, method));
-          }
-        }
-
-      }
-
-      @Override
-      final public void caseThrowStmt(ThrowStmt ts) {
-        ts.getOp().apply(MethodNodeFactory.this);
-        mpag.addOutEdge(getNode(), pag.nodeFactory().caseThrow());
-      }
-    });
+    s.apply(stmtSwitch);
   }
 
   /**
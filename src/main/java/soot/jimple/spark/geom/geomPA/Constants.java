@@ -22,9 +22,6 @@ package soot.jimple.spark.geom.geomPA;
  * #L%
  */
 
-import soot.RefType;
-import soot.Scene;
-
 /**
  * Named constants used in the geomPA.
  * 
@@ -57,9 +54,6 @@ public class Constants {
   // Using big integer would not bring too many benefits.
   public static final long MAX_CONTEXTS = Long.MAX_VALUE - 1;
 
-  // Some commonly referred to information
-  public static final RefType exeception_type = Scene.v().getBaseExceptionType();
-
   // The seed pointers for running constraints distillation
   public static final int seedPts_allUser = 0x0000000f;
   public static final int seedPts_all = 0x7fffffff;
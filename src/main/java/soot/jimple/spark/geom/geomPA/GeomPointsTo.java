@@ -1708,7 +1708,7 @@ public class GeomPointsTo extends PAG {
     if (v.getType() instanceof RefType) {
       SootClass sc = ((RefType) v.getType()).getSootClass();
       if (!sc.isInterface()
-          && Scene.v().getActiveHierarchy().isClassSubclassOfIncluding(sc, Constants.exeception_type.getSootClass())) {
+          && Scene.v().getActiveHierarchy().isClassSubclassOfIncluding(sc, Scene.v().getBaseExceptionType().getSootClass())) {
         return true;
       }
     }
@@ -36,7 +36,6 @@ import soot.tagkit.ColorTag;
 import soot.tagkit.StringTag;
 import soot.toolkits.graph.ExceptionalUnitGraphFactory;
 import soot.toolkits.scalar.LiveLocals;
-import soot.toolkits.scalar.SimpleLiveLocals;
 
 public class LiveVarsTagger extends BodyTransformer {
 
@@ -49,7 +48,7 @@ public class LiveVarsTagger extends BodyTransformer {
 
   protected void internalTransform(Body b, String phaseName, Map options) {
 
-    LiveLocals sll = new SimpleLiveLocals(ExceptionalUnitGraphFactory.createExceptionalUnitGraph(b));
+    LiveLocals sll = LiveLocals.Factory.newLiveLocals(ExceptionalUnitGraphFactory.createExceptionalUnitGraph(b));
 
     Iterator it = b.getUnits().iterator();
     while (it.hasNext()) {
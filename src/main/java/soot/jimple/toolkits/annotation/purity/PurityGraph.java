@@ -32,6 +32,7 @@ import java.util.Set;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import soot.G;
 import soot.Local;
 import soot.RefLikeType;
 import soot.SootMethod;
@@ -79,10 +80,6 @@ public class PurityGraph {
   private static final Logger logger = LoggerFactory.getLogger(PurityGraph.class);
   public static final boolean doCheck = false;
 
-  // Caching: this seems to actually improve both speed and memory consumption!
-  private static final Map<PurityNode, PurityNode> nodeCache = new HashMap<PurityNode, PurityNode>();
-  private static final Map<PurityEdge, PurityEdge> edgeCache = new HashMap<PurityEdge, PurityEdge>();
-
   // A parameter (or this) can be: - read and write - read only - safe (read only & no externally visible alias is created)
   static final int PARAM_RW = 0;
   static final int PARAM_RO = 1;
@@ -166,7 +163,9 @@ public class PurityGraph {
         && mutated.equals(g.mutated);
   }
 
+  // Caching: this seems to actually improve both speed and memory consumption!
   private static PurityNode cacheNode(PurityNode p) {
+    final Map<PurityNode, PurityNode> nodeCache = G.v().PurityGraph_nodeCache;
     if (!nodeCache.containsKey(p)) {
       nodeCache.put(p, p);
     }
@@ -174,6 +173,7 @@ public class PurityGraph {
   }
 
   private static PurityEdge cacheEdge(PurityEdge e) {
+    final Map<PurityEdge, PurityEdge> edgeCache = G.v().PurityGraph_edgeCache;
     if (!edgeCache.containsKey(e)) {
       edgeCache.put(e, e);
     }
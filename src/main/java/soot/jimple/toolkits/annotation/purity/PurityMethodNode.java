@@ -22,9 +22,9 @@ package soot.jimple.toolkits.annotation.purity;
  * #L%
  */
 
-import java.util.HashMap;
 import java.util.Map;
 
+import soot.G;
 import soot.SootMethod;
 
 /**
@@ -33,24 +33,21 @@ import soot.SootMethod;
  */
 public class PurityMethodNode implements PurityNode {
 
-  /** gives a unique id, for pretty-printing purposes */
-  private static final Map<SootMethod, Integer> nMap = new HashMap<SootMethod, Integer>();
-  private static int n = 0;
-
   /** Method that created the node */
   private SootMethod id;
 
   PurityMethodNode(SootMethod id) {
     this.id = id;
+    // gives a unique id, for pretty-printing purposes
+    final Map<SootMethod, Integer> nMap = G.v().PurityMethodNode_nMap;
     if (!nMap.containsKey(id)) {
-      nMap.put(id, n);
-      n++;
+      nMap.put(id, nMap.size());
     }
   }
 
   @Override
   public String toString() {
-    return "M_" + nMap.get(id);
+    return "M_" + G.v().PurityMethodNode_nMap.get(id);
   }
 
   @Override
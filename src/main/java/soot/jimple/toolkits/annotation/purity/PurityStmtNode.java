@@ -22,9 +22,9 @@ package soot.jimple.toolkits.annotation.purity;
  * #L%
  */
 
-import java.util.HashMap;
 import java.util.Map;
 
+import soot.G;
 import soot.jimple.Stmt;
 
 /**
@@ -34,10 +34,6 @@ import soot.jimple.Stmt;
  */
 public class PurityStmtNode implements PurityNode {
 
-  /** gives a unique id, for pretty-printing purposes */
-  private static final Map<Stmt, Integer> nMap = new HashMap<Stmt, Integer>();
-  private static int n = 0;
-
   /** Statement that created the node */
   private final Stmt id;
 
@@ -47,15 +43,17 @@ public class PurityStmtNode implements PurityNode {
   PurityStmtNode(Stmt id, boolean inside) {
     this.id = id;
     this.inside = inside;
+    // gives a unique id, for pretty-printing purposes
+    final Map<Stmt, Integer> nMap = G.v().PurityStmtNode_nMap;
     if (!nMap.containsKey(id)) {
-      nMap.put(id, n);
-      n++;
+      nMap.put(id, nMap.size());
     }
   }
 
   @Override
   public String toString() {
-    return inside ? ("I_" + nMap.get(id)) : ("L_" + nMap.get(id));
+    final Integer n = G.v().PurityStmtNode_nMap.get(id);
+    return inside ? ("I_" + n) : ("L_" + n);
   }
 
   @Override
@@ -127,8 +127,6 @@ public class OnFlyCallGraphBuilder {
   private static final Logger logger = LoggerFactory.getLogger(OnFlyCallGraphBuilder.class);
 
   // NOTE: this field must be static to avoid adding the transformation again if the call graph is rebuilt.
-  static boolean registeredGuardsTransformation = false;
-
   private static final PrimType[] CHAR_NARROWINGS;
   private static final PrimType[] INT_NARROWINGS;
   private static final PrimType[] SHORT_NARROWINGS;
@@ -1334,8 +1332,7 @@ public class OnFlyCallGraphBuilder {
         }
       }
 
-      if (!registeredGuardsTransformation) {
-        registeredGuardsTransformation = true;
+      if (!PackManager.v().hasPhase("wjap.guards")) {
         PackManager.v().getPack("wjap").add(new Transform("wjap.guards", new SceneTransformer() {
 
           @Override
@@ -22,10 +22,12 @@ package soot.jimple.toolkits.scalar;
  * #L%
  */
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -145,9 +147,15 @@ public class CopyPropagator extends BodyTransformer {
       boolean onlyStackLocals = options.only_stack_locals();
       boolean allLocals = onlyRegularLocals && onlyStackLocals;
 
-      // Perform a local propagation pass.
+      // Perform a local propagation pass. The use boxes of each unit are collected into the same list before any of them
+      // is changed.
+      final List<ValueBox> useBoxes = new ArrayList<ValueBox>();
+      final Consumer<ValueBox> addUseBox = useBoxes::add;
       for (Unit u : (new PseudoTopologicalOrderer<Unit>()).newList(graph, false)) {
-        for (ValueBox useBox : u.getUseBoxes()) {
+        useBoxes.clear();
+        u.forEachUseBox(addUseBox);
+        for (int i = 0, e = useBoxes.size(); i < e; i++) {
+          final ValueBox useBox = useBoxes.get(i);
           Value value = useBox.getValue();
           if (value instanceof Local) {
             Local l = (Local) value;
@@ -27,6 +27,7 @@ import java.util.HashSet;
 import java.util.List;
 
 import soot.EquivalentValue;
+import soot.G;
 import soot.MethodOrMethodContext;
 import soot.SootMethod;
 import soot.Unit;
@@ -34,8 +35,6 @@ import soot.Value;
 import soot.jimple.toolkits.pointer.CodeBlockRWSet;
 
 class CriticalSection extends SynchronizedRegion {
-  public static int nextIDNum = 1;
-
   // Information about the transactional region
   public int IDNum;
   public int nestLevel;
@@ -65,8 +64,7 @@ class CriticalSection extends SynchronizedRegion {
 
   CriticalSection(boolean wholeMethod, SootMethod method, int nestLevel) {
     super();
-    this.IDNum = nextIDNum;
-    nextIDNum++;
+    this.IDNum = G.v().CriticalSection_nextIDNum++;
     this.nestLevel = nestLevel;
     this.read = new CodeBlockRWSet();
     this.write = new CodeBlockRWSet();
@@ -35,11 +35,13 @@ import org.slf4j.LoggerFactory;
 import soot.Body;
 import soot.BodyTransformer;
 import soot.EquivalentValue;
+import soot.G;
 import soot.Local;
 import soot.Modifier;
 import soot.PatchingChain;
 import soot.RefType;
 import soot.Scene;
+import soot.Singletons;
 import soot.SootClass;
 import soot.SootField;
 import soot.SootMethod;
@@ -63,18 +65,16 @@ import soot.util.Chain;
 
 public class LockAllocationBodyTransformer extends BodyTransformer {
   private static final Logger logger = LoggerFactory.getLogger(LockAllocationBodyTransformer.class);
-  private static final LockAllocationBodyTransformer instance = new LockAllocationBodyTransformer();
 
-  private LockAllocationBodyTransformer() {
+  public LockAllocationBodyTransformer(Singletons.Global g) {
   }
 
   public static LockAllocationBodyTransformer v() {
-    return instance;
+    return G.v().soot_jimple_toolkits_thread_synchronization_LockAllocationBodyTransformer();
   }
 
-  private static boolean addedGlobalLockDefs = false;
-  private static int throwableNum = 0; // doesn't matter if not reinitialized
-  // to 0
+  private boolean addedGlobalLockDefs = false;
+  private int throwableNum = 0;
 
   protected void internalTransform(Body b, String phase, Map opts) {
     throw new RuntimeException("Not Supported");
@@ -553,7 +553,7 @@ public class LockAllocationBodyTransformer extends BodyTransformer {
     }
   }
 
-  static int baseLocalNum = 0;
+  private int baseLocalNum = 0;
 
   public InstanceFieldRef reconstruct(Body b, PatchingChain<Unit> units, InstanceFieldRef lock, Stmt insertBefore,
       boolean redirect) {
@@ -600,10 +600,10 @@ public class LockAllocationBodyTransformer extends BodyTransformer {
     return newLock;
   }
 
-  static int lockNumber = 0;
-  static Map<EquivalentValue, StaticFieldRef> lockEqValToLock = new HashMap<EquivalentValue, StaticFieldRef>();
+  private int lockNumber = 0;
+  private final Map<EquivalentValue, StaticFieldRef> lockEqValToLock = new HashMap<EquivalentValue, StaticFieldRef>();
 
-  static public Value getLockFor(EquivalentValue lockEqVal) {
+  public Value getLockFor(EquivalentValue lockEqVal) {
     Value lock = lockEqVal.getValue();
 
     if (lock instanceof InstanceFieldRef) {
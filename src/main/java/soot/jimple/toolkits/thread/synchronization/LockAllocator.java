@@ -686,10 +686,10 @@ public class LockAllocator extends SceneTransformer {
 
     // Initialize method-named bins
     // this matrix is <# method names> wide and <max txns possible in one method> + 1 tall
-    int identMatrix[][] = new int[methodNames.length][CriticalSection.nextIDNum - methodNames.length + 2];
+    int identMatrix[][] = new int[methodNames.length][G.v().CriticalSection_nextIDNum - methodNames.length + 2];
     for (int i = 0; i < methodNames.length; i++) {
       identMatrix[i][0] = 0;
-      for (int j = 1; j < CriticalSection.nextIDNum - methodNames.length + 1; j++) {
+      for (int j = 1; j < G.v().CriticalSection_nextIDNum - methodNames.length + 1; j++) {
         identMatrix[i][j] = 50000;
       }
     }
@@ -34,6 +34,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import soot.EquivalentValue;
+import soot.G;
 import soot.Local;
 import soot.SootMethod;
 import soot.Unit;
@@ -84,7 +85,7 @@ public class LockableReferenceAnalysis extends BackwardFlowAnalysis<Unit, Lockse
   Map<Ref, EquivalentValue> refToBase;
   Map<Ref, EquivalentValue> refToIndex;
 
-  static Set<SootMethod> analyzing = new HashSet<SootMethod>();
+  final Set<SootMethod> analyzing = G.v().LockableReferenceAnalysis_analyzing;
 
   public LockableReferenceAnalysis(UnitGraph g) {
     super(g);
@@ -314,7 +315,7 @@ public class LockableReferenceAnalysis extends BackwardFlowAnalysis<Unit, Lockse
     if (lock instanceof ThisRef && ie instanceof InstanceInvokeExpr) {
       Value use = ((InstanceInvokeExpr) ie).getBase();
       if (!out.containsKey(new EquivalentValue(use))) {
-        int newGroup = groupNum++;
+        int newGroup = nextGroupNum();
         out.put(new EquivalentValue(use), newGroup);
         return newGroup;
       }
@@ -322,7 +323,7 @@ public class LockableReferenceAnalysis extends BackwardFlowAnalysis<Unit, Lockse
     } else if (lock instanceof ParameterRef) {
       Value use = ie.getArg(((ParameterRef) lock).getIndex());
       if (!out.containsKey(new EquivalentValue(use))) {
-        int newGroup = groupNum++;
+        int newGroup = nextGroupNum();
         out.put(new EquivalentValue(use), newGroup);
         return newGroup;
       }
@@ -330,7 +331,7 @@ public class LockableReferenceAnalysis extends BackwardFlowAnalysis<Unit, Lockse
     } else if (lock instanceof StaticFieldRef) {
       Value use = lock;
       if (!out.containsKey(new EquivalentValue(use))) {
-        int newGroup = groupNum++;
+        int newGroup = nextGroupNum();
         out.put(new EquivalentValue(use), newGroup);
         return newGroup;
       }
@@ -368,7 +369,7 @@ public class LockableReferenceAnalysis extends BackwardFlowAnalysis<Unit, Lockse
 
       Value use = lock;
       if (!out.containsKey(new EquivalentValue(use))) {
-        int newGroup = groupNum++;
+        int newGroup = nextGroupNum();
         out.put(new EquivalentValue(use), newGroup);
         return newGroup;
       }
@@ -421,7 +422,7 @@ public class LockableReferenceAnalysis extends BackwardFlowAnalysis<Unit, Lockse
 
       Value use = lock;
       if (!out.containsKey(new EquivalentValue(use))) {
-        int newGroup = groupNum++;
+        int newGroup = nextGroupNum();
         out.put(new EquivalentValue(use), newGroup);
         return newGroup;
       }
@@ -429,7 +430,7 @@ public class LockableReferenceAnalysis extends BackwardFlowAnalysis<Unit, Lockse
     } else if (lock instanceof Constant) {
       Value use = lock;
       if (!out.containsKey(new EquivalentValue(use))) {
-        int newGroup = groupNum++;
+        int newGroup = nextGroupNum();
         out.put(new EquivalentValue(use), newGroup);
         return newGroup;
       }
@@ -440,7 +441,9 @@ public class LockableReferenceAnalysis extends BackwardFlowAnalysis<Unit, Lockse
     return 0; // failure code... the only number that is never a valid group
   }
 
-  static int groupNum = 1;
+  private static int nextGroupNum() {
+    return G.v().LockableReferenceAnalysis_groupNum++;
+  }
 
   @Override
   protected void flowThrough(LocksetFlowInfo inInfo, Unit u, LocksetFlowInfo outInfo) {
@@ -582,7 +585,7 @@ public class LockableReferenceAnalysis extends BackwardFlowAnalysis<Unit, Lockse
           }
 
           if (!out.containsKey(new EquivalentValue(use))) {
-            out.put(new EquivalentValue(use), groupNum++);
+            out.put(new EquivalentValue(use), nextGroupNum());
           }
         }
       }
@@ -743,7 +746,7 @@ public class LockableReferenceAnalysis extends BackwardFlowAnalysis<Unit, Lockse
               if (out.containsKey(new EquivalentValue(oldbase))) {
                 baseGroup = out.get(new EquivalentValue(oldbase));
               } else {
-                baseGroup = new Integer(-(groupNum++));
+                baseGroup = new Integer(-nextGroupNum());
               }
               if (!outInfo.refToBaseGroup.containsKey(ifr)) {
                 outInfo.refToBaseGroup.put(ifr, baseGroup); // track relationship between ref and base group
@@ -766,7 +769,7 @@ public class LockableReferenceAnalysis extends BackwardFlowAnalysis<Unit, Lockse
               if (out.containsKey(new EquivalentValue(oldindex))) {
                 indexGroup = out.get(new EquivalentValue(oldindex));
               } else {
-                indexGroup = new Integer(-(groupNum++));
+                indexGroup = new Integer(-nextGroupNum());
               }
               if (!outInfo.refToIndexGroup.containsKey(ar)) {
                 outInfo.refToIndexGroup.put(ar, indexGroup); // track relationship between ref and index group
@@ -777,7 +780,7 @@ public class LockableReferenceAnalysis extends BackwardFlowAnalysis<Unit, Lockse
               if (out.containsKey(new EquivalentValue(oldbase))) {
                 baseGroup = out.get(new EquivalentValue(oldbase));
               } else {
-                baseGroup = new Integer(-(groupNum++));
+                baseGroup = new Integer(-nextGroupNum());
               }
               if (!outInfo.refToBaseGroup.containsKey(ar)) {
                 outInfo.refToBaseGroup.put(ar, baseGroup); // track relationship between ref and base group
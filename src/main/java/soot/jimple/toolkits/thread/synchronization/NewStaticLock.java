@@ -26,6 +26,7 @@ package soot.jimple.toolkits.thread.synchronization;
 import java.util.Collections;
 import java.util.List;
 
+import soot.G;
 import soot.NullType;
 import soot.SootClass;
 import soot.Type;
@@ -41,12 +42,11 @@ import soot.util.Switch;
 
 public class NewStaticLock implements Value {
   SootClass sc; // The class to which to add a static lock.
-  static int nextidnum = 1;
   int idnum;
 
   public NewStaticLock(SootClass sc) {
     this.sc = sc;
-    this.idnum = nextidnum++;
+    this.idnum = G.v().NewStaticLock_nextidnum++;
   }
 
   public SootClass getLockClass() {
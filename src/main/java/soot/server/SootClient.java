@@ -0,0 +1,145 @@
+package soot.server;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2026 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Submits jobs to a {@link SootServer} listening on the loopback interface. This can stand in for <code>soot.Main</code>
+ * in scripts:
+ *
+ * <pre>
+ * java -cp soot.jar soot.server.SootClient 4711 -pp -process-dir app.jar -f none
+ * </pre>
+ *
+ * The output of the job is printed, and the client exits with the exit status of the job. The secret of the server is read
+ * from {@link SootServer#defaultTokenFile(int)}, or from the file given with <code>-token-file &lt;file&gt;</code> before
+ * the port.
+ */
+public class SootClient {
+
+  private final int port;
+  private final File tokenFile;
+
+  /**
+   * Creates a client for the server on the given port that reads the secret of the server from
+   * {@link SootServer#defaultTokenFile(int)}.
+   */
+  public SootClient(int port) {
+    this(port, SootServer.defaultTokenFile(port));
+  }
+
+  /**
+   * Creates a client for the server on the given port that reads the secret of the server from the given file.
+   */
+  public SootClient(int port, File tokenFile) {
+    this.port = port;
+    this.tokenFile = tokenFile;
+  }
+
+  /**
+   * Opens a connection to the server and sends the secret.
+   */
+  private Socket connect() throws IOException {
+    final String token = SootServer.readToken(tokenFile);
+    final Socket socket = new Socket(InetAddress.getLoopbackAddress(), port);
+    try {
+      final Writer w = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8);
+      w.write(token);
+      w.write('\n');
+      w.flush();
+    } catch (IOException e) {
+      socket.close();
+      throw e;
+    }
+    return socket;
+  }
+
+  /**
+   * Runs the given Soot command line on the server, copies its output to the given stream and returns its exit status.
+   */
+  public int submit(String[] args, PrintStream out) throws IOException {
+    for (String arg : args) {
+      if (arg.isEmpty() || arg.indexOf('\n') >= 0 || arg.indexOf('\r') >= 0) {
+        throw new IllegalArgumentException("Cannot submit argument \"" + arg + "\"");
+      }
+    }
+    try (Socket socket = connect()) {
+      final Writer w = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8);
+      for (String arg : args) {
+        w.write(arg);
+        w.write('\n');
+      }
+      w.write('\n');
+      w.flush();
+
+      final BufferedReader in
+          = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+      for (String line; (line = in.readLine()) != null;) {
+        if (line.startsWith(SootServer.END_OF_JOB)) {
+          String result = line.substring(SootServer.END_OF_JOB.length());
+          return Integer.parseInt(result.substring(0, result.indexOf(' ')));
+        }
+        out.println(line);
+      }
+      throw new IOException("The server closed the connection before the job finished");
+    }
+  }
+
+  /**
+   * Stops the server.
+   */
+  public void shutdown() throws IOException {
+    try (Socket socket = connect()) {
+      final Writer w = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8);
+      w.write(SootServer.SHUTDOWN);
+      w.write('\n');
+      w.flush();
+    }
+  }
+
+  public static void main(String[] args) throws IOException {
+    final int first = (args.length >= 2 && "-token-file".equals(args[0])) ? 2 : 0;
+    if (args.length < first + 1) {
+      System.err.println("Usage: SootClient [-token-file <file>] <port> [-shutdown | <soot options>...]");
+      System.exit(2);
+    }
+    final int port = Integer.parseInt(args[first]);
+    final SootClient client = first == 0 ? new SootClient(port) : new SootClient(port, new File(args[1]));
+    if (args.length == first + 2 && "-shutdown".equals(args[first + 1])) {
+      client.shutdown();
+      return;
+    }
+    System.exit(client.submit(Arrays.copyOfRange(args, first + 1, args.length), System.out));
+  }
+}
@@ -0,0 +1,329 @@
+package soot.server;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2026 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import soot.CompilationDeathException;
+import soot.G;
+import soot.Main;
+import soot.OptionsParseException;
+
+/**
+ * Runs Soot as a long-lived local process that executes analysis jobs one after the other, so that JVM startup and JIT
+ * warm-up are paid only once. Every job is a regular Soot command line and runs with a freshly reset {@link G}, i.e., no
+ * state of the application analyzed by one job is visible to the next. Library classes are shared between jobs through
+ * <code>-shared-library</code>, which is added to every job, so that only the application classes are loaded again.
+ *
+ * <p>
+ * Jobs are read either from a socket on the loopback interface or from standard input, using a simple line-based protocol:
+ * a job consists of one command line argument per line and is terminated by an empty line. The server answers with the
+ * output of the job, followed by a line that starts with {@link #END_OF_JOB} and contains the exit status of the job (0 on
+ * success, 1 if Soot failed, 2 if the command line was invalid) and the time the job took in milliseconds. The line
+ * {@link #SHUTDOWN} stops the server. {@link SootClient} implements the client side of this protocol.
+ * </p>
+ *
+ * <p>
+ * Every job runs with the permissions of the server, so connections to the socket must prove that they come from a user
+ * who may read the server's token file: the server writes a random secret to a file that only its owner can read, by
+ * default {@link #defaultTokenFile(int)}, and the first line sent on every connection must be that secret. Connections
+ * that do not start with the secret are closed without running anything.
+ * </p>
+ *
+ * <pre>
+ * java -cp soot.jar soot.server.SootServer -port 4711
+ * java -cp soot.jar soot.server.SootClient 4711 -pp -process-dir app.jar -f none
+ * </pre>
+ *
+ * <p>
+ * Jobs are executed one at a time, since Soot writes its output to {@link System#out}, which is redirected to the client
+ * while a job runs.
+ * </p>
+ */
+public class SootServer {
+  private static final Logger logger = LoggerFactory.getLogger(SootServer.class);
+
+  /** Prefix of the line that ends the output of a job. */
+  public static final String END_OF_JOB = "#soot-end-of-job ";
+
+  /** Request that stops the server. */
+  public static final String SHUTDOWN = "#shutdown";
+
+  private static final String SHARED_LIBRARY = "-shared-library";
+
+  private final Object jobLock = new Object();
+
+  private volatile boolean running = true;
+  private ServerSocket serverSocket;
+  private Thread acceptor;
+  private byte[] token;
+  private Path tokenFile;
+
+  /**
+   * Returns the file in which a server listening on the given port keeps its secret unless another file is given to
+   * {@link #start(int, File)}.
+   */
+  public static File defaultTokenFile(int port) {
+    return new File(System.getProperty("user.home"), ".soot-server-" + port + ".token");
+  }
+
+  /**
+   * Runs the given Soot command line and writes its output to the given stream. Returns the exit status of the job.
+   */
+  public int runJob(String[] args, PrintStream out) {
+    synchronized (jobLock) {
+      final PrintStream oldOut = System.out;
+      final PrintStream oldErr = System.err;
+      System.setOut(out);
+      System.setErr(out);
+      try {
+        // G captures System.out when it is created
+        G.reset();
+        Main.v().run(withSharedLibrary(args));
+        return 0;
+      } catch (OptionsParseException e) {
+        return 2;
+      } catch (CompilationDeathException e) {
+        out.println(e.getMessage());
+        return 1;
+      } catch (Throwable e) {
+        // Also errors such as OutOfMemoryError only fail the job, the server stays available
+        e.printStackTrace(out);
+        return 1;
+      } finally {
+        out.flush();
+        System.setOut(oldOut);
+        System.setErr(oldErr);
+        G.reset();
+      }
+    }
+  }
+
+  private static String[] withSharedLibrary(String[] args) {
+    if (Arrays.asList(args).contains(SHARED_LIBRARY)) {
+      return args;
+    }
+    String[] result = new String[args.length + 1];
+    result[0] = SHARED_LIBRARY;
+    System.arraycopy(args, 0, result, 1, args.length);
+    return result;
+  }
+
+  /**
+   * Reads jobs from the given reader and answers them on the given stream until the input ends or the server is shut down.
+   */
+  public void serve(BufferedReader in, PrintStream out) throws IOException {
+    final List<String> job = new ArrayList<String>();
+    for (String line; running && (line = in.readLine()) != null;) {
+      if (!line.isEmpty()) {
+        if (job.isEmpty() && SHUTDOWN.equals(line)) {
+          stop();
+          return;
+        }
+        job.add(line);
+      } else if (!job.isEmpty()) {
+        final long start = System.nanoTime();
+        int status = 1;
+        try {
+          status = runJob(job.toArray(new String[job.size()]), out);
+        } finally {
+          // The client waits for this line, so it must be sent whatever happened to the job
+          out.println(END_OF_JOB + status + " " + (System.nanoTime() - start) / 1000000);
+          out.flush();
+          job.clear();
+        }
+      }
+    }
+  }
+
+  /**
+   * Starts accepting connections on the given port of the loopback interface, or on a free port if it is 0, and returns
+   * the port. The secret that clients must send is written to {@link #defaultTokenFile(int)} for the returned port.
+   */
+  public int start(int port) throws IOException {
+    return start(port, null);
+  }
+
+  /**
+   * Starts accepting connections on the given port of the loopback interface, or on a free port if it is 0, and returns
+   * the port. The secret that clients must send is written to the given file, which is replaced if it exists and can only
+   * be read by the current user, or to {@link #defaultTokenFile(int)} for the returned port if the file is null. The file
+   * is deleted when the server is stopped.
+   */
+  public synchronized int start(int port, File tokenFile) throws IOException {
+    if (serverSocket != null) {
+      throw new IllegalStateException("The server has already been started");
+    }
+    final ServerSocket socket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+    try {
+      final byte[] random = new byte[32];
+      new SecureRandom().nextBytes(random);
+      final StringBuilder sb = new StringBuilder();
+      for (byte b : random) {
+        sb.append(String.format("%02x", b & 0xff));
+      }
+      final Path path = (tokenFile != null ? tokenFile : defaultTokenFile(socket.getLocalPort())).toPath();
+      writeTokenFile(path, sb.toString());
+      this.token = sb.toString().getBytes(StandardCharsets.US_ASCII);
+      this.tokenFile = path;
+    } catch (IOException | RuntimeException e) {
+      socket.close();
+      throw e;
+    }
+    serverSocket = socket;
+    acceptor = new Thread(this::acceptConnections, "soot-server");
+    acceptor.start();
+    return serverSocket.getLocalPort();
+  }
+
+  /**
+   * Creates the given file such that only its owner can read or write it, and writes the token to it.
+   */
+  private static void writeTokenFile(Path file, String token) throws IOException {
+    // Creating a new file, rather than overwriting an existing one, makes sure that nobody else can have it open already
+    Files.deleteIfExists(file);
+    if (file.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+      Files.createFile(file, PosixFilePermissions
+          .asFileAttribute(EnumSet.of(PosixFilePermission.OWNER_READ, PosixFilePermission.OWNER_WRITE)));
+    } else {
+      Files.createFile(file);
+      final File f = file.toFile();
+      if (!f.setReadable(false, false) || !f.setWritable(false, false) || !f.setReadable(true, true)
+          || !f.setWritable(true, true)) {
+        Files.delete(file);
+        throw new IOException("Could not restrict the permissions of " + file);
+      }
+    }
+    Files.write(file, token.getBytes(StandardCharsets.US_ASCII));
+  }
+
+  /**
+   * Reads the secret of a server from its token file.
+   */
+  static String readToken(File tokenFile) throws IOException {
+    return new String(Files.readAllBytes(tokenFile.toPath()), StandardCharsets.US_ASCII).trim();
+  }
+
+  private void acceptConnections() {
+    while (running) {
+      final Socket socket;
+      try {
+        socket = serverSocket.accept();
+      } catch (SocketException e) {
+        // The server socket has been closed by stop()
+        break;
+      } catch (IOException e) {
+        logger.error("Could not accept connection: " + e.getMessage());
+        continue;
+      }
+      final Thread handler = new Thread(() -> handle(socket), "soot-server-" + socket.getPort());
+      handler.setDaemon(true);
+      handler.start();
+    }
+  }
+
+  private void handle(Socket socket) {
+    try (Socket s = socket) {
+      final BufferedReader in = new BufferedReader(new InputStreamReader(s.getInputStream(), StandardCharsets.UTF_8));
+      final String secret = in.readLine();
+      if (secret == null || !MessageDigest.isEqual(token, secret.getBytes(StandardCharsets.US_ASCII))) {
+        logger.warn("Rejected a connection that did not send the secret from " + tokenFile);
+        return;
+      }
+      serve(in, new PrintStream(s.getOutputStream(), true, "UTF-8"));
+    } catch (IOException e) {
+      logger.debug("Connection closed: " + e.getMessage());
+    }
+  }
+
+  /**
+   * Stops accepting connections and deletes the token file. A job that is currently running is completed.
+   */
+  public synchronized void stop() {
+    running = false;
+    // Delete the token file first, so that it is gone once awaitTermination() returns
+    if (tokenFile != null) {
+      try {
+        Files.deleteIfExists(tokenFile);
+      } catch (IOException e) {
+        logger.debug("Could not delete token file: " + e.getMessage());
+      }
+    }
+    if (serverSocket != null) {
+      try {
+        serverSocket.close();
+      } catch (IOException e) {
+        logger.debug("Could not close server socket: " + e.getMessage());
+      }
+    }
+  }
+
+  /**
+   * Waits until the server has been stopped.
+   */
+  public void awaitTermination() throws InterruptedException {
+    final Thread t;
+    synchronized (this) {
+      t = acceptor;
+    }
+    if (t != null) {
+      t.join();
+    }
+  }
+
+  public static void main(String[] args) throws IOException, InterruptedException {
+    final SootServer server = new SootServer();
+    if (args.length == 1 && "-stdin".equals(args[0])) {
+      final PrintStream out = new PrintStream(System.out, true, "UTF-8");
+      server.serve(new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8)), out);
+    } else if ((args.length == 2 || (args.length == 4 && "-token-file".equals(args[2]))) && "-port".equals(args[0])) {
+      final int port = server.start(Integer.parseInt(args[1]), args.length == 4 ? new File(args[3]) : null);
+      System.out.println("Soot server listening on port " + port);
+      server.awaitTermination();
+    } else {
+      System.err.println("Usage: SootServer -port <port> [-token-file <file>] | -stdin");
+    }
+  }
+}
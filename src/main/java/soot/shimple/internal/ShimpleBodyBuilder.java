@@ -31,6 +31,7 @@ import java.util.Map;
 import java.util.Set;
 import java.util.Stack;
 
+import soot.G;
 import soot.Local;
 import soot.Unit;
 import soot.Value;
@@ -79,8 +80,6 @@ import soot.toolkits.scalar.UnusedLocalEliminator;
  */
 public class ShimpleBodyBuilder {
 
-  private static String freshSeparator = "_";
-
   protected final ShimpleBody body;
   protected final ShimpleOptions options;
   protected final ShimpleFactory sf;
@@ -335,7 +334,7 @@ public class ShimpleBodyBuilder {
     }
 
     // If the name already exists, makeUniqueLocalNames() will take care of it.
-    String name = oldLocal.getName() + freshSeparator + subscript;
+    String name = oldLocal.getName() + G.v().ShimpleBodyBuilder_freshSeparator + subscript;
     Local newLocal = newLocals.get(name);
     if (newLocal == null) {
       newLocal = Jimple.v().newLocal(name, oldLocal.getType());
@@ -389,6 +388,7 @@ public class ShimpleBodyBuilder {
    * Given a set of Strings, return a new name for dupName that is not currently in the set.
    */
   public static String makeUniqueLocalName(String dupName, Set<String> localNames) {
+    final String freshSeparator = G.v().ShimpleBodyBuilder_freshSeparator;
     int counter = 1;
     String newName = dupName;
     while (localNames.contains(newName)) {
@@ -398,6 +398,6 @@ public class ShimpleBodyBuilder {
   }
 
   public static void setSeparator(String sep) {
-    freshSeparator = sep;
+    G.v().ShimpleBodyBuilder_freshSeparator = sep;
   }
 }
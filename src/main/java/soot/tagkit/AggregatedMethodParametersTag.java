@@ -86,6 +86,10 @@ public class AggregatedMethodParametersTag implements Tag {
     }
   }
 
+  public AggregatedMethodParametersTag(MethodParametersTag.ParameterItem[] params) {
+    this.params = params;
+  }
+
   public static AggregatedMethodParametersTag of(String[] parameterNames, MethodParametersTag mpTag) {
     if (mpTag != null) {
       return new AggregatedMethodParametersTag(mpTag);
@@ -117,6 +121,13 @@ public class AggregatedMethodParametersTag implements Tag {
    *
    * @param methodVisitor a method visitor.
    */
+  /**
+   * Returns the aggregated parameters, or null if neither parameter names nor a MethodParameters attribute were present.
+   */
+  public MethodParametersTag.ParameterItem[] getParams() {
+    return params;
+  }
+
   public void accept(final MethodVisitor methodVisitor) {
     for (MethodParametersTag.ParameterItem p : params) {
       methodVisitor.visitParameter(p.name, p.access);
@@ -48,15 +48,22 @@ public class InnerClassTagAggregator extends SceneTransformer {
   @Override
   public void internalTransform(String phaseName, Map<String, String> options) {
     for (SootClass nextSc : Scene.v().getApplicationClasses()) {
-      ArrayList<InnerClassTag> list = new ArrayList<InnerClassTag>();
-      for (Tag t : nextSc.getTags()) {
-        if (t instanceof InnerClassTag) {
-          list.add((InnerClassTag) t);
-        }
-      }
-      if (!list.isEmpty()) {
-        nextSc.addTag(new InnerClassAttribute(list));
+      aggregate(nextSc);
+    }
+  }
+
+  /**
+   * Aggregates the inner class tags of a single class into an {@link InnerClassAttribute}.
+   */
+  public void aggregate(SootClass sc) {
+    ArrayList<InnerClassTag> list = new ArrayList<InnerClassTag>();
+    for (Tag t : sc.getTags()) {
+      if (t instanceof InnerClassTag) {
+        list.add((InnerClassTag) t);
       }
     }
+    if (!list.isEmpty()) {
+      sc.addTag(new InnerClassAttribute(list));
+    }
   }
 }
@@ -22,6 +22,16 @@ package soot.tagkit;
  * #L%
  */
 
+/**
+ * The source line of a host, e.g., of a statement.
+ *
+ * <p>
+ * The frontends do not create one tag per statement, but take shared tags from {@link TagInterner#lineNumber(int)}. A
+ * shared tag cannot be modified, i.e., {@link #setLineNumber(int)} throws an {@link UnsupportedOperationException}. To
+ * change the line number of such a host, remove its tag and add a new one. Tags created with the constructor are not
+ * shared and can be modified as before.
+ * </p>
+ */
 public class LineNumberTag implements Tag {
 
   public static final String NAME = "LineNumberTag";
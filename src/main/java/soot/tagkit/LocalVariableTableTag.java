@@ -72,6 +72,14 @@ public class LocalVariableTableTag implements Tag {
     }
   }
 
+  public LocalVariableTableTag(LocalVariableItem[] items) {
+    lvt = items;
+  }
+
+  public LocalVariableItem[] getItems() {
+    return lvt;
+  }
+
   @Override
   public String getName() {
     return NAME;
@@ -102,6 +110,22 @@ public class LocalVariableTableTag implements Tag {
       this.index = index;
     }
 
+    public String getName() {
+      return name;
+    }
+
+    public String getDesc() {
+      return desc;
+    }
+
+    public String getSignature() {
+      return signature;
+    }
+
+    public int getIndex() {
+      return index;
+    }
+
     @Override
     public String toString() {
       return '{' + name + ", " +
@@ -51,6 +51,10 @@ public class MethodParametersTag implements Tag {
     }
   }
 
+  public MethodParametersTag(ParameterItem[] params) {
+    this.params = params;
+  }
+
   public ParameterItem[] getParams() {
     return params;
   }
@@ -80,6 +84,14 @@ public class MethodParametersTag implements Tag {
       this.access = access;
     }
 
+    public String getName() {
+      return name;
+    }
+
+    public int getAccess() {
+      return access;
+    }
+
     @Override
     public String toString() {
       return '{' + name + ", " +
@@ -0,0 +1,128 @@
+package soot.tagkit;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2026 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Shares {@link LineNumberTag} and {@link BytecodeOffsetTag} instances between all hosts with the same line number or
+ * bytecode offset, so that frontends and {@link soot.AbstractUnit} do not need one tag object per statement. The shared
+ * tags cannot be modified: {@link LineNumberTag#setLineNumber(int)} throws an {@link UnsupportedOperationException} on
+ * them, and {@link BytecodeOffsetTag} is immutable anyway.
+ *
+ * <p>
+ * Values from 0 to 65535, i.e., every line number and offset that fits into a class file, are interned; other values get
+ * a new tag on each call. The cache is filled lazily and is safe to use from several threads.
+ * </p>
+ */
+public final class TagInterner {
+
+  private static final int CHUNK_BITS = 8;
+  private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+  private static final int LIMIT = 1 << 16;
+
+  private static final AtomicReferenceArray<AtomicReferenceArray<SharedLineNumberTag>> lineNumberTags
+      = new AtomicReferenceArray<AtomicReferenceArray<SharedLineNumberTag>>(LIMIT / CHUNK_SIZE);
+  private static final AtomicReferenceArray<AtomicReferenceArray<BytecodeOffsetTag>> bytecodeOffsetTags
+      = new AtomicReferenceArray<AtomicReferenceArray<BytecodeOffsetTag>>(LIMIT / CHUNK_SIZE);
+
+  private TagInterner() {
+  }
+
+  /**
+   * Returns the shared {@link LineNumberTag} for the given line number.
+   */
+  public static LineNumberTag lineNumber(int line) {
+    if (line < 0 || line >= LIMIT) {
+      return new LineNumberTag(line);
+    }
+    AtomicReferenceArray<SharedLineNumberTag> chunk = chunk(lineNumberTags, line);
+    final int i = line & (CHUNK_SIZE - 1);
+    SharedLineNumberTag tag = chunk.get(i);
+    if (tag == null) {
+      // Another thread may have interned the same line in the meantime, in which case we use its tag
+      chunk.compareAndSet(i, null, new SharedLineNumberTag(line));
+      tag = chunk.get(i);
+    }
+    return tag;
+  }
+
+  /**
+   * Returns the shared {@link BytecodeOffsetTag} for the given offset.
+   */
+  public static BytecodeOffsetTag bytecodeOffset(int offset) {
+    if (offset < 0 || offset >= LIMIT) {
+      return new BytecodeOffsetTag(offset);
+    }
+    AtomicReferenceArray<BytecodeOffsetTag> chunk = chunk(bytecodeOffsetTags, offset);
+    final int i = offset & (CHUNK_SIZE - 1);
+    BytecodeOffsetTag tag = chunk.get(i);
+    if (tag == null) {
+      chunk.compareAndSet(i, null, new BytecodeOffsetTag(offset));
+      tag = chunk.get(i);
+    }
+    return tag;
+  }
+
+  /**
+   * Returns whether the given tag is a shared tag returned by {@link #lineNumber(int)} or {@link #bytecodeOffset(int)}.
+   */
+  public static boolean isInterned(Tag tag) {
+    if (tag instanceof SharedLineNumberTag) {
+      return true;
+    }
+    if (tag instanceof BytecodeOffsetTag) {
+      final int offset = ((BytecodeOffsetTag) tag).getBytecodeOffset();
+      if (offset >= 0 && offset < LIMIT) {
+        final AtomicReferenceArray<BytecodeOffsetTag> chunk = bytecodeOffsetTags.get(offset >>> CHUNK_BITS);
+        return chunk != null && chunk.get(offset & (CHUNK_SIZE - 1)) == tag;
+      }
+    }
+    return false;
+  }
+
+  private static <T> AtomicReferenceArray<T> chunk(AtomicReferenceArray<AtomicReferenceArray<T>> chunks, int value) {
+    final int c = value >>> CHUNK_BITS;
+    AtomicReferenceArray<T> chunk = chunks.get(c);
+    if (chunk == null) {
+      chunks.compareAndSet(c, null, new AtomicReferenceArray<T>(CHUNK_SIZE));
+      chunk = chunks.get(c);
+    }
+    return chunk;
+  }
+
+  /**
+   * A {@link LineNumberTag} that is shared between hosts and must therefore not change its line number.
+   */
+  private static final class SharedLineNumberTag extends LineNumberTag {
+
+    SharedLineNumberTag(int ln) {
+      super(ln);
+    }
+
+    @Override
+    public void setLineNumber(int value) {
+      throw new UnsupportedOperationException("Shared line number tags cannot be modified");
+    }
+  }
+}
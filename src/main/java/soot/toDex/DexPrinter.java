@@ -32,12 +32,15 @@ import java.nio.file.LinkOption;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
 import java.nio.file.StandardOpenOption;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -45,6 +48,12 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.jar.Attributes;
 import java.util.jar.JarFile;
 import java.util.jar.Manifest;
@@ -211,8 +220,41 @@ public class DexPrinter {
   protected MultiDexBuilder dexBuilder;
   protected File originalApk;
 
+  /**
+   * Translates the added classes in the background, or null if classes are translated by the thread that adds them.
+   */
+  private final ExecutorService translator;
+
+  /**
+   * The classes that are being translated, in the order in which they have been added. Their class definitions are added to
+   * the dex builder in this order, so that the output does not depend on scheduling.
+   */
+  private final Deque<Future<ClassDef>> pendingClasses = new ArrayDeque<>();
+  private final int maxPendingClasses;
+
+  /**
+   * Holds the dex files that are complete while classes are still being added.
+   */
+  private Path completedDexDir;
+
   public DexPrinter() {
     dexBuilder = createDexBuilder();
+
+    int threadNum = Options.v().num_threads();
+    if (threadNum < 1) {
+      threadNum = Runtime.getRuntime().availableProcessors();
+    }
+    if (threadNum > 1) {
+      translator = new ThreadPoolExecutor(threadNum, threadNum, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+          r -> {
+            Thread t = new Thread(r, "soot-dex-printer");
+            t.setDaemon(true);
+            return t;
+          });
+    } else {
+      translator = null;
+    }
+    maxPendingClasses = 4 * threadNum;
   }
 
   /**
@@ -296,9 +338,11 @@ public class DexPrinter {
         }
       }
 
-      // put our dex files into the zip archive
-      final Path tempPath = Files.createTempDirectory(Long.toString(System.nanoTime()));
-      final List<File> files = dexBuilder.writeTo(tempPath.toString());
+      // put our dex files into the zip archive, deleting every temporary file as soon as it has been copied
+      if (completedDexDir == null) {
+        completedDexDir = Files.createTempDirectory(Long.toString(System.nanoTime()));
+      }
+      final List<File> files = dexBuilder.writeTo(completedDexDir.toString());
       if (!files.isEmpty()) {
         final byte[] buffer = new byte[16 * 1024];
         for (File file : files) {
@@ -309,6 +353,7 @@ public class DexPrinter {
             }
             outputZip.closeEntry();
           }
+          Files.delete(file.toPath());
         }
       }
 
@@ -318,19 +363,7 @@ public class DexPrinter {
       }
 
       // remove tmp dir and contents
-      Files.walkFileTree(tempPath, new SimpleFileVisitor<Path>() {
-        @Override
-        public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
-          Files.delete(file);
-          return FileVisitResult.CONTINUE;
-        }
-
-        @Override
-        public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
-          Files.delete(dir);
-          return FileVisitResult.CONTINUE;
-        }
-      });
+      deleteCompletedDexDir();
     }
   }
 
@@ -608,7 +641,15 @@ public class DexPrinter {
     }
   }
 
-  private void addAsClassDefItem(SootClass c) {
+  /**
+   * Translates the given class to dex. Classes may be translated concurrently, so this method must only modify the given
+   * class and its bodies.
+   *
+   * @param c
+   *          the class to translate
+   * @return the dex class definition
+   */
+  protected ClassDef toClassDef(SootClass c) {
     // add source file tag if any
     SourceFileTag sft = (SourceFileTag) c.getTag(SourceFileTag.NAME);
     String sourceFile = sft == null ? null : sft.getSourceFile();
@@ -660,9 +701,8 @@ public class DexPrinter {
 
     Collection<Method> methods = toMethods(c);
 
-    ClassDef classDef = new ImmutableClassDef(classType, accessFlags, superClass, interfaces, sourceFile,
-        buildClassAnnotations(c), fields, methods);
-    addClassDefinition(classDef);
+    return new ImmutableClassDef(classType, accessFlags, superClass, interfaces, sourceFile, buildClassAnnotations(c),
+        fields, methods);
   }
 
   protected void addClassDefinition(ClassDef classDef) {
@@ -1192,6 +1232,10 @@ public class DexPrinter {
     // register count = parameters + additional registers, depending on the
     // dex instructions generated (e.g. locals used and constants loaded)
     StmtVisitor stmtV = buildStmtVisitor(m, initDetector);
+    if (Options.v().dex_share_registers() && !Options.v().write_local_annotations()) {
+      // Debug information on locals assumes that every local has a register of its own
+      stmtV.getRegisterAllocator().shareRegisters(activeBody);
+    }
 
     Chain<Trap> traps = activeBody.getTraps();
     Set<Unit> trapReferences = new HashSet<Unit>(traps.size() * 3);
@@ -1695,7 +1739,16 @@ public class DexPrinter {
       return;
     }
 
-    addAsClassDefItem(c);
+    if (translator == null) {
+      addClassDefinition(toClassDef(c));
+      writeCompletedDexFiles();
+    } else {
+      synchronized (pendingClasses) {
+        pendingClasses.add(translator.submit(() -> toClassDef(c)));
+        addTranslatedClasses(maxPendingClasses);
+      }
+    }
+
     // save original APK for this class, needed to copy all the other files
     // inside
     Map<String, File> dexClassIndex = SourceLocator.v().dexClassIndex();
@@ -1713,7 +1766,65 @@ public class DexPrinter {
     originalApk = sourceForClass;
   }
 
+  /**
+   * Adds the class definitions of the translated classes to the dex builder in the order in which the classes have been
+   * added. Waits for translations to finish while more than the given number of classes are pending.
+   */
+  private void addTranslatedClasses(int maxPending) {
+    while (!pendingClasses.isEmpty() && (pendingClasses.size() > maxPending || pendingClasses.peek().isDone())) {
+      final ClassDef classDef;
+      try {
+        classDef = pendingClasses.poll().get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new DexPrinterException("Interrupted while translating classes to dex", e);
+      } catch (ExecutionException e) {
+        final Throwable cause = e.getCause();
+        if (cause instanceof RuntimeException) {
+          throw (RuntimeException) cause;
+        } else if (cause instanceof Error) {
+          throw (Error) cause;
+        }
+        throw new DexPrinterException("Error while translating classes to dex", cause);
+      }
+      addClassDefinition(classDef);
+      writeCompletedDexFiles();
+    }
+  }
+
+  /**
+   * Writes the dex files that will not receive any further classes to a temporary directory, so that only the dex file that
+   * is currently being filled is kept in memory.
+   */
+  private void writeCompletedDexFiles() {
+    synchronized (dexBuilder) {
+      if (!dexBuilder.hasCompletedDexFiles()) {
+        return;
+      }
+      try {
+        if (completedDexDir == null) {
+          completedDexDir = Files.createTempDirectory(Long.toString(System.nanoTime()));
+        }
+        dexBuilder.writeCompletedTo(completedDexDir.toString());
+      } catch (IOException e) {
+        throw new CompilationDeathException("I/O exception while printing dex", e);
+      }
+    }
+  }
+
   public void print() {
+    try {
+      if (translator != null) {
+        synchronized (pendingClasses) {
+          addTranslatedClasses(0);
+        }
+      }
+    } finally {
+      if (translator != null) {
+        translator.shutdownNow();
+      }
+    }
+
     try {
       if (Options.v().output_jar()
           || (originalApk != null && Options.v().output_format() != Options.output_format_force_dex)) {
@@ -1721,13 +1832,39 @@ public class DexPrinter {
       } else {
         final String outputDir = SourceLocator.v().getOutputDir();
         LOGGER.info("Writing dex files to \"{}\" folder.", outputDir);
-        dexBuilder.writeTo(outputDir);
+        for (File file : dexBuilder.writeTo(outputDir)) {
+          // Move the dex files that have been completed early to the output folder
+          if (completedDexDir != null && file.toPath().startsWith(completedDexDir)) {
+            Files.move(file.toPath(), Paths.get(outputDir, file.getName()), StandardCopyOption.REPLACE_EXISTING);
+          }
+        }
+        deleteCompletedDexDir();
       }
     } catch (IOException e) {
       throw new CompilationDeathException("I/O exception while printing dex", e);
     }
   }
 
+  private void deleteCompletedDexDir() throws IOException {
+    if (completedDexDir == null) {
+      return;
+    }
+    Files.walkFileTree(completedDexDir, new SimpleFileVisitor<Path>() {
+      @Override
+      public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+        Files.delete(file);
+        return FileVisitResult.CONTINUE;
+      }
+
+      @Override
+      public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
+        Files.delete(dir);
+        return FileVisitResult.CONTINUE;
+      }
+    });
+    completedDexDir = null;
+  }
+
   private static class CodeRange {
     int startAddress;
     int endAddress;
@@ -0,0 +1,199 @@
+package soot.toDex;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2026 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import soot.Body;
+import soot.Local;
+import soot.Unit;
+import soot.Value;
+import soot.ValueBox;
+import soot.jimple.AssignStmt;
+import soot.jimple.IdentityStmt;
+import soot.jimple.ParameterRef;
+import soot.jimple.ThisRef;
+import soot.options.Options;
+import soot.toolkits.exceptions.PedanticThrowAnalysis;
+import soot.toolkits.graph.ExceptionalUnitGraph;
+import soot.toolkits.graph.ExceptionalUnitGraphFactory;
+import soot.toolkits.scalar.LiveLocals;
+import soot.toolkits.scalar.SimpleLiveLocals;
+
+/**
+ * Assigns register slots to the locals of a body such that locals whose live ranges do not overlap can share a register.
+ * The slots are found by coloring the interference graph that is computed from the live locals on the exceptional CFG of
+ * the body. Narrow and wide locals never share a slot, since a wide local occupies a register pair.
+ *
+ * <p>
+ * Two locals interfere if one of them is defined at a statement after which the other one is live. In addition, the
+ * defined local interferes with all locals the defining statement uses, because the dex code of a statement may write its
+ * destination register before it has read all operands. Locals that are copied into each other get the same slot where
+ * possible, which turns the copy into a move from a register to itself that is removed later on.
+ * </p>
+ *
+ * <p>
+ * The <code>this</code> local and the parameter locals are not colored, since Dalvik passes them in fixed registers.
+ * </p>
+ */
+final class LocalColorer {
+
+  private LocalColorer() {
+  }
+
+  /**
+   * Computes the register slots for the locals of the given body. Locals that are mapped to the same slot can share a
+   * register; locals without a slot need a register of their own.
+   *
+   * @param body
+   *          the body to color
+   * @return the slot of every colored local
+   */
+  static Map<Local, Integer> colorLocals(Body body) {
+    // Parameters live in fixed registers
+    final Set<Local> fixed = new HashSet<Local>();
+    for (Unit u : body.getUnits()) {
+      if (u instanceof IdentityStmt) {
+        IdentityStmt is = (IdentityStmt) u;
+        if (is.getRightOp() instanceof ThisRef || is.getRightOp() instanceof ParameterRef) {
+          fixed.add((Local) is.getLeftOp());
+        }
+      }
+    }
+
+    final List<Local> locals = new ArrayList<Local>(body.getLocalCount());
+    final Map<Local, Integer> index = new HashMap<Local, Integer>(body.getLocalCount() * 2 + 1);
+    for (Local l : body.getLocals()) {
+      if (!fixed.contains(l)) {
+        index.put(l, locals.size());
+        locals.add(l);
+      }
+    }
+    if (locals.isEmpty()) {
+      return Collections.emptyMap();
+    }
+    final int[] words = new int[locals.size()];
+    for (int i = 0; i < words.length; i++) {
+      words[i] = SootToDexUtils.getDexWords(locals.get(i).getType());
+    }
+
+    // Build the interference graph and note the copies between locals
+    final ExceptionalUnitGraph graph = ExceptionalUnitGraphFactory.createExceptionalUnitGraph(body,
+        PedanticThrowAnalysis.v(), Options.v().omit_excepting_unit_edges());
+    final LiveLocals liveLocals = new SimpleLiveLocals(graph);
+    final List<Set<Integer>> interferences = new ArrayList<Set<Integer>>(locals.size());
+    final List<Set<Integer>> copies = new ArrayList<Set<Integer>>(locals.size());
+    for (int i = 0; i < locals.size(); i++) {
+      interferences.add(new HashSet<Integer>());
+      copies.add(new HashSet<Integer>());
+    }
+    for (Unit u : body.getUnits()) {
+      final Integer def = getDefinedLocal(u, index);
+      if (def == null) {
+        continue;
+      }
+      for (Unit succ : graph.getSuccsOf(u)) {
+        for (Local l : liveLocals.getLiveLocalsBefore(succ)) {
+          addInterference(def, index.get(l), words, interferences);
+        }
+      }
+      for (ValueBox vb : u.getUseBoxes()) {
+        Value v = vb.getValue();
+        if (v instanceof Local) {
+          addInterference(def, index.get(v), words, interferences);
+        }
+      }
+      if (u instanceof AssignStmt) {
+        Integer source = index.get(((AssignStmt) u).getRightOp());
+        if (source != null && words[source] == words[def]) {
+          copies.get(def).add(source);
+          copies.get(source).add(def);
+        }
+      }
+    }
+
+    // Color the locals with many interferences first, preferring the colors of the locals they are copied from or to
+    final List<Integer> order = new ArrayList<Integer>(locals.size());
+    for (int i = 0; i < locals.size(); i++) {
+      order.add(i);
+    }
+    Collections.sort(order, (a, b) -> interferences.get(b).size() - interferences.get(a).size());
+
+    final int[] colors = new int[locals.size()];
+    final int[] colorCount = new int[3];
+    final BitSet blocked = new BitSet();
+    Arrays.fill(colors, -1);
+    for (int l : order) {
+      blocked.clear();
+      for (int other : interferences.get(l)) {
+        if (colors[other] >= 0) {
+          blocked.set(colors[other]);
+        }
+      }
+      int color = -1;
+      for (int other : copies.get(l)) {
+        if (colors[other] >= 0 && !blocked.get(colors[other])) {
+          color = colors[other];
+          break;
+        }
+      }
+      if (color < 0) {
+        color = blocked.nextClearBit(0);
+        colorCount[words[l]] = Math.max(colorCount[words[l]], color + 1);
+      }
+      colors[l] = color;
+    }
+
+    // Narrow and wide locals use separate slots
+    final Map<Local, Integer> slots = new HashMap<Local, Integer>(locals.size() * 2 + 1);
+    for (int i = 0; i < locals.size(); i++) {
+      slots.put(locals.get(i), words[i] == 2 ? colorCount[1] + colors[i] : colors[i]);
+    }
+    return slots;
+  }
+
+  private static Integer getDefinedLocal(Unit u, Map<Local, Integer> index) {
+    for (ValueBox vb : u.getDefBoxes()) {
+      Value v = vb.getValue();
+      if (v instanceof Local) {
+        return index.get(v);
+      }
+    }
+    return null;
+  }
+
+  private static void addInterference(int def, Integer other, int[] words, List<Set<Integer>> interferences) {
+    if (other != null && other != def && words[other] == words[def]) {
+      interferences.get(def).add(other);
+      interferences.get(other).add(def);
+    }
+  }
+}
@@ -42,6 +42,11 @@ public class MultiDexBuilder {
   protected final List<DexPool> dexPools = new LinkedList<>();
   protected DexPool curPool;
 
+  /**
+   * The dex files that have already been written out by {@link #writeCompletedTo(String)}.
+   */
+  protected final List<File> writtenFiles = new ArrayList<>();
+
   public MultiDexBuilder(Opcodes opcodes) {
     this.opcodes = opcodes;
     newDexPool();
@@ -100,25 +105,64 @@ public class MultiDexBuilder {
   }
 
   /**
-   * Writes all built dex files to the given folder.
+   * Returns true if classes have overflowed into a new dex file, i.e., if there are dex files that will not receive any
+   * further classes.
+   */
+  public boolean hasCompletedDexFiles() {
+    return dexPools.size() > 1;
+  }
+
+  /**
+   * Writes all dex files that will not receive any further classes, i.e., all but the one that is currently being filled,
+   * to the given folder and releases them, so that only the current dex file is kept in memory.
    *
    * @param folder
    *          the output folder
-   * @return File handles to all written dex files
+   * @return File handles to the dex files that have been written
+   * @throws IOException
+   *           when failed to create {@link FileDataStore}
+   */
+  public List<File> writeCompletedTo(String folder) throws IOException {
+    final List<File> result = new ArrayList<>();
+    while (dexPools.size() > 1) {
+      File file = new File(folder, getDexFileName(writtenFiles.size()));
+      writeDexFile(dexPools.remove(0), file);
+      writtenFiles.add(file);
+      result.add(file);
+    }
+    return result;
+  }
+
+  /**
+   * Writes all built dex files that have not been written by {@link #writeCompletedTo(String)} yet to the given folder.
+   *
+   * @param folder
+   *          the output folder
+   * @return File handles to all dex files, including the ones that have been written before
    * @throws IOException
    *           when failed to create {@link FileDataStore}
    */
   public List<File> writeTo(String folder) throws IOException {
-    final List<File> result = new ArrayList<>(dexPools.size());
+    final List<File> result = new ArrayList<>(writtenFiles.size() + dexPools.size());
+    result.addAll(writtenFiles);
     for (DexPool dexPool : dexPools) {
-      int count = result.size();
-      // name dex files: classes.dex, classes2.dex, classes3.dex, etc.
-      File file = new File(folder, "classes" + (count == 0 ? "" : count + 1) + ".dex");
+      File file = new File(folder, getDexFileName(result.size()));
+      writeDexFile(dexPool, file);
       result.add(file);
-      FileDataStore fds = new FileDataStore(file);
-      dexPool.writeTo(fds);
-      fds.close();
     }
     return result;
   }
+
+  /**
+   * Returns the name of the dex file with the given index: classes.dex, classes2.dex, classes3.dex, etc.
+   */
+  protected static String getDexFileName(int index) {
+    return "classes" + (index == 0 ? "" : index + 1) + ".dex";
+  }
+
+  private static void writeDexFile(DexPool dexPool, File file) throws IOException {
+    FileDataStore fds = new FileDataStore(file);
+    dexPool.writeTo(fds);
+    fds.close();
+  }
 }
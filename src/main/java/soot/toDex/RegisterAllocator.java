@@ -23,6 +23,7 @@ package soot.toDex;
  */
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -30,6 +31,7 @@ import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
 
+import soot.Body;
 import soot.Local;
 import soot.SootMethod;
 import soot.Type;
@@ -57,6 +59,10 @@ public class RegisterAllocator {
 
   private int paramRegCount;
 
+  // Locals that may share a register are mapped to the same slot, see shareRegisters(Body)
+  private Map<Local, Integer> localToSlot = Collections.emptyMap();
+  private Map<Integer, Integer> slotToRegNum = new HashMap<Integer, Integer>();
+
   public RegisterAllocator() {
     localToLastRegNum = new HashMap<Local, Integer>();
   }
@@ -185,6 +191,18 @@ public class RegisterAllocator {
     return localToLastRegNum;
   }
 
+  /**
+   * Lets locals of the given body whose live ranges do not overlap share a register, which reduces the register count of
+   * the method and turns copies between such locals into moves that can be dropped. Must be called before the first
+   * instruction of the body is generated.
+   *
+   * @param body
+   *          the body that is translated with this allocator
+   */
+  public void shareRegisters(Body body) {
+    localToSlot = LocalColorer.colorLocals(body);
+  }
+
   public Register asLocal(Local local) {
     Register localRegister;
     Integer oldRegNum = localToLastRegNum.get(local);
@@ -192,10 +210,21 @@ public class RegisterAllocator {
       // reuse the reg num last seen for this local, since this is where the content is
       localRegister = new Register(local.getType(), oldRegNum);
     } else {
-      // use a new reg num for this local
-      localRegister = new Register(local.getType(), nextRegNum);
-      localToLastRegNum.put(local, nextRegNum);
-      nextRegNum += SootToDexUtils.getDexWords(local.getType());
+      Integer slot = localToSlot.get(local);
+      Integer slotRegNum = slot == null ? null : slotToRegNum.get(slot);
+      if (slotRegNum != null) {
+        // share the register with the other locals of this slot
+        localRegister = new Register(local.getType(), slotRegNum);
+        localToLastRegNum.put(local, slotRegNum);
+      } else {
+        // use a new reg num for this local
+        localRegister = new Register(local.getType(), nextRegNum);
+        localToLastRegNum.put(local, nextRegNum);
+        if (slot != null) {
+          slotToRegNum.put(slot, nextRegNum);
+        }
+        nextRegNum += SootToDexUtils.getDexWords(local.getType());
+      }
     }
     return localRegister;
   }
@@ -24,6 +24,7 @@ package soot.toDex;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
@@ -169,6 +170,10 @@ public class StmtVisitor implements StmtSwitch {
     payloads = new ArrayList<>();
   }
 
+  public RegisterAllocator getRegisterAllocator() {
+    return regAlloc;
+  }
+
   protected void setLastReturnTypeDescriptor(String typeDescriptor) {
     lastReturnTypeDescriptor = typeDescriptor;
   }
@@ -233,6 +238,8 @@ public class StmtVisitor implements StmtSwitch {
    * @param trapReferences
    */
   private void reduceInstructions(Set<Unit> trapReferences) {
+    removeSelfMoves(trapReferences);
+
     MultiMap<Stmt, Insn> jumpsToTarget = new HashMultiMap<>();
     for (Insn insn : this.insns) {
       if (insn instanceof InsnWithOffset) {
@@ -299,6 +306,39 @@ public class StmtVisitor implements StmtSwitch {
     }
   }
 
+  /**
+   * Removes moves from a register to itself, which occur if a local is copied into another local that shares its register.
+   * Moves of statements that need a label, i.e., jump targets and trap boundaries, are kept.
+   *
+   * @param trapReferences
+   */
+  private void removeSelfMoves(Set<Unit> trapReferences) {
+    Set<Unit> labeled = new HashSet<>(trapReferences);
+    for (Insn insn : this.insns) {
+      if (insn instanceof SwitchPayload) {
+        labeled.addAll(((SwitchPayload) insn).getTargets());
+      }
+      if (insn instanceof InsnWithOffset) {
+        labeled.add(((InsnWithOffset) insn).getTarget());
+      }
+    }
+
+    // The last instruction is kept, so that jumps can be remapped to the successor
+    for (int i = 0; i < this.insns.size() - 1; i++) {
+      Insn insn = this.insns.get(i);
+      if ((insn instanceof AddressInsn) || !isReducableMoveInstruction(insn.getOpcode())) {
+        continue;
+      }
+      List<Register> regs = insn.getRegs();
+      Stmt stmt = insnStmtMap.get(insn);
+      if (regs.get(0).getNumber() == regs.get(1).getNumber() && !labeled.contains(stmt)) {
+        this.insns.remove(i--);
+        insnStmtMap.remove(insn);
+        insnRegisterMap.remove(insn);
+      }
+    }
+  }
+
   private boolean isReducableMoveInstruction(Opcode opcode) {
     switch (opcode) {
       case MOVE:
@@ -42,6 +42,10 @@ public abstract class SwitchPayload extends AbstractPayload {
     this.targets = targets;
   }
 
+  public List<Unit> getTargets() {
+    return targets;
+  }
+
   public void setSwitchInsn(Insn31t switchInsn) {
     this.switchInsn = switchInsn;
   }
@@ -250,13 +250,14 @@ public class UnitThrowAnalysis extends AbstractThrowAnalysis {
     this.isInterproc = isInterproc;
   }
 
+  public UnitThrowAnalysis(Singletons.Global g, boolean isInterproc) {
+    this(isInterproc);
+  }
+
   public static UnitThrowAnalysis interproceduralAnalysis = null;
 
   public static UnitThrowAnalysis interproc() {
-    if (interproceduralAnalysis == null) {
-      interproceduralAnalysis = new UnitThrowAnalysis(true);
-    }
-    return interproceduralAnalysis;
+    return G.v().interproceduralUnitThrowAnalysis();
   }
 
   protected ThrowableSet defaultResult() {
@@ -22,7 +22,6 @@ package soot.toolkits.graph;
  * #L%
  */
 
-import java.util.HashMap;
 import java.util.List;
 
 import soot.Body;
@@ -47,14 +46,13 @@ public class BriefUnitGraph extends UnitGraph {
    */
   public BriefUnitGraph(Body body) {
     super(body);
-    int size = unitChain.size();
 
     if (Options.v().time()) {
       Timers.v().graphTimer.start();
     }
 
-    unitToSuccs = new HashMap<Unit, List<Unit>>(size * 2 + 1, 0.7f);
-    unitToPreds = new HashMap<Unit, List<Unit>>(size * 2 + 1, 0.7f);
+    unitToSuccs = newUnitMap();
+    unitToPreds = newUnitMap();
     buildUnexceptionalEdges(unitToSuccs, unitToPreds);
 
     buildHeadsAndTails();
@@ -196,14 +196,12 @@ public class ExceptionalUnitGraph extends UnitGraph implements ExceptionalGraph<
    *          exception which the handler catches but which have no potential side effects.
    */
   protected void initialize(ThrowAnalysis throwAnalysis, boolean omitExceptingUnitEdges) {
-    int size = unitChain.size();
-
     if (Options.v().time()) {
       Timers.v().graphTimer.start();
     }
 
-    unitToUnexceptionalSuccs = new LinkedHashMap<Unit, List<Unit>>(size * 2 + 1, 0.7f);
-    unitToUnexceptionalPreds = new LinkedHashMap<Unit, List<Unit>>(size * 2 + 1, 0.7f);
+    unitToUnexceptionalSuccs = newUnitMap();
+    unitToUnexceptionalPreds = newUnitMap();
     buildUnexceptionalEdges(unitToUnexceptionalSuccs, unitToUnexceptionalPreds);
     this.throwAnalysis = throwAnalysis;
 
@@ -218,8 +216,8 @@ public class ExceptionalUnitGraph extends UnitGraph implements ExceptionalGraph<
       unitToPreds = unitToUnexceptionalPreds;
     } else {
       unitToExceptionDests = buildExceptionDests(throwAnalysis);
-      unitToExceptionalSuccs = new LinkedHashMap<Unit, List<Unit>>(unitToExceptionDests.size() * 2 + 1, 0.7f);
-      unitToExceptionalPreds = new LinkedHashMap<Unit, List<Unit>>(body.getTraps().size() * 2 + 1, 0.7f);
+      unitToExceptionalSuccs = newUnitMap();
+      unitToExceptionalPreds = newUnitMap();
       trapUnitsThatAreHeads = buildExceptionalEdges(throwAnalysis, unitToExceptionDests, unitToExceptionalSuccs,
           unitToExceptionalPreds, omitExceptingUnitEdges);
 
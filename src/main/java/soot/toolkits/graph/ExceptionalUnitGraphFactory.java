@@ -23,6 +23,7 @@ package soot.toolkits.graph;
  */
 
 import soot.Body;
+import soot.BodyAnalysisCache;
 import soot.G;
 import soot.Scene;
 import soot.Singletons.Global;
@@ -37,12 +38,29 @@ public class ExceptionalUnitGraphFactory {
     return G.v().soot_toolkits_graph_ExceptionalUnitGraphFactory();
   }
 
+  /**
+   * Returns an exceptional unit graph of the given body, which is shared with other clients if
+   * {@link Options#cache_body_analyses()} is set.
+   *
+   * @see BodyAnalysisCache
+   */
   public static ExceptionalUnitGraph createExceptionalUnitGraph(Body body) {
-    return v().newExceptionalUnitGraph(body, Scene.v().getDefaultThrowAnalysis(), Options.v().omit_excepting_unit_edges());
+    return createExceptionalUnitGraph(body, Scene.v().getDefaultThrowAnalysis());
   }
 
+  /**
+   * Returns an exceptional unit graph of the given body, which is shared with other clients if
+   * {@link Options#cache_body_analyses()} is set.
+   *
+   * @see BodyAnalysisCache
+   */
   public static ExceptionalUnitGraph createExceptionalUnitGraph(Body body, ThrowAnalysis throwAnalysis) {
-    return v().newExceptionalUnitGraph(body, throwAnalysis, Options.v().omit_excepting_unit_edges());
+    final boolean omitExceptingUnitEdges = Options.v().omit_excepting_unit_edges();
+    final BodyAnalysisCache cache = BodyAnalysisCache.v();
+    if (cache.isEnabled()) {
+      return cache.getExceptionalUnitGraph(body, throwAnalysis, omitExceptingUnitEdges);
+    }
+    return v().newExceptionalUnitGraph(body, throwAnalysis, omitExceptingUnitEdges);
   }
 
   public static ExceptionalUnitGraph createExceptionalUnitGraph(Body body, ThrowAnalysis throwAnalysis,
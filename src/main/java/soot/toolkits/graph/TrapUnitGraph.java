@@ -22,7 +22,6 @@ package soot.toolkits.graph;
  * #L%
  */
 
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -68,14 +67,13 @@ public class TrapUnitGraph extends UnitGraph {
    */
   public TrapUnitGraph(Body body) {
     super(body);
-    int size = unitChain.size();
 
     if (Options.v().time()) {
       Timers.v().graphTimer.start();
     }
 
-    unitToSuccs = new HashMap<Unit, List<Unit>>(size * 2 + 1, 0.7f);
-    unitToPreds = new HashMap<Unit, List<Unit>>(size * 2 + 1, 0.7f);
+    unitToSuccs = newUnitMap();
+    unitToPreds = newUnitMap();
     buildUnexceptionalEdges(unitToSuccs, unitToPreds);
     buildExceptionalEdges(unitToSuccs, unitToPreds);
 
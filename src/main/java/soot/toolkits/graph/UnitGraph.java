@@ -25,7 +25,6 @@ package soot.toolkits.graph;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
-import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -39,6 +38,7 @@ import soot.Unit;
 import soot.UnitBox;
 import soot.options.Options;
 import soot.util.Chain;
+import soot.util.DenseNumberedMap;
 
 /**
  * <p>
@@ -78,6 +78,16 @@ public abstract class UnitGraph implements DirectedBodyGraph<Unit> {
     }
   }
 
+  /**
+   * Returns a new, empty map from the units of the body to some data. The map is indexed by the body's
+   * {@link Body#getUnitNumbering() unit numbering}, so lookups do not need to hash while the body is not modified.
+   *
+   * @return a new map from the units of the body
+   */
+  public <V> Map<Unit, V> newUnitMap() {
+    return new DenseNumberedMap<Unit, V>(body.getUnitNumbering());
+  }
+
   /**
    * Utility method for <tt>UnitGraph</tt> constructors. It computes the edges corresponding to unexceptional control flow.
    *
@@ -199,7 +209,7 @@ public abstract class UnitGraph implements DirectedBodyGraph<Unit> {
    */
   protected Map<Unit, List<Unit>> combineMapValues(Map<Unit, List<Unit>> mapA, Map<Unit, List<Unit>> mapB) {
     // The duplicate screen
-    Map<Unit, List<Unit>> result = new LinkedHashMap<Unit, List<Unit>>(mapA.size() * 2 + 1, 0.7f);
+    Map<Unit, List<Unit>> result = newUnitMap();
     for (Unit unit : unitChain) {
       List<Unit> listA = mapA.get(unit);
       if (listA == null) {
@@ -24,10 +24,12 @@ package soot.toolkits.graph.pdg;
 
 import java.util.ArrayList;
 import java.util.Enumeration;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Hashtable;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Queue;
 import java.util.Set;
 
@@ -546,19 +548,16 @@ public class HashMutablePDG extends HashMutableEdgeLabelledDirectedGraph<PDGNode
 
   }
 
-  private static Hashtable<PDGNode, PDGRegion> node2Region = new Hashtable<PDGNode, PDGRegion>();
-
   // compute the pdg region list with in post order
   private static List<PDGRegion> computePDGRegions(PDGNode root) {
     List<PDGRegion> regions = new ArrayList<PDGRegion>();
 
-    node2Region.clear();
-    pdgpostorder(root, regions);
+    pdgpostorder(root, regions, new HashMap<PDGNode, PDGRegion>());
 
     return regions;
   }
 
-  private static PDGRegion pdgpostorder(PDGNode node, List<PDGRegion> list) {
+  private static PDGRegion pdgpostorder(PDGNode node, List<PDGRegion> list, Map<PDGNode, PDGRegion> node2Region) {
     if (node.getVisited()) {
       return null;
     }
@@ -582,7 +581,7 @@ public class HashMutablePDG extends HashMutableEdgeLabelledDirectedGraph<PDGNode
 
       if (curNode instanceof LoopedPDGNode) {
         PDGNode body = ((LoopedPDGNode) curNode).getBody();
-        PDGRegion kid = pdgpostorder(body, list);
+        PDGRegion kid = pdgpostorder(body, list, node2Region);
         if (kid != null) {
           kid.setParent(region);
           region.addChildRegion(kid);
@@ -591,7 +590,7 @@ public class HashMutablePDG extends HashMutableEdgeLabelledDirectedGraph<PDGNode
         }
       } else if (curNode instanceof ConditionalPDGNode) {
         for (PDGNode child : curNode.getDependents()) {
-          PDGRegion kid = pdgpostorder(child, list);
+          PDGRegion kid = pdgpostorder(child, list, node2Region);
           if (kid != null) {
             kid.setParent(region);
             region.addChildRegion(kid);
@@ -28,6 +28,7 @@ import java.util.Map;
 
 import soot.options.Options;
 import soot.toolkits.graph.DirectedGraph;
+import soot.toolkits.graph.UnitGraph;
 import soot.toolkits.graph.interaction.InteractionHandler;
 
 /**
@@ -53,13 +54,25 @@ public abstract class AbstractFlowAnalysis<N, A> {
   /** Constructs a flow analysis on the given <code>DirectedGraph</code>. */
   public AbstractFlowAnalysis(DirectedGraph<N> graph) {
     this.graph = graph;
-    this.unitToBeforeFlow = new IdentityHashMap<N, A>(graph.size() * 2 + 1);
+    this.unitToBeforeFlow = newNodeMap(graph);
     this.filterUnitToBeforeFlow = Collections.emptyMap();
     if (Options.v().interactive_mode()) {
       InteractionHandler.v().handleCfgEvent(graph);
     }
   }
 
+  /**
+   * Returns a new, empty map from the nodes of the given graph. For a {@link UnitGraph}, the map is indexed by the unit
+   * numbering of the body, so that looking up the flow of a node does not need to hash.
+   */
+  @SuppressWarnings("unchecked")
+  static <N, V> Map<N, V> newNodeMap(DirectedGraph<N> graph) {
+    if (graph instanceof UnitGraph) {
+      return (Map<N, V>) ((UnitGraph) graph).<V>newUnitMap();
+    }
+    return new IdentityHashMap<N, V>(graph.size() * 2 + 1);
+  }
+
   /**
    * Returns the flow object corresponding to the initial values for each graph node.
    */
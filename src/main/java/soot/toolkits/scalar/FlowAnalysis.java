@@ -25,6 +25,7 @@ package soot.toolkits.scalar;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Deque;
 import java.util.HashMap;
@@ -40,6 +41,7 @@ import soot.baf.GotoInst;
 import soot.jimple.GotoStmt;
 import soot.options.Options;
 import soot.toolkits.graph.DirectedGraph;
+import soot.toolkits.graph.UnitGraph;
 import soot.toolkits.graph.interaction.FlowInfo;
 import soot.toolkits.graph.interaction.InteractionHandler;
 import soot.util.Numberable;
@@ -124,7 +126,8 @@ public abstract class FlowAnalysis<N, A> extends AbstractFlowAnalysis<N, A> {
 
       Deque<Entry<D, F>> s = new ArrayDeque<Entry<D, F>>(n);
       List<Entry<D, F>> universe = new ArrayList<Entry<D, F>>(n);
-      Map<D, Entry<D, F>> visited = new HashMap<D, Entry<D, F>>(((n + 1) * 4) / 3);
+      Map<D, Entry<D, F>> visited = (g instanceof UnitGraph) ? AbstractFlowAnalysis.<D, Entry<D, F>>newNodeMap(g)
+          : new HashMap<D, Entry<D, F>>(((n + 1) * 4) / 3);
 
       // out of universe node
       Entry<D, F> superEntry = new Entry<D, F>(null, null);
@@ -373,6 +376,11 @@ public abstract class FlowAnalysis<N, A> extends AbstractFlowAnalysis<N, A> {
       <N> List<N> getOut(DirectedGraph<N> g, N s) {
         return g.getPredsOf(s);
       }
+
+      @Override
+      <N> List<N> getIn(DirectedGraph<N> g, N s) {
+        return g.getSuccsOf(s);
+      }
     },
     FORWARD {
       @Override
@@ -384,11 +392,18 @@ public abstract class FlowAnalysis<N, A> extends AbstractFlowAnalysis<N, A> {
       <N> List<N> getOut(DirectedGraph<N> g, N s) {
         return g.getSuccsOf(s);
       }
+
+      @Override
+      <N> List<N> getIn(DirectedGraph<N> g, N s) {
+        return g.getPredsOf(s);
+      }
     };
 
     abstract <N> List<N> getEntries(DirectedGraph<N> g);
 
     abstract <N> List<N> getOut(DirectedGraph<N> g, N s);
+
+    abstract <N> List<N> getIn(DirectedGraph<N> g, N s);
   }
 
   /** Maps graph nodes to OUT sets. */
@@ -400,7 +415,7 @@ public abstract class FlowAnalysis<N, A> extends AbstractFlowAnalysis<N, A> {
   /** Constructs a flow analysis on the given <code>DirectedGraph</code>. */
   public FlowAnalysis(DirectedGraph<N> graph) {
     super(graph);
-    this.unitToAfterFlow = new IdentityHashMap<N, A>(graph.size() * 2 + 1);
+    this.unitToAfterFlow = newNodeMap(graph);
     this.filterUnitToAfterFlow = Collections.emptyMap();
   }
 
@@ -523,6 +538,16 @@ public abstract class FlowAnalysis<N, A> extends AbstractFlowAnalysis<N, A> {
   }
 
   final int doAnalysis(GraphView gv, InteractionFlowHandler ifh, Map<N, A> inFlow, Map<N, A> outFlow) {
+    return doAnalysis(gv, ifh, inFlow, outFlow, null, null);
+  }
+
+  /**
+   * Computes the fixed point. If <code>previous</code> is given, the flows of all nodes that are neither in
+   * <code>changed</code> nor reachable from them or from nodes whose incoming edges differ from those in the graph of
+   * <code>previous</code> are copied from <code>previous</code>, and only the remaining nodes are put on the worklist.
+   */
+  final int doAnalysis(GraphView gv, InteractionFlowHandler ifh, Map<N, A> inFlow, Map<N, A> outFlow,
+      FlowAnalysis<N, A> previous, Collection<? extends N> changed) {
     assert gv != null;
     assert ifh != null;
 
@@ -531,7 +556,24 @@ public abstract class FlowAnalysis<N, A> extends AbstractFlowAnalysis<N, A> {
     final List<Entry<N, A>> universe = Orderer.INSTANCE.newUniverse(graph, gv, entryInitialFlow(), isForward());
     initFlow(universe, inFlow, outFlow);
 
-    Queue<Entry<N, A>> q = PriorityQueue.of(universe, true);
+    final Queue<Entry<N, A>> q;
+    final Set<Entry<N, A>> affected = (previous == null) ? null : getAffectedEntries(universe, gv, previous, changed);
+    if (affected == null) {
+      q = PriorityQueue.of(universe, true);
+    } else {
+      final Map<N, A> previousIn = isForward() ? previous.unitToBeforeFlow : previous.unitToAfterFlow;
+      final Map<N, A> previousOut = isForward() ? previous.unitToAfterFlow : previous.unitToBeforeFlow;
+      for (Entry<N, A> e : universe) {
+        if (!affected.contains(e)) {
+          copy(previousIn.get(e.data), e.inFlow);
+          if (e.outFlow != e.inFlow) {
+            copy(previousOut.get(e.data), e.outFlow);
+          }
+        }
+      }
+      q = PriorityQueue.noneOf(universe, true);
+      q.addAll(affected);
+    }
 
     // Perform fixed point flow analysis
     for (int numComputations = 0;; numComputations++) {
@@ -554,6 +596,71 @@ public abstract class FlowAnalysis<N, A> extends AbstractFlowAnalysis<N, A> {
     }
   }
 
+  /**
+   * Returns the entries whose flows may differ from those computed by <code>previous</code>, i.e., the changed nodes, the
+   * nodes that <code>previous</code> did not reach, the nodes whose incoming edges have changed, and all nodes reachable
+   * from them. Returns <code>null</code> if the flows of <code>previous</code> cannot be reused at all.
+   */
+  private Set<Entry<N, A>> getAffectedEntries(List<Entry<N, A>> universe, GraphView gv, FlowAnalysis<N, A> previous,
+      Collection<? extends N> changed) {
+    if (previous.getClass() != getClass() || previous.isForward() != isForward()) {
+      return null;
+    }
+    final DirectedGraph<N> previousGraph = previous.graph;
+    final List<N> previousEntries = gv.getEntries(previousGraph);
+    if (previousEntries.isEmpty() || gv.getEntries(graph).isEmpty()) {
+      // Backward analyses of methods without tails start at guessed nodes, which we do not compare
+      return null;
+    }
+    final Set<N> previousEntrySet = new HashSet<N>(previousEntries);
+    final Set<N> changedSet = (changed == null) ? Collections.<N>emptySet() : new HashSet<N>(changed);
+    final Map<N, A> previousIn = isForward() ? previous.unitToBeforeFlow : previous.unitToAfterFlow;
+
+    final Set<Entry<N, A>> affected = Collections.newSetFromMap(new IdentityHashMap<Entry<N, A>, Boolean>());
+    final Deque<Entry<N, A>> worklist = new ArrayDeque<Entry<N, A>>();
+    for (Entry<N, A> e : universe) {
+      if (changedSet.contains(e.data) || !previousIn.containsKey(e.data)
+          || !hasSameInputs(e, gv, previousGraph, previousEntrySet, previousIn)) {
+        affected.add(e);
+        worklist.add(e);
+      }
+    }
+    while (!worklist.isEmpty()) {
+      for (Entry<N, A> o : worklist.poll().out) {
+        if (affected.add(o)) {
+          worklist.add(o);
+        }
+      }
+    }
+    return affected;
+  }
+
+  /**
+   * Returns true if the incoming edges of the given entry are those of its node in the previous graph. Only the nodes that
+   * the previous analysis reached, i.e., the keys of <code>previousFlow</code>, count.
+   */
+  private static <N, A> boolean hasSameInputs(Entry<N, A> e, GraphView gv, DirectedGraph<N> previousGraph,
+      Set<N> previousEntries, Map<N, A> previousFlow) {
+    final boolean wasEntry = previousEntries.contains(e.data);
+    int previousCount = wasEntry ? 1 : 0;
+    final List<N> previousIn = gv.getIn(previousGraph, e.data);
+    for (N n : previousIn) {
+      if (previousFlow.containsKey(n)) {
+        previousCount++;
+      }
+    }
+    if (e.in.length != previousCount) {
+      return false;
+    }
+    for (Entry<N, A> i : e.in) {
+      // The super entry has no data
+      if (i.data == null ? !wasEntry : !previousIn.contains(i.data)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
   private boolean flowThrough(Entry<N, A> d) {
     // omitted, just fall through
     if (d.inFlow == d.outFlow) {
@@ -22,6 +22,8 @@ package soot.toolkits.scalar;
  * #L%
  */
 
+import java.util.Collection;
+
 import soot.toolkits.graph.DirectedGraph;
 
 /**
@@ -48,4 +50,25 @@ public abstract class ForwardFlowAnalysis<N, A> extends FlowAnalysis<N, A> {
     soot.Timers.v().totalFlowNodes += graph.size();
     soot.Timers.v().totalFlowComputations += i;
   }
+
+  /**
+   * Carries out the analysis like {@link #doAnalysis()}, but starts from the results of <code>previous</code>, an analysis
+   * of the same class on an earlier version of the graph, e.g., before a transformation edited a few statements. Only the
+   * nodes in <code>changed</code>, the nodes whose predecessors have changed, and the nodes after them are computed again;
+   * all other nodes get the flows of <code>previous</code>. The result is the same as that of {@link #doAnalysis()} as long
+   * as <code>changed</code> contains every node whose flow function has changed. The transformers of Soot do not track their
+   * edits and always analyze whole bodies; this method is meant for clients that know which nodes they have changed.
+   *
+   * @param previous
+   *          the analysis of the earlier graph, or <code>null</code> to analyze the whole graph
+   * @param changed
+   *          the nodes that have been modified since <code>previous</code> was computed
+   */
+  protected void doAnalysis(FlowAnalysis<N, A> previous, Collection<? extends N> changed) {
+    int i = doAnalysis(GraphView.FORWARD, InteractionFlowHandler.FORWARD, unitToBeforeFlow, unitToAfterFlow, previous,
+        changed);
+
+    soot.Timers.v().totalFlowNodes += graph.size();
+    soot.Timers.v().totalFlowComputations += i;
+  }
 }
@@ -22,8 +22,10 @@ package soot.toolkits.scalar;
  * #L%
  */
 
+import java.util.Collection;
 import java.util.List;
 
+import soot.BodyAnalysisCache;
 import soot.Local;
 import soot.Unit;
 import soot.toolkits.graph.DirectedBodyGraph;
@@ -59,7 +61,23 @@ public interface LiveLocals {
     }
 
     public static LiveLocals newLiveLocals(DirectedBodyGraph<Unit> graph) {
+      final BodyAnalysisCache cache = BodyAnalysisCache.v();
+      if (cache.isEnabled()) {
+        return cache.getLiveLocals(graph, () -> new SimpleLiveLocals(graph));
+      }
       return new SimpleLiveLocals(graph);
     }
+
+    /**
+     * Computes the live locals of a body that has been modified since <code>previous</code> was computed, reusing the
+     * results of <code>previous</code> for all units that the modification of the units in <code>changed</code> cannot
+     * affect. If <code>previous</code> was not created by this factory, the live locals are computed from scratch.
+     */
+    public static LiveLocals newLiveLocals(DirectedBodyGraph<Unit> graph, LiveLocals previous, Collection<Unit> changed) {
+      if (previous instanceof SimpleLiveLocals) {
+        return new SimpleLiveLocals(graph, (SimpleLiveLocals) previous, changed);
+      }
+      return newLiveLocals(graph);
+    }
   }
 }
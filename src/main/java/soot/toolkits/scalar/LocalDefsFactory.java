@@ -23,6 +23,7 @@ package soot.toolkits.scalar;
  */
 
 import soot.Body;
+import soot.BodyAnalysisCache;
 import soot.Singletons;
 import soot.toolkits.graph.ExceptionalUnitGraphFactory;
 import soot.toolkits.graph.UnitGraph;
@@ -100,7 +101,12 @@ public class LocalDefsFactory {
    */
   public LocalDefs newLocalDefs(UnitGraph graph, boolean expectUndefined) {
     // return new SmartLocalDefs(graph, LiveLocals.Factory.newLiveLocals(graph));
-    return new SimpleLocalDefs(graph, expectUndefined ? FlowAnalysisMode.OmitSSA : FlowAnalysisMode.Automatic);
+    final FlowAnalysisMode mode = expectUndefined ? FlowAnalysisMode.OmitSSA : FlowAnalysisMode.Automatic;
+    final BodyAnalysisCache cache = BodyAnalysisCache.v();
+    if (cache.isEnabled()) {
+      return cache.getLocalDefs(graph, expectUndefined, () -> new SimpleLocalDefs(graph, mode));
+    }
+    return new SimpleLocalDefs(graph, mode);
   }
 
   /**
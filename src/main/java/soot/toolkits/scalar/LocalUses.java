@@ -25,6 +25,7 @@ package soot.toolkits.scalar;
 import java.util.List;
 
 import soot.Body;
+import soot.BodyAnalysisCache;
 import soot.G;
 import soot.Unit;
 import soot.toolkits.graph.UnitGraph;
@@ -51,6 +52,10 @@ public interface LocalUses {
     }
 
     public static LocalUses newLocalUses(Body body, LocalDefs localDefs) {
+      final BodyAnalysisCache cache = BodyAnalysisCache.v();
+      if (cache.isEnabled()) {
+        return cache.getLocalUses(body, localDefs, () -> new SimpleLocalUses(body, localDefs));
+      }
       return new SimpleLocalUses(body, localDefs);
     }
 
@@ -22,6 +22,7 @@ package soot.toolkits.scalar;
  * #L%
  */
 
+import java.util.Collection;
 import java.util.List;
 
 import org.slf4j.Logger;
@@ -42,7 +43,7 @@ import soot.toolkits.graph.ExceptionalUnitGraph;
 public class SimpleLiveLocals implements LiveLocals {
   private static final Logger logger = LoggerFactory.getLogger(SimpleLiveLocals.class);
 
-  private final FlowAnalysis<Unit, FlowSet<Local>> analysis;
+  private final Analysis analysis;
 
   /**
    * Computes the analysis given a DirectedBodyGraph<Unit> computed from a method body. It is recommended that a
@@ -54,6 +55,24 @@ public class SimpleLiveLocals implements LiveLocals {
    * @see ExceptionalUnitGraph
    */
   public SimpleLiveLocals(DirectedBodyGraph<Unit> graph) {
+    this(graph, null, null);
+  }
+
+  /**
+   * Computes the analysis given a DirectedBodyGraph<Unit> computed from a method body that has been modified since
+   * <code>previous</code> was computed, e.g., by a transformation that changed or inserted a few statements. The live locals
+   * of all units that are neither in <code>changed</code> nor before such a unit or a unit whose successors have changed are
+   * taken from <code>previous</code>.
+   *
+   * @param graph
+   *          a graph on which to compute the analysis.
+   * @param previous
+   *          the live locals of an earlier version of the body, or <code>null</code>
+   * @param changed
+   *          the units that have been modified or inserted since <code>previous</code> was computed, including all units
+   *          whose uses or definitions have changed
+   */
+  public SimpleLiveLocals(DirectedBodyGraph<Unit> graph, SimpleLiveLocals previous, Collection<Unit> changed) {
     if (Options.v().verbose()) {
       logger.debug("[" + graph.getBody().getMethod().getName() + "]     Constructing SimpleLiveLocals...");
     }
@@ -67,7 +86,7 @@ public class SimpleLiveLocals implements LiveLocals {
       Timers.v().liveAnalysisTimer.start();
     }
 
-    this.analysis.doAnalysis();
+    this.analysis.doAnalysis(previous == null ? null : previous.analysis, changed);
 
     if (Options.v().time()) {
       Timers.v().liveAnalysisTimer.end();
@@ -30,6 +30,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 import soot.IdentityUnit;
 import soot.Local;
@@ -43,6 +44,7 @@ import soot.toolkits.graph.DirectedGraph;
 import soot.toolkits.graph.ExceptionalGraph;
 import soot.toolkits.graph.ExceptionalGraph.ExceptionDest;
 import soot.toolkits.graph.UnitGraph;
+import soot.util.DenseNumbering;
 
 /**
  * Analysis that provides an implementation of the LocalDefs interface.
@@ -135,13 +137,23 @@ public class SimpleLocalDefs implements LocalDefs {
     final int[] localRange;
     final Unit[] universe;
 
-    private Map<Unit, Integer> indexOfUnit;
+    // The position of each definition in the universe, indexed by the unit numbering of the body if there is one
+    private DenseNumbering<Unit> unitNumbering;
+    private int[] indexOfUnit;
+    private Map<Unit, Integer> indexOfOtherUnit;
+
+    // Reused to collect the def boxes of a unit in flowThrough() without allocating
+    private final List<ValueBox> defBoxes = new ArrayList<ValueBox>(1);
+    private final Consumer<ValueBox> addDefBox = defBoxes::add;
 
     public FlowAssignment(DirectedGraph<Unit> graph, Local[] locals, List<Unit>[] unitList, int units, boolean omitSSA) {
       super(graph);
       this.unitList = unitList;
       this.universe = new Unit[units];
-      this.indexOfUnit = new HashMap<Unit, Integer>(units);
+      if (graph instanceof UnitGraph) {
+        this.unitNumbering = ((UnitGraph) graph).getBody().getUnitNumbering();
+        this.indexOfUnit = new int[unitNumbering.size()];
+      }
       final int N = locals.length;
       this.locals = new HashMap<Local, Integer>((N * 3) / 2 + 7);
       this.localRange = new int[N + 1];
@@ -157,7 +169,7 @@ public class SimpleLocalDefs implements LocalDefs {
 
         if (currUnitList.size() >= 2) {
           for (Unit u : currUnitList) {
-            this.indexOfUnit.put(u, j);
+            setIndexOfUnit(u, j);
             this.universe[j++] = u;
           }
         } else if (omitSSA) {
@@ -168,7 +180,27 @@ public class SimpleLocalDefs implements LocalDefs {
 
       doAnalysis();
 
-      this.indexOfUnit = null;// release memory
+      // release memory
+      this.unitNumbering = null;
+      this.indexOfUnit = null;
+      this.indexOfOtherUnit = null;
+    }
+
+    private void setIndexOfUnit(Unit u, int index) {
+      final int n = (unitNumbering == null) ? -1 : unitNumbering.indexOf(u);
+      if (n >= 0) {
+        indexOfUnit[n] = index;
+      } else {
+        if (indexOfOtherUnit == null) {
+          indexOfOtherUnit = new HashMap<Unit, Integer>();
+        }
+        indexOfOtherUnit.put(u, index);
+      }
+    }
+
+    private int getIndexOfUnit(Unit u) {
+      final int n = (unitNumbering == null) ? -1 : unitNumbering.indexOf(u);
+      return (n >= 0) ? indexOfUnit[n] : indexOfOtherUnit.get(u);
     }
 
     @Override
@@ -210,7 +242,11 @@ public class SimpleLocalDefs implements LocalDefs {
       copy(in, out);
 
       // reassign all definitions
-      for (ValueBox vb : unit.getDefBoxes()) {
+      final List<ValueBox> defBoxes = this.defBoxes;
+      defBoxes.clear();
+      unit.forEachDefBox(addDefBox);
+      for (int i = 0, e = defBoxes.size(); i < e; i++) {
+        final ValueBox vb = defBoxes.get(i);
         Value v = vb.getValue();
         if (v instanceof Local) {
           Local l = (Local) v;
@@ -229,7 +265,7 @@ public class SimpleLocalDefs implements LocalDefs {
             out.set(from);
           } else {
             out.clear(from, to);
-            out.set(indexOfUnit.get(unit));
+            out.set(getIndexOfUnit(unit));
           }
         }
       }
@@ -29,6 +29,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Consumer;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -79,9 +80,14 @@ public class SimpleLocalUses implements LocalUses {
       Timers.v().usesTimer.start();
     }
 
-    // Traverse units and associate uses with definitions
+    // Traverse units and associate uses with definitions, collecting the use boxes of each unit into the same list
+    final List<ValueBox> useBoxes = new ArrayList<ValueBox>();
+    final Consumer<ValueBox> addUseBox = useBoxes::add;
     for (Unit unit : body.getUnits()) {
-      for (ValueBox useBox : unit.getUseBoxes()) {
+      useBoxes.clear();
+      unit.forEachUseBox(addUseBox);
+      for (int i = 0, e = useBoxes.size(); i < e; i++) {
+        final ValueBox useBox = useBoxes.get(i);
         Value v = useBox.getValue();
         if (v instanceof Local) {
           // Add this statement to the uses of the definition of the local
@@ -23,6 +23,7 @@ package soot.toolkits.scalar;
  */
 
 import soot.AbstractValueBox;
+import soot.BodyAnalysisCache;
 import soot.EquivTo;
 import soot.Unit;
 import soot.UnitBox;
@@ -76,6 +77,7 @@ public class ValueUnitPair extends AbstractValueBox implements UnitBox, EquivTo
     // Remove this from set of back pointers.
     if (this.unit != null) {
       this.unit.removeBoxPointingToThis(this);
+      BodyAnalysisCache.contentsModified();
     }
 
     // Perform link
@@ -0,0 +1,734 @@
+package soot.util;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2026 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Implementation of the Chain interface that keeps its elements in parallel arrays instead of a hash map of link objects.
+ * Every element occupies a slot with the indices of its neighbors and an order label; the slot of an element is found
+ * through an open addressing table of slot numbers. This needs no objects per element, which makes it considerably smaller
+ * than {@link HashChain} for the unit chains of large bodies.
+ *
+ * <p>
+ * The labels increase along the chain, so whether one element {@link #follows(Object, Object) follows} another is decided
+ * by comparing two numbers. An insertion takes the label in the middle between its neighbors; if there is no room left,
+ * the labels of a surrounding range that is sparse enough are spread out evenly again. The position of an element in the
+ * chain ({@link #indexOf(Object)}, {@link #get(int)}) is computed for all elements at once on the first query after a
+ * modification.
+ * </p>
+ *
+ * <p>
+ * Elements are compared by identity, which is what unit chains need. Use {@link HashChain} for elements that define their
+ * own equality.
+ * </p>
+ *
+ * @param <E>
+ *          element type
+ */
+@SuppressWarnings("serial")
+public class ArrayChain<E> extends AbstractCollection<E> implements Chain<E> {
+
+  private static final int NONE = -1;
+
+  /** Marks the end of an iteration range whose tail is not in the chain. */
+  private static final int MISSING = -2;
+
+  /** Labels stay within [MIN_LABEL, MAX_LABEL], so that differences of labels cannot overflow. */
+  private static final long MIN_LABEL = -(1L << 61);
+  private static final long MAX_LABEL = 1L << 61;
+
+  /** The label distance between elements appended to either end of the chain. */
+  private static final long LABEL_GAP = 1L << 20;
+
+  private Object[] items;
+  private int[] next;
+  private int[] prev;
+  private long[] labels;
+
+  /**
+   * Slot numbers plus one, 0 marking an empty entry, hashed by the identity of the element in the slot. Identity hash codes
+   * change with serialization, so the table is rebuilt when the chain is read.
+   */
+  private transient int[] table;
+
+  private int head = NONE;
+  private int tail = NONE;
+  private int size = 0;
+
+  /** The number of slots that have ever been used. Free slots below this number are linked through {@link #next}. */
+  private int usedSlots = 0;
+  private int freeSlot = NONE;
+
+  protected int stateCount = 0;
+
+  /** The positions of the elements by slot and the elements by position, valid if {@link #indexedState} is current. */
+  private transient int[] indexOfSlot;
+  private transient Object[] ordered;
+  private transient int indexedState = -1;
+
+  /** Constructs an empty ArrayChain. */
+  public ArrayChain() {
+    this(16);
+  }
+
+  /** Constructs an empty ArrayChain with the given initial capacity. */
+  public ArrayChain(int initialCapacity) {
+    final int capacity = Math.max(initialCapacity, 4);
+    this.items = new Object[capacity];
+    this.next = new int[capacity];
+    this.prev = new int[capacity];
+    this.labels = new long[capacity];
+    this.table = new int[tableSizeFor(capacity)];
+  }
+
+  /** Constructs an ArrayChain filled with the contents of the src Chain. */
+  public ArrayChain(Chain<E> src) {
+    this(src.size());
+    addAll(src);
+  }
+
+  private static int tableSizeFor(int capacity) {
+    // Keep the load factor at or below 1/2
+    return Integer.highestOneBit(Math.max(capacity, 2) * 2 - 1) << 1;
+  }
+
+  private static int hash(Object o, int mask) {
+    final int h = System.identityHashCode(o) * 0x9E3779B9;
+    return (h ^ (h >>> 16)) & mask;
+  }
+
+  /** Returns the slot of the given element, or {@link #NONE} if it is not in this chain. */
+  private int slotOf(Object o) {
+    if (o == null) {
+      return NONE;
+    }
+    final int[] t = table;
+    final int mask = t.length - 1;
+    for (int i = hash(o, mask);; i = (i + 1) & mask) {
+      final int entry = t[i];
+      if (entry == 0) {
+        return NONE;
+      }
+      if (items[entry - 1] == o) {
+        return entry - 1;
+      }
+    }
+  }
+
+  private int existingSlotOf(Object o) {
+    final int slot = slotOf(o);
+    if (slot == NONE) {
+      throw new NoSuchElementException();
+    }
+    return slot;
+  }
+
+  private void putInTable(int[] t, int slot) {
+    final int mask = t.length - 1;
+    int i = hash(items[slot], mask);
+    while (t[i] != 0) {
+      i = (i + 1) & mask;
+    }
+    t[i] = slot + 1;
+  }
+
+  private void removeFromTable(Object o) {
+    final int[] t = table;
+    final int mask = t.length - 1;
+    int i = hash(o, mask);
+    while (items[t[i] - 1] != o) {
+      i = (i + 1) & mask;
+    }
+    // Shift the following entries of the probe sequence back, so that no tombstones are needed
+    for (int j = (i + 1) & mask; t[j] != 0; j = (j + 1) & mask) {
+      final int home = hash(items[t[j] - 1], mask);
+      if (((j - home) & mask) >= ((j - i) & mask)) {
+        t[i] = t[j];
+        i = j;
+      }
+    }
+    t[i] = 0;
+  }
+
+  /** Returns a free slot for the given element and adds it to the table. The slot is not linked yet. */
+  private int allocate(E item) {
+    if (item == null) {
+      throw new RuntimeException("Cannot insert a null object into a Chain!");
+    }
+    if (slotOf(item) != NONE) {
+      throw new RuntimeException("Chain already contains object: " + item);
+    }
+    int slot;
+    if (freeSlot != NONE) {
+      slot = freeSlot;
+      freeSlot = next[slot];
+    } else {
+      if (usedSlots == items.length) {
+        grow();
+      }
+      slot = usedSlots++;
+    }
+    items[slot] = item;
+    putInTable(table, slot);
+    size++;
+    stateCount++;
+    return slot;
+  }
+
+  private void grow() {
+    final int capacity = items.length + (items.length >> 1) + 1;
+    items = Arrays.copyOf(items, capacity);
+    next = Arrays.copyOf(next, capacity);
+    prev = Arrays.copyOf(prev, capacity);
+    labels = Arrays.copyOf(labels, capacity);
+    final int tableSize = tableSizeFor(capacity);
+    if (tableSize > table.length) {
+      final int[] t = new int[tableSize];
+      for (int slot = head; slot != NONE; slot = next[slot]) {
+        putInTable(t, slot);
+      }
+      table = t;
+    }
+  }
+
+  /** Links the given slot between the given slots, either of which may be {@link #NONE}, and labels it. */
+  private void link(int slot, int before, int after) {
+    prev[slot] = before;
+    next[slot] = after;
+    if (before == NONE) {
+      head = slot;
+    } else {
+      next[before] = slot;
+    }
+    if (after == NONE) {
+      tail = slot;
+    } else {
+      prev[after] = slot;
+    }
+
+    if (before == NONE && after == NONE) {
+      labels[slot] = 0;
+    } else if (before == NONE) {
+      final long label = labels[after] - LABEL_GAP;
+      if (label > MIN_LABEL) {
+        labels[slot] = label;
+      } else {
+        relabel(slot);
+      }
+    } else if (after == NONE) {
+      final long label = labels[before] + LABEL_GAP;
+      if (label < MAX_LABEL) {
+        labels[slot] = label;
+      } else {
+        relabel(slot);
+      }
+    } else {
+      final long lower = labels[before];
+      final long upper = labels[after];
+      if (upper - lower > 1) {
+        labels[slot] = lower + (upper - lower) / 2;
+      } else {
+        relabel(slot);
+      }
+    }
+  }
+
+  /**
+   * Spreads out the labels of the smallest range around the given slot whose neighbors leave enough room, i.e., whose
+   * label distance exceeds the square of the number of elements in the range. The range grows by doubling, which makes
+   * relabeling cost amortized logarithmic time per insertion.
+   */
+  private void relabel(int slot) {
+    int first = slot;
+    int last = slot;
+    int count = 1;
+    while (true) {
+      final long lower = prev[first] == NONE ? MIN_LABEL : labels[prev[first]];
+      final long upper = next[last] == NONE ? MAX_LABEL : labels[next[last]];
+      final long step = (upper - lower) / (count + 1);
+      if (step > count || (prev[first] == NONE && next[last] == NONE)) {
+        long label = lower;
+        for (int s = first;; s = next[s]) {
+          label += step;
+          labels[s] = label;
+          if (s == last) {
+            break;
+          }
+        }
+        return;
+      }
+      final int target = count * 2;
+      while (count < target && (prev[first] != NONE || next[last] != NONE)) {
+        if (prev[first] != NONE) {
+          first = prev[first];
+          count++;
+        }
+        if (count < target && next[last] != NONE) {
+          last = next[last];
+          count++;
+        }
+      }
+    }
+  }
+
+  private void unlink(int slot) {
+    final int before = prev[slot];
+    final int after = next[slot];
+    if (before == NONE) {
+      head = after;
+    } else {
+      next[before] = after;
+    }
+    if (after == NONE) {
+      tail = before;
+    } else {
+      prev[after] = before;
+    }
+    removeFromTable(items[slot]);
+    items[slot] = null;
+    next[slot] = freeSlot;
+    freeSlot = slot;
+    size--;
+    stateCount++;
+  }
+
+  @SuppressWarnings("unchecked")
+  private E itemAt(int slot) {
+    return slot == NONE ? null : (E) items[slot];
+  }
+
+  /** Erases the contents of the current ArrayChain. */
+  @Override
+  public synchronized void clear() {
+    stateCount++;
+    Arrays.fill(items, 0, usedSlots, null);
+    Arrays.fill(table, 0);
+    head = tail = freeSlot = NONE;
+    size = usedSlots = 0;
+  }
+
+  @Override
+  public synchronized void swapWith(E out, E in) {
+    insertBefore(in, out);
+    remove(out);
+  }
+
+  /** Adds the given object to this ArrayChain. */
+  @Override
+  public synchronized boolean add(E item) {
+    addLast(item);
+    return true;
+  }
+
+  /**
+   * Gets all elements in the chain. The returned collection is a copy of the chain in its order.
+   *
+   * @return All elements in the chain
+   */
+  @Override
+  public synchronized Collection<E> getElementsUnsorted() {
+    return new ArrayList<E>(this);
+  }
+
+  /**
+   * Returns true if <code>someObject</code> is <code>someReferenceObject</code> or comes after it in this chain, which is
+   * decided in constant time.
+   */
+  @Override
+  public synchronized boolean follows(E someObject, E someReferenceObject) {
+    final int reference = slotOf(someReferenceObject);
+    final int slot = slotOf(someObject);
+    return reference != NONE && slot != NONE && labels[slot] >= labels[reference];
+  }
+
+  /**
+   * Returns the position of the given object in this chain, or -1 if it is not contained in this chain. The positions of
+   * all elements are computed on the first query after a modification of the chain; further queries take constant time.
+   */
+  public synchronized int indexOf(Object o) {
+    final int slot = slotOf(o);
+    if (slot == NONE) {
+      return -1;
+    }
+    ensureIndexed();
+    return indexOfSlot[slot];
+  }
+
+  /**
+   * Returns the element at the given position in this chain. Like {@link #indexOf(Object)}, this takes constant time
+   * unless the chain has been modified since the last positional query.
+   *
+   * @throws IndexOutOfBoundsException
+   *           if there is no element at the given position
+   */
+  @SuppressWarnings("unchecked")
+  public synchronized E get(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+    ensureIndexed();
+    return (E) ordered[index];
+  }
+
+  private void ensureIndexed() {
+    if (indexedState == stateCount && indexOfSlot != null) {
+      return;
+    }
+    if (indexOfSlot == null || indexOfSlot.length < items.length) {
+      indexOfSlot = new int[items.length];
+    }
+    if (ordered == null || ordered.length < size) {
+      ordered = new Object[items.length];
+    } else {
+      Arrays.fill(ordered, size, ordered.length, null);
+    }
+    int index = 0;
+    for (int slot = head; slot != NONE; slot = next[slot]) {
+      indexOfSlot[slot] = index;
+      ordered[index++] = items[slot];
+    }
+    indexedState = stateCount;
+  }
+
+  @Override
+  public synchronized boolean contains(Object o) {
+    return slotOf(o) != NONE;
+  }
+
+  @Override
+  public synchronized boolean containsAll(Collection<?> c) {
+    for (Object next : c) {
+      if (slotOf(next) == NONE) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private int insertionPoint(E point) {
+    if (point == null) {
+      throw new RuntimeException("Insertion point cannot be null!");
+    }
+    final int slot = slotOf(point);
+    if (slot == NONE) {
+      throw new RuntimeException("Insertion point not found in chain!");
+    }
+    return slot;
+  }
+
+  @Override
+  public synchronized void insertAfter(E toInsert, E point) {
+    if (toInsert == null) {
+      throw new RuntimeException("Cannot insert a null object into a Chain!");
+    }
+    final int pointSlot = insertionPoint(point);
+    final int slot = allocate(toInsert);
+    link(slot, pointSlot, next[pointSlot]);
+  }
+
+  @Override
+  public synchronized void insertAfter(Collection<? extends E> toInsert, E point) {
+    if (toInsert == null) {
+      throw new RuntimeException("Cannot insert a null Collection into a Chain!");
+    }
+    if (point == null) {
+      throw new RuntimeException("Insertion point cannot be null!");
+    }
+
+    E previousPoint = point;
+    for (E o : toInsert) {
+      insertAfter(o, previousPoint);
+      previousPoint = o;
+    }
+  }
+
+  @Override
+  public synchronized void insertAfter(List<E> toInsert, E point) {
+    insertAfter((Collection<E>) toInsert, point);
+  }
+
+  @Override
+  public synchronized void insertAfter(Chain<E> toInsert, E point) {
+    insertAfter((Collection<E>) toInsert, point);
+  }
+
+  @Override
+  public synchronized void insertBefore(E toInsert, E point) {
+    if (toInsert == null) {
+      throw new RuntimeException("Cannot insert a null object into a Chain!");
+    }
+    final int pointSlot = insertionPoint(point);
+    final int slot = allocate(toInsert);
+    link(slot, prev[pointSlot], pointSlot);
+  }
+
+  @Override
+  public synchronized void insertBefore(Collection<? extends E> toInsert, E point) {
+    if (toInsert == null) {
+      throw new RuntimeException("Cannot insert a null Collection into a Chain!");
+    }
+    if (point == null) {
+      throw new RuntimeException("Insertion point cannot be null!");
+    }
+
+    for (E o : toInsert) {
+      insertBefore(o, point);
+    }
+  }
+
+  @Override
+  public synchronized void insertBefore(List<E> toInsert, E point) {
+    insertBefore((Collection<E>) toInsert, point);
+  }
+
+  @Override
+  public synchronized void insertBefore(Chain<E> toInsert, E point) {
+    insertBefore((Collection<E>) toInsert, point);
+  }
+
+  @Override
+  public synchronized boolean remove(Object item) {
+    if (item == null) {
+      throw new RuntimeException("Cannot remove a null object from a Chain!");
+    }
+    final int slot = slotOf(item);
+    if (slot == NONE) {
+      return false;
+    }
+    unlink(slot);
+    return true;
+  }
+
+  @Override
+  public synchronized void addFirst(E item) {
+    final int slot = allocate(item);
+    link(slot, NONE, head);
+  }
+
+  @Override
+  public synchronized void addLast(E item) {
+    final int slot = allocate(item);
+    link(slot, tail, NONE);
+  }
+
+  @Override
+  public synchronized void removeFirst() {
+    if (head == NONE) {
+      throw new NoSuchElementException();
+    }
+    unlink(head);
+  }
+
+  @Override
+  public synchronized void removeLast() {
+    if (tail == NONE) {
+      throw new NoSuchElementException();
+    }
+    unlink(tail);
+  }
+
+  @Override
+  public synchronized E getFirst() {
+    if (head == NONE) {
+      throw new NoSuchElementException();
+    }
+    return itemAt(head);
+  }
+
+  @Override
+  public synchronized E getLast() {
+    if (tail == NONE) {
+      throw new NoSuchElementException();
+    }
+    return itemAt(tail);
+  }
+
+  @Override
+  public synchronized E getSuccOf(E point) throws NoSuchElementException {
+    return itemAt(next[existingSlotOf(point)]);
+  }
+
+  @Override
+  public synchronized E getPredOf(E point) throws NoSuchElementException {
+    if (point == null) {
+      throw new RuntimeException("Chain cannot contain null objects!");
+    }
+    return itemAt(prev[existingSlotOf(point)]);
+  }
+
+  @Override
+  public synchronized Iterator<E> snapshotIterator() {
+    return new ArrayList<E>(this).iterator();
+  }
+
+  @Override
+  public synchronized Iterator<E> iterator() {
+    return new SlotIterator(head, NONE);
+  }
+
+  @Override
+  public synchronized Iterator<E> iterator(E from) {
+    if (from == null || head == NONE) {
+      return new SlotIterator(NONE, NONE);
+    }
+    final int slot = slotOf(from);
+    if (slot == NONE) {
+      throw new NoSuchElementException("ArrayChain.iterator(obj) with obj that is not in the chain: " + from);
+    }
+    return new SlotIterator(slot, NONE);
+  }
+
+  /**
+   * <p>
+   * Returns an iterator ranging from <code>head</code> to <code>tail</code>, inclusive.
+   * </p>
+   *
+   * <p>
+   * If <code>tail</code> is the element immediately preceding <code>head</code> in this <code>ArrayChain</code>, the
+   * returned iterator will iterate 0 times (a special case to allow the specification of an empty range of elements).
+   * Otherwise if <code>tail</code> is not one of the elements following <code>head</code>, the returned iterator will
+   * iterate past the end of the <code>ArrayChain</code>, provoking a {@link NoSuchElementException}.
+   * </p>
+   *
+   * @throws NoSuchElementException
+   *           if <code>head</code> is not an element of the chain.
+   */
+  @Override
+  public synchronized Iterator<E> iterator(E head, E tail) {
+    if (head == null || this.head == NONE) {
+      return new SlotIterator(NONE, NONE);
+    }
+    final int slot = existingSlotOf(head);
+    if (itemAt(prev[slot]) == tail) {
+      return new SlotIterator(NONE, NONE);
+    }
+    if (tail == null) {
+      return new SlotIterator(slot, NONE);
+    }
+    // A tail that is not in the chain is never reached
+    final int tailSlot = slotOf(tail);
+    return new SlotIterator(slot, tailSlot == NONE ? MISSING : tailSlot);
+  }
+
+  @Override
+  public synchronized int size() {
+    return size;
+  }
+
+  private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+    in.defaultReadObject();
+    final int[] t = new int[tableSizeFor(items.length)];
+    for (int slot = head; slot != NONE; slot = next[slot]) {
+      putInTable(t, slot);
+    }
+    table = t;
+    indexedState = -1;
+  }
+
+  /** Returns a textual representation of the contents of this Chain. */
+  @Override
+  public synchronized String toString() {
+    StringBuilder strBuf = new StringBuilder();
+    strBuf.append('[');
+    for (int slot = head; slot != NONE; slot = next[slot]) {
+      if (slot != head) {
+        strBuf.append(", ");
+      }
+      strBuf.append(items[slot].toString());
+    }
+    strBuf.append(']');
+    return strBuf.toString();
+  }
+
+  /** Returns the number of times this chain has been modified. */
+  @Override
+  public long getModificationCount() {
+    return stateCount;
+  }
+
+  private class SlotIterator implements Iterator<E> {
+    /** The slot of the last element, {@link #NONE} to iterate to the end of the chain. */
+    private final int lastSlot;
+    private int nextSlot;
+    private int currentSlot = NONE;
+    private int iteratorStateCount;
+
+    SlotIterator(int firstSlot, int lastSlot) {
+      this.nextSlot = firstSlot;
+      this.lastSlot = lastSlot;
+      this.iteratorStateCount = stateCount;
+    }
+
+    @Override
+    public boolean hasNext() {
+      if (stateCount != iteratorStateCount) {
+        throw new ConcurrentModificationException();
+      }
+      if (lastSlot == NONE) {
+        return nextSlot != NONE;
+      }
+      // Like HashChain, ignore the end of the chain until the tail has been reached, so that next() fails if the tail is
+      // not in the chain after the head
+      return currentSlot != lastSlot;
+    }
+
+    @Override
+    public E next() throws NoSuchElementException {
+      if (stateCount != iteratorStateCount) {
+        throw new ConcurrentModificationException();
+      }
+      if (nextSlot == NONE) {
+        if (lastSlot != NONE && currentSlot != lastSlot) {
+          throw new NoSuchElementException(
+              "ArrayChain.SlotIterator.next() reached end of chain without reaching specified tail unit");
+        }
+        throw new NoSuchElementException("ArrayChain.SlotIterator.next() called past the end of the Chain");
+      }
+      currentSlot = nextSlot;
+      nextSlot = next[currentSlot];
+      return itemAt(currentSlot);
+    }
+
+    @Override
+    public void remove() throws IllegalStateException {
+      if (stateCount != iteratorStateCount) {
+        throw new ConcurrentModificationException();
+      }
+      if (currentSlot == NONE || items[currentSlot] == null) {
+        throw new IllegalStateException();
+      }
+      unlink(currentSlot);
+      iteratorStateCount = stateCount;
+    }
+  }
+}
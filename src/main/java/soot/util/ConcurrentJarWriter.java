@@ -0,0 +1,266 @@
+package soot.util;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2026 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.ZipException;
+
+/**
+ * Writes a JAR archive whose entries are compressed ahead of time. {@link #deflate(String, byte[])} compresses the contents
+ * of an entry and may be called by any number of threads at the same time; {@link #write(Entry)} appends a compressed entry
+ * to the archive. Callers append entries in a fixed order, so the archive does not depend on the order in which the
+ * compression finishes.
+ *
+ * <p>
+ * {@link java.util.jar.JarOutputStream} compresses every entry while it is being written, which makes the thread that owns
+ * the stream the bottleneck of the output. The archive is written as a plain ZIP file with ZIP64 extensions when there are
+ * more than 65535 entries or the archive is larger than 4GB.
+ * </p>
+ */
+public class ConcurrentJarWriter implements Closeable {
+
+  private static final int LOCAL_HEADER_SIG = 0x04034b50;
+  private static final int CENTRAL_HEADER_SIG = 0x02014b50;
+  private static final int ZIP64_END_HEADER_SIG = 0x06064b50;
+  private static final int ZIP64_LOCATOR_SIG = 0x07064b50;
+  private static final int END_HEADER_SIG = 0x06054b50;
+
+  private static final int ZIP64_EXTRA_ID = 0x0001;
+
+  private static final int VERSION = 20;
+  private static final int ZIP64_VERSION = 45;
+  private static final int UTF8_FLAG = 0x0800;
+  private static final int DEFLATED = 8;
+
+  private static final long MAX_32 = 0xFFFFFFFFL;
+  private static final int MAX_16 = 0xFFFF;
+
+  private final OutputStream out;
+  private final int dosTime;
+  private final int dosDate;
+  private final List<Entry> written = new ArrayList<Entry>();
+  private final List<Long> offsets = new ArrayList<Long>();
+  private final Set<String> names = new HashSet<String>();
+  private long offset = 0;
+  private boolean closed = false;
+
+  public ConcurrentJarWriter(OutputStream out) {
+    this.out = new BufferedOutputStream(out, 1 << 16);
+    // All entries get the time at which the archive was created
+    Calendar now = Calendar.getInstance();
+    this.dosTime = (now.get(Calendar.HOUR_OF_DAY) << 11) | (now.get(Calendar.MINUTE) << 5) | (now.get(Calendar.SECOND) >> 1);
+    this.dosDate = ((Math.max(now.get(Calendar.YEAR), 1980) - 1980) << 9) | ((now.get(Calendar.MONTH) + 1) << 5)
+        | now.get(Calendar.DAY_OF_MONTH);
+  }
+
+  /**
+   * Compresses the given contents into an entry with the given name. This method is thread-safe.
+   */
+  public static Entry deflate(String name, byte[] data) {
+    CRC32 crc = new CRC32();
+    crc.update(data, 0, data.length);
+    Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+    ByteArrayOutputStream compressed = new ByteArrayOutputStream(data.length / 2 + 64);
+    try {
+      deflater.setInput(data);
+      deflater.finish();
+      byte[] buffer = new byte[8192];
+      while (!deflater.finished()) {
+        compressed.write(buffer, 0, deflater.deflate(buffer));
+      }
+    } finally {
+      deflater.end();
+    }
+    return new Entry(name, crc.getValue(), data.length, compressed.toByteArray());
+  }
+
+  /**
+   * Appends the given entry to the archive.
+   *
+   * @throws ZipException
+   *           if the archive already contains an entry with the same name
+   */
+  public synchronized void write(Entry entry) throws IOException {
+    if (closed) {
+      throw new IOException("Stream closed");
+    }
+    if (!names.add(entry.name)) {
+      throw new ZipException("duplicate entry: " + entry.name);
+    }
+    offsets.add(offset);
+    written.add(entry);
+
+    writeInt(LOCAL_HEADER_SIG);
+    writeShort(VERSION);
+    writeShort(UTF8_FLAG);
+    writeShort(DEFLATED);
+    writeShort(dosTime);
+    writeShort(dosDate);
+    writeInt((int) entry.crc);
+    writeInt(entry.data.length);
+    writeInt(entry.size);
+    writeShort(entry.nameBytes.length);
+    writeShort(0);
+    writeBytes(entry.nameBytes);
+    writeBytes(entry.data);
+  }
+
+  /**
+   * Writes the central directory and closes the underlying stream.
+   */
+  @Override
+  public synchronized void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    try {
+      final long directoryOffset = offset;
+      for (int i = 0; i < written.size(); i++) {
+        final Entry e = written.get(i);
+        final long localOffset = offsets.get(i);
+        final boolean zip64 = localOffset >= MAX_32;
+        writeInt(CENTRAL_HEADER_SIG);
+        writeShort(zip64 ? ZIP64_VERSION : VERSION);
+        writeShort(zip64 ? ZIP64_VERSION : VERSION);
+        writeShort(UTF8_FLAG);
+        writeShort(DEFLATED);
+        writeShort(dosTime);
+        writeShort(dosDate);
+        writeInt((int) e.crc);
+        writeInt(e.data.length);
+        writeInt(e.size);
+        writeShort(e.nameBytes.length);
+        writeShort(zip64 ? 12 : 0);
+        writeShort(0); // comment length
+        writeShort(0); // disk number
+        writeShort(0); // internal attributes
+        writeInt(0); // external attributes
+        writeInt(zip64 ? (int) MAX_32 : (int) localOffset);
+        writeBytes(e.nameBytes);
+        if (zip64) {
+          writeShort(ZIP64_EXTRA_ID);
+          writeShort(8);
+          writeLong(localOffset);
+        }
+      }
+      final long directorySize = offset - directoryOffset;
+      final int count = written.size();
+
+      if (count >= MAX_16 || directoryOffset >= MAX_32 || directorySize >= MAX_32) {
+        final long zip64EndOffset = offset;
+        writeInt(ZIP64_END_HEADER_SIG);
+        writeLong(44); // size of the remaining record
+        writeShort(ZIP64_VERSION);
+        writeShort(ZIP64_VERSION);
+        writeInt(0); // this disk
+        writeInt(0); // disk with the central directory
+        writeLong(count);
+        writeLong(count);
+        writeLong(directorySize);
+        writeLong(directoryOffset);
+
+        writeInt(ZIP64_LOCATOR_SIG);
+        writeInt(0);
+        writeLong(zip64EndOffset);
+        writeInt(1); // total number of disks
+      }
+
+      writeInt(END_HEADER_SIG);
+      writeShort(0);
+      writeShort(0);
+      writeShort(Math.min(count, MAX_16));
+      writeShort(Math.min(count, MAX_16));
+      writeInt((int) Math.min(directorySize, MAX_32));
+      writeInt((int) Math.min(directoryOffset, MAX_32));
+      writeShort(0); // comment length
+    } finally {
+      written.clear();
+      offsets.clear();
+      out.close();
+    }
+  }
+
+  private void writeShort(int v) throws IOException {
+    out.write(v & 0xFF);
+    out.write((v >>> 8) & 0xFF);
+    offset += 2;
+  }
+
+  private void writeInt(int v) throws IOException {
+    writeShort(v & 0xFFFF);
+    writeShort(v >>> 16);
+  }
+
+  private void writeLong(long v) throws IOException {
+    writeInt((int) v);
+    writeInt((int) (v >>> 32));
+  }
+
+  private void writeBytes(byte[] b) throws IOException {
+    out.write(b);
+    offset += b.length;
+  }
+
+  /**
+   * A compressed entry that has not been written yet.
+   */
+  public static final class Entry {
+    private final String name;
+    private final byte[] nameBytes;
+    private final long crc;
+    private final int size;
+    private final byte[] data;
+
+    private Entry(String name, long crc, int size, byte[] data) {
+      this.name = name;
+      this.nameBytes = name.getBytes(StandardCharsets.UTF_8);
+      this.crc = crc;
+      this.size = size;
+      this.data = data;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    /**
+     * Returns the size of the entry before compression.
+     */
+    public int getSize() {
+      return size;
+    }
+  }
+}
@@ -0,0 +1,357 @@
+package soot.util;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2026 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A map whose keys are numbered by a {@link DenseNumbering}. Values of keys that are part of the numbering are stored in an
+ * array indexed by their number, so lookups do not need to hash. Keys that are not part of the numbering are kept in a
+ * separate hash map. Once the numbering becomes invalid, e.g., because the body whose units are the keys has been modified,
+ * all entries are moved to the hash map, so the map stays correct, only slower.
+ *
+ * <p>
+ * Numbered keys are compared by identity, others by {@link Object#equals(Object)}. Entries of numbered keys are iterated in
+ * the order of the numbering, followed by the other entries in insertion order. Null keys are not supported. This class is
+ * not thread-safe.
+ * </p>
+ *
+ * @param <K>
+ *          the type of the keys
+ * @param <V>
+ *          the type of the values
+ */
+public class DenseNumberedMap<K extends Numberable, V> extends AbstractMap<K, V> {
+
+  /** Stands for a null value in {@link #values}, where null means that there is no entry. */
+  private static final Object NULL = new Object();
+
+  private DenseNumbering<? extends K> numbering;
+  private Object[] values;
+  private int denseSize;
+  private Map<K, V> others;
+  private int modCount;
+  private Set<Map.Entry<K, V>> entrySet;
+
+  public DenseNumberedMap(DenseNumbering<? extends K> numbering) {
+    this.numbering = numbering;
+    this.values = new Object[numbering.size()];
+  }
+
+  /**
+   * Returns the index of the given key in {@link #values}, or -1 if it is kept in {@link #others}.
+   */
+  private int indexOf(Object key) {
+    final DenseNumbering<? extends K> n = numbering;
+    if (n == null) {
+      return -1;
+    }
+    if (!n.isValid()) {
+      moveToOthers();
+      return -1;
+    }
+    return n.indexOf(key);
+  }
+
+  private void moveToOthers() {
+    final Map<K, V> m = others();
+    // Keep the order of the numbering, which is the order of iteration so far
+    final Map<K, V> moved = new LinkedHashMap<K, V>((denseSize + m.size()) * 2 + 1);
+    for (int i = 0; i < values.length; i++) {
+      if (values[i] != null) {
+        moved.put(numbering.get(i), unmask(values[i]));
+      }
+    }
+    moved.putAll(m);
+    others = moved;
+    numbering = null;
+    values = null;
+    denseSize = 0;
+  }
+
+  private Map<K, V> others() {
+    Map<K, V> m = others;
+    if (m == null) {
+      others = m = new LinkedHashMap<K, V>();
+    }
+    return m;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <V> V unmask(Object value) {
+    return value == NULL ? null : (V) value;
+  }
+
+  private static Object mask(Object value) {
+    return value == null ? NULL : value;
+  }
+
+  @Override
+  public V get(Object key) {
+    final int i = indexOf(key);
+    if (i >= 0) {
+      final Object v = values[i];
+      return v == null ? null : DenseNumberedMap.<V>unmask(v);
+    }
+    return others == null ? null : others.get(key);
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    final int i = indexOf(key);
+    if (i >= 0) {
+      return values[i] != null;
+    }
+    return others != null && others.containsKey(key);
+  }
+
+  @Override
+  public V put(K key, V value) {
+    if (key == null) {
+      throw new NullPointerException();
+    }
+    final int i = indexOf(key);
+    if (i >= 0) {
+      final Object old = values[i];
+      values[i] = mask(value);
+      if (old == null) {
+        denseSize++;
+        modCount++;
+        return null;
+      }
+      return unmask(old);
+    }
+    final Map<K, V> m = others();
+    final int size = m.size();
+    final V old = m.put(key, value);
+    if (m.size() != size) {
+      modCount++;
+    }
+    return old;
+  }
+
+  @Override
+  public V remove(Object key) {
+    final int i = indexOf(key);
+    if (i >= 0) {
+      final Object old = values[i];
+      if (old == null) {
+        return null;
+      }
+      values[i] = null;
+      denseSize--;
+      modCount++;
+      return unmask(old);
+    }
+    if (others == null || !others.containsKey(key)) {
+      return null;
+    }
+    modCount++;
+    return others.remove(key);
+  }
+
+  @Override
+  public int size() {
+    if (numbering != null && !numbering.isValid()) {
+      moveToOthers();
+    }
+    return denseSize + (others == null ? 0 : others.size());
+  }
+
+  @Override
+  public void clear() {
+    if (numbering != null && !numbering.isValid()) {
+      moveToOthers();
+    }
+    if (values != null) {
+      for (int i = 0; i < values.length; i++) {
+        values[i] = null;
+      }
+      denseSize = 0;
+    }
+    others = null;
+    modCount++;
+  }
+
+  @Override
+  public Set<Map.Entry<K, V>> entrySet() {
+    Set<Map.Entry<K, V>> es = entrySet;
+    if (es == null) {
+      entrySet = es = new AbstractSet<Map.Entry<K, V>>() {
+        @Override
+        public Iterator<Map.Entry<K, V>> iterator() {
+          return new EntryIterator();
+        }
+
+        @Override
+        public int size() {
+          return DenseNumberedMap.this.size();
+        }
+
+        @Override
+        public void clear() {
+          DenseNumberedMap.this.clear();
+        }
+      };
+    }
+    return es;
+  }
+
+  /**
+   * An entry whose key is part of the numbering, which reads and writes the value array directly.
+   */
+  private class DenseEntry implements Map.Entry<K, V> {
+    private final K key;
+    private final int index;
+    private final Object[] array;
+
+    DenseEntry(K key, int index, Object[] array) {
+      this.key = key;
+      this.index = index;
+      this.array = array;
+    }
+
+    @Override
+    public K getKey() {
+      return key;
+    }
+
+    @Override
+    public V getValue() {
+      return unmask(array[index]);
+    }
+
+    @Override
+    public V setValue(V value) {
+      final V old = unmask(array[index]);
+      array[index] = mask(value);
+      return old;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof Map.Entry)) {
+        return false;
+      }
+      Map.Entry<?, ?> e = (Map.Entry<?, ?>) o;
+      final V v = getValue();
+      return getKey().equals(e.getKey()) && (v == null ? e.getValue() == null : v.equals(e.getValue()));
+    }
+
+    @Override
+    public int hashCode() {
+      final V v = getValue();
+      return getKey().hashCode() ^ (v == null ? 0 : v.hashCode());
+    }
+
+    @Override
+    public String toString() {
+      return getKey() + "=" + getValue();
+    }
+  }
+
+  private class EntryIterator implements Iterator<Map.Entry<K, V>> {
+    private final DenseNumbering<? extends K> keys;
+    private final Object[] array;
+    private final Iterator<Map.Entry<K, V>> othersIt;
+    private int expectedModCount;
+    private int nextIndex = -1;
+    private int lastIndex = -1;
+    private boolean lastFromOthers = false;
+
+    EntryIterator() {
+      if (numbering != null && !numbering.isValid()) {
+        moveToOthers();
+      }
+      this.keys = numbering;
+      this.array = values;
+      this.othersIt = others == null ? null : others.entrySet().iterator();
+      this.expectedModCount = modCount;
+      advance();
+    }
+
+    private void advance() {
+      if (array == null) {
+        nextIndex = -1;
+        return;
+      }
+      int i = nextIndex + 1;
+      while (i < array.length && array[i] == null) {
+        i++;
+      }
+      nextIndex = i < array.length ? i : array.length;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return (array != null && nextIndex < array.length) || (othersIt != null && othersIt.hasNext());
+    }
+
+    @Override
+    public Map.Entry<K, V> next() {
+      if (modCount != expectedModCount) {
+        throw new ConcurrentModificationException();
+      }
+      if (array != null && nextIndex < array.length) {
+        lastIndex = nextIndex;
+        lastFromOthers = false;
+        advance();
+        return new DenseEntry(keys.get(lastIndex), lastIndex, array);
+      }
+      if (othersIt != null) {
+        lastIndex = -1;
+        lastFromOthers = true;
+        return othersIt.next();
+      }
+      throw new NoSuchElementException();
+    }
+
+    @Override
+    public void remove() {
+      if (modCount != expectedModCount) {
+        throw new ConcurrentModificationException();
+      }
+      if (lastFromOthers) {
+        othersIt.remove();
+        lastFromOthers = false;
+      } else if (lastIndex >= 0) {
+        if (array != values) {
+          throw new ConcurrentModificationException();
+        }
+        array[lastIndex] = null;
+        denseSize--;
+        lastIndex = -1;
+      } else {
+        throw new IllegalStateException();
+      }
+      expectedModCount = ++modCount;
+    }
+  }
+}
@@ -0,0 +1,122 @@
+package soot.util;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2026 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+
+/**
+ * Numbers a fixed sequence of objects from 0 to n-1 by setting their numbers, so that arrays can be used instead of hash
+ * maps to associate data with them. A numbering is a snapshot: it stays valid until the objects are numbered again, e.g.,
+ * because the body they belong to has been modified, after which {@link #isValid()} returns false.
+ *
+ * <p>
+ * {@link #indexOf(Object)} checks that the object is actually at the position given by its number, so an object that is not
+ * part of this numbering, or has been renumbered by someone else, is never mistaken for another one.
+ * </p>
+ *
+ * @param <E>
+ *          the type of the numbered objects
+ *
+ * @see soot.Body#getUnitNumbering()
+ * @see soot.Body#getLocalNumbering()
+ */
+public final class DenseNumbering<E extends Numberable> implements Iterable<E> {
+
+  private final Numberable[] elements;
+  private volatile boolean valid = true;
+
+  /**
+   * Numbers the given objects in the order of iteration.
+   */
+  public DenseNumbering(Collection<? extends E> elements) {
+    this.elements = elements.toArray(new Numberable[elements.size()]);
+    for (int i = 0; i < this.elements.length; i++) {
+      this.elements[i].setNumber(i);
+    }
+  }
+
+  /**
+   * Returns the number of objects in this numbering.
+   */
+  public int size() {
+    return elements.length;
+  }
+
+  /**
+   * Returns the object with the given number.
+   */
+  @SuppressWarnings("unchecked")
+  public E get(int number) {
+    return (E) elements[number];
+  }
+
+  /**
+   * Returns the number of the given object in this numbering, or -1 if it is not part of it. This does not check whether
+   * the numbering is still valid.
+   */
+  public int indexOf(Object o) {
+    if (o instanceof Numberable) {
+      final int number = ((Numberable) o).getNumber();
+      if (number >= 0 && number < elements.length && elements[number] == o) {
+        return number;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Returns whether the numbers of the objects are still the ones assigned by this numbering.
+   */
+  public boolean isValid() {
+    return valid;
+  }
+
+  /**
+   * Marks this numbering as outdated, which is done when the objects are numbered again.
+   */
+  public void invalidate() {
+    valid = false;
+  }
+
+  /**
+   * Returns whether the objects in this numbering still have their numbers, which may not be the case if someone else has
+   * renumbered them.
+   */
+  public boolean numbersMatch() {
+    for (int i = 0; i < elements.length; i++) {
+      if (elements[i].getNumber() != i) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public Iterator<E> iterator() {
+    @SuppressWarnings("unchecked")
+    final Iterator<E> it = (Iterator<E>) Arrays.asList(elements).iterator();
+    return it;
+  }
+}
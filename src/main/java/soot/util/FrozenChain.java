@@ -0,0 +1,342 @@
+package soot.util;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2026 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.AbstractCollection;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * An immutable Chain that keeps its elements in a single array. Every modification throws an
+ * {@link UnsupportedOperationException}.
+ *
+ * <p>
+ * The position of an element is found without any lookup table if the element is {@link Numberable} and its number is its
+ * position in the chain, which is what {@link soot.Body#getUnitNumbering()} and {@link soot.Body#getLocalNumbering()} set
+ * up. Other elements, e.g., traps, or elements whose numbers have been changed in the meantime, are searched for linearly.
+ * Elements are compared by identity.
+ * </p>
+ *
+ * @param <E>
+ *          element type
+ */
+@SuppressWarnings("serial")
+public class FrozenChain<E> extends AbstractCollection<E> implements Chain<E> {
+
+  private final Object[] items;
+
+  /**
+   * Constructs a chain with the elements of the given collection, in the order of its iteration.
+   */
+  public FrozenChain(Collection<? extends E> elements) {
+    this.items = elements.toArray();
+  }
+
+  /**
+   * Returns the position of the given object in this chain, or -1 if it is not contained in this chain.
+   */
+  public int indexOf(Object o) {
+    final Object[] items = this.items;
+    if (o instanceof Numberable) {
+      final int n = ((Numberable) o).getNumber();
+      if (n >= 0 && n < items.length && items[n] == o) {
+        return n;
+      }
+    }
+    for (int i = 0; i < items.length; i++) {
+      if (items[i] == o) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private int existingIndexOf(Object o) {
+    final int i = indexOf(o);
+    if (i < 0) {
+      throw new NoSuchElementException();
+    }
+    return i;
+  }
+
+  /**
+   * Returns the element at the given position.
+   */
+  @SuppressWarnings("unchecked")
+  public E get(int index) {
+    return (E) items[index];
+  }
+
+  private static UnsupportedOperationException frozen() {
+    return new UnsupportedOperationException("Cannot modify a frozen chain");
+  }
+
+  @Override
+  public void insertBefore(E toInsert, E point) {
+    throw frozen();
+  }
+
+  @Override
+  public void insertAfter(E toInsert, E point) {
+    throw frozen();
+  }
+
+  @Override
+  public void insertBefore(Chain<E> toInsert, E point) {
+    throw frozen();
+  }
+
+  @Override
+  public void insertAfter(Chain<E> toInsert, E point) {
+    throw frozen();
+  }
+
+  @Override
+  public void insertBefore(List<E> toInsert, E point) {
+    throw frozen();
+  }
+
+  @Override
+  public void insertAfter(List<E> toInsert, E point) {
+    throw frozen();
+  }
+
+  @Override
+  public void insertBefore(Collection<? extends E> toInsert, E point) {
+    throw frozen();
+  }
+
+  @Override
+  public void insertAfter(Collection<? extends E> toInsert, E point) {
+    throw frozen();
+  }
+
+  @Override
+  public void swapWith(E out, E in) {
+    throw frozen();
+  }
+
+  @Override
+  public boolean add(E e) {
+    throw frozen();
+  }
+
+  @Override
+  public boolean remove(Object u) {
+    throw frozen();
+  }
+
+  @Override
+  public void clear() {
+    throw frozen();
+  }
+
+  @Override
+  public void addFirst(E u) {
+    throw frozen();
+  }
+
+  @Override
+  public void addLast(E u) {
+    throw frozen();
+  }
+
+  @Override
+  public void removeFirst() {
+    throw frozen();
+  }
+
+  @Override
+  public void removeLast() {
+    throw frozen();
+  }
+
+  /**
+   * Returns true if <code>someObject</code> is <code>someReferenceObject</code> or comes after it in this chain.
+   */
+  @Override
+  public boolean follows(E someObject, E someReferenceObject) {
+    final int reference = indexOf(someReferenceObject);
+    final int index = indexOf(someObject);
+    return reference >= 0 && index >= reference;
+  }
+
+  @Override
+  public boolean contains(Object o) {
+    return indexOf(o) >= 0;
+  }
+
+  @Override
+  public E getFirst() {
+    if (items.length == 0) {
+      throw new NoSuchElementException();
+    }
+    return get(0);
+  }
+
+  @Override
+  public E getLast() {
+    if (items.length == 0) {
+      throw new NoSuchElementException();
+    }
+    return get(items.length - 1);
+  }
+
+  @Override
+  public E getSuccOf(E point) throws NoSuchElementException {
+    final int i = existingIndexOf(point) + 1;
+    return i < items.length ? get(i) : null;
+  }
+
+  @Override
+  public E getPredOf(E point) throws NoSuchElementException {
+    if (point == null) {
+      throw new RuntimeException("Chain cannot contain null objects!");
+    }
+    final int i = existingIndexOf(point) - 1;
+    return i >= 0 ? get(i) : null;
+  }
+
+  @Override
+  public Iterator<E> snapshotIterator() {
+    return iterator();
+  }
+
+  @Override
+  public Iterator<E> iterator() {
+    return new IndexIterator(0, -1);
+  }
+
+  @Override
+  public Iterator<E> iterator(E from) {
+    if (from == null || items.length == 0) {
+      return new IndexIterator(items.length, -1);
+    }
+    final int i = indexOf(from);
+    if (i < 0) {
+      throw new NoSuchElementException("FrozenChain.iterator(obj) with obj that is not in the chain: " + from);
+    }
+    return new IndexIterator(i, -1);
+  }
+
+  /**
+   * <p>
+   * Returns an iterator ranging from <code>head</code> to <code>tail</code>, inclusive.
+   * </p>
+   *
+   * <p>
+   * If <code>tail</code> is the element immediately preceding <code>head</code> in this <code>FrozenChain</code>, the
+   * returned iterator will iterate 0 times (a special case to allow the specification of an empty range of elements).
+   * Otherwise if <code>tail</code> is not one of the elements following <code>head</code>, the returned iterator will
+   * iterate past the end of the <code>FrozenChain</code>, provoking a {@link NoSuchElementException}.
+   * </p>
+   *
+   * @throws NoSuchElementException
+   *           if <code>head</code> is not an element of the chain.
+   */
+  @Override
+  public Iterator<E> iterator(E head, E tail) {
+    if (head == null || items.length == 0) {
+      return new IndexIterator(items.length, -1);
+    }
+    final int first = existingIndexOf(head);
+    if (first > 0 && items[first - 1] == tail) {
+      return new IndexIterator(items.length, -1);
+    }
+    if (tail == null) {
+      return new IndexIterator(first, -1);
+    }
+    // A tail that is not in the chain, or before the head, is never reached
+    final int last = indexOf(tail);
+    return new IndexIterator(first, last < first ? Integer.MAX_VALUE : last);
+  }
+
+  @Override
+  public int size() {
+    return items.length;
+  }
+
+  @Override
+  public Object[] toArray() {
+    return items.clone();
+  }
+
+  @Override
+  public long getModificationCount() {
+    return 0;
+  }
+
+  @Override
+  public Collection<E> getElementsUnsorted() {
+    @SuppressWarnings("unchecked")
+    final List<E> list = (List<E>) Arrays.asList(items);
+    return list;
+  }
+
+  /** Returns a textual representation of the contents of this Chain. */
+  @Override
+  public String toString() {
+    return Arrays.toString(items);
+  }
+
+  private class IndexIterator implements Iterator<E> {
+    /** The index of the last element, -1 to iterate to the end of the chain. */
+    private final int last;
+    private int next;
+
+    IndexIterator(int first, int last) {
+      this.next = first;
+      this.last = last;
+    }
+
+    @Override
+    public boolean hasNext() {
+      if (last < 0) {
+        return next < items.length;
+      }
+      // Like HashChain, ignore the end of the chain until the tail has been reached, so that next() fails if the tail is
+      // not in the chain after the head
+      return next <= last;
+    }
+
+    @Override
+    public E next() throws NoSuchElementException {
+      if (next >= items.length) {
+        if (last >= 0 && next <= last) {
+          throw new NoSuchElementException(
+              "FrozenChain.IndexIterator.next() reached end of chain without reaching specified tail unit");
+        }
+        throw new NoSuchElementException("FrozenChain.IndexIterator.next() called past the end of the Chain");
+      }
+      return get(next++);
+    }
+
+    @Override
+    public void remove() {
+      throw frozen();
+    }
+  }
+}
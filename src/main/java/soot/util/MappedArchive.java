@@ -0,0 +1,304 @@
+package soot.util;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2026 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+import java.util.zip.ZipException;
+
+/**
+ * A read-only view of a JAR or ZIP archive that is memory-mapped once. The central directory is parsed when the archive is
+ * opened, so looking up entries never touches the file system again, and entry contents are streamed directly from the
+ * mapped buffer without going through {@link java.util.zip.ZipFile}.
+ *
+ * <p>
+ * Archives that need ZIP64 extensions or are larger than 2GB are not supported; {@link #open(String)} returns null for
+ * them so that callers can fall back to {@link java.util.zip.ZipFile}.
+ * </p>
+ */
+public class MappedArchive {
+
+  private static final int LOCAL_HEADER_SIG = 0x04034b50;
+  private static final int CENTRAL_HEADER_SIG = 0x02014b50;
+  private static final int END_HEADER_SIG = 0x06054b50;
+
+  private static final int LOCAL_HEADER_SIZE = 30;
+  private static final int CENTRAL_HEADER_SIZE = 46;
+  private static final int END_HEADER_SIZE = 22;
+
+  private static final int STORED = 0;
+  private static final int DEFLATED = 8;
+
+  private final String path;
+  private final ByteBuffer buffer;
+
+  /** Maps each entry name to its position in the entry arrays below. */
+  private final Map<String, Integer> entries;
+  private final int[] localHeaderOffsets;
+  private final int[] compressedSizes;
+  private final int[] sizes;
+  private final short[] methods;
+
+  private MappedArchive(String path, ByteBuffer buffer, int count) {
+    this.path = path;
+    this.buffer = buffer;
+    this.entries = new HashMap<String, Integer>(count * 4 / 3 + 1);
+    this.localHeaderOffsets = new int[count];
+    this.compressedSizes = new int[count];
+    this.sizes = new int[count];
+    this.methods = new short[count];
+  }
+
+  /**
+   * Maps the archive at the given path into memory and reads its central directory.
+   *
+   * @return the mapped archive, or null if the archive uses features that are not supported
+   * @throws IOException
+   *           if the file cannot be read or is not a valid archive
+   */
+  public static MappedArchive open(String path) throws IOException {
+    final ByteBuffer buffer;
+    try (FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ)) {
+      final long size = channel.size();
+      if (size > Integer.MAX_VALUE) {
+        return null;
+      }
+      // The mapping stays valid after the channel has been closed
+      buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    final int end = findEndHeader(buffer);
+    if (end < 0) {
+      throw new ZipException("Error: No central directory found in archive '" + path + "'.");
+    }
+    final int count = buffer.getShort(end + 10) & 0xffff;
+    final long dirSize = buffer.getInt(end + 12) & 0xffffffffL;
+    final long dirOffset = buffer.getInt(end + 16) & 0xffffffffL;
+    if (count == 0xffff || dirSize == 0xffffffffL || dirOffset == 0xffffffffL) {
+      // ZIP64 archive
+      return null;
+    }
+    // Archives may be prefixed with arbitrary data, e.g., a launcher script, which shifts all offsets
+    final long prefix = end - dirSize - dirOffset;
+    if (prefix < 0) {
+      throw new ZipException("Error: Invalid central directory in archive '" + path + "'.");
+    }
+
+    MappedArchive archive = new MappedArchive(path, buffer, count);
+    int pos = (int) (prefix + dirOffset);
+    for (int i = 0; i < count; i++) {
+      if (pos + CENTRAL_HEADER_SIZE > end || buffer.getInt(pos) != CENTRAL_HEADER_SIG) {
+        throw new ZipException("Error: Invalid central directory entry in archive '" + path + "'.");
+      }
+      final long compressedSize = buffer.getInt(pos + 20) & 0xffffffffL;
+      final long size = buffer.getInt(pos + 24) & 0xffffffffL;
+      final long localOffset = buffer.getInt(pos + 42) & 0xffffffffL;
+      if (compressedSize == 0xffffffffL || size == 0xffffffffL || localOffset == 0xffffffffL) {
+        return null;
+      }
+      final int nameLength = buffer.getShort(pos + 28) & 0xffff;
+      final int extraLength = buffer.getShort(pos + 30) & 0xffff;
+      final int commentLength = buffer.getShort(pos + 32) & 0xffff;
+      final byte[] name = new byte[nameLength];
+      for (int j = 0; j < nameLength; j++) {
+        name[j] = buffer.get(pos + CENTRAL_HEADER_SIZE + j);
+      }
+      if (archive.entries.putIfAbsent(new String(name, StandardCharsets.UTF_8), i) == null) {
+        archive.localHeaderOffsets[i] = (int) (prefix + localOffset);
+        archive.compressedSizes[i] = (int) compressedSize;
+        archive.sizes[i] = (int) size;
+        archive.methods[i] = buffer.getShort(pos + 10);
+      }
+      pos += CENTRAL_HEADER_SIZE + nameLength + extraLength + commentLength;
+    }
+    return archive;
+  }
+
+  private static int findEndHeader(ByteBuffer buffer) {
+    final int last = buffer.limit() - END_HEADER_SIZE;
+    // The end header is followed by a comment of at most 64K
+    final int first = Math.max(0, last - 0xffff);
+    for (int pos = last; pos >= first; pos--) {
+      if (buffer.getInt(pos) == END_HEADER_SIG) {
+        return pos;
+      }
+    }
+    return -1;
+  }
+
+  public String getPath() {
+    return path;
+  }
+
+  /**
+   * Returns the names of all entries in this archive.
+   */
+  public Set<String> getEntryNames() {
+    return Collections.unmodifiableSet(entries.keySet());
+  }
+
+  public boolean containsEntry(String name) {
+    return entries.containsKey(name);
+  }
+
+  /**
+   * Returns the uncompressed size of the given entry, or -1 if there is no such entry.
+   */
+  public long getSize(String name) {
+    Integer i = entries.get(name);
+    return i == null ? -1 : sizes[i];
+  }
+
+  /**
+   * Returns a stream over the uncompressed contents of the given entry, or null if there is no such entry. The stream reads
+   * directly from the mapped archive.
+   */
+  public InputStream getInputStream(String name) throws IOException {
+    Integer boxed = entries.get(name);
+    if (boxed == null) {
+      return null;
+    }
+    final int i = boxed;
+    final int header = localHeaderOffsets[i];
+    if (header + LOCAL_HEADER_SIZE > buffer.limit() || buffer.getInt(header) != LOCAL_HEADER_SIG) {
+      throw new ZipException("Error: Invalid local header for entry '" + name + "' in archive '" + path + "'.");
+    }
+    final int data = header + LOCAL_HEADER_SIZE + (buffer.getShort(header + 26) & 0xffff)
+        + (buffer.getShort(header + 28) & 0xffff);
+    if (data + compressedSizes[i] > buffer.limit()) {
+      throw new ZipException("Error: Truncated entry '" + name + "' in archive '" + path + "'.");
+    }
+
+    ByteBuffer contents = buffer.duplicate();
+    // Cast to Buffer, so that the code also runs on Java 8, where ByteBuffer does not override these methods
+    ((Buffer) contents).position(data);
+    ((Buffer) contents).limit(data + compressedSizes[i]);
+    contents = contents.slice();
+    switch (methods[i]) {
+      case STORED:
+        return new ByteBufferInputStream(contents);
+      case DEFLATED:
+        return new EntryInflaterInputStream(new ByteBufferInputStream(contents),
+            Math.max(64, Math.min(compressedSizes[i], 8192)));
+      default:
+        throw new ZipException("Error: Unsupported compression method " + methods[i] + " for entry '" + name
+            + "' in archive '" + path + "'.");
+    }
+  }
+
+  @Override
+  public String toString() {
+    return path;
+  }
+
+  /**
+   * Reads from a (sliced) buffer without copying it.
+   */
+  private static final class ByteBufferInputStream extends InputStream {
+    private final ByteBuffer buf;
+
+    ByteBufferInputStream(ByteBuffer buf) {
+      this.buf = buf;
+    }
+
+    @Override
+    public int read() {
+      return buf.hasRemaining() ? buf.get() & 0xff : -1;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) {
+      if (len == 0) {
+        return 0;
+      }
+      if (!buf.hasRemaining()) {
+        return -1;
+      }
+      len = Math.min(len, buf.remaining());
+      buf.get(b, off, len);
+      return len;
+    }
+
+    @Override
+    public long skip(long n) {
+      int k = (int) Math.max(0, Math.min(n, buf.remaining()));
+      ((Buffer) buf).position(buf.position() + k);
+      return k;
+    }
+
+    @Override
+    public int available() {
+      return buf.remaining();
+    }
+  }
+
+  /**
+   * Inflates raw deflate data and releases the native inflater on close. Like {@link java.util.zip.ZipFile}, it supplies a
+   * dummy byte at the end of the input, which the inflater may need to finish in "nowrap" mode.
+   */
+  private static final class EntryInflaterInputStream extends InflaterInputStream {
+    private boolean eof = false;
+    private boolean closed = false;
+
+    EntryInflaterInputStream(InputStream in, int size) {
+      super(in, new Inflater(true), size);
+    }
+
+    @Override
+    protected void fill() throws IOException {
+      if (eof) {
+        throw new EOFException("Unexpected end of ZLIB input stream");
+      }
+      len = in.read(buf, 0, buf.length);
+      if (len == -1) {
+        buf[0] = 0;
+        len = 1;
+        eof = true;
+      }
+      inf.setInput(buf, 0, len);
+    }
+
+    @Override
+    public void close() throws IOException {
+      if (!closed) {
+        closed = true;
+        super.close();
+        inf.end();
+      }
+    }
+  }
+}
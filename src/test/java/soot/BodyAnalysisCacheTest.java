@@ -0,0 +1,204 @@
+package soot;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2026 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.util.Collections;
+import java.util.Map;
+
+import org.junit.Test;
+
+import soot.jimple.AssignStmt;
+import soot.jimple.IntConstant;
+import soot.jimple.Jimple;
+import soot.jimple.JimpleBody;
+import soot.options.Options;
+import soot.toolkits.graph.BriefUnitGraph;
+import soot.toolkits.graph.ExceptionalUnitGraph;
+import soot.toolkits.graph.ExceptionalUnitGraphFactory;
+import soot.toolkits.scalar.LiveLocals;
+import soot.toolkits.scalar.LocalDefs;
+import soot.toolkits.scalar.LocalUses;
+
+public class BodyAnalysisCacheTest {
+
+  private static JimpleBody newBody(boolean cache) {
+    G.reset();
+    Options.v().set_cache_body_analyses(cache);
+    Scene.v().loadBasicClasses();
+    return newBody("a");
+  }
+
+  private static JimpleBody newBody(String methodName) {
+    Jimple j = Jimple.v();
+    SootClass cl = new SootClass("TestClass", Modifier.PUBLIC);
+    SootMethod method = new SootMethod(methodName, Collections.emptyList(), IntType.v(), Modifier.PUBLIC | Modifier.STATIC);
+    cl.addMethod(method);
+    JimpleBody body = j.newBody(method);
+    method.setActiveBody(body);
+    Local x = j.newLocal("x", IntType.v());
+    Local y = j.newLocal("y", IntType.v());
+    body.getLocals().add(x);
+    body.getLocals().add(y);
+    body.getUnits().add(j.newAssignStmt(x, IntConstant.v(1)));
+    body.getUnits().add(j.newAssignStmt(y, j.newAddExpr(x, IntConstant.v(2))));
+    body.getUnits().add(j.newReturnStmt(y));
+    return body;
+  }
+
+  private static LocalDefs defsOf(Body b) {
+    return G.v().soot_toolkits_scalar_LocalDefsFactory().newLocalDefs(b);
+  }
+
+  private static ExceptionalUnitGraph graphOf(Body b) {
+    return ExceptionalUnitGraphFactory.createExceptionalUnitGraph(b);
+  }
+
+  private static void replaceAddend(Body b, int value) {
+    AssignStmt add = (AssignStmt) b.getUnits().getSuccOf(b.getUnits().getFirst());
+    add.setRightOp(Jimple.v().newAddExpr(add.getLeftOp(), IntConstant.v(value)));
+  }
+
+  @Test
+  public void testDisabled() {
+    JimpleBody body = newBody(false);
+    assertNotSame(ExceptionalUnitGraphFactory.createExceptionalUnitGraph(body),
+        ExceptionalUnitGraphFactory.createExceptionalUnitGraph(body));
+    assertNotSame(defsOf(body), defsOf(body));
+    assertEquals(0, BodyAnalysisCache.v().getHits() + BodyAnalysisCache.v().getMisses());
+  }
+
+  @Test
+  public void testReuseUntilModified() {
+    JimpleBody body = newBody(true);
+    BodyAnalysisCache cache = BodyAnalysisCache.v();
+
+    ExceptionalUnitGraph graph = ExceptionalUnitGraphFactory.createExceptionalUnitGraph(body);
+    assertSame(graph, ExceptionalUnitGraphFactory.createExceptionalUnitGraph(body));
+    LocalDefs defs = defsOf(body);
+    assertSame(defs, G.v().soot_toolkits_scalar_LocalDefsFactory().newLocalDefs(graph));
+    LocalUses uses = LocalUses.Factory.newLocalUses(body);
+    assertSame(uses, LocalUses.Factory.newLocalUses(graph));
+    LiveLocals live = LiveLocals.Factory.newLiveLocals(graph);
+    assertSame(live, LiveLocals.Factory.newLiveLocals(graph));
+    assertEquals(4, cache.getMisses());
+
+    // Replacing an operand must discard the analyses
+    AssignStmt add = (AssignStmt) body.getUnits().getSuccOf(body.getUnits().getFirst());
+    add.setRightOp(IntConstant.v(3));
+    ExceptionalUnitGraph graph2 = ExceptionalUnitGraphFactory.createExceptionalUnitGraph(body);
+    assertNotSame(graph, graph2);
+    LocalDefs defs2 = defsOf(body);
+    assertNotSame(defs, defs2);
+    assertEquals(0, LocalUses.Factory.newLocalUses(body).getUsesOf(body.getUnits().getFirst()).size());
+
+    // So must inserting a statement
+    body.getUnits().addFirst(Jimple.v().newNopStmt());
+    assertNotSame(graph2, ExceptionalUnitGraphFactory.createExceptionalUnitGraph(body));
+    assertNotSame(defs2, defsOf(body));
+  }
+
+  @Test
+  public void testModificationsOfOtherBodies() {
+    JimpleBody a = newBody(true);
+    JimpleBody b = newBody("b");
+    ExceptionalUnitGraph graphA = graphOf(a);
+    ExceptionalUnitGraph graphB = graphOf(b);
+    LocalDefs defsB = defsOf(b);
+
+    new BodyTransformer() {
+      @Override
+      protected void internalTransform(Body body, String phaseName, Map<String, String> options) {
+        replaceAddend(body, 3);
+      }
+    }.transform(a);
+    assertNotSame(graphA, graphOf(a));
+    assertSame(graphB, graphOf(b));
+    assertSame(defsB, defsOf(b));
+
+    // Neither does creating new statements discard any analyses
+    Jimple.v().newAssignStmt(Jimple.v().newLocal("z", IntType.v()), IntConstant.v(0));
+    assertSame(graphB, graphOf(b));
+
+    // Modifications made while a body is being built only affect that body
+    BodyAnalysisCache.enterBodyConstruction();
+    try {
+      JimpleBody c = newBody("c");
+      ExceptionalUnitGraph graphC = graphOf(c);
+      replaceAddend(c, 4);
+      assertNotSame(graphC, graphOf(c));
+    } finally {
+      BodyAnalysisCache.exitBodyConstruction();
+    }
+    assertSame(graphB, graphOf(b));
+
+    // Other modifications cannot be attributed to a body and discard the analyses of all bodies
+    replaceAddend(a, 5);
+    assertNotSame(graphB, graphOf(b));
+  }
+
+  @Test
+  public void testModificationsInOtherInstances() throws Exception {
+    JimpleBody a = newBody(true);
+    ExceptionalUnitGraph graphA = graphOf(a);
+
+    // The modification counts belong to the state of an instance like the cache itself
+    SootInstance.create().call(() -> {
+      JimpleBody b = newBody(true);
+      graphOf(b);
+      replaceAddend(b, 3);
+      return null;
+    });
+    assertSame(graphA, graphOf(a));
+  }
+
+  @Test
+  public void testOtherGraphsAreNotCached() {
+    JimpleBody body = newBody(true);
+    BriefUnitGraph brief = new BriefUnitGraph(body);
+    assertNotSame(G.v().soot_toolkits_scalar_LocalDefsFactory().newLocalDefs(brief),
+        G.v().soot_toolkits_scalar_LocalDefsFactory().newLocalDefs(brief));
+
+    ExceptionalUnitGraph graph = ExceptionalUnitGraphFactory.createExceptionalUnitGraph(body);
+    ExceptionalUnitGraph stale = graph;
+    body.getUnits().addFirst(Jimple.v().newNopStmt());
+    // Analyses on a graph of an older version of the body are computed, but not cached
+    assertNotSame(G.v().soot_toolkits_scalar_LocalDefsFactory().newLocalDefs(stale),
+        G.v().soot_toolkits_scalar_LocalDefsFactory().newLocalDefs(stale));
+  }
+
+  @Test
+  public void testStatistics() {
+    JimpleBody body = newBody(true);
+    BodyAnalysisCache cache = BodyAnalysisCache.v();
+    for (int i = 0; i < 3; i++) {
+      defsOf(body);
+    }
+    // One graph and one defs computed, two graphs and two defs reused
+    assertEquals(2, cache.getMisses());
+    assertEquals(4, cache.getHits());
+  }
+}
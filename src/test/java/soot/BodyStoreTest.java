@@ -0,0 +1,177 @@
+package soot;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2026 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import soot.jimple.InvokeExpr;
+import soot.jimple.Jimple;
+import soot.jimple.Stmt;
+import soot.options.Options;
+
+public class BodyStoreTest {
+
+  private List<SootMethod> methods;
+
+  @Before
+  public void setUp() {
+    G.reset();
+    Options.v().set_evict_bodies(true);
+    Options.v().set_allow_phantom_refs(true);
+    Options.v().classes().add("java.util.HashMap");
+    Scene.v().loadNecessaryClasses();
+
+    methods = new ArrayList<SootMethod>();
+    for (SootMethod m : Scene.v().getSootClass("java.util.HashMap").getMethods()) {
+      if (m.isConcrete()) {
+        methods.add(m);
+      }
+    }
+  }
+
+  @After
+  public void tearDown() {
+    G.reset();
+  }
+
+  @Test
+  public void evictedBodiesAreReloaded() {
+    Map<SootMethod, String> expected = new LinkedHashMap<SootMethod, String>();
+    Map<SootMethod, Body> original = new LinkedHashMap<SootMethod, Body>();
+    for (SootMethod m : methods) {
+      Body b = m.retrieveActiveBody();
+      expected.put(m, withoutLocalNames(b.toString()));
+      original.put(m, b);
+    }
+    BodyStore store = BodyStore.v();
+    assertEquals(methods.size(), store.getResident());
+
+    assertEquals(methods.size(), store.evict(Integer.MAX_VALUE));
+    assertEquals(0, store.getResident());
+    for (SootMethod m : methods) {
+      assertTrue(m.hasActiveBody());
+      Body b = m.getActiveBody();
+      assertNotSame(original.get(m), b);
+      assertSame(m, b.getMethod());
+      assertEquals(expected.get(m), withoutLocalNames(b.toString()));
+    }
+    assertEquals(methods.size(), store.getRematerializations());
+    assertEquals(methods.size(), store.getResident());
+  }
+
+  /**
+   * Local numbering in jb depends on identity hash codes and is not stable between two runs of jb on the same method.
+   */
+  private static String withoutLocalNames(String jimple) {
+    return jimple.replaceAll("(?<![\\w.])\\$?[a-z]\\d+\\b", "L");
+  }
+
+  @Test
+  public void leastRecentlyUsedBodiesAreEvictedFirst() {
+    for (SootMethod m : methods) {
+      m.retrieveActiveBody();
+    }
+    SootMethod first = methods.get(0);
+    first.getActiveBody();
+
+    assertEquals(methods.size() - 1, BodyStore.v().evict(methods.size() - 1));
+    assertEquals(1, BodyStore.v().getResident());
+    assertTrue(first.activeBody != null);
+  }
+
+  @Test
+  public void modifiedBodiesArePinned() {
+    SootMethod modified = methods.get(0);
+    SootMethod transformed = methods.get(1);
+    SootMethod replaced = methods.get(2);
+    for (SootMethod m : methods) {
+      m.retrieveActiveBody();
+    }
+
+    Body modifiedBody = modified.getActiveBody();
+    modifiedBody.getLocals().add(Jimple.v().newLocal("extra", IntType.v()));
+    Body transformedBody = transformed.getActiveBody();
+    new BodyTransformer() {
+      @Override
+      protected void internalTransform(Body b, String phaseName, Map<String, String> options) {
+      }
+    }.transform(transformedBody);
+    Body replacedBody = (Body) replaced.getActiveBody().clone();
+    replaced.setActiveBody(replacedBody);
+
+    assertEquals(methods.size() - 3, BodyStore.v().evict(Integer.MAX_VALUE));
+    assertSame(modifiedBody, modified.getActiveBody());
+    assertSame(transformedBody, transformed.getActiveBody());
+    assertSame(replacedBody, replaced.getActiveBody());
+    assertEquals(2, BodyStore.v().getPinned());
+    assertEquals(0, BodyStore.v().getResident());
+  }
+
+  @Test
+  public void inPlaceModificationsArePinned() {
+    for (SootMethod m : methods) {
+      m.retrieveActiveBody();
+    }
+    InvokeExpr invoke = null;
+    SootMethod modified = null;
+    for (SootMethod m : methods) {
+      for (Unit u : m.getActiveBody().getUnits()) {
+        if (invoke == null && ((Stmt) u).containsInvokeExpr()) {
+          invoke = ((Stmt) u).getInvokeExpr();
+          modified = m;
+        }
+      }
+    }
+    Body modifiedBody = modified.getActiveBody();
+    SootMethodRef ref = Scene.v().makeMethodRef(invoke.getMethodRef().getDeclaringClass(), "renamed",
+        invoke.getMethodRef().getParameterTypes(), invoke.getMethodRef().getReturnType(), invoke.getMethodRef().isStatic());
+    // Neither the statements nor the values of the body change
+    invoke.setMethodRef(ref);
+
+    assertEquals(0, BodyStore.v().evict(Integer.MAX_VALUE));
+    assertSame(modifiedBody, modified.getActiveBody());
+    assertSame(ref, invoke.getMethodRef());
+    assertEquals(methods.size(), BodyStore.v().getPinned());
+  }
+
+  @Test
+  public void releasedBodiesAreNotTracked() {
+    SootMethod m = methods.get(0);
+    m.retrieveActiveBody();
+    m.releaseActiveBody();
+    assertEquals(0, BodyStore.v().getResident());
+    assertTrue(!m.hasActiveBody());
+  }
+}
@@ -176,6 +176,38 @@ public class FastHierarchyTest {
     assertThat(fh.getAllImplementersOfInterface(interfaceD), containsInAnyOrder(scA, scB, scC1, scD));
   }
 
+  @Test
+  public void testGetLeastCommonSuperclassOf() {
+    G.reset();
+
+    Scene s = Scene.v();
+    s.loadNecessaryClasses();
+
+    SootClass scA = generacteSceneClass("ClassA", 0);
+    SootClass scB1 = generacteSceneClass("ClassB1", 0);
+    SootClass scB2 = generacteSceneClass("ClassB2", 0);
+    SootClass scC = generacteSceneClass("ClassC", 0);
+    SootClass scZ = generacteSceneClass("ClassZ", 0);
+
+    scB1.setSuperclass(scA);
+    scB2.setSuperclass(scA);
+    scC.setSuperclass(scB1);
+
+    FastHierarchy fh = s.getOrMakeFastHierarchy();
+    SootClass object = s.getObjectType().getSootClass();
+
+    assertEquals(scA, fh.getLeastCommonSuperclassOf(scA, scA));
+    assertEquals(scA, fh.getLeastCommonSuperclassOf(scB1, scB2));
+    assertEquals(scA, fh.getLeastCommonSuperclassOf(scB2, scB1));
+    assertEquals(scA, fh.getLeastCommonSuperclassOf(scC, scB2));
+    assertEquals(scB1, fh.getLeastCommonSuperclassOf(scC, scB1));
+    assertEquals(scB1, fh.getLeastCommonSuperclassOf(scB1, scC));
+    assertEquals(object, fh.getLeastCommonSuperclassOf(scC, scZ));
+
+    // Cached results must not depend on the order of the first query
+    assertEquals(scB1, fh.getLeastCommonSuperclassOf(scC, scB1));
+  }
+
   private static class FastHierarchyForUnittest extends FastHierarchy {
 
     @Override
@@ -0,0 +1,175 @@
+package soot;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2026 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.io.Files;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+
+import soot.options.Options;
+
+public class IncrementalAnalysisTest {
+
+  private File processDir;
+
+  @Before
+  public void setUp() throws IOException {
+    G.reset();
+    processDir = Files.createTempDir();
+    writeLib(1, false);
+    writeClass("User", "Lib");
+    writeClass("Other", null);
+
+    Options.v().set_prepend_classpath(true);
+    Options.v().set_allow_phantom_refs(true);
+    Options.v().set_process_dir(Collections.singletonList(processDir.getAbsolutePath()));
+    Options.v().set_output_format(Options.output_format_none);
+    Options.v().set_incremental(true);
+    Scene.v().loadNecessaryClasses();
+    PackManager.v().runPacks();
+  }
+
+  @After
+  public void tearDown() {
+    G.reset();
+  }
+
+  /**
+   * Writes the class <code>Lib</code> with a method <code>value()</code> returning the given constant and, optionally, a
+   * second method <code>extra()</code>.
+   */
+  private void writeLib(int value, boolean extra) throws IOException {
+    ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_FRAMES | ClassWriter.COMPUTE_MAXS);
+    cw.visit(Opcodes.V1_7, Opcodes.ACC_PUBLIC, "Lib", null, "java/lang/Object", null);
+    MethodVisitor mv = cw.visitMethod(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC, "value", "()I", null, null);
+    mv.visitCode();
+    mv.visitLdcInsn(value);
+    mv.visitInsn(Opcodes.IRETURN);
+    mv.visitMaxs(0, 0);
+    mv.visitEnd();
+    if (extra) {
+      mv = cw.visitMethod(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC, "extra", "()V", null, null);
+      mv.visitCode();
+      mv.visitInsn(Opcodes.RETURN);
+      mv.visitMaxs(0, 0);
+      mv.visitEnd();
+    }
+    cw.visitEnd();
+    write("Lib", cw.toByteArray());
+  }
+
+  /**
+   * Writes a class with a method <code>run()</code> that calls <code>value()</code> of the given class, if any.
+   */
+  private void writeClass(String name, String callee) throws IOException {
+    ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_FRAMES | ClassWriter.COMPUTE_MAXS);
+    cw.visit(Opcodes.V1_7, Opcodes.ACC_PUBLIC, name, null, "java/lang/Object", null);
+    MethodVisitor mv = cw.visitMethod(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC, "run", "()I", null, null);
+    mv.visitCode();
+    if (callee == null) {
+      mv.visitInsn(Opcodes.ICONST_0);
+    } else {
+      mv.visitMethodInsn(Opcodes.INVOKESTATIC, callee, "value", "()I", false);
+    }
+    mv.visitInsn(Opcodes.IRETURN);
+    mv.visitMaxs(0, 0);
+    mv.visitEnd();
+    cw.visitEnd();
+    write(name, cw.toByteArray());
+  }
+
+  private void write(String name, byte[] bytes) throws IOException {
+    File f = new File(processDir, name + ".class");
+    final long previous = f.lastModified();
+    Files.write(bytes, f);
+    // Make sure that the change is visible even on file systems with a coarse timestamp resolution
+    f.setLastModified(Math.max(System.currentTimeMillis(), previous + 2000));
+  }
+
+  private static Set<String> signatures(Set<SootMethod> methods) {
+    Set<String> signatures = new HashSet<String>();
+    for (SootMethod m : methods) {
+      signatures.add(m.getSignature());
+    }
+    return signatures;
+  }
+
+  @Test
+  public void unchangedClassesAreKept() {
+    final Body other = Scene.v().getMethod("<Other: int run()>").getActiveBody();
+    assertTrue(IncrementalAnalysis.v().computeDelta().isEmpty());
+    assertTrue(IncrementalAnalysis.v().reanalyze().isEmpty());
+    assertSame(other, Scene.v().getMethod("<Other: int run()>").getActiveBody());
+  }
+
+  @Test
+  public void changedClassAndDependentsAreReanalyzed() throws IOException {
+    final Body user = Scene.v().getMethod("<User: int run()>").getActiveBody();
+    final Body other = Scene.v().getMethod("<Other: int run()>").getActiveBody();
+    writeLib(2, true);
+
+    Set<SootMethod> affected = IncrementalAnalysis.v().reanalyze();
+    assertEquals(new HashSet<String>(Arrays.asList("<Lib: int value()>", "<Lib: void extra()>",
+        "<User: int run()>")), signatures(affected));
+    assertTrue(Scene.v().getSootClass("Lib").declaresMethod("void extra()"));
+    assertTrue(Scene.v().getMethod("<Lib: int value()>").getActiveBody().toString().contains("return 2"));
+    assertNotSame(user, Scene.v().getMethod("<User: int run()>").getActiveBody());
+    assertSame(other, Scene.v().getMethod("<Other: int run()>").getActiveBody());
+
+    assertTrue(IncrementalAnalysis.v().computeDelta().isEmpty());
+  }
+
+  @Test
+  public void addedAndRemovedClasses() throws IOException {
+    writeClass("Added", "Lib");
+    assertTrue(new File(processDir, "Other.class").delete());
+
+    IncrementalAnalysis.Delta delta = IncrementalAnalysis.v().computeDelta();
+    assertEquals(Collections.singleton("Added"), delta.getAdded());
+    assertEquals(Collections.singleton("Other"), delta.getRemoved());
+    assertTrue(delta.getChanged().isEmpty());
+
+    Set<SootMethod> affected = IncrementalAnalysis.v().apply(delta);
+    assertEquals(Collections.singleton("<Added: int run()>"), signatures(affected));
+    assertTrue(Scene.v().getSootClass("Added").isApplicationClass());
+    assertFalse(Scene.v().containsClass("Other"));
+  }
+}
@@ -21,14 +21,19 @@ package soot;
  * #L%
  */
 
+import com.google.common.io.ByteStreams;
 import com.google.common.io.Files;
 import org.junit.Test;
+import org.objectweb.asm.ClassReader;
 import soot.options.Options;
 
 import java.io.File;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Enumeration;
 import java.util.List;
@@ -38,6 +43,7 @@ import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -155,6 +161,129 @@ public class PackManagerTest {
         fail("No Manifest entry found in " + targetJar.getAbsolutePath());
     }
 
+    @Test
+    public void testWritingClassFilesToJar() throws Exception {
+        File dir = Files.createTempDir();
+        File jarDir = Files.createTempDir();
+        try {
+            writeClassFiles(dir, false);
+            writeClassFiles(jarDir, true);
+            String[] files = dir.list();
+            assertTrue(files.length > 1);
+            File[] jars = jarDir.listFiles();
+            assertEquals(1, jars.length);
+            try (ZipFile jar = new ZipFile(jars[0])) {
+                assertEquals(files.length, jar.size());
+                for (String f : files) {
+                    ZipEntry entry = jar.getEntry(f);
+                    assertTrue(f, entry != null);
+                    // Local variable slots depend on identity hash codes and are not stable between runs, so only the class
+                    // structure is compared
+                    ClassReader expected = new ClassReader(Files.toByteArray(new File(dir, f)));
+                    try (InputStream in = jar.getInputStream(entry)) {
+                        ClassReader actual = new ClassReader(ByteStreams.toByteArray(in));
+                        assertEquals(f, expected.getClassName(), actual.getClassName());
+                        assertEquals(f, expected.getSuperName(), actual.getSuperName());
+                        assertEquals(f, expected.getAccess(), actual.getAccess());
+                    }
+                }
+            }
+        } finally {
+            for (File d : new File[] { dir, jarDir }) {
+                for (File f : d.listFiles()) {
+                    f.delete();
+                }
+                d.delete();
+            }
+        }
+    }
+
+    private static void writeClassFiles(File outputDir, boolean jar) {
+        Path cp = Paths.get("src", "test", "resources", "ported", "PR1834", "java6", "bin");
+        G.reset();
+        Options.v().set_prepend_classpath(true);
+        Options.v().set_allow_phantom_refs(true);
+        Options.v().set_process_dir(Collections.singletonList(cp.toFile().getAbsolutePath()));
+        Options.v().set_src_prec(Options.src_prec_class);
+        Options.v().set_output_format(Options.output_format_class);
+        Options.v().set_output_dir(outputDir.getAbsolutePath());
+        Options.v().set_output_jar(jar);
+        Scene.v().loadNecessaryClasses();
+        PackManager.v().runPacks();
+        PackManager.v().writeOutput();
+        G.reset();
+    }
+
+    @Test
+    public void testStreamingMatchesRegularPipeline() throws Exception {
+        String[] files = assertStreamingMatchesRegularPipeline(
+                Paths.get("src", "test", "resources", "ported", "PR1834", "java6", "bin"));
+        assertTrue(files.length > 1);
+    }
+
+    @Test
+    public void testStreamingWritesLambdaClasses() throws Exception {
+        // The bootstrap classes for the lambdas are only created while jb builds the bodies
+        String[] files = assertStreamingMatchesRegularPipeline(
+                Paths.get("src", "test", "resources", "ported", "PR1834", "java11", "bin"));
+        assertTrue(Arrays.toString(files), files.length > 1);
+    }
+
+    private static String[] assertStreamingMatchesRegularPipeline(Path cp) throws Exception {
+        File regular = Files.createTempDir();
+        File streamed = Files.createTempDir();
+        try {
+            writeJimple(cp, regular, false);
+            writeJimple(cp, streamed, true);
+            String[] files = regular.list();
+            assertTrue(files.length > 0);
+            Arrays.sort(files);
+            String[] streamedFiles = streamed.list();
+            Arrays.sort(streamedFiles);
+            assertEquals(Arrays.asList(files), Arrays.asList(streamedFiles));
+            for (String f : files) {
+                assertEquals(f, Files.asCharSource(new File(regular, f), StandardCharsets.UTF_8).read(),
+                        Files.asCharSource(new File(streamed, f), StandardCharsets.UTF_8).read());
+            }
+            return files;
+        } finally {
+            for (File dir : new File[] { regular, streamed }) {
+                for (File f : dir.listFiles()) {
+                    f.delete();
+                }
+                dir.delete();
+            }
+        }
+    }
+
+    private static void writeJimple(Path cp, File outputDir, boolean streaming) {
+        G.reset();
+        Options.v().set_prepend_classpath(true);
+        Options.v().set_allow_phantom_refs(true);
+        Options.v().set_process_dir(Collections.singletonList(cp.toFile().getAbsolutePath()));
+        Options.v().set_src_prec(Options.src_prec_class);
+        Options.v().set_output_format(Options.output_format_jimple);
+        Options.v().set_output_dir(outputDir.getAbsolutePath());
+        Options.v().set_streaming(streaming);
+        Options.v().set_streaming_window(2);
+        // jb.sils iterates over objects hashed by identity, so the local names it produces differ between runs of either
+        // pipeline
+        PhaseOptions.v().setPhaseOption("jb.sils", "enabled:false");
+        Scene.v().loadNecessaryClasses();
+        PackManager.v().runPacks();
+        if (!streaming) {
+            PackManager.v().writeOutput();
+        } else {
+            // All bodies have been released after writing
+            for (SootClass sc : Scene.v().getApplicationClasses()) {
+                for (SootMethod m : sc.getMethods()) {
+                    assertFalse(m.hasActiveBody());
+                }
+            }
+        }
+        G.reset();
+    }
+
     public static List<String> expectedBody(String... jimpleLines) {
         return Stream.of(jimpleLines).collect(Collectors.toList());
     }
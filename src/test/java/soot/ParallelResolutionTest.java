@@ -0,0 +1,80 @@
+package soot;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2026 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Test;
+
+import soot.options.Options;
+
+/**
+ * Checks that parallel class resolution produces exactly the same Scene as sequential resolution.
+ */
+public class ParallelResolutionTest {
+
+  private static List<String> load(boolean parallel) {
+    G.reset();
+    Options.v().set_parallel_resolution(parallel);
+    Options.v().set_num_threads(4);
+    Options.v().set_allow_phantom_refs(true);
+    Options.v().classes().add("java.util.ArrayList");
+    Options.v().classes().add("java.util.HashMap");
+    // Compare the bodies as they come out of the frontend; the local names chosen by jb may depend on identity hash codes
+    PhaseOptions.v().setPhaseOption("jb", "enabled:false");
+    Scene.v().loadNecessaryClasses();
+
+    List<String> description = new ArrayList<String>();
+    for (SootClass sc : Scene.v().getClasses()) {
+      description.add(sc.getName() + " " + sc.resolvingLevel() + " " + sc.getModifiers());
+      if (sc.resolvingLevel() >= SootClass.SIGNATURES) {
+        for (SootField f : sc.getFields()) {
+          description.add(f.getSignature());
+        }
+        for (SootMethod m : sc.getMethods()) {
+          description.add(m.getSignature() + " " + m.getExceptionsUnsafe() + " " + m.getTags());
+        }
+      }
+    }
+    description.add(Scene.v().getSootClass("java.util.HashMap").getMethodByName("resize").retrieveActiveBody().toString());
+    return description;
+  }
+
+  @After
+  public void tearDown() {
+    G.reset();
+  }
+
+  @Test
+  public void sceneMatchesSequentialResolution() {
+    List<String> sequential = load(false);
+    List<String> parallel = load(true);
+    assertTrue(sequential.size() > 100);
+    assertEquals(sequential, parallel);
+  }
+}
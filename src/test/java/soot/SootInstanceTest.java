@@ -0,0 +1,144 @@
+package soot;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2026 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import soot.options.Options;
+
+public class SootInstanceTest {
+
+  @Before
+  public void setUp() {
+    G.reset();
+  }
+
+  @After
+  public void tearDown() {
+    G.reset();
+  }
+
+  /**
+   * Loads the given class and returns a summary of its method bodies.
+   */
+  private static List<String> analyze(String className) {
+    Options.v().set_allow_phantom_refs(true);
+    Options.v().classes().add(className);
+    Scene.v().loadNecessaryClasses();
+
+    List<String> summary = new ArrayList<String>();
+    summary.add(Options.v().classes().toString());
+    for (SootMethod m : Scene.v().getSootClass(className).getMethods()) {
+      if (m.isConcrete()) {
+        Body b = m.retrieveActiveBody();
+        summary.add(m.getSignature() + " " + b.getUnits().size() + " " + b.getTraps().size());
+      }
+    }
+    return summary;
+  }
+
+  private static List<List<String>> analyzeRepeatedly(String className) {
+    List<List<String>> results = new ArrayList<List<String>>();
+    for (int i = 0; i < 3; i++) {
+      results.add(analyze(className));
+      G.reset();
+    }
+    return results;
+  }
+
+  @Test
+  public void instancesAreIsolated() throws Exception {
+    final List<String> hashMap = analyze("java.util.HashMap");
+    G.reset();
+    final List<String> arrayList = analyze("java.util.ArrayList");
+    G.reset();
+    final G global = G.v();
+
+    final SootInstance a = SootInstance.create();
+    final SootInstance b = SootInstance.create();
+    ExecutorService pool = Executors.newFixedThreadPool(2);
+    try {
+      Future<List<List<String>>> resultA = pool.submit(a.wrap(() -> analyzeRepeatedly("java.util.HashMap")));
+      Future<List<List<String>>> resultB = pool.submit(b.wrap(() -> analyzeRepeatedly("java.util.ArrayList")));
+      for (List<String> r : resultA.get()) {
+        assertEquals(hashMap, r);
+      }
+      for (List<String> r : resultB.get()) {
+        assertEquals(arrayList, r);
+      }
+    } finally {
+      pool.shutdown();
+    }
+
+    assertSame(global, G.v());
+    assertTrue(Scene.v().getClasses().isEmpty());
+    assertTrue(Options.v().classes().isEmpty());
+  }
+
+  @Test
+  public void bindingIsScopedAndInherited() throws Exception {
+    final G global = G.v();
+    final SootInstance instance = SootInstance.create();
+    assertNull(SootInstance.current());
+
+    instance.run(() -> {
+      assertSame(instance, SootInstance.current());
+      final G g = G.v();
+      assertSame(instance.getG(), g);
+      assertNotSame(global, g);
+      assertNotSame(global.soot_Scene(), Scene.v());
+
+      final G[] inWorker = new G[1];
+      Thread worker = new Thread(() -> inWorker[0] = G.v());
+      worker.start();
+      try {
+        worker.join();
+      } catch (InterruptedException e) {
+        throw new RuntimeException(e);
+      }
+      assertSame(g, inWorker[0]);
+
+      G.reset();
+      assertNotSame(g, G.v());
+      assertSame(instance.getG(), G.v());
+    });
+
+    assertNull(SootInstance.current());
+    assertSame(global, G.v());
+    assertNotSame(global, instance.getG());
+  }
+}
@@ -0,0 +1,120 @@
+package soot;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2026 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import soot.jimple.Jimple;
+import soot.jimple.Stmt;
+import soot.options.Options;
+
+/**
+ * Checks that {@link Unit#forEachUseBox}, {@link Unit#forEachDefBox} and {@link Value#forEachUseBox} visit the same boxes
+ * in the same order as the corresponding list-returning methods.
+ */
+public class UseDefBoxTraversalTest {
+
+  private static void assertSameBoxes(List<ValueBox> expected, List<ValueBox> actual) {
+    assertEquals(expected.size(), actual.size());
+    for (int i = 0; i < expected.size(); i++) {
+      assertSame(expected.get(i), actual.get(i));
+    }
+  }
+
+  private static int check(Unit u) {
+    List<ValueBox> uses = new ArrayList<ValueBox>();
+    u.forEachUseBox(uses::add);
+    assertSameBoxes(u.getUseBoxes(), uses);
+
+    List<ValueBox> defs = new ArrayList<ValueBox>();
+    u.forEachDefBox(defs::add);
+    assertSameBoxes(u.getDefBoxes(), defs);
+
+    for (ValueBox vb : uses) {
+      List<ValueBox> nested = new ArrayList<ValueBox>();
+      vb.getValue().forEachUseBox(nested::add);
+      assertSameBoxes(vb.getValue().getUseBoxes(), nested);
+    }
+    return uses.size();
+  }
+
+  @Test
+  public void testNestedExpressions() {
+    G.reset();
+    Scene.v().loadBasicClasses();
+    Jimple j = Jimple.v();
+    Local a = j.newLocal("a", RefType.v("java.lang.Object"));
+    Local arr = j.newLocal("arr", ArrayType.v(IntType.v(), 1));
+    Local i = j.newLocal("i", IntType.v());
+    Local x = j.newLocal("x", IntType.v());
+    SootMethodRef ref = Scene.v().makeMethodRef(Scene.v().getSootClass("java.lang.Object"), "wait",
+        Arrays.<Type>asList(LongType.v(), IntType.v()), VoidType.v(), false);
+
+    Stmt invoke = j.newInvokeStmt(j.newVirtualInvokeExpr(a, ref, Arrays.<Value>asList(i, x)));
+    Stmt store = j.newAssignStmt(j.newArrayRef(arr, i), x);
+    Stmt add = j.newAssignStmt(x, j.newAddExpr(x, i));
+    Stmt cast = j.newAssignStmt(x, j.newCastExpr(i, IntType.v()));
+    Stmt cond = j.newIfStmt(j.newLtExpr(i, x), j.newNopStmt());
+    Stmt multi = j.newAssignStmt(a, j.newNewMultiArrayExpr(ArrayType.v(IntType.v(), 2), Arrays.<Value>asList(i, x)));
+
+    assertEquals(4, check(invoke));
+    assertEquals(3, check(store));
+    assertEquals(3, check(add));
+    assertEquals(2, check(cast));
+    assertEquals(3, check(cond));
+    assertEquals(3, check(multi));
+  }
+
+  @Test
+  public void testLoadedBodies() {
+    G.reset();
+    Options.v().set_prepend_classpath(true);
+    Options.v().set_allow_phantom_refs(true);
+    Options.v().set_process_dir(Collections.singletonList(new File("test-classes-asm").getAbsolutePath()));
+    Options.v().set_src_prec(Options.src_prec_only_class);
+    Scene.v().loadNecessaryClasses();
+
+    int units = 0;
+    for (SootClass sc : Scene.v().getApplicationClasses()) {
+      for (SootMethod m : sc.getMethods()) {
+        if (m.isConcrete()) {
+          for (Unit u : m.retrieveActiveBody().getUnits()) {
+            check(u);
+            units++;
+          }
+        }
+      }
+    }
+    assertTrue(units > 0);
+  }
+}
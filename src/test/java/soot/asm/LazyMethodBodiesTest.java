@@ -0,0 +1,136 @@
+package soot.asm;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2026 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Test;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.tree.InsnList;
+import org.objectweb.asm.tree.LocalVariableNode;
+import org.objectweb.asm.tree.TryCatchBlockNode;
+
+import soot.G;
+import soot.MethodSource;
+import soot.Modifier;
+import soot.PhaseOptions;
+import soot.Scene;
+import soot.SootClass;
+import soot.SootMethod;
+import soot.options.Options;
+
+/**
+ * Checks that methods whose instructions are decoded on demand get the same bodies as methods that keep their instructions.
+ */
+public class LazyMethodBodiesTest {
+
+  private static final String PROCESS_DIR = "src/test/resources/ported/PR1834/java6/bin";
+
+  private static void load(boolean lazy) {
+    G.reset();
+    Options.v().set_allow_phantom_refs(true);
+    Options.v().set_prepend_classpath(true);
+    Options.v().set_process_dir(Collections.singletonList(new File(PROCESS_DIR).getAbsolutePath()));
+    Options.v().set_lazy_method_bodies(lazy);
+    // Compare the bodies as they come out of the frontend; the local names chosen by jb may depend on identity hash codes
+    PhaseOptions.v().setPhaseOption("jb", "enabled:false");
+    Scene.v().loadNecessaryClasses();
+  }
+
+  private static List<String> loadBodies(boolean lazy) {
+    load(lazy);
+    List<String> bodies = new ArrayList<String>();
+    for (SootClass sc : Scene.v().getApplicationClasses()) {
+      for (SootMethod m : sc.getMethods()) {
+        if (m.isConcrete()) {
+          assertEquals(lazy, m.getSource() instanceof LazyAsmMethodSource);
+          bodies.add(m.retrieveActiveBody().toString());
+        }
+      }
+    }
+    Collections.sort(bodies);
+    return bodies;
+  }
+
+  @After
+  public void tearDown() {
+    G.reset();
+  }
+
+  @Test
+  public void lazyBodiesMatchEagerBodies() {
+    List<String> eager = loadBodies(false);
+    assertFalse(eager.isEmpty());
+    assertEquals(eager, loadBodies(true));
+  }
+
+  @Test
+  public void lazySourceCanBeUsedRepeatedly() {
+    load(true);
+    SootMethod m = Scene.v().getSootClass("Reflection").getMethodByName("checkReflection");
+    MethodSource source = m.getSource();
+    assertTrue(source instanceof LazyAsmMethodSource);
+    assertEquals(source.getBody(m, "jb").toString(), source.getBody(m, "jb").toString());
+  }
+
+  @Test
+  public void lazySourceUsesMethodBuilderHook() throws IOException {
+    load(true);
+    String expected = Scene.v().getSootClass("Reflection").getMethodByName("checkReflection").retrieveActiveBody().toString();
+
+    // Resolve the class again with a builder that overrides the hook
+    final List<String> created = new ArrayList<String>();
+    byte[] classFile = Files.readAllBytes(new File(PROCESS_DIR, "Reflection.class").toPath());
+    SootClass sc = new SootClass("Reflection", Modifier.PUBLIC);
+    new ClassReader(classFile).accept(new SootClassBuilder(sc, classFile) {
+      @Override
+      protected MethodVisitor createMethodBuilder(SootMethod sootMethod, String desc, String[] exceptions) {
+        return new MethodBuilder(sootMethod, this, desc, exceptions) {
+          @Override
+          protected MethodSource createAsmMethodSource(int maxLocals, InsnList instructions,
+              List<LocalVariableNode> localVariables, List<TryCatchBlockNode> tryCatchBlocks, String moduleName) {
+            created.add(sootMethod.getName());
+            return super.createAsmMethodSource(maxLocals, instructions, localVariables, tryCatchBlocks, moduleName);
+          }
+        };
+      }
+    }, ClassReader.SKIP_FRAMES);
+    assertTrue(created.isEmpty());
+
+    SootMethod m = sc.getMethodByName("checkReflection");
+    assertTrue(m.getSource() instanceof LazyAsmMethodSource);
+    assertEquals(expected, m.getSource().getBody(m, "jb").toString());
+    assertEquals(Collections.singletonList("checkReflection"), created);
+  }
+}
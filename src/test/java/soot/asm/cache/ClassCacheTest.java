@@ -0,0 +1,114 @@
+package soot.asm.cache;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2026 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.io.Files;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import soot.FoundFile;
+import soot.G;
+import soot.Scene;
+import soot.SootClass;
+import soot.SootField;
+import soot.SootMethod;
+import soot.options.Options;
+
+/**
+ * Checks that classes restored from the persistent class cache are indistinguishable from classes parsed from bytecode.
+ */
+public class ClassCacheTest {
+
+  private static final String CLASS_NAME = "java.util.ArrayList";
+
+  private static List<String> load(File cacheDir) {
+    G.reset();
+    Options.v().set_class_cache_dir(cacheDir.getAbsolutePath());
+    Options.v().set_allow_phantom_refs(true);
+    Options.v().classes().add(CLASS_NAME);
+    Scene.v().loadNecessaryClasses();
+    ClassCache.v().flush();
+
+    SootClass sc = Scene.v().getSootClass(CLASS_NAME);
+    List<String> description = new ArrayList<String>();
+    description.add(sc.getModifiers() + " " + sc.getSuperclass() + " " + sc.getInterfaces() + " " + sc.getTags());
+    for (SootField f : sc.getFields()) {
+      description.add(f.getModifiers() + " " + f.getSignature() + " " + f.getTags());
+    }
+    for (SootMethod m : sc.getMethods()) {
+      description.add(m.getModifiers() + " " + m.getSignature() + " " + m.getExceptions() + " " + m.getTags());
+    }
+    description.add(sc.getMethod("int size()").retrieveActiveBody().toString());
+    return description;
+  }
+
+  @Test
+  public void warmRunRestoresSignatures() {
+    File cacheDir = Files.createTempDir();
+    try {
+      List<String> cold = load(cacheDir);
+      assertEquals(0, ClassCache.v().getHits());
+      assertTrue(ClassCache.v().getMisses() > 0);
+
+      List<String> warm = load(cacheDir);
+      assertTrue(ClassCache.v().getHits() > 0);
+      assertEquals(0, ClassCache.v().getMisses());
+      assertEquals(cold, warm);
+    } finally {
+      for (File f : cacheDir.listFiles()) {
+        f.delete();
+      }
+      cacheDir.delete();
+      G.reset();
+    }
+  }
+
+  @Test
+  public void invalidateFindsContainerByAnyPath() {
+    G.reset();
+    try {
+      File dir = Files.createTempDir();
+      File archive = new File(dir, "lib.jar");
+      // The same archive, named through a path that is not normalized
+      File other = new File(new File(dir, "sub"), "../lib.jar");
+
+      ClassCache.Container c = ClassCache.v().getContainer(new FoundFile(other.getPath(), "A.class"));
+      assertSame(c, ClassCache.v().getContainer(new FoundFile(archive.getPath(), "B.class")));
+
+      ClassCache.v().invalidate(archive);
+      assertNotSame(c, ClassCache.v().getContainer(new FoundFile(other.getPath(), "A.class")));
+      dir.delete();
+    } finally {
+      G.reset();
+    }
+  }
+}
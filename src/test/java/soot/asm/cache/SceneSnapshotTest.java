@@ -0,0 +1,147 @@
+package soot.asm.cache;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2026 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.junit.After;
+import org.junit.Test;
+
+import soot.FastHierarchy;
+import soot.G;
+import soot.PhaseOptions;
+import soot.Scene;
+import soot.SootClass;
+import soot.SootField;
+import soot.SootMethod;
+import soot.options.Options;
+
+/**
+ * Checks that a Scene restored from a snapshot is indistinguishable from a Scene loaded from the class path.
+ */
+public class SceneSnapshotTest {
+
+  private static final String PROCESS_DIR = "src/test/resources/ported/PR1834/java6/bin";
+
+  private static void setUp(String... classes) {
+    G.reset();
+    Options.v().set_allow_phantom_refs(true);
+    Options.v().set_prepend_classpath(true);
+    Options.v().set_process_dir(Collections.singletonList(new File(PROCESS_DIR).getAbsolutePath()));
+    // Compare the bodies as they come out of the frontend; the local names chosen by jb may depend on identity hash codes
+    PhaseOptions.v().setPhaseOption("jb", "enabled:false");
+    for (String c : classes) {
+      Options.v().classes().add(c);
+    }
+  }
+
+  private static List<String> describeScene() {
+    final Scene scene = Scene.v();
+    final FastHierarchy hierarchy = scene.getOrMakeFastHierarchy();
+    final SootClass object = scene.getObjectType().getSootClass();
+    List<String> description = new ArrayList<String>();
+    for (SootClass sc : scene.getClasses()) {
+      description.add(sc.getName() + " " + sc.resolvingLevel() + " " + sc.getModifiers() + " " + sc.isApplicationClass()
+          + " " + sc.isLibraryClass() + " " + sc.isPhantom());
+      if (sc.resolvingLevel() >= SootClass.HIERARCHY && !sc.isInterface()) {
+        Set<String> subclasses = new TreeSet<String>();
+        for (SootClass sub : hierarchy.getSubclassesOf(sc)) {
+          subclasses.add(sub.getName());
+        }
+        description.add(hierarchy.isSubclass(sc, object) + " " + subclasses);
+      }
+      if (sc.resolvingLevel() >= SootClass.SIGNATURES) {
+        description.add(sc.getSuperclassUnsafe() + " " + sc.getInterfaces() + " " + sc.getTags());
+        for (SootField f : sc.getFields()) {
+          description.add(f.getSignature() + " " + f.getModifiers() + " " + f.getTags());
+        }
+        for (SootMethod m : sc.getMethods()) {
+          description.add(m.getSignature() + " " + m.getModifiers() + " " + m.getExceptionsUnsafe() + " " + m.getTags());
+        }
+      }
+    }
+    description.add(scene.getSootClass("java.util.HashMap").getMethodByName("resize").retrieveActiveBody().toString());
+    description.add(scene.getSootClass("Reflection").getMethodByName("checkReflection").retrieveActiveBody().toString());
+    return description;
+  }
+
+  private static void checkRoundTrip(boolean withBodies) throws IOException {
+    File snapshot = File.createTempFile("scene", ".snapshot");
+    try {
+      setUp("java.util.HashMap");
+      Scene.v().loadNecessaryClasses();
+      SceneSnapshot.save(snapshot, withBodies);
+      List<String> cold = describeScene();
+
+      setUp("java.util.HashMap");
+      assertTrue(SceneSnapshot.restore(snapshot));
+      assertTrue(Scene.v().doneResolving());
+      List<String> restored = describeScene();
+      assertTrue(cold.size() > 100);
+      assertEquals(cold, restored);
+    } finally {
+      snapshot.delete();
+    }
+  }
+
+  @After
+  public void tearDown() {
+    G.reset();
+  }
+
+  @Test
+  public void restoredSceneMatchesColdLoad() throws IOException {
+    checkRoundTrip(false);
+  }
+
+  @Test
+  public void restoredSceneWithBodiesMatchesColdLoad() throws IOException {
+    checkRoundTrip(true);
+  }
+
+  @Test
+  public void snapshotOfDifferentConfigurationIsIgnored() throws IOException {
+    File snapshot = File.createTempFile("scene", ".snapshot");
+    try {
+      setUp("java.util.HashMap");
+      Scene.v().loadNecessaryClasses();
+      SceneSnapshot.save(snapshot, false);
+
+      setUp("java.util.ArrayList");
+      assertFalse(SceneSnapshot.restore(snapshot));
+      assertTrue(Scene.v().getClasses().isEmpty());
+    } finally {
+      snapshot.delete();
+    }
+  }
+}
@@ -0,0 +1,138 @@
+package soot.asm.cache;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2026 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.io.ByteStreams;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import soot.G;
+import soot.Scene;
+import soot.SootClass;
+import soot.SootField;
+import soot.SootMethod;
+import soot.options.Options;
+
+/**
+ * Checks that classes created from the {@link SharedLibrary} are indistinguishable from classes parsed from their archive.
+ */
+public class SharedLibraryTest {
+
+  private static final String CLASS_NAME = "soot.util.HashChain";
+
+  private static final String[] LIBRARY_CLASSES = { "soot/util/Chain", "soot/util/HashChain", "soot/util/HashChain$Link",
+      "soot/util/HashChain$LinkIterator", "soot/util/HashChain$EmptyIteratorSingleton",
+      "soot/util/HashChain$EmptyIteratorSingleton$1" };
+
+  private File library;
+
+  @Before
+  public void setUp() throws IOException {
+    library = File.createTempFile("library", ".jar");
+    try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(library))) {
+      for (String name : LIBRARY_CLASSES) {
+        out.putNextEntry(new ZipEntry(name + ".class"));
+        try (InputStream in = getClass().getClassLoader().getResourceAsStream(name + ".class")) {
+          ByteStreams.copy(in, out);
+        }
+        out.closeEntry();
+      }
+    }
+  }
+
+  private List<String> load() {
+    G.reset();
+    Options.v().set_shared_library(true);
+    Options.v().set_allow_phantom_refs(true);
+    Options.v().set_soot_classpath(library.getAbsolutePath());
+    Options.v().set_prepend_classpath(true);
+    Options.v().classes().add(CLASS_NAME);
+    Scene.v().loadNecessaryClasses();
+
+    List<String> description = new ArrayList<String>();
+    for (SootClass sc : Scene.v().getClasses()) {
+      if (!sc.getName().startsWith("soot.util.")) {
+        continue;
+      }
+      description.add(sc.getName() + " " + sc.getModifiers() + " " + sc.resolvingLevel() + " " + sc.getSuperclassUnsafe()
+          + " " + sc.getInterfaces() + " " + sc.getTags());
+      if (sc.resolvingLevel() >= SootClass.SIGNATURES) {
+        for (SootField f : sc.getFields()) {
+          description.add(f.getModifiers() + " " + f.getSignature() + " " + f.getTags());
+        }
+        for (SootMethod m : sc.getMethods()) {
+          description.add(m.getModifiers() + " " + m.getSignature() + " " + m.getExceptions() + " " + m.getTags());
+        }
+      }
+    }
+    for (SootMethod m : Scene.v().getSootClass(CLASS_NAME).getMethods()) {
+      if (m.isConcrete()) {
+        description.add(m.getSignature() + " " + m.retrieveActiveBody().getUnits().size());
+      }
+    }
+    return description;
+  }
+
+  @After
+  public void tearDown() {
+    G.reset();
+    SharedLibrary.clear();
+    library.delete();
+  }
+
+  @Test
+  public void laterRunsUseSharedClasses() {
+    SharedLibrary.clear();
+    final long hits = SharedLibrary.getHits();
+    final long misses = SharedLibrary.getMisses();
+
+    List<String> first = load();
+    assertEquals(hits, SharedLibrary.getHits());
+    final long read = SharedLibrary.getMisses() - misses;
+    assertTrue(read > 0);
+
+    List<String> second = load();
+    assertEquals(misses + read, SharedLibrary.getMisses());
+    assertEquals(hits + read, SharedLibrary.getHits());
+    assertEquals(first, second);
+
+    G.reset();
+    SharedLibrary.clear();
+    List<String> unshared = load();
+    assertEquals(first, unshared);
+  }
+}
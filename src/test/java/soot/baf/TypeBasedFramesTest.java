@@ -0,0 +1,100 @@
+package soot.baf;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2026 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.io.Files;
+
+import java.io.File;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import soot.G;
+import soot.PackManager;
+import soot.Scene;
+import soot.options.Options;
+
+/**
+ * Checks that class files written with <code>-type-based-frames</code> pass the bytecode verifier.
+ */
+public class TypeBasedFramesTest {
+
+  @Test
+  public void testGeneratedClassesVerify() throws Exception {
+    File outputDir = Files.createTempDir();
+    try {
+      G.reset();
+      Options.v().set_prepend_classpath(true);
+      Options.v().set_allow_phantom_refs(true);
+      Options.v().set_process_dir(Collections.singletonList(new File("test-classes-asm").getAbsolutePath()));
+      Options.v().set_src_prec(Options.src_prec_only_class);
+      Options.v().set_output_format(Options.output_format_class);
+      Options.v().set_output_dir(outputDir.getAbsolutePath());
+      Options.v().set_java_version(Options.java_version_1_8);
+      Options.v().set_type_based_frames(true);
+      Scene.v().loadNecessaryClasses();
+      PackManager.v().runPacks();
+      PackManager.v().writeOutput();
+
+      List<String> classNames = new ArrayList<String>();
+      collectClassNames(outputDir, "", classNames);
+      assertTrue(classNames.size() > 1);
+
+      // Without a parent loader the classes are loaded from the output directory rather than from the test class path
+      try (URLClassLoader loader = new URLClassLoader(new URL[] { outputDir.toURI().toURL() }, null)) {
+        for (String className : classNames) {
+          // Linking the class runs the verifier, which throws a VerifyError if a stack map frame is wrong
+          Class.forName(className, true, loader);
+        }
+      }
+    } finally {
+      delete(outputDir);
+    }
+  }
+
+  private static void collectClassNames(File dir, String prefix, List<String> classNames) {
+    for (File f : dir.listFiles()) {
+      if (f.isDirectory()) {
+        collectClassNames(f, prefix + f.getName() + ".", classNames);
+      } else if (f.getName().endsWith(".class")) {
+        classNames.add(prefix + f.getName().substring(0, f.getName().length() - ".class".length()));
+      }
+    }
+  }
+
+  private static void delete(File f) {
+    File[] children = f.listFiles();
+    if (children != null) {
+      for (File c : children) {
+        delete(c);
+      }
+    }
+    f.delete();
+  }
+}
@@ -0,0 +1,163 @@
+package soot.dexpler;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2026 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.Files;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+
+import org.jf.dexlib2.AccessFlags;
+import org.jf.dexlib2.Opcode;
+import org.jf.dexlib2.Opcodes;
+import org.jf.dexlib2.iface.ClassDef;
+import org.jf.dexlib2.iface.instruction.Instruction;
+import org.jf.dexlib2.immutable.ImmutableClassDef;
+import org.jf.dexlib2.immutable.ImmutableDexFile;
+import org.jf.dexlib2.immutable.ImmutableMethod;
+import org.jf.dexlib2.immutable.ImmutableMethodImplementation;
+import org.jf.dexlib2.immutable.ImmutableMethodParameter;
+import org.jf.dexlib2.immutable.instruction.ImmutableInstruction11x;
+import org.jf.dexlib2.immutable.instruction.ImmutableInstruction23x;
+import org.jf.dexlib2.writer.pool.DexPool;
+import org.jf.dexlib2.writer.io.FileDataStore;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import soot.Body;
+import soot.G;
+import soot.ModulePathSourceLocator;
+import soot.Scene;
+import soot.Unit;
+import soot.options.Options;
+import soot.tagkit.BytecodeOffsetTag;
+
+/**
+ * Checks that bodies converted from Dalvik bytecode are stored in the dex body cache and that a later run gets exactly the
+ * same bodies from the cache.
+ */
+public class DexBodyCacheTest {
+
+  private static final String METHOD = "<pkg.A: int add(int,int)>";
+
+  private File dexFile;
+  private File cacheDir;
+
+  @Before
+  public void setUp() throws IOException {
+    cacheDir = Files.createTempDir();
+    dexFile = File.createTempFile("classes", ".dex");
+
+    // static int add(int a, int b) { return a + b; }
+    List<Instruction> code = ImmutableList.<Instruction>of(new ImmutableInstruction23x(Opcode.ADD_INT, 0, 1, 2),
+        new ImmutableInstruction11x(Opcode.RETURN, 0));
+    ImmutableMethod add = new ImmutableMethod("Lpkg/A;", "add",
+        ImmutableList.of(new ImmutableMethodParameter("I", null, null), new ImmutableMethodParameter("I", null, null)), "I",
+        AccessFlags.STATIC.getValue(), null, null, new ImmutableMethodImplementation(3, code, null, null));
+    ClassDef a = new ImmutableClassDef("Lpkg/A;", AccessFlags.PUBLIC.getValue(), "Ljava/lang/Object;", null, null, null,
+        null, Collections.singletonList(add));
+    DexPool.writeTo(new FileDataStore(dexFile), new ImmutableDexFile(Opcodes.getDefault(), Collections.singleton(a)));
+  }
+
+  @After
+  public void tearDown() {
+    G.reset();
+    dexFile.delete();
+    delete(cacheDir);
+  }
+
+  private static void delete(File f) {
+    File[] children = f.listFiles();
+    if (children != null) {
+      for (File c : children) {
+        delete(c);
+      }
+    }
+    f.delete();
+  }
+
+  private String convert(boolean keepLineNumbers) {
+    return convert(keepLineNumbers, false).toString();
+  }
+
+  private Body convert(boolean keepLineNumbers, boolean keepOffsets) {
+    G.reset();
+    Options.v().set_src_prec(Options.src_prec_apk);
+    Options.v().set_allow_phantom_refs(true);
+    if (Scene.isJavaGEQ9(System.getProperty("java.version"))) {
+      Options.v().set_soot_classpath(ModulePathSourceLocator.DUMMY_CLASSPATH_JDK9_FS);
+    } else {
+      Options.v().set_soot_classpath(System.getProperty("java.home") + File.separator + "lib" + File.separator + "rt.jar");
+    }
+    Options.v().set_process_dir(Collections.singletonList(dexFile.getAbsolutePath()));
+    Options.v().set_dex_body_cache_dir(cacheDir.getAbsolutePath());
+    Options.v().set_keep_line_number(keepLineNumbers);
+    Options.v().set_keep_offset(keepOffsets);
+    Scene.v().loadNecessaryClasses();
+    return Scene.v().getMethod(METHOD).retrieveActiveBody();
+  }
+
+  @Test
+  public void bodiesAreReusedAcrossRuns() {
+    final String converted = convert(false);
+    assertEquals(0, DexBodyCache.v().getHits());
+    assertEquals(1, DexBodyCache.v().getMisses());
+    assertTrue(converted.contains("+"));
+
+    final String cached = convert(false);
+    assertEquals(1, DexBodyCache.v().getHits());
+    assertEquals(0, DexBodyCache.v().getMisses());
+    assertEquals(converted, cached);
+  }
+
+  @Test
+  public void cacheIsBypassedWhenKeepingLineNumbers() {
+    assertNotNull(convert(false));
+    convert(true);
+    assertEquals(0, DexBodyCache.v().getHits());
+    assertEquals(0, DexBodyCache.v().getMisses());
+  }
+
+  @Test
+  public void cacheIsBypassedWhenKeepingOffsets() {
+    assertNotNull(convert(false));
+    assertEquals(1, DexBodyCache.v().getMisses());
+
+    final Body body = convert(false, true);
+    assertEquals(0, DexBodyCache.v().getHits());
+    assertEquals(0, DexBodyCache.v().getMisses());
+    boolean tagged = false;
+    for (Unit u : body.getUnits()) {
+      tagged |= u.hasTag(BytecodeOffsetTag.NAME);
+    }
+    assertTrue(tagged);
+  }
+}
@@ -0,0 +1,121 @@
+package soot.dexpler;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2026 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.jf.dexlib2.AccessFlags;
+import org.jf.dexlib2.Opcodes;
+import org.jf.dexlib2.iface.ClassDef;
+import org.jf.dexlib2.iface.DexFile;
+import org.jf.dexlib2.immutable.ImmutableClassDef;
+import org.jf.dexlib2.immutable.ImmutableDexFile;
+import org.jf.dexlib2.writer.io.MemoryDataStore;
+import org.jf.dexlib2.writer.pool.DexPool;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import soot.G;
+import soot.options.Options;
+
+/**
+ * Checks that the dex files of a multi-dex archive are loaded and indexed correctly, with and without memory-mapping.
+ */
+public class DexFileProviderTest {
+
+  private File archive;
+
+  @Before
+  public void setUp() throws IOException {
+    archive = File.createTempFile("multidex", ".zip");
+    try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(archive))) {
+      writeDex(out, "classes.dex", "Lpkg/A;", "Lpkg/Shared;");
+      writeDex(out, "classes2.dex", "Lpkg/B;", "Lpkg/Shared;");
+      writeDex(out, "classes3.dex", "Lpkg/C;");
+    }
+  }
+
+  @After
+  public void tearDown() {
+    G.reset();
+    archive.delete();
+  }
+
+  private static void writeDex(ZipOutputStream out, String name, String... types) throws IOException {
+    Set<ClassDef> classes = new HashSet<ClassDef>();
+    for (String type : types) {
+      classes.add(new ImmutableClassDef(type, AccessFlags.PUBLIC.getValue(), "Ljava/lang/Object;", null, null, null, null,
+          null));
+    }
+    MemoryDataStore store = new MemoryDataStore();
+    DexPool.writeTo(store, new ImmutableDexFile(Opcodes.getDefault(), classes));
+    out.putNextEntry(new ZipEntry(name));
+    out.write(Arrays.copyOf(store.getBuffer(), store.getSize()));
+    out.closeEntry();
+  }
+
+  private void checkIndex(boolean mmap) throws IOException {
+    G.reset();
+    Options.v().set_process_multiple_dex(true);
+    Options.v().set_search_dex_in_archives(true);
+    Options.v().set_mmap_archives(mmap);
+    Options.v().set_num_threads(2);
+
+    List<DexFileProvider.DexContainer<? extends DexFile>> dexFiles = DexFileProvider.v().getDexFromSource(archive);
+    assertEquals(3, dexFiles.size());
+    // classes.dex has the highest priority
+    assertEquals("classes.dex", dexFiles.get(0).getDexName());
+    assertEquals(new HashSet<String>(Arrays.asList("pkg.A", "pkg.Shared")), dexFiles.get(0).getClassNames());
+    for (DexFileProvider.DexContainer<? extends DexFile> dex : dexFiles) {
+      if (dex.getDexName().equals("classes2.dex")) {
+        assertEquals("Lpkg/B;", dex.getClassDef("pkg.B").getType());
+        assertNull(dex.getClassDef("pkg.A"));
+      } else if (dex.getDexName().equals("classes3.dex")) {
+        assertEquals(Collections.singleton("pkg.C"), dex.getClassNames());
+      }
+    }
+  }
+
+  @Test
+  public void multiDexArchiveIsIndexed() throws IOException {
+    checkIndex(false);
+  }
+
+  @Test
+  public void mappedMultiDexArchiveIsIndexed() throws IOException {
+    checkIndex(true);
+  }
+}
@@ -0,0 +1,225 @@
+package soot.jimple;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2026 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import soot.Body;
+import soot.BodyTransformer;
+import soot.CompilationDeathException;
+import soot.G;
+import soot.IntType;
+import soot.Local;
+import soot.Modifier;
+import soot.PackManager;
+import soot.PhaseOptions;
+import soot.RefType;
+import soot.Scene;
+import soot.SootClass;
+import soot.SootMethod;
+import soot.Transform;
+import soot.Unit;
+import soot.VoidType;
+import soot.options.Options;
+import soot.toolkits.graph.BriefUnitGraph;
+import soot.toolkits.graph.ExceptionalUnitGraph;
+
+public class FrozenJimpleBodyTest {
+
+  private static JimpleBody newBody() {
+    G.reset();
+    Scene.v().loadBasicClasses();
+    Jimple j = Jimple.v();
+    SootClass cl = new SootClass("TestClass", Modifier.PUBLIC);
+    SootMethod method = new SootMethod("test", Collections.emptyList(), VoidType.v(), Modifier.PUBLIC);
+    cl.addMethod(method);
+    JimpleBody body = j.newBody(method);
+    method.setActiveBody(body);
+    Local x = j.newLocal("x", IntType.v());
+    Local e = j.newLocal("e", RefType.v("java.lang.Throwable"));
+    body.getLocals().add(x);
+    body.getLocals().add(e);
+
+    Unit ret = j.newReturnVoidStmt();
+    Unit first = j.newAssignStmt(x, IntConstant.v(0));
+    Unit loop = j.newIfStmt(j.newGeExpr(x, IntConstant.v(10)), ret);
+    Unit inc = j.newAssignStmt(x, j.newAddExpr(x, IntConstant.v(1)));
+    Unit back = j.newGotoStmt(loop);
+    Unit handler = j.newIdentityStmt(e, j.newCaughtExceptionRef());
+    body.getUnits().add(first);
+    body.getUnits().add(loop);
+    body.getUnits().add(inc);
+    body.getUnits().add(back);
+    body.getUnits().add(handler);
+    body.getUnits().add(ret);
+    body.getTraps().add(j.newTrap(Scene.v().getSootClass("java.lang.Throwable"), loop, back, handler));
+    return body;
+  }
+
+  @Test
+  public void testFreezeKeepsContents() {
+    JimpleBody body = newBody();
+    List<Unit> units = new ArrayList<Unit>(body.getUnits());
+    List<Local> locals = new ArrayList<Local>(body.getLocals());
+
+    FrozenJimpleBody frozen = FrozenJimpleBody.freeze(body);
+    assertSame(frozen, FrozenJimpleBody.freeze(frozen));
+    assertTrue(body.getUnits().isEmpty());
+    assertTrue(body.getLocals().isEmpty());
+
+    assertEquals(units, new ArrayList<Unit>(frozen.getUnits()));
+    assertEquals(locals, new ArrayList<Local>(frozen.getLocals()));
+    assertEquals(1, frozen.getTraps().size());
+    for (int i = 0; i < units.size(); i++) {
+      Unit u = units.get(i);
+      assertEquals(i, u.getNumber());
+      assertSame(i + 1 < units.size() ? units.get(i + 1) : null, frozen.getUnits().getSuccOf(u));
+      assertSame(i > 0 ? units.get(i - 1) : null, frozen.getUnits().getPredOf(u));
+    }
+
+    Iterator<Unit> it = frozen.getUnits().iterator(units.get(1), units.get(3));
+    assertSame(units.get(1), it.next());
+    assertSame(units.get(2), it.next());
+    assertSame(units.get(3), it.next());
+    assertFalse(it.hasNext());
+    assertFalse(frozen.getUnits().iterator(units.get(1), units.get(0)).hasNext());
+    assertTrue(frozen.getUnits().follows(units.get(3), units.get(1)));
+    assertFalse(frozen.getUnits().follows(units.get(0), units.get(1)));
+  }
+
+  @Test
+  public void testGraphs() {
+    FrozenJimpleBody frozen = FrozenJimpleBody.freeze(newBody());
+    List<Unit> units = new ArrayList<Unit>(frozen.getUnits());
+
+    BriefUnitGraph brief = new BriefUnitGraph(frozen);
+    assertEquals(2, brief.getSuccsOf(units.get(1)).size());
+    assertSame(units.get(1), brief.getSuccsOf(units.get(3)).get(0));
+
+    ExceptionalUnitGraph exceptional = new ExceptionalUnitGraph(frozen);
+    assertTrue(exceptional.getSuccsOf(units.get(2)).contains(units.get(4)));
+  }
+
+  @Test
+  public void testModificationFails() {
+    FrozenJimpleBody frozen = FrozenJimpleBody.freeze(newBody());
+    List<Unit> units = new ArrayList<Unit>(frozen.getUnits());
+    Unit ret = frozen.getUnits().getLast();
+    Unit nop = Jimple.v().newNopStmt();
+
+    try {
+      frozen.getUnits().insertBefore(nop, ret);
+      fail();
+    } catch (UnsupportedOperationException e) {
+      // expected
+    }
+    // The jump to the return statement must not have been redirected
+    assertSame(ret, ((IfStmt) units.get(1)).getTarget());
+    assertTrue(nop.getBoxesPointingToThis().isEmpty());
+
+    try {
+      frozen.getUnits().remove(units.get(2));
+      fail();
+    } catch (UnsupportedOperationException e) {
+      // expected
+    }
+    try {
+      frozen.getUnits().add(nop);
+      fail();
+    } catch (UnsupportedOperationException e) {
+      // expected
+    }
+    try {
+      frozen.getLocals().add(Jimple.v().newLocal("y", IntType.v()));
+      fail();
+    } catch (UnsupportedOperationException e) {
+      // expected
+    }
+    assertEquals(units, new ArrayList<Unit>(frozen.getUnits()));
+  }
+
+  @Test
+  public void testCloneIsModifiable() {
+    FrozenJimpleBody frozen = FrozenJimpleBody.freeze(newBody());
+    Body copy = (Body) frozen.clone();
+    assertFalse(copy instanceof FrozenJimpleBody);
+    assertEquals(frozen.getUnits().size(), copy.getUnits().size());
+
+    Unit nop = Jimple.v().newNopStmt();
+    copy.getUnits().insertBefore(nop, copy.getUnits().getLast());
+    assertSame(nop, copy.getUnits().getPredOf(copy.getUnits().getLast()));
+    assertNull(frozen.getUnits().getSuccOf(frozen.getUnits().getLast()));
+  }
+
+  @Test
+  public void testRejectedWithTransformingPhases() {
+    G.reset();
+    Options.v().set_freeze_bodies(true);
+    PhaseOptions.v().setPhaseOption("jop", "enabled:true");
+    assertRejected();
+
+    G.reset();
+    Options.v().set_freeze_bodies(true);
+    PackManager.v().getPack("jtp").add(new Transform("jtp.test", new BodyTransformer() {
+      @Override
+      protected void internalTransform(Body b, String phaseName, Map<String, String> options) {
+      }
+    }));
+    assertRejected();
+  }
+
+  @Test
+  public void testRejectedWithDexOutput() {
+    G.reset();
+    Options.v().set_freeze_bodies(true);
+    Options.v().set_output_format(Options.output_format_dex);
+    assertRejected();
+
+    G.reset();
+    Options.v().set_freeze_bodies(true);
+    Options.v().set_output_format(Options.output_format_force_dex);
+    assertRejected();
+  }
+
+  private static void assertRejected() {
+    try {
+      PackManager.v().runPacks();
+      fail();
+    } catch (CompilationDeathException e) {
+      assertEquals(CompilationDeathException.COMPILATION_ABORTED, e.getStatus());
+    }
+  }
+}
@@ -0,0 +1,165 @@
+package soot.server;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2026 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.attribute.PosixFilePermission;
+import java.util.EnumSet;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import soot.G;
+import soot.Scene;
+
+public class SootServerTest {
+
+  private static final String[] JOB = { "-pp", "-cp",
+      new File("src/test/resources/LineNumberAdderTest/C.jar").getAbsolutePath(), "-allow-phantom-refs", "-f", "none",
+      "C" };
+
+  private SootServer server;
+  private SootClient client;
+  private File tokenFile;
+  private int port;
+
+  @Before
+  public void setUp() throws Exception {
+    tokenFile = File.createTempFile("soot-server", ".token");
+    server = new SootServer();
+    port = server.start(0, tokenFile);
+    client = new SootClient(port, tokenFile);
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    server.stop();
+    server.awaitTermination();
+    tokenFile.delete();
+    G.reset();
+  }
+
+  private int submit(String[] args, StringBuilder output) throws Exception {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    int status = client.submit(args, new PrintStream(bytes, true, "UTF-8"));
+    output.append(new String(bytes.toByteArray(), StandardCharsets.UTF_8));
+    return status;
+  }
+
+  @Test
+  public void jobsRunOneAfterTheOther() throws Exception {
+    for (int i = 0; i < 3; i++) {
+      StringBuilder output = new StringBuilder();
+      assertEquals(0, submit(JOB, output));
+      assertTrue(output.toString(), output.toString().contains("Soot finished"));
+    }
+    // Nothing of the jobs is left in the server's Scene
+    assertTrue(Scene.v().getClasses().isEmpty());
+  }
+
+  @Test
+  public void invalidCommandLine() throws Exception {
+    StringBuilder output = new StringBuilder();
+    assertEquals(2, submit(new String[] { "-no-such-option" }, output));
+    assertFalse(output.toString().contains("Soot finished"));
+
+    output.setLength(0);
+    assertEquals(0, submit(JOB, output));
+  }
+
+  @Test
+  public void shutdown() throws Exception {
+    client.shutdown();
+    server.awaitTermination();
+    assertFalse(tokenFile.exists());
+  }
+
+  @Test
+  public void tokenFileIsOnlyReadableByOwner() throws Exception {
+    if (tokenFile.toPath().getFileSystem().supportedFileAttributeViews().contains("posix")) {
+      assertEquals(EnumSet.of(PosixFilePermission.OWNER_READ, PosixFilePermission.OWNER_WRITE),
+          Files.getPosixFilePermissions(tokenFile.toPath()));
+    }
+  }
+
+  @Test
+  public void connectionsWithoutSecretAreRejected() throws Exception {
+    for (String secret : new String[] { JOB[0], "wrong", SootServer.readToken(tokenFile) + "0" }) {
+      try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+        Writer w = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8);
+        w.write(secret + "\n");
+        for (String arg : JOB) {
+          w.write(arg + "\n");
+        }
+        w.write("\n");
+        w.flush();
+        BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+        try {
+          assertNull(in.readLine());
+        } catch (SocketException e) {
+          // The server may also reset the connection, since it closes it without reading the job
+        }
+      }
+    }
+    // The server still accepts jobs with the secret
+    StringBuilder output = new StringBuilder();
+    assertEquals(0, submit(JOB, output));
+  }
+
+  @Test
+  public void errorsStillEndTheJob() throws Exception {
+    SootServer failing = new SootServer() {
+      @Override
+      public int runJob(String[] args, PrintStream out) {
+        throw new LinkageError("broken job");
+      }
+    };
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try {
+      failing.serve(new BufferedReader(new StringReader("-version\n\n")), new PrintStream(bytes, true, "UTF-8"));
+      fail();
+    } catch (LinkageError e) {
+      // expected
+    }
+    assertTrue(new String(bytes.toByteArray(), StandardCharsets.UTF_8).startsWith(SootServer.END_OF_JOB + "1 "));
+  }
+}
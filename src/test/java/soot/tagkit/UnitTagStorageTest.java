@@ -0,0 +1,176 @@
+package soot.tagkit;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2026 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import soot.Unit;
+import soot.jimple.Jimple;
+
+public class UnitTagStorageTest {
+
+  @Test
+  public void testInterning() {
+    assertSame(TagInterner.lineNumber(42), TagInterner.lineNumber(42));
+    assertEquals(42, TagInterner.lineNumber(42).getLineNumber());
+    assertSame(TagInterner.bytecodeOffset(300), TagInterner.bytecodeOffset(300));
+    assertEquals(300, TagInterner.bytecodeOffset(300).getBytecodeOffset());
+    assertEquals(1 << 20, TagInterner.bytecodeOffset(1 << 20).getBytecodeOffset());
+    assertEquals(-1, TagInterner.lineNumber(-1).getLineNumber());
+    assertTrue(TagInterner.isInterned(TagInterner.lineNumber(42)));
+    assertFalse(TagInterner.isInterned(new LineNumberTag(42)));
+    assertTrue(TagInterner.isInterned(TagInterner.bytecodeOffset(300)));
+    assertFalse(TagInterner.isInterned(new BytecodeOffsetTag(300)));
+    assertFalse(TagInterner.isInterned(new BytecodeOffsetTag(301)));
+
+    try {
+      TagInterner.lineNumber(42).setLineNumber(43);
+      fail();
+    } catch (UnsupportedOperationException e) {
+      // expected
+    }
+    assertEquals(42, TagInterner.lineNumber(42).getLineNumber());
+  }
+
+  @Test
+  public void testPositionTags() {
+    Unit u = Jimple.v().newNopStmt();
+    StringTag rare = new StringTag("rare");
+    u.addTag(TagInterner.lineNumber(17));
+    u.addTag(TagInterner.bytecodeOffset(8));
+    u.addTag(rare);
+
+    assertTrue(u.hasTag(LineNumberTag.NAME));
+    assertEquals(17, ((LineNumberTag) u.getTag(LineNumberTag.NAME)).getLineNumber());
+    assertEquals(8, ((BytecodeOffsetTag) u.getTag(BytecodeOffsetTag.NAME)).getBytecodeOffset());
+    assertSame(rare, u.getTag(StringTag.NAME));
+    assertEquals(17, u.getJavaSourceStartLineNumber());
+
+    List<Tag> tags = u.getTags();
+    assertSame(tags, u.getTags());
+    assertEquals(3, tags.size());
+    assertSame(TagInterner.lineNumber(17), tags.get(0));
+    assertSame(TagInterner.bytecodeOffset(8), tags.get(1));
+    assertSame(rare, tags.get(2));
+
+    u.removeTag(LineNumberTag.NAME);
+    assertFalse(u.hasTag(LineNumberTag.NAME));
+    assertNull(u.getTag(LineNumberTag.NAME));
+    assertEquals(Arrays.<Tag>asList(TagInterner.bytecodeOffset(8), rare), u.getTags());
+
+    u.removeAllTags();
+    assertTrue(u.getTags().isEmpty());
+    assertFalse(u.hasTag(BytecodeOffsetTag.NAME));
+  }
+
+  @Test
+  public void testTagOrder() {
+    // Position tags added after other tags stay behind them
+    Unit u = Jimple.v().newNopStmt();
+    StringTag first = new StringTag("first");
+    LineNumberTag line = new LineNumberTag(17);
+    BytecodeOffsetTag offset = new BytecodeOffsetTag(8);
+    u.addTag(first);
+    u.addTag(line);
+    u.addTag(offset);
+    assertEquals(Arrays.<Tag>asList(first, line, offset), u.getTags());
+    assertSame(line, u.getTag(LineNumberTag.NAME));
+
+    // The offset may come before the line number
+    Unit v = Jimple.v().newNopStmt();
+    v.addTag(TagInterner.bytecodeOffset(8));
+    v.addTag(TagInterner.lineNumber(17));
+    v.addTag(first);
+    assertEquals(Arrays.<Tag>asList(TagInterner.bytecodeOffset(8), TagInterner.lineNumber(17), first), v.getTags());
+
+    Unit copy = Jimple.v().newNopStmt();
+    copy.addAllTagsOf(u);
+    copy.addAllTagsOf(v);
+    assertEquals(Arrays.<Tag>asList(first, line, offset, TagInterner.bytecodeOffset(8), TagInterner.lineNumber(17), first),
+        copy.getTags());
+  }
+
+  @Test
+  public void testCallerCreatedTags() {
+    // Tags that do not come from the interner are kept as they are and stay modifiable
+    Unit u = Jimple.v().newNopStmt();
+    LineNumberTag line = new LineNumberTag(17);
+    BytecodeOffsetTag offset = new BytecodeOffsetTag(8);
+    u.addTag(line);
+    u.addTag(offset);
+    assertSame(line, u.getTag(LineNumberTag.NAME));
+    assertSame(offset, u.getTag(BytecodeOffsetTag.NAME));
+    assertEquals(Arrays.<Tag>asList(line, offset), u.getTags());
+
+    line.setLineNumber(18);
+    assertEquals(18, ((LineNumberTag) u.getTag(LineNumberTag.NAME)).getLineNumber());
+    assertEquals(18, u.getJavaSourceStartLineNumber());
+  }
+
+  @Test
+  public void testSecondLineNumberTag() {
+    Unit u = Jimple.v().newNopStmt();
+    LineNumberTag second = new LineNumberTag(5);
+    u.addTag(TagInterner.lineNumber(4));
+    u.addTag(second);
+
+    // The first tag wins, as with a plain tag list
+    assertEquals(4, ((LineNumberTag) u.getTag(LineNumberTag.NAME)).getLineNumber());
+    assertEquals(2, u.getTags().size());
+    assertSame(second, u.getTags().get(1));
+
+    u.removeTag(LineNumberTag.NAME);
+    assertSame(second, u.getTag(LineNumberTag.NAME));
+  }
+
+  @Test
+  public void testAddAllTagsOf() {
+    Unit u = Jimple.v().newNopStmt();
+    u.addTag(TagInterner.lineNumber(3));
+    u.addTag(TagInterner.bytecodeOffset(12));
+    u.addTag(new StringTag("s"));
+
+    Unit copy = Jimple.v().newNopStmt();
+    copy.addAllTagsOf(u);
+    assertEquals(u.getTags(), copy.getTags());
+    copy.addAllTagsOf(copy);
+    assertEquals(6, copy.getTags().size());
+    assertEquals(u.getTags(), copy.getTags().subList(3, 6));
+
+    Unit fromMethod = Jimple.v().newNopStmt();
+    Host host = new AbstractHost();
+    host.addTag(new LineNumberTag(9));
+    fromMethod.addAllTagsOf(host);
+    assertEquals(9, ((LineNumberTag) fromMethod.getTag(LineNumberTag.NAME)).getLineNumber());
+  }
+}
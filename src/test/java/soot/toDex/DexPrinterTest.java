@@ -0,0 +1,223 @@
+package soot.toDex;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2026 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.io.Files;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.jf.dexlib2.AccessFlags;
+import org.jf.dexlib2.DexFileFactory;
+import org.jf.dexlib2.Opcodes;
+import org.jf.dexlib2.iface.ClassDef;
+import org.jf.dexlib2.iface.DexFile;
+import org.jf.dexlib2.iface.Method;
+import org.jf.dexlib2.immutable.ImmutableClassDef;
+import org.jf.dexlib2.immutable.ImmutableMethod;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import soot.G;
+import soot.ModulePathSourceLocator;
+import soot.PackManager;
+import soot.Scene;
+import soot.SootClass;
+import soot.SootMethod;
+import soot.options.Options;
+
+/**
+ * Checks that classes translated to dex concurrently end up in the same dex files as with a single thread, that complete
+ * dex files are written out before all classes have been added, and that sharing registers between locals never needs more
+ * registers and produces code that loads again.
+ */
+public class DexPrinterTest {
+
+  private File outputDir;
+
+  @Before
+  public void setUp() {
+    outputDir = Files.createTempDir();
+  }
+
+  @After
+  public void tearDown() {
+    G.reset();
+    delete(outputDir);
+  }
+
+  private static void delete(File f) {
+    File[] children = f.listFiles();
+    if (children != null) {
+      for (File c : children) {
+        delete(c);
+      }
+    }
+    f.delete();
+  }
+
+  /**
+   * Writes the test classes to dex and returns the methods of every class in the dex file.
+   */
+  private Map<String, List<String>> writeDex(int threads) throws IOException {
+    Map<String, List<String>> classes = new TreeMap<String, List<String>>();
+    for (ClassDef c : writeDex(threads, true).getClasses()) {
+      List<String> methods = new ArrayList<String>();
+      for (Method m : c.getMethods()) {
+        methods.add(m.getName() + m.getParameterTypes() + m.getReturnType() + (m.getImplementation() != null));
+      }
+      classes.put(c.getType(), methods);
+    }
+    return classes;
+  }
+
+  private DexFile writeDex(int threads, boolean shareRegisters) throws IOException {
+    Path cp = Paths.get("src", "test", "resources", "ported", "PR1834", "java6", "bin");
+    G.reset();
+    delete(outputDir);
+    outputDir.mkdirs();
+    Options.v().set_prepend_classpath(true);
+    Options.v().set_allow_phantom_refs(true);
+    Options.v().set_process_dir(Collections.singletonList(cp.toFile().getAbsolutePath()));
+    Options.v().set_src_prec(Options.src_prec_class);
+    Options.v().set_output_format(Options.output_format_dex);
+    Options.v().set_output_dir(outputDir.getAbsolutePath());
+    Options.v().set_num_threads(threads);
+    Options.v().set_dex_share_registers(shareRegisters);
+    Scene.v().loadNecessaryClasses();
+    PackManager.v().runBodyPacks();
+    PackManager.v().writeOutput();
+    return DexFileFactory.loadDexFile(new File(outputDir, "classes.dex"), Opcodes.getDefault());
+  }
+
+  /**
+   * Returns the number of registers of every method in the given dex file.
+   */
+  private static Map<String, Integer> registerCounts(DexFile dex) {
+    Map<String, Integer> counts = new TreeMap<String, Integer>();
+    for (ClassDef c : dex.getClasses()) {
+      for (Method m : c.getMethods()) {
+        if (m.getImplementation() != null) {
+          counts.put(c.getType() + "->" + m.getName() + m.getParameterTypes() + m.getReturnType(),
+              m.getImplementation().getRegisterCount());
+        }
+      }
+    }
+    return counts;
+  }
+
+  @Test
+  public void concurrentTranslationMatchesSequential() throws IOException {
+    Map<String, List<String>> sequential = writeDex(1);
+    assertTrue(sequential.size() > 1);
+    assertEquals(sequential, writeDex(4));
+  }
+
+  @Test
+  public void sharedRegistersNeverIncreaseRegisterCount() throws IOException {
+    Map<String, Integer> separate = registerCounts(writeDex(1, false));
+    Map<String, Integer> shared = registerCounts(writeDex(1, true));
+    assertEquals(separate.keySet(), shared.keySet());
+    int totalSeparate = 0, totalShared = 0;
+    for (Map.Entry<String, Integer> e : separate.entrySet()) {
+      assertTrue(e.getKey(), shared.get(e.getKey()) <= e.getValue());
+      totalSeparate += e.getValue();
+      totalShared += shared.get(e.getKey());
+    }
+    assertTrue(totalShared < totalSeparate);
+  }
+
+  @Test
+  public void sharedRegistersLoadWithDexpler() throws IOException {
+    final int methods = registerCounts(writeDex(1, true)).size();
+    File dex = new File(outputDir, "classes.dex");
+
+    G.reset();
+    Options.v().set_src_prec(Options.src_prec_apk);
+    Options.v().set_allow_phantom_refs(true);
+    if (Scene.isJavaGEQ9(System.getProperty("java.version"))) {
+      Options.v().set_soot_classpath(ModulePathSourceLocator.DUMMY_CLASSPATH_JDK9_FS);
+    } else {
+      Options.v().set_soot_classpath(System.getProperty("java.home") + File.separator + "lib" + File.separator + "rt.jar");
+    }
+    Options.v().set_process_dir(Collections.singletonList(dex.getAbsolutePath()));
+    Scene.v().loadNecessaryClasses();
+    int loaded = 0;
+    for (SootClass c : Scene.v().getApplicationClasses()) {
+      for (SootMethod m : c.getMethods()) {
+        if (m.isConcrete()) {
+          // Throws if dexpler cannot type the locals of registers that hold several of them
+          m.retrieveActiveBody().validate();
+          loaded++;
+        }
+      }
+    }
+    assertEquals(methods, loaded);
+  }
+
+  @Test
+  public void completedDexFilesAreWrittenEarly() throws IOException {
+    MultiDexBuilder builder = new MultiDexBuilder(Opcodes.forApi(26));
+    // A dex file can reference at most 65536 methods
+    final int classes = 700, methodsPerClass = 100;
+    for (int i = 0; i < classes; i++) {
+      String type = "Lpkg/C" + i + ";";
+      List<Method> methods = new ArrayList<Method>();
+      for (int j = 0; j < methodsPerClass; j++) {
+        methods.add(new ImmutableMethod(type, "m" + j, null, "V", AccessFlags.PUBLIC.getValue()
+            | AccessFlags.ABSTRACT.getValue(), null, null, null));
+      }
+      builder.internClass(new ImmutableClassDef(type, AccessFlags.PUBLIC.getValue() | AccessFlags.ABSTRACT.getValue(),
+          "Ljava/lang/Object;", null, null, null, null, methods));
+    }
+    assertTrue(builder.hasCompletedDexFiles());
+
+    File completedDir = new File(outputDir, "completed");
+    completedDir.mkdirs();
+    List<File> completed = builder.writeCompletedTo(completedDir.getAbsolutePath());
+    assertEquals(Collections.singletonList(new File(completedDir, "classes.dex")), completed);
+    assertFalse(builder.hasCompletedDexFiles());
+
+    List<File> all = builder.writeTo(outputDir.getAbsolutePath());
+    assertEquals(2, all.size());
+    assertEquals(completed.get(0), all.get(0));
+    assertEquals(new File(outputDir, "classes2.dex"), all.get(1));
+    int count = 0;
+    for (File f : all) {
+      count += DexFileFactory.loadDexFile(f, Opcodes.forApi(26)).getClasses().size();
+    }
+    assertEquals(classes, count);
+  }
+}
@@ -0,0 +1,190 @@
+package soot.toolkits.scalar;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2026 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import soot.G;
+import soot.IntType;
+import soot.Local;
+import soot.Modifier;
+import soot.Scene;
+import soot.SootClass;
+import soot.SootMethod;
+import soot.Unit;
+import soot.Value;
+import soot.ValueBox;
+import soot.jimple.AssignStmt;
+import soot.jimple.IntConstant;
+import soot.jimple.Jimple;
+import soot.jimple.JimpleBody;
+import soot.toolkits.graph.DirectedGraph;
+import soot.toolkits.graph.ExceptionalUnitGraph;
+
+public class IncrementalFlowAnalysisTest {
+
+  private Jimple j;
+  private JimpleBody body;
+  private Local x;
+  private Local y;
+  private Local z;
+  private Unit defY;
+  private Unit inc;
+  private Unit ret;
+
+  @Before
+  public void setUp() {
+    G.reset();
+    Scene.v().loadBasicClasses();
+    j = Jimple.v();
+    SootClass cl = new SootClass("TestClass", Modifier.PUBLIC);
+    SootMethod method = new SootMethod("test", Collections.emptyList(), IntType.v(), Modifier.PUBLIC);
+    cl.addMethod(method);
+    body = j.newBody(method);
+    method.setActiveBody(body);
+    x = j.newLocal("x", IntType.v());
+    y = j.newLocal("y", IntType.v());
+    z = j.newLocal("z", IntType.v());
+    body.getLocals().add(x);
+    body.getLocals().add(y);
+    body.getLocals().add(z);
+
+    ret = j.newReturnStmt(y);
+    defY = j.newAssignStmt(y, IntConstant.v(5));
+    Unit loop = j.newIfStmt(j.newGeExpr(x, IntConstant.v(10)), ret);
+    inc = j.newAssignStmt(x, j.newAddExpr(x, IntConstant.v(1)));
+    body.getUnits().add(j.newAssignStmt(x, IntConstant.v(0)));
+    body.getUnits().add(defY);
+    body.getUnits().add(loop);
+    body.getUnits().add(inc);
+    body.getUnits().add(j.newGotoStmt(loop));
+    body.getUnits().add(ret);
+  }
+
+  private void assertSameLiveLocals(ExceptionalUnitGraph graph, LiveLocals incremental) {
+    SimpleLiveLocals full = new SimpleLiveLocals(graph);
+    for (Unit u : body.getUnits()) {
+      assertEquals(u.toString(), set(full.getLiveLocalsBefore(u)), set(incremental.getLiveLocalsBefore(u)));
+      assertEquals(u.toString(), set(full.getLiveLocalsAfter(u)), set(incremental.getLiveLocalsAfter(u)));
+    }
+  }
+
+  private static HashSet<Local> set(List<Local> locals) {
+    return new HashSet<Local>(locals);
+  }
+
+  @Test
+  public void testLiveLocalsAfterOperandChange() {
+    LiveLocals before = LiveLocals.Factory.newLiveLocals(new ExceptionalUnitGraph(body));
+
+    ((AssignStmt) inc).setRightOp(j.newAddExpr(x, z));
+    ExceptionalUnitGraph graph = new ExceptionalUnitGraph(body);
+    LiveLocals after = LiveLocals.Factory.newLiveLocals(graph, before, Collections.singleton(inc));
+    assertTrue(after.getLiveLocalsBefore(body.getUnits().getFirst()).contains(z));
+    assertSameLiveLocals(graph, after);
+  }
+
+  @Test
+  public void testLiveLocalsAfterInsertion() {
+    LiveLocals before = LiveLocals.Factory.newLiveLocals(new ExceptionalUnitGraph(body));
+
+    Unit useZ = j.newAssignStmt(z, j.newAddExpr(z, y));
+    body.getUnits().insertAfter(useZ, defY);
+    ExceptionalUnitGraph graph = new ExceptionalUnitGraph(body);
+    LiveLocals after = LiveLocals.Factory.newLiveLocals(graph, before, Collections.singleton(useZ));
+    assertTrue(after.getLiveLocalsBefore(defY).contains(z));
+    assertSameLiveLocals(graph, after);
+
+    // Removing the statement again only rewires its neighbours
+    body.getUnits().remove(useZ);
+    graph = new ExceptionalUnitGraph(body);
+    assertSameLiveLocals(graph, LiveLocals.Factory.newLiveLocals(graph, after, Collections.<Unit>emptySet()));
+  }
+
+  @Test
+  public void testForwardReusesUnaffectedFlows() {
+    DefinedLocals before = new DefinedLocals(new ExceptionalUnitGraph(body), null, null);
+
+    Unit defZ = j.newAssignStmt(z, IntConstant.v(1));
+    body.getUnits().insertBefore(defZ, ret);
+    ExceptionalUnitGraph graph = new ExceptionalUnitGraph(body);
+    DefinedLocals full = new DefinedLocals(graph, null, null);
+    DefinedLocals incremental = new DefinedLocals(graph, before, Collections.singleton(defZ));
+    for (Unit u : body.getUnits()) {
+      assertEquals(u.toString(), full.getFlowBefore(u), incremental.getFlowBefore(u));
+      assertEquals(u.toString(), full.getFlowAfter(u), incremental.getFlowAfter(u));
+    }
+    assertTrue(incremental.getFlowAfter(ret).contains(z));
+    // Only the new statement and the return statement after it are computed again
+    assertTrue(incremental.computations < full.computations);
+    assertEquals(2, incremental.computations);
+  }
+
+  /**
+   * The locals that may have been assigned before a unit.
+   */
+  private static class DefinedLocals extends ForwardFlowAnalysis<Unit, FlowSet<Local>> {
+    int computations;
+
+    DefinedLocals(DirectedGraph<Unit> graph, DefinedLocals previous, Collection<Unit> changed) {
+      super(graph);
+      doAnalysis(previous, changed);
+    }
+
+    @Override
+    protected FlowSet<Local> newInitialFlow() {
+      return new ArraySparseSet<Local>();
+    }
+
+    @Override
+    protected void flowThrough(FlowSet<Local> in, Unit unit, FlowSet<Local> out) {
+      computations++;
+      in.copy(out);
+      for (ValueBox box : unit.getDefBoxes()) {
+        Value v = box.getValue();
+        if (v instanceof Local) {
+          out.add((Local) v);
+        }
+      }
+    }
+
+    @Override
+    protected void merge(FlowSet<Local> in1, FlowSet<Local> in2, FlowSet<Local> out) {
+      in1.union(in2, out);
+    }
+
+    @Override
+    protected void copy(FlowSet<Local> source, FlowSet<Local> dest) {
+      source.copy(dest);
+    }
+  }
+}
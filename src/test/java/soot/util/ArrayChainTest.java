@@ -0,0 +1,213 @@
+package soot.util;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2026 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import org.junit.Test;
+
+import soot.G;
+import soot.Unit;
+import soot.jimple.Jimple;
+import soot.jimple.JimpleBody;
+import soot.options.Options;
+
+public class ArrayChainTest {
+
+  private static List<Object> newElements(int count) {
+    List<Object> elements = new ArrayList<Object>(count);
+    for (int i = 0; i < count; i++) {
+      elements.add(Integer.valueOf(i));
+    }
+    return elements;
+  }
+
+  /**
+   * Applies the same random modifications to an {@link ArrayChain} and a {@link HashChain} and checks that both agree on
+   * the order, the neighbors and the relative order of their elements.
+   */
+  @Test
+  public void testSameBehaviorAsHashChain() {
+    final Random random = new Random(42);
+    final List<Object> pool = newElements(300);
+    final HashChain<Object> expected = new HashChain<Object>();
+    final ArrayChain<Object> actual = new ArrayChain<Object>(2);
+    for (int step = 0; step < 20000; step++) {
+      final Object o = pool.get(random.nextInt(pool.size()));
+      final List<Object> contents = new ArrayList<Object>(expected);
+      if (expected.contains(o)) {
+        final Object other = contents.get(random.nextInt(contents.size()));
+        switch (random.nextInt(4)) {
+          case 0:
+            expected.remove(o);
+            actual.remove(o);
+            break;
+          case 1:
+            assertEquals(expected.follows(o, other), actual.follows(o, other));
+            break;
+          case 2:
+            assertSame(expected.getSuccOf(o), actual.getSuccOf(o));
+            assertSame(expected.getPredOf(o), actual.getPredOf(o));
+            break;
+          default:
+            assertEquals(contents.indexOf(o), actual.indexOf(o));
+            assertSame(o, actual.get(contents.indexOf(o)));
+            break;
+        }
+      } else if (contents.isEmpty()) {
+        expected.addLast(o);
+        actual.addLast(o);
+      } else {
+        final Object point = contents.get(random.nextInt(contents.size()));
+        switch (random.nextInt(4)) {
+          case 0:
+            expected.addFirst(o);
+            actual.addFirst(o);
+            break;
+          case 1:
+            expected.addLast(o);
+            actual.addLast(o);
+            break;
+          case 2:
+            expected.insertBefore(o, point);
+            actual.insertBefore(o, point);
+            break;
+          default:
+            expected.insertAfter(o, point);
+            actual.insertAfter(o, point);
+            break;
+        }
+      }
+      assertEquals(expected.size(), actual.size());
+    }
+    assertEquals(new ArrayList<Object>(expected), new ArrayList<Object>(actual));
+  }
+
+  @Test
+  public void testRepeatedInsertionAtSamePoint() {
+    final ArrayChain<Object> chain = new ArrayChain<Object>();
+    final Object first = new Object();
+    final Object last = new Object();
+    chain.add(first);
+    chain.add(last);
+    // Every insertion halves the remaining label range, so the labels have to be spread out again many times
+    for (int i = 0; i < 10000; i++) {
+      chain.insertBefore(new Object(), last);
+      chain.insertAfter(new Object(), first);
+    }
+    Object previous = null;
+    int index = 0;
+    for (Object o : chain) {
+      if (previous != null) {
+        assertTrue(chain.follows(o, previous));
+        assertFalse(chain.follows(previous, o));
+      }
+      assertEquals(index++, chain.indexOf(o));
+      previous = o;
+    }
+    assertEquals(20002, index);
+  }
+
+  @Test
+  public void testIterators() {
+    final List<Object> elements = newElements(10);
+    final ArrayChain<Object> chain = new ArrayChain<Object>();
+    chain.addAll(elements);
+
+    List<Object> range = new ArrayList<Object>();
+    for (Iterator<Object> it = chain.iterator(elements.get(2), elements.get(5)); it.hasNext();) {
+      range.add(it.next());
+    }
+    assertEquals(elements.subList(2, 6), range);
+    assertFalse(chain.iterator(elements.get(3), elements.get(2)).hasNext());
+
+    // Removing through the iterator is allowed, other modifications are not
+    for (Iterator<Object> it = chain.iterator(); it.hasNext();) {
+      if (((Integer) it.next()) % 2 == 0) {
+        it.remove();
+      }
+    }
+    assertEquals(5, chain.size());
+    assertEquals(-1, chain.indexOf(elements.get(0)));
+    assertEquals(0, chain.indexOf(elements.get(1)));
+    try {
+      for (Object o : chain) {
+        chain.remove(o);
+      }
+      throw new AssertionError("Expected a ConcurrentModificationException");
+    } catch (ConcurrentModificationException e) {
+      // expected
+    }
+    try {
+      chain.iterator(elements.get(0));
+      throw new AssertionError("Expected a NoSuchElementException");
+    } catch (NoSuchElementException e) {
+      // expected
+    }
+  }
+
+  @Test
+  public void testSerialization() throws Exception {
+    final ArrayChain<Object> chain = new ArrayChain<Object>();
+    chain.addAll(newElements(100));
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+      out.writeObject(chain);
+    }
+    @SuppressWarnings("unchecked")
+    ArrayChain<Object> copy
+        = (ArrayChain<Object>) new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray())).readObject();
+    assertEquals(new ArrayList<Object>(chain), new ArrayList<Object>(copy));
+    for (Object o : copy) {
+      assertTrue(copy.contains(o));
+    }
+  }
+
+  @Test
+  public void testSelectedByOption() {
+    G.reset();
+    Options.v().set_array_unit_chains(true);
+    JimpleBody body = Jimple.v().newBody();
+    assertTrue(body.getUnits().getNonPatchingChain() instanceof ArrayChain);
+    Unit nop = Jimple.v().newNopStmt();
+    body.getUnits().add(nop);
+    body.getUnits().addFirst(Jimple.v().newNopStmt());
+    assertEquals(1, ((ArrayChain<Unit>) body.getUnits().getNonPatchingChain()).indexOf(nop));
+    G.reset();
+    assertTrue(Jimple.v().newBody().getUnits().getNonPatchingChain() instanceof HashChain);
+  }
+}
@@ -0,0 +1,136 @@
+package soot.util;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2026 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import com.google.common.io.ByteStreams;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.jar.JarEntry;
+import java.util.jar.JarInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipFile;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ConcurrentJarWriterTest {
+
+  private File jar;
+
+  @Before
+  public void setUp() throws IOException {
+    jar = File.createTempFile("concurrent", ".jar");
+  }
+
+  @After
+  public void tearDown() {
+    jar.delete();
+  }
+
+  private static byte[] contents(int i) {
+    StringBuilder sb = new StringBuilder();
+    for (int j = 0; j < i * 37; j++) {
+      sb.append("entry ").append(i).append(' ').append(j % 11).append('\n');
+    }
+    return sb.toString().getBytes(StandardCharsets.UTF_8);
+  }
+
+  @Test
+  public void entriesAreWrittenInOrder() throws Exception {
+    final int count = 50;
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    List<Future<ConcurrentJarWriter.Entry>> entries = new ArrayList<Future<ConcurrentJarWriter.Entry>>();
+    for (int i = 0; i < count; i++) {
+      final int n = i;
+      entries.add(executor.submit(() -> ConcurrentJarWriter.deflate("pkg/C" + n + ".class", contents(n))));
+    }
+    try (ConcurrentJarWriter writer = new ConcurrentJarWriter(new FileOutputStream(jar))) {
+      for (Future<ConcurrentJarWriter.Entry> f : entries) {
+        writer.write(f.get());
+      }
+    } finally {
+      executor.shutdown();
+    }
+
+    try (ZipFile zip = new ZipFile(jar)) {
+      int i = 0;
+      for (Enumeration<? extends ZipEntry> it = zip.entries(); it.hasMoreElements(); i++) {
+        ZipEntry e = it.nextElement();
+        assertEquals("pkg/C" + i + ".class", e.getName());
+        assertEquals(ZipEntry.DEFLATED, e.getMethod());
+        try (InputStream in = zip.getInputStream(e)) {
+          assertArrayEquals(contents(i), ByteStreams.toByteArray(in));
+        }
+      }
+      assertEquals(count, i);
+    }
+    try (JarInputStream in = new JarInputStream(new FileInputStream(jar))) {
+      int i = 0;
+      for (JarEntry e = in.getNextJarEntry(); e != null; e = in.getNextJarEntry(), i++) {
+        assertEquals("pkg/C" + i + ".class", e.getName());
+        assertArrayEquals(contents(i), ByteStreams.toByteArray(in));
+      }
+      assertEquals(count, i);
+    }
+  }
+
+  @Test(expected = ZipException.class)
+  public void duplicateEntriesAreRejected() throws IOException {
+    try (ConcurrentJarWriter writer = new ConcurrentJarWriter(new FileOutputStream(jar))) {
+      writer.write(ConcurrentJarWriter.deflate("A.class", contents(1)));
+      writer.write(ConcurrentJarWriter.deflate("A.class", contents(2)));
+    }
+  }
+
+  @Test
+  public void manyEntriesUseZip64() throws IOException {
+    // The end of central directory record can only count 65535 entries
+    final int count = 70000;
+    final byte[] empty = new byte[0];
+    try (ConcurrentJarWriter writer = new ConcurrentJarWriter(new FileOutputStream(jar))) {
+      for (int i = 0; i < count; i++) {
+        writer.write(ConcurrentJarWriter.deflate("C" + i + ".class", empty));
+      }
+    }
+    try (ZipFile zip = new ZipFile(jar)) {
+      assertEquals(count, zip.size());
+      assertEquals(0, zip.getEntry("C" + (count - 1) + ".class").getSize());
+    }
+  }
+}
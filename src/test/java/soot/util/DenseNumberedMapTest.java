@@ -0,0 +1,173 @@
+package soot.util;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2026 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import soot.G;
+import soot.IntType;
+import soot.Local;
+import soot.Modifier;
+import soot.SootClass;
+import soot.SootMethod;
+import soot.Unit;
+import soot.VoidType;
+import soot.jimple.Jimple;
+import soot.jimple.JimpleBody;
+import soot.toolkits.graph.BriefUnitGraph;
+
+public class DenseNumberedMapTest {
+
+  private static JimpleBody newBody(int count) {
+    G.reset();
+    SootClass cl = new SootClass("TestClass", Modifier.PUBLIC);
+    SootMethod method = new SootMethod("test", Collections.emptyList(), VoidType.v(), Modifier.PUBLIC);
+    cl.addMethod(method);
+    JimpleBody body = Jimple.v().newBody(method);
+    method.setActiveBody(body);
+    for (int i = 0; i < count; i++) {
+      body.getUnits().add(Jimple.v().newNopStmt());
+    }
+    return body;
+  }
+
+  @Test
+  public void testUnitNumbering() {
+    JimpleBody body = newBody(5);
+    DenseNumbering<Unit> numbering = body.getUnitNumbering();
+    assertSame(numbering, body.getUnitNumbering());
+    int i = 0;
+    for (Unit u : body.getUnits()) {
+      assertEquals(i, u.getNumber());
+      assertEquals(i, numbering.indexOf(u));
+      assertSame(u, numbering.get(i));
+      i++;
+    }
+    assertEquals(-1, numbering.indexOf(Jimple.v().newNopStmt()));
+
+    body.getUnits().addFirst(Jimple.v().newNopStmt());
+    DenseNumbering<Unit> renumbered = body.getUnitNumbering();
+    assertFalse(numbering.isValid());
+    assertTrue(renumbered.isValid());
+    assertEquals(6, renumbered.size());
+    assertEquals(0, renumbered.indexOf(body.getUnits().getFirst()));
+  }
+
+  @Test
+  public void testLocalNumberingAfterRenumbering() {
+    JimpleBody body = newBody(0);
+    Local a = Jimple.v().newLocal("a", IntType.v());
+    Local b = Jimple.v().newLocal("b", IntType.v());
+    body.getLocals().add(a);
+    body.getLocals().add(b);
+    DenseNumbering<Local> numbering = body.getLocalNumbering();
+    assertEquals(1, numbering.indexOf(b));
+
+    // Some transformations temporarily number the locals on their own
+    b.setNumber(7);
+    DenseNumbering<Local> renumbered = body.getLocalNumbering();
+    assertFalse(numbering.isValid());
+    assertEquals(1, renumbered.indexOf(b));
+  }
+
+  @Test
+  public void testMapOperations() {
+    JimpleBody body = newBody(10);
+    List<Unit> units = new ArrayList<Unit>(body.getUnits());
+    Map<Unit, String> map = new DenseNumberedMap<Unit, String>(body.getUnitNumbering());
+    Unit other = Jimple.v().newNopStmt();
+
+    assertTrue(map.isEmpty());
+    map.put(units.get(3), "3");
+    map.put(units.get(1), null);
+    map.put(other, "other");
+    map.put(units.get(7), "7");
+    assertEquals(4, map.size());
+    assertEquals("3", map.get(units.get(3)));
+    assertNull(map.get(units.get(1)));
+    assertTrue(map.containsKey(units.get(1)));
+    assertFalse(map.containsKey(units.get(2)));
+    assertEquals("other", map.get(other));
+    assertEquals("3", map.put(units.get(3), "three"));
+
+    // Numbered keys come first, in the order of the numbering
+    assertEquals(Arrays.asList(units.get(1), units.get(3), units.get(7), other), new ArrayList<Unit>(map.keySet()));
+
+    for (Iterator<Map.Entry<Unit, String>> it = map.entrySet().iterator(); it.hasNext();) {
+      Map.Entry<Unit, String> e = it.next();
+      if (e.getKey() == units.get(7)) {
+        it.remove();
+      } else if (e.getKey() == units.get(1)) {
+        e.setValue("1");
+      }
+    }
+    assertEquals(3, map.size());
+    assertEquals("1", map.get(units.get(1)));
+    assertEquals("three", map.remove(units.get(3)));
+    assertEquals(2, map.size());
+  }
+
+  @Test
+  public void testMapAfterModification() {
+    JimpleBody body = newBody(4);
+    List<Unit> units = new ArrayList<Unit>(body.getUnits());
+    Map<Unit, Integer> map = new DenseNumberedMap<Unit, Integer>(body.getUnitNumbering());
+    for (int i = 0; i < units.size(); i++) {
+      map.put(units.get(i), i);
+    }
+
+    // Renumbering the units must not make the map return the values of other units
+    Unit first = Jimple.v().newNopStmt();
+    body.getUnits().addFirst(first);
+    body.getUnitNumbering();
+    for (int i = 0; i < units.size(); i++) {
+      assertEquals(Integer.valueOf(i), map.get(units.get(i)));
+    }
+    assertNull(map.get(first));
+    assertEquals(units, new ArrayList<Unit>(map.keySet()));
+  }
+
+  @Test
+  public void testGraphOnModifiedBody() {
+    JimpleBody body = newBody(3);
+    BriefUnitGraph graph = new BriefUnitGraph(body);
+    Unit head = body.getUnits().getFirst();
+    body.getUnits().addFirst(Jimple.v().newNopStmt());
+    body.getUnitNumbering();
+    assertEquals(1, graph.getSuccsOf(head).size());
+    assertSame(body.getUnits().getSuccOf(head), graph.getSuccsOf(head).get(0));
+  }
+}
@@ -0,0 +1,169 @@
+package soot.util;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2026 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import com.google.common.io.ByteStreams;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.Test;
+
+import soot.G;
+import soot.IFoundFile;
+import soot.SourceLocator;
+import soot.options.Options;
+
+public class MappedArchiveTest {
+
+  private static final String JAR = "src/test/resources/LineNumberAdderTest/C.jar";
+
+  private static void assertSameContents(String path) throws IOException {
+    MappedArchive archive = MappedArchive.open(path);
+    assertNotNull(archive);
+    try (ZipFile zip = new ZipFile(path)) {
+      Set<String> names = new HashSet<String>();
+      for (Enumeration<? extends ZipEntry> it = zip.entries(); it.hasMoreElements();) {
+        ZipEntry e = it.nextElement();
+        names.add(e.getName());
+        assertEquals(e.getSize(), archive.getSize(e.getName()));
+        try (InputStream expected = zip.getInputStream(e); InputStream actual = archive.getInputStream(e.getName())) {
+          assertArrayEquals(e.getName(), ByteStreams.toByteArray(expected), ByteStreams.toByteArray(actual));
+        }
+      }
+      assertEquals(names, archive.getEntryNames());
+    }
+    assertNull(archive.getInputStream("does/not/Exist.class"));
+  }
+
+  @Test
+  public void readsJar() throws IOException {
+    assertSameContents(JAR);
+  }
+
+  @Test
+  public void readsStoredAndDeflatedEntriesAfterPrefix() throws IOException {
+    File f = File.createTempFile("mapped", ".zip");
+    try {
+      try (OutputStream out = new FileOutputStream(f)) {
+        // Leading data, e.g., a launcher script, shifts all offsets in the archive
+        out.write("#!/bin/sh\nexec java -jar \"$0\"\n".getBytes(StandardCharsets.US_ASCII));
+        ZipOutputStream zip = new ZipOutputStream(out);
+        byte[] data = new byte[100000];
+        for (int i = 0; i < data.length; i++) {
+          data[i] = (byte) (i % 7 == 0 ? i : 'a');
+        }
+        ZipEntry stored = new ZipEntry("a/Stored.class");
+        stored.setMethod(ZipEntry.STORED);
+        stored.setSize(data.length);
+        CRC32 crc = new CRC32();
+        crc.update(data);
+        stored.setCrc(crc.getValue());
+        zip.putNextEntry(stored);
+        zip.write(data);
+        zip.closeEntry();
+        zip.putNextEntry(new ZipEntry("a/Deflated.class"));
+        zip.write(data);
+        zip.closeEntry();
+        zip.putNextEntry(new ZipEntry("a/Empty.class"));
+        zip.closeEntry();
+        zip.finish();
+      }
+      assertSameContents(f.getPath());
+    } finally {
+      f.delete();
+    }
+  }
+
+  @Test
+  public void sourceLocatorReadsMappedArchive() throws IOException {
+    G.reset();
+    try {
+      Options.v().set_mmap_archives(true);
+      Options.v().set_soot_classpath(new File(JAR).getCanonicalPath());
+      SourceLocator.v().getClassSource("C");
+      IFoundFile file = SourceLocator.v().lookupInClassPath("C.class");
+      assertNotNull(file);
+      assertNotNull(SourceLocator.v().getMappedArchive(file.getFile().getPath()));
+      try (InputStream in = file.inputStream()) {
+        byte[] bytes = ByteStreams.toByteArray(in);
+        assertEquals(0xCAFEBABE, ((bytes[0] & 0xff) << 24) | ((bytes[1] & 0xff) << 16) | ((bytes[2] & 0xff) << 8)
+            | (bytes[3] & 0xff));
+      } finally {
+        file.close();
+      }
+      assertNull(SourceLocator.v().lookupInClassPath("Missing.class"));
+    } finally {
+      G.reset();
+    }
+  }
+
+  @Test
+  public void lookupFindsFirstArchiveOnClassPath() throws IOException {
+    File first = File.createTempFile("first", ".jar");
+    File second = File.createTempFile("second", ".jar");
+    try {
+      writeJar(second, "p/A.class", "p/B.class");
+      writeJar(first, "p/A.class");
+      for (boolean mmap : new boolean[] { false, true }) {
+        G.reset();
+        Options.v().set_mmap_archives(mmap);
+        Options.v().set_soot_classpath(first.getCanonicalPath() + File.pathSeparator + second.getCanonicalPath());
+        SourceLocator.v().getClassSource("p.A");
+        assertEquals(first.getCanonicalPath(), SourceLocator.v().lookupInClassPath("p/A.class").getFile().getPath());
+        assertEquals(second.getCanonicalPath(), SourceLocator.v().lookupInClassPath("p/B.class").getFile().getPath());
+        assertNull(SourceLocator.v().lookupInClassPath("p/C.class"));
+      }
+    } finally {
+      G.reset();
+      first.delete();
+      second.delete();
+    }
+  }
+
+  private static void writeJar(File f, String... entries) throws IOException {
+    try (ZipOutputStream zip = new ZipOutputStream(new FileOutputStream(f))) {
+      for (String entry : entries) {
+        zip.putNextEntry(new ZipEntry(entry));
+        zip.write(entry.getBytes(StandardCharsets.US_ASCII));
+        zip.closeEntry();
+      }
+    }
+  }
+}